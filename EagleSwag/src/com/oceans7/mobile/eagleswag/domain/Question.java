@@ -82,7 +82,7 @@ public abstract class Question {
 	 * @param usedCount
 	 *            The used count of the question.
 	 */
-	public Question (Integer id, String text, Integer yesValue, Integer noValue, Integer usedCount) {
+	public Question (int id, String text, int yesValue, int noValue, int usedCount) {
 
 		// Set the initial values of the question
 		this.setId(id);
@@ -0,0 +1,276 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.domain;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oceans7.mobile.eagleswag.domain.questions.EngineeringQuestion;
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.domain.questions.PilotQuestion;
+
+/**
+ * Registry of the question factories used to create each type of question,
+ * keyed by the class of the question. Factories for the question types of the
+ * application are registered when the registry is created, and create questions
+ * by directly invoking the constructor of the question type. A factory for a
+ * question type that has not been registered is created the first time the
+ * factory for the type is requested: the constructor of the question type is
+ * resolved (through reflection) once and the factory is registered for all
+ * subsequent requests.
+ * 
+ * @author Justin Albano
+ */
+public class QuestionFactories {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * Singleton instance of the registry.
+	 */
+	private static QuestionFactories instance;
+
+	/**
+	 * The registered factories, keyed by the class of the question.
+	 */
+	private Map<Class<? extends Question>, QuestionFactory<? extends Question>> factories;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Hidden constructor (for singleton). Registers the factories for the
+	 * question types of the application.
+	 */
+	private QuestionFactories () {
+
+		// Create the registry
+		this.factories = new ConcurrentHashMap<Class<? extends Question>, QuestionFactory<? extends Question>>();
+
+		// Register the general question factory
+		this.register(GeneralQuestion.class, new QuestionFactory<GeneralQuestion>() {
+
+			@Override
+			public GeneralQuestion create (int id, String text, int yesValue, int noValue, int usedCount) {
+				return new GeneralQuestion(id, text, yesValue, noValue, usedCount);
+			}
+		});
+
+		// Register the engineering question factory
+		this.register(EngineeringQuestion.class, new QuestionFactory<EngineeringQuestion>() {
+
+			@Override
+			public EngineeringQuestion create (int id, String text, int yesValue, int noValue, int usedCount) {
+				return new EngineeringQuestion(id, text, yesValue, noValue, usedCount);
+			}
+		});
+
+		// Register the pilot question factory
+		this.register(PilotQuestion.class, new QuestionFactory<PilotQuestion>() {
+
+			@Override
+			public PilotQuestion create (int id, String text, int yesValue, int noValue, int usedCount) {
+				return new PilotQuestion(id, text, yesValue, noValue, usedCount);
+			}
+		});
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains a singleton instance of the question factory registry.
+	 * 
+	 * @return
+	 *         A singleton instance of the question factory registry.
+	 */
+	public static synchronized QuestionFactories getInstance () {
+
+		if (instance == null) {
+			// Lazy instantiation of the instance
+			instance = new QuestionFactories();
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Registers the factory used to create a type of question, replacing any
+	 * factory previously registered for the type.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 * @param factory
+	 *            The factory used to create questions of the type.
+	 */
+	public <T extends Question> void register (Class<T> key, QuestionFactory<T> factory) {
+		this.factories.put(key, factory);
+	}
+
+	/**
+	 * Obtains the question types for which a factory has been registered
+	 * (including the types registered the first time their factory was
+	 * requested).
+	 * 
+	 * @return
+	 *         The registered question types.
+	 */
+	public Set<Class<? extends Question>> getRegisteredTypes () {
+		return new HashSet<Class<? extends Question>>(this.factories.keySet());
+	}
+
+	/**
+	 * Obtains the factory used to create a type of question. If no factory has
+	 * been registered for the type, a factory that invokes the constructor of
+	 * the type is created and registered.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 * @return
+	 *         The factory used to create questions of the type.
+	 * @throws IllegalArgumentException
+	 *             The question type does not have a constructor accepting the
+	 *             question data.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Question> QuestionFactory<T> getFactory (Class<T> key) {
+
+		// Obtain the registered factory (the registry ensures that the factory
+		// registered for a key creates questions of the key type)
+		QuestionFactory<T> factory = (QuestionFactory<T>) this.factories.get(key);
+
+		if (factory == null) {
+			// Resolve the constructor of the type once and register it
+			factory = new ConstructorQuestionFactory<T>(key);
+			this.factories.put(key, factory);
+		}
+
+		return factory;
+	}
+
+	/**
+	 * Creates a question of the supplied type from the question data. This is
+	 * a convenience method for obtaining the factory for the type and creating
+	 * a single question; when creating many questions of the same type, the
+	 * factory should be obtained once through {@link #getFactory(Class)}.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 * @param id
+	 *            The ID of the question.
+	 * @param text
+	 *            The text of the question.
+	 * @param yesValue
+	 *            The yes value of the question.
+	 * @param noValue
+	 *            The no value of the question.
+	 * @param usedCount
+	 *            The used count of the question.
+	 * @return
+	 *         The new question.
+	 */
+	public <T extends Question> T create (Class<T> key, int id, String text, int yesValue, int noValue, int usedCount) {
+		return this.getFactory(key).create(id, text, yesValue, noValue, usedCount);
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * Factory for question types that have not been registered. The
+	 * constructor of the question type (accepting either primitive or boxed
+	 * question data) is resolved once, when the factory is created.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class ConstructorQuestionFactory<T extends Question> implements QuestionFactory<T> {
+
+		/**
+		 * The resolved constructor of the question type.
+		 */
+		private final Constructor<T> constructor;
+
+		/**
+		 * Resolves the constructor of the question type.
+		 * 
+		 * @param key
+		 *            The class of the question type.
+		 * @throws IllegalArgumentException
+		 *             The question type does not have a constructor accepting
+		 *             the question data.
+		 */
+		public ConstructorQuestionFactory (Class<T> key) {
+
+			// The resolved constructor
+			Constructor<T> resolved;
+
+			try {
+				// Prefer the constructor accepting primitive question data
+				resolved = key.getDeclaredConstructor(int.class, String.class, int.class, int.class, int.class);
+			}
+			catch (NoSuchMethodException e) {
+
+				try {
+					// Fall back to the constructor accepting boxed question data
+					resolved = key.getDeclaredConstructor(Integer.class, String.class, Integer.class, Integer.class, Integer.class);
+				}
+				catch (NoSuchMethodException e2) {
+					throw new IllegalArgumentException("No question data constructor found for " + key.getName(), e2);
+				}
+			}
+
+			// Store the resolved constructor
+			resolved.setAccessible(true);
+			this.constructor = resolved;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see com.oceans7.mobile.eagleswag.domain.QuestionFactory#create(int,
+		 *      java.lang.String, int, int, int)
+		 */
+		@Override
+		public T create (int id, String text, int yesValue, int noValue, int usedCount) {
+
+			try {
+				// Invoke the resolved constructor
+				return this.constructor.newInstance(id, text, yesValue, noValue, usedCount);
+			}
+			catch (InstantiationException e) {
+				throw new IllegalStateException("Could not instantiate " + this.constructor.getDeclaringClass().getName(), e);
+			}
+			catch (IllegalAccessException e) {
+				throw new IllegalStateException("Could not access the constructor of " + this.constructor.getDeclaringClass().getName(), e);
+			}
+			catch (InvocationTargetException e) {
+				throw new IllegalStateException("Constructor of " + this.constructor.getDeclaringClass().getName() + " failed", e.getCause());
+			}
+		}
+	}
+}
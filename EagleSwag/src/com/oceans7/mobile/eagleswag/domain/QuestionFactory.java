@@ -0,0 +1,55 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.domain;
+
+/**
+ * A factory that creates questions of a single type from the question data
+ * (such as the data stored in a row of a database table or in a data file).
+ * Questions are created directly from the primitive question data, without
+ * the use of reflection.
+ * 
+ * @author Justin Albano
+ * 
+ * @param <T>
+ *            The type of the questions created by the factory.
+ */
+public interface QuestionFactory<T extends Question> {
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Creates a question from the question data.
+	 * 
+	 * @param id
+	 *            The ID of the question.
+	 * @param text
+	 *            The text of the question.
+	 * @param yesValue
+	 *            The yes value of the question.
+	 * @param noValue
+	 *            The no value of the question.
+	 * @param usedCount
+	 *            The used count of the question.
+	 * @return
+	 *         The new question.
+	 */
+	public T create (int id, String text, int yesValue, int noValue, int usedCount);
+}
@@ -18,11 +18,16 @@
 
 package com.oceans7.mobile.eagleswag.domain;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
-
+import java.util.List;
 
 import android.content.Context;
-import android.util.Log;
+
+import com.oceans7.mobile.eagleswag.persistence.DataController;
+import com.oceans7.mobile.eagleswag.persistence.DataControllers;
+import com.oceans7.mobile.eagleswag.persistence.SaveListener;
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * A round of questions. This round is started when a set of questions is
@@ -90,8 +95,7 @@ public class Round {
 		this.questionsAnsweredYes.add(question);
 
 		// Log the submitted questions as having been answered yes
-		Log.i(this.getClass().getName(),
-			"Answered questions as 'yes' for [" + question.getYesPointValue() + "] points: " + question.getQuestionString());
+		Logger.i(this.getClass().getName(), "Answered questions as 'yes' for [{}] points: {}", question.getYesPointValue(), question.getQuestionString());
 	}
 
 	/**
@@ -105,8 +109,7 @@ public class Round {
 		this.questionsAnsweredNo.add(question);
 
 		// Log the submitted questions as having been answered no
-		Log.i(this.getClass().getName(),
-			"Answered questions as 'no' for [" + question.getNoPointValue() + "] points: " + question.getQuestionString());
+		Logger.i(this.getClass().getName(), "Answered questions as 'no' for [{}] points: {}", question.getNoPointValue(), question.getQuestionString());
 	}
 
 	/**
@@ -150,9 +153,11 @@ public class Round {
 			runningTotal += question.getYesPointValue();
 			totalPossiblePoints += Math.max(question.getYesPointValue(), question.getNoPointValue());
 
-			Log.i(this.getClass().getName(),
-				"Calculating possible points between [" + question.getYesPointValue() + "] [" + question.getNoPointValue() + "]: " + "[" + Math.max(question.getYesPointValue(),
-					question.getNoPointValue()) + "]");
+			if (Logger.isLoggable(Logger.INFO)) {
+				// Log the possible points (only computed if logged)
+				Logger.i(this.getClass().getName(), "Calculating possible points between [{}] [{}]: [{}]", question.getYesPointValue(), question.getNoPointValue(),
+					Math.max(question.getYesPointValue(), question.getNoPointValue()));
+			}
 		}
 
 		for (Question question : this.questionsAnsweredNo) {
@@ -160,9 +165,11 @@ public class Round {
 			runningTotal += question.getNoPointValue();
 			totalPossiblePoints += Math.max(question.getYesPointValue(), question.getNoPointValue());
 
-			Log.i(this.getClass().getName(),
-				"Calculating possible points between [" + question.getYesPointValue() + "] [" + question.getNoPointValue() + "]: " + "[" + Math.max(question.getYesPointValue(),
-					question.getNoPointValue()) + "]");
+			if (Logger.isLoggable(Logger.INFO)) {
+				// Log the possible points (only computed if logged)
+				Logger.i(this.getClass().getName(), "Calculating possible points between [{}] [{}]: [{}]", question.getYesPointValue(), question.getNoPointValue(),
+					Math.max(question.getYesPointValue(), question.getNoPointValue()));
+			}
 		}
 
 		if ((this.getNumberOfYesQuestions() + this.getNumberOfNoQuestions()) > 0) {
@@ -170,7 +177,7 @@ public class Round {
 			// questions answered). If there were no questions answered, the
 			// possible points would be 0, and the score would be NaN
 			int score = (int) Math.round((runningTotal / totalPossiblePoints) * 100);
-			Log.i(this.getClass().getName(), "Score for round: " + score);
+			Logger.i(this.getClass().getName(), "Score for round: {}", score);
 
 			// Set the score for the round
 			this.score = new Score(this.type, score);
@@ -192,32 +199,85 @@ public class Round {
 	 */
 	public void save (Context context) {
 
-		for (Question question : this.questionsAnsweredYes) {
-			// Iterate through the 'yes' questions and save each
-
-			// Increment the question used count and save the question
-			question.incrementUsedCount();
-			question.save(context);
+		// Obtain a reference to a data controller and open the controller
+		DataController controller = DataControllers.getInstance().getDataController(context);
 
-			// Log the saved question
-			Log.i(this.getClass().getName(), "Incremented used count and saved question: " + question);
+		try {
+			// Save the round using the data controller
+			this.save(controller);
+		}
+		finally {
+			// Close the controller
+			controller.close();
 		}
+	}
 
-		for (Question question : this.questionsAnsweredNo) {
-			// Iterate through the 'no' questions and save each
+	/**
+	 * Save the questions and the score for the round using an open data
+	 * controller. Before saving each question, the used count for each question
+	 * is incremented to reflect its use. The questions and the score are saved
+	 * together as a single unit.
+	 * 
+	 * @param controller
+	 *            The open data controller used to save the round.
+	 */
+	public void save (DataController controller) {
 
-			// Increment the question used count and save the question
-			question.incrementUsedCount();
-			question.save(context);
+		// Increment the used count of each of the questions used in the round
+		List<Question> questions = this.incrementUsedCounts();
 
-			// Log the saved question
-			Log.i(this.getClass().getName(), "Incremented used count and saved question: " + question);
-		}
+		// Save the questions and the score (if the score is set) together
+		controller.saveRound(questions, this.score, (this.score != null) ? this.score.getType() : null);
+
+		// Log the saved round
+		Logger.i(this.getClass().getName(), "Incremented used count and saved {} question(s) for the round", questions.size());
+	}
 
-		if (this.score != null) {
-			// Save score object if a strategy is provided and the score is set
-			this.score.save(context);
+	/**
+	 * Save the questions and the score for the round in the background, using
+	 * an open data controller (see {@link #save(DataController)}). The used
+	 * count of each question is incremented before this method returns; the
+	 * questions and the score are saved after this method returns, after
+	 * which the supplied listener is notified. The data controller must not be
+	 * closed until the listener has been notified.
+	 * 
+	 * @param controller
+	 *            The open data controller used to save the round.
+	 * @param listener
+	 *            The listener notified once the round has been saved; null if
+	 *            no notification is required.
+	 */
+	public void save (DataController controller, SaveListener listener) {
+
+		// Increment the used count of each of the questions used in the round
+		List<Question> questions = this.incrementUsedCounts();
+
+		// Submit the questions and the score (if the score is set) together
+		controller.saveRound(questions, this.score, (this.score != null) ? this.score.getType() : null, listener);
+
+		// Log the submitted round
+		Logger.i(this.getClass().getName(), "Incremented used count and submitted {} question(s) for the round", questions.size());
+	}
+
+	/**
+	 * Increments the used count of each of the questions used in the round.
+	 * 
+	 * @return
+	 *         The questions used in the round.
+	 */
+	private List<Question> incrementUsedCounts () {
+
+		// The questions used in the round
+		List<Question> questions = new ArrayList<Question>(this.questionsAnsweredYes.size() + this.questionsAnsweredNo.size());
+		questions.addAll(this.questionsAnsweredYes);
+		questions.addAll(this.questionsAnsweredNo);
+
+		for (Question question : questions) {
+			// Increment the used count of each question
+			question.incrementUsedCount();
 		}
+
+		return questions;
 	}
 
 	/***************************************************************************
@@ -22,6 +22,11 @@ import java.util.List;
 
 import android.content.Context;
 
+import com.oceans7.mobile.eagleswag.persistence.DataController;
+import com.oceans7.mobile.eagleswag.persistence.DataControllers;
+import com.oceans7.mobile.eagleswag.persistence.SaveListener;
+import com.oceans7.mobile.eagleswag.util.Logger;
+
 /**
  * Manages a current round of questions. This manage begins by starting a round.
  * Next, the current question is retrieved by the external user. The external
@@ -37,6 +42,12 @@ public class RoundController {
 	 * Attributes
 	 **************************************************************************/
 
+	/**
+	 * The maximum time (in milliseconds) that starting a round waits for the
+	 * rounds previously ended to be saved.
+	 */
+	private static final long PENDING_SAVE_TIMEOUT = 10000;
+
 	/**
 	 * Context used to save the current round when a round is completed.
 	 */
@@ -67,6 +78,19 @@ public class RoundController {
 	 */
 	private boolean hasRoundBeenStarted;
 
+	/**
+	 * The data controller held open for the duration of the current round.
+	 * Holding the data controller ensures that the persistent storage is not
+	 * closed and reopened each time the round accesses it. Once the round has
+	 * been ended, the data controller is held until the round has been saved.
+	 */
+	private DataController dataController;
+
+	/**
+	 * Flag to track if the round controller has been closed.
+	 */
+	private boolean closed;
+
 	/***************************************************************************
 	 * Constructors
 	 **************************************************************************/
@@ -93,15 +117,38 @@ public class RoundController {
 
 	/**
 	 * Start a new round for pilots. This initializes the current round and
-	 * obtains questions for a pilot.
+	 * obtains questions for a pilot. If the questions for a round of the
+	 * supplied type have been prefetched (see {@link RoundPrefetcher}) and are
+	 * still current, the prefetched questions are used.
 	 * 
 	 * @param type
 	 *            The type of round to start.
+	 * @throws IllegalStateException
+	 *             The round controller has been closed.
 	 */
 	public synchronized void startRound (RoundType type) {
 
-		// Obtain the questions from the supplied strategy
-		this.currentQuestions = type.getQuestions(this.context);
+		if (this.closed) {
+			// The round controller no longer holds persistent storage
+			throw new IllegalStateException("The round controller has been closed");
+		}
+
+		if (this.dataController == null) {
+			// Hold the data controller open for the duration of the round
+			this.dataController = DataControllers.getInstance().getDataController(this.context);
+		}
+
+		// Wait for the rounds previously ended to be saved, so that the
+		// questions are selected using their saved used counts
+		this.dataController.flush(PENDING_SAVE_TIMEOUT);
+
+		// Use the prefetched questions for the round if they are current
+		this.currentQuestions = RoundPrefetcher.getInstance().take(type, this.dataController);
+
+		if (this.currentQuestions == null) {
+			// Obtain the questions from the supplied strategy
+			this.currentQuestions = type.getQuestions(this.context);
+		}
 
 		// Create new round object
 		this.currentRound = new Round(type);
@@ -184,15 +231,37 @@ public class RoundController {
 	}
 
 	/**
-	 * Ends the current round. This saves the data for the current round and
-	 * destroys the current round and current set of questions.
+	 * Ends the current round. This calculates the score for the current round,
+	 * submits the current round to be saved in the background (see
+	 * {@link Round#save(DataController, SaveListener)}) and destroys the
+	 * current round and current set of questions. No data is written to
+	 * persistent storage by the calling thread. Once the
+	 * round has been saved, the questions for the next round of the same type
+	 * are prefetched in the background (see {@link RoundPrefetcher}).
 	 * 
 	 * @return
 	 *         The score for the current round.
 	 * @throws RoundNotStartedException
 	 *             A round has not been started.
 	 */
-	public synchronized int endRound () throws RoundNotStartedException {
+	public int endRound () throws RoundNotStartedException {
+		return this.endRound(null);
+	}
+
+	/**
+	 * Ends the current round (see {@link #endRound()}), notifying the supplied
+	 * listener once the round has been saved.
+	 * 
+	 * @param listener
+	 *            The listener notified (on the thread that saved the round)
+	 *            once the round has been saved; null if no notification is
+	 *            required.
+	 * @return
+	 *         The score for the current round.
+	 * @throws RoundNotStartedException
+	 *             A round has not been started.
+	 */
+	public synchronized int endRound (final RoundSaveListener listener) throws RoundNotStartedException {
 
 		if (!this.hasRoundBeenStarted) {
 			// A round has not be started yet
@@ -203,8 +272,55 @@ public class RoundController {
 			// Record the score for the round
 			int score = this.currentRound.calculateScore();
 
-			// Save the current round
-			this.currentRound.save(this.context);
+			// Save the current round in the background, holding the data
+			// controller of the round until the save completes
+			final Context context = this.context;
+			final RoundType type = this.currentStrategy;
+			final DataController dataController = this.dataController;
+			final Round round = this.currentRound;
+			this.dataController = null;
+
+			final SaveListener saveListener = new SaveListener() {
+
+				@Override
+				public void saved () {
+
+					try {
+						// Prefetch the next round of the same type (the
+						// questions of the next round depend on the used
+						// counts saved for this round)
+						RoundPrefetcher.getInstance().prefetch(context, type);
+					}
+					finally {
+						// Release the data controller held for the round
+						dataController.close();
+					}
+
+					if (listener != null) {
+						listener.saved(round);
+					}
+				}
+
+				@Override
+				public void failed (RuntimeException e) {
+
+					// Release the data controller held for the round
+					dataController.close();
+
+					if (listener != null) {
+						listener.failed(round, e);
+					}
+				}
+			};
+
+			try {
+				round.save(dataController, saveListener);
+			}
+			catch (RuntimeException e) {
+				// The round could not be submitted to be saved
+				Logger.e(this.getClass().getName(), "Failed to save round: {}", e);
+				saveListener.failed(e);
+			}
 
 			// Destroy the current round and set of questions
 			this.currentRound = null;
@@ -220,6 +336,31 @@ public class RoundController {
 		}
 	}
 
+	/**
+	 * Closes the round controller. The current round (if any) is abandoned
+	 * without being saved, and the data controller held for the round is
+	 * released; the rounds already ended are still saved in the background.
+	 * No round can be started once the round controller has been closed. This
+	 * method waits for a round that is being started, and must therefore not be
+	 * called on the UI thread.
+	 */
+	public synchronized void close () {
+
+		// Abandon the current round
+		this.currentRound = null;
+		this.currentQuestions = null;
+		this.currentQuestion = null;
+		this.currentStrategy = null;
+		this.hasRoundBeenStarted = false;
+		this.closed = true;
+
+		if (this.dataController != null) {
+			// Release the data controller held for the round
+			this.dataController.close();
+			this.dataController = null;
+		}
+	}
+
 	/***************************************************************************
 	 * Getters & Setters
 	 **************************************************************************/
@@ -0,0 +1,309 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.domain;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import android.content.Context;
+
+import com.oceans7.mobile.eagleswag.persistence.DataController;
+import com.oceans7.mobile.eagleswag.persistence.DataControllers;
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * Assembles the questions for the next round of a round type in the
+ * background, so that the round can be started without waiting for its
+ * questions to be obtained from persistent storage. A single round is
+ * prefetched at a time: prefetching a round discards any round previously
+ * prefetched.
+ * <p/>
+ * A prefetched round is only handed out while it is still current: the version
+ * of the stored questions (see {@link DataController#getQuestionsVersion()})
+ * is recorded when the questions are obtained, and the prefetched round is
+ * discarded if the version has changed by the time the round is taken (for
+ * example, because the used counts of the questions were incremented by a
+ * saved round). Since saving a round changes the used counts of its questions,
+ * the next round should be prefetched once the current round has been saved.
+ * 
+ * @author Justin Albano
+ */
+public class RoundPrefetcher {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * Singleton instance of the prefetcher.
+	 */
+	private static RoundPrefetcher instance;
+
+	/**
+	 * The executor that obtains the questions for the prefetched rounds (a
+	 * single background thread).
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The class of the round type of the prefetched round; null if no round
+	 * has been prefetched.
+	 */
+	private Class<? extends RoundType> prefetchedType;
+
+	/**
+	 * The prefetched round (which may not yet have been assembled); null if no
+	 * round has been prefetched.
+	 */
+	private Future<PrefetchedRound> prefetched;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Hidden constructor (for singleton).
+	 */
+	private RoundPrefetcher () {
+
+		// Prefetch on a single daemon thread, so that prefetching never keeps
+		// the application alive
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread (Runnable runnable) {
+				Thread thread = new Thread(runnable, "RoundPrefetcher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains a singleton instance of the prefetcher.
+	 * 
+	 * @return
+	 *         A singleton instance of the prefetcher.
+	 */
+	public static synchronized RoundPrefetcher getInstance () {
+
+		if (instance == null) {
+			// Lazily create the instance
+			instance = new RoundPrefetcher();
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Begins assembling the questions for the next round of the supplied type
+	 * in the background. Any round previously prefetched is discarded.
+	 * 
+	 * @param context
+	 *            The context used to obtain the questions from persistent
+	 *            storage (only held until the questions have been obtained).
+	 * @param type
+	 *            The type of the round to prefetch.
+	 */
+	public synchronized void prefetch (final Context context, final RoundType type) {
+
+		// Discard the round previously prefetched
+		this.discard();
+
+		// Assemble the round in the background
+		this.prefetchedType = type.getClass();
+		this.prefetched = this.executor.submit(new Callable<PrefetchedRound>() {
+
+			@Override
+			public PrefetchedRound call () throws Exception {
+
+				// Obtain a data controller for the prefetch
+				DataController dataController = DataControllers.getInstance().getDataController(context);
+
+				try {
+					// Obtain the questions, recording the version of the
+					// stored questions they are based on
+					long version = dataController.getQuestionsVersion();
+					List<Question> questions = dataController.getRoundQuestions(type);
+
+					if (dataController.getQuestionsVersion() != version) {
+						// The questions changed while they were obtained
+						Logger.i(RoundPrefetcher.class.getName(), "Questions changed while prefetching a round of type {}", type.getName());
+						return null;
+					}
+
+					Logger.i(RoundPrefetcher.class.getName(), "Prefetched ({}) questions for a round of type {}", questions.size(), type.getName());
+					return new PrefetchedRound(questions, version);
+				}
+				finally {
+					// Release the data controller
+					dataController.close();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Takes the prefetched round for the supplied round type, waiting for the
+	 * round to be assembled if it is still being prefetched. The prefetched
+	 * round is removed from the prefetcher, whether or not it is handed out.
+	 * 
+	 * @param type
+	 *            The type of the round to start.
+	 * @param dataController
+	 *            The data controller used to ensure that the prefetched round
+	 *            is still current.
+	 * @return
+	 *         The shuffled questions for the round; null if no round of the
+	 *         supplied type has been prefetched or if the prefetched round is
+	 *         no longer current.
+	 */
+	public List<Question> take (RoundType type, DataController dataController) {
+
+		// Remove the prefetched round
+		Class<? extends RoundType> prefetchedType;
+		Future<PrefetchedRound> prefetched;
+
+		synchronized (this) {
+			prefetchedType = this.prefetchedType;
+			prefetched = this.prefetched;
+			this.prefetchedType = null;
+			this.prefetched = null;
+		}
+
+		if (prefetched == null || prefetchedType != type.getClass()) {
+			// No round of the type has been prefetched
+			return null;
+		}
+
+		try {
+			// Wait for the round to be assembled
+			PrefetchedRound round = prefetched.get();
+
+			if (round == null || round.version != dataController.getQuestionsVersion()) {
+				// The questions have changed since the round was assembled
+				Logger.i(this.getClass().getName(), "Discarded stale prefetched round of type {}", type.getName());
+				return null;
+			}
+
+			return round.questions;
+		}
+		catch (InterruptedException e) {
+			// Restore the interrupt and obtain the questions directly
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		catch (ExecutionException e) {
+			// The round could not be prefetched
+			Logger.w(this.getClass().getName(), "Failed to prefetch a round of type {}: {}", type.getName(), e.getCause());
+			return null;
+		}
+		catch (CancellationException e) {
+			// The prefetch was discarded while waiting
+			return null;
+		}
+	}
+
+	/**
+	 * Checks whether a round of the supplied type has been prefetched and has
+	 * finished being assembled (it may still be found to be stale when taken).
+	 * 
+	 * @param type
+	 *            The round type.
+	 * @return
+	 *         True if an assembled round of the type is available; false
+	 *         otherwise.
+	 */
+	public synchronized boolean isPrefetched (RoundType type) {
+		return this.prefetched != null && this.prefetchedType == type.getClass() && this.prefetched.isDone();
+	}
+
+	/**
+	 * Discards the prefetched round, if any.
+	 */
+	public synchronized void invalidate () {
+		this.discard();
+	}
+
+	/***************************************************************************
+	 * Helper Methods
+	 **************************************************************************/
+
+	/**
+	 * Discards the prefetched round, cancelling the prefetch if the round has
+	 * not yet been assembled. The caller must hold the lock of the prefetcher.
+	 */
+	private void discard () {
+
+		if (this.prefetched != null) {
+			// Cancel the prefetch (without interrupting a running query)
+			this.prefetched.cancel(false);
+			this.prefetched = null;
+			this.prefetchedType = null;
+		}
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * The questions of a prefetched round, along with the version of the
+	 * stored questions the round was assembled from.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class PrefetchedRound {
+
+		/**
+		 * The shuffled questions for the round.
+		 */
+		private final List<Question> questions;
+
+		/**
+		 * The version of the stored questions when the questions were
+		 * obtained.
+		 */
+		private final long version;
+
+		/**
+		 * Creates a prefetched round.
+		 * 
+		 * @param questions
+		 *            The shuffled questions for the round.
+		 * @param version
+		 *            The version of the stored questions when the questions
+		 *            were obtained.
+		 */
+		public PrefetchedRound (List<Question> questions, long version) {
+			this.questions = questions;
+			this.version = version;
+		}
+	}
+}
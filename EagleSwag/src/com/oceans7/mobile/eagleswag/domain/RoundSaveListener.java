@@ -0,0 +1,53 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.domain;
+
+/**
+ * An interface for an observer of the completion of saving a round in the
+ * background (see {@link RoundController#endRound(RoundSaveListener)}). The
+ * listener is notified on the thread that saved the round, not on the thread
+ * that ended the round.
+ * 
+ * @author Justin Albano
+ */
+public interface RoundSaveListener {
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Called once the questions and score of a round have been saved to
+	 * persistent storage.
+	 * 
+	 * @param round
+	 *            The round that was saved.
+	 */
+	public void saved (Round round);
+
+	/**
+	 * Called if the round could not be saved to persistent storage.
+	 * 
+	 * @param round
+	 *            The round that could not be saved.
+	 * @param e
+	 *            The exception that prevented the round from being saved.
+	 */
+	public void failed (Round round, RuntimeException e);
+}
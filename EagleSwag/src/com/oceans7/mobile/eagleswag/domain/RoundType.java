@@ -43,6 +43,36 @@ public abstract class RoundType {
 	 */
 	public abstract List<Question> getQuestions (Context context);
 
+	/**
+	 * Gets the type (class) of the questions specific to the round type, which
+	 * are mixed with the general questions in a round.
+	 * 
+	 * @return
+	 *         The class of the specific questions for the round type.
+	 */
+	public abstract Class<? extends Question> getSpecificQuestionType ();
+
+	/**
+	 * Obtains the number of questions specific to the round type that are
+	 * included in a round.
+	 * 
+	 * @param context
+	 *            The context used to access the distribution configuration.
+	 * @return
+	 *         The number of specific questions in a round.
+	 */
+	public abstract int getSpecificQuestionCount (Context context);
+
+	/**
+	 * Obtains the number of general questions that are included in a round.
+	 * 
+	 * @param context
+	 *            The context used to access the distribution configuration.
+	 * @return
+	 *         The number of general questions in a round.
+	 */
+	public abstract int getGeneralQuestionCount (Context context);
+
 	/**
 	 * Gets the name of the round type.
 	 * 
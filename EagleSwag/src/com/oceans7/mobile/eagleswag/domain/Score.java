@@ -19,10 +19,10 @@
 package com.oceans7.mobile.eagleswag.domain;
 
 import android.content.Context;
-import android.util.Log;
 
 import com.oceans7.mobile.eagleswag.persistence.DataController;
 import com.oceans7.mobile.eagleswag.persistence.DataControllers;
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * A score for a round of questions. The type for a score uses convention over
@@ -114,7 +114,7 @@ public class Score {
 		controller.saveRoundScore(this, this.getType());
 
 		// Log the score at the time of saving
-		Log.i(this.getClass().getName(), "Saving score of " + this.getScore());
+		Logger.i(this.getClass().getName(), "Saving score of {}", this.getScore());
 
 		// Close the controller
 		controller.close();
@@ -43,7 +43,7 @@ public class EngineeringQuestion extends Question {
 	 * @param usedCount
 	 *            The used count of the question.
 	 */
-	public EngineeringQuestion (Integer id, String text, Integer yesValue, Integer noValue, Integer usedCount) {
+	public EngineeringQuestion (int id, String text, int yesValue, int noValue, int usedCount) {
 		super(id, text, yesValue, noValue, usedCount);
 	}
 
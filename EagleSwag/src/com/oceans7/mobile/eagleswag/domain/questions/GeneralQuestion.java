@@ -43,7 +43,7 @@ public class GeneralQuestion extends Question {
 	 * @param usedCount
 	 *            The used count of the question.
 	 */
-	public GeneralQuestion (Integer id, String text, Integer yesValue, Integer noValue, Integer usedCount) {
+	public GeneralQuestion (int id, String text, int yesValue, int noValue, int usedCount) {
 		super(id, text, yesValue, noValue, usedCount);
 	}
 
@@ -43,7 +43,7 @@ public class PilotQuestion extends Question {
 	 * @param usedCount
 	 *            The used count of the question.
 	 */
-	public PilotQuestion (Integer id, String text, Integer yesValue, Integer noValue, Integer usedCount) {
+	public PilotQuestion (int id, String text, int yesValue, int noValue, int usedCount) {
 		super(id, text, yesValue, noValue, usedCount);
 	}
 
@@ -54,6 +54,36 @@ public class EngineeringRoundType extends RoundType {
 		
 		// Create a delegate for obtaining questions from persistent storage
 		RoundTypeHelper delegate = new RoundTypeHelper();
-		return delegate.getQuestions(context, EngineeringQuestion.class, "engineer");
+		return delegate.getQuestions(context, this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.domain.RoundType#getSpecificQuestionType()
+	 */
+	@Override
+	public Class<? extends Question> getSpecificQuestionType () {
+		return EngineeringQuestion.class;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.domain.RoundType#getSpecificQuestionCount(android.content.Context)
+	 */
+	@Override
+	public int getSpecificQuestionCount (Context context) {
+		return RoundTypeHelper.getQuestionCount(context, "engineer", "specific");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.domain.RoundType#getGeneralQuestionCount(android.content.Context)
+	 */
+	@Override
+	public int getGeneralQuestionCount (Context context) {
+		return RoundTypeHelper.getQuestionCount(context, "engineer", "general");
 	}
 }
@@ -53,7 +53,37 @@ public class PilotRoundType extends RoundType {
 		
 		// Create a delegate for obtaining questions from persistent storage
 		RoundTypeHelper delegate = new RoundTypeHelper();
-		return delegate.getQuestions(context, PilotQuestion.class, "pilot");
+		return delegate.getQuestions(context, this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.domain.RoundType#getSpecificQuestionType()
+	 */
+	@Override
+	public Class<? extends Question> getSpecificQuestionType () {
+		return PilotQuestion.class;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.domain.RoundType#getSpecificQuestionCount(android.content.Context)
+	 */
+	@Override
+	public int getSpecificQuestionCount (Context context) {
+		return RoundTypeHelper.getQuestionCount(context, "pilot", "specific");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.domain.RoundType#getGeneralQuestionCount(android.content.Context)
+	 */
+	@Override
+	public int getGeneralQuestionCount (Context context) {
+		return RoundTypeHelper.getQuestionCount(context, "pilot", "general");
 	}
 
 	/**
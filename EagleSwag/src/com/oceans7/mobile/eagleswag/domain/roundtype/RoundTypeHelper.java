@@ -21,25 +21,23 @@ package com.oceans7.mobile.eagleswag.domain.roundtype;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
-import java.util.Queue;
 
 import android.content.Context;
-import android.util.Log;
 
 import com.oceans7.mobile.eagleswag.domain.Question;
-import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.domain.RoundType;
 import com.oceans7.mobile.eagleswag.persistence.DataController;
 import com.oceans7.mobile.eagleswag.persistence.DataControllers;
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * A delegate dedicated to encapsulating the logic for obtaining a combination
  * of specific type questions and general questions. Concrete strategies should
  * use this class as a delegate for implementing the getQuestions() method of
- * the RoundType interface.
+ * the RoundType interface, as well as for obtaining the number of each type of
+ * question in a round from the distribution configuration.
  * 
  * @author Justin Albano
  */
@@ -54,77 +52,122 @@ public class RoundTypeHelper {
 	 */
 	private static final String QUESTION_CONTROLLER_CONFIG_ASSET = "config/domain/question-distribution.cfg";
 
+	/**
+	 * The distribution configuration, read from the configuration asset the
+	 * first time the number of questions in a round is requested; null if the
+	 * configuration has not yet been read.
+	 */
+	private static Properties distribution;
+
 	/***************************************************************************
 	 * Methods
 	 **************************************************************************/
 
 	/**
-	 * A delegate method to obtain a queue containing a combination of general
-	 * and specific type questions. This method should be used to help create a
-	 * concrete implementation of a question strategy.
+	 * A delegate method to obtain a list containing a combination of general
+	 * and specific type questions. The questions of both types are obtained
+	 * from the data controller at once (see
+	 * {@link DataController#getRoundQuestions(RoundType)}). This method should
+	 * be used to help create a concrete implementation of a question strategy.
 	 * 
 	 * @param context
 	 *            The context used to access the questions stored in persistent
 	 *            storeage.
-	 * @param specificKey
-	 *            The type (class) of questions that should be mixed with the
-	 *            general questions in the collection of questions returned by
-	 *            this method.
-	 * @param propertiesKey
-	 *            The key used in the properties file that contains the
-	 *            distribution configuration data to specify the configuration
-	 *            data for the concrete question strategy implementing the
-	 *            RoundType interface.
+	 * @param type
+	 *            The round type, which specifies the type of the questions
+	 *            that should be mixed with the general questions and the
+	 *            number of questions of each type.
 	 * @return
-	 *         A list containing a combination of general questions, and
-	 *         questions of the class provided as the specificKey parameter.
+	 *         A shuffled list containing a combination of general questions,
+	 *         and questions of the specific type of the round type.
 	 */
-	public List<Question> getQuestions (Context context, Class<? extends Question> specificKey, String propertiesKey) {
-
-		// Create question list
-		List<Question> questionList = new LinkedList<Question>();
+	public List<Question> getQuestions (Context context, RoundType type) {
 
 		// Obtain the data controller from the data controller factory
 		DataController dataController = DataControllers.getInstance().getDataController(context);
 
 		try {
-			// Obtain the number of questions that "should" be loaded
-			Properties properties = new Properties();
-			InputStream is = context.getAssets().open(QUESTION_CONTROLLER_CONFIG_ASSET);
-			properties.load(is);
-			is.close();
+			// Obtain the shuffled questions for the round
+			return dataController.getRoundQuestions(type);
+		}
+		finally {
+			// Close the data controller
+			dataController.close();
+		}
+	}
 
-			// The number of specific topic questions that should be loaded
-			int specificCount = Integer.parseInt(properties.getProperty("questions.distribution." + propertiesKey + ".specific"));
-			Log.i(this.getClass().getName(), "(" + specificCount + ") topic specific questions should be loaded");
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
 
-			// The number of general questions that should be loaded
-			int generalQCount = Integer.parseInt(properties.getProperty("questions.distribution." + propertiesKey + ".general"));
-			Log.i(this.getClass().getName(), "(" + generalQCount + ") general questions should be loaded");
+	/**
+	 * Obtains the number of questions of a group (specific or general) that
+	 * should be included in a round, as configured in the distribution
+	 * configuration. The configuration is only read once.
+	 * 
+	 * @param context
+	 *            The context used to access the distribution configuration.
+	 * @param propertiesKey
+	 *            The key used in the properties file that contains the
+	 *            distribution configuration data to specify the configuration
+	 *            data for the concrete question strategy implementing the
+	 *            RoundType interface.
+	 * @param group
+	 *            The group of questions ("specific" or "general").
+	 * @return
+	 *         The number of questions of the group in a round; 0 if the
+	 *         configuration could not be read.
+	 */
+	public static int getQuestionCount (Context context, String propertiesKey, String group) {
 
-			// Obtain specific topic questions and add them to question queue
-			Queue<? extends Question> specificQuestions = dataController.getQuestions(specificKey, specificCount);
-			questionList.addAll(specificQuestions);
+		// Obtain the distribution configuration
+		Properties properties = getDistribution(context);
 
-			// Obtain the general questions and add them to the question queue
-			Queue<GeneralQuestion> generalQuestions = dataController.getQuestions(GeneralQuestion.class, generalQCount);
-			questionList.addAll(generalQuestions);
+		if (properties == null) {
+			// The configuration could not be read
+			return 0;
+		}
 
-			// Shuffle the list before returning it
-			Collections.shuffle(questionList);
+		// The number of questions that "should" be loaded
+		int count = Integer.parseInt(properties.getProperty("questions.distribution." + propertiesKey + "." + group));
+		Logger.i(RoundTypeHelper.class.getName(), "({}) {} {} questions should be loaded", count, propertiesKey, group);
 
-			// Return the correctly built list
-			return questionList;
-		}
-		catch (FileNotFoundException e) {
-			// The configuration file could not be found
-			Log.e(this.getClass().getName(), "Configuration file could not be found: " + e);
-			return null;
-		}
-		catch (IOException e) {
-			// IOException occurred while trying to access the properties file
-			Log.e(this.getClass().getName(), "IOException occurred while trying to access the confiuration file: " + e);
-			return null;
+		return count;
+	}
+
+	/**
+	 * Obtains the distribution configuration, reading it from the
+	 * configuration asset if it has not yet been read.
+	 * 
+	 * @param context
+	 *            The context used to access the configuration asset.
+	 * @return
+	 *         The distribution configuration; null if the configuration could
+	 *         not be read.
+	 */
+	private static synchronized Properties getDistribution (Context context) {
+
+		if (distribution == null) {
+
+			try {
+				// Read the configuration
+				Properties properties = new Properties();
+				InputStream is = context.getAssets().open(QUESTION_CONTROLLER_CONFIG_ASSET);
+				properties.load(is);
+				is.close();
+
+				distribution = properties;
+			}
+			catch (FileNotFoundException e) {
+				// The configuration file could not be found
+				Logger.e(RoundTypeHelper.class.getName(), "Configuration file could not be found: {}", e);
+			}
+			catch (IOException e) {
+				// IOException occurred while trying to access the properties file
+				Logger.e(RoundTypeHelper.class.getName(), "IOException occurred while trying to access the confiuration file: {}", e);
+			}
 		}
+
+		return distribution;
 	}
 }
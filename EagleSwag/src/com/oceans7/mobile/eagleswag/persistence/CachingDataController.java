@@ -0,0 +1,425 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import android.content.Context;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.RoundType;
+import com.oceans7.mobile.eagleswag.domain.Score;
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.LoadingListener;
+
+/**
+ * A data controller that decorates another data controller with a read-through
+ * cache of the stored questions (see {@link QuestionCache}). The first time the
+ * questions of a type are requested, all of the questions of the type that can
+ * be selected are read from the decorated data controller into the cache;
+ * subsequent requests select the least frequently used questions from the
+ * cache, without accessing the decorated data controller.
+ * <p/>
+ * All writes are made through the decorated data controller, and are then
+ * applied to the cache: saving a round increments the used counts of the
+ * cached questions, and saving a question replaces the cached data of the
+ * question. Loading or synchronizing the questions of a type invalidates the
+ * cached questions of the type. The scores are not cached by this data
+ * controller (the decorated data controller is expected to cache the scores
+ * itself, where necessary).
+ * 
+ * @author Justin Albano
+ */
+public class CachingDataController implements DataController {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The context used to obtain the distribution of the questions in a round.
+	 */
+	private final Context context;
+
+	/**
+	 * The decorated data controller.
+	 */
+	private final DataController delegate;
+
+	/**
+	 * The cache of the stored questions.
+	 */
+	private final QuestionCache cache;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Creates a caching data controller.
+	 * 
+	 * @param context
+	 *            The context used to obtain the distribution of the questions
+	 *            in a round.
+	 * @param delegate
+	 *            The decorated data controller.
+	 * @param cache
+	 *            The cache of the questions stored by the decorated data
+	 *            controller (commonly shared by all of the data controllers
+	 *            for the same storage).
+	 */
+	public CachingDataController (Context context, DataController delegate, QuestionCache cache) {
+		this.context = context;
+		this.delegate = delegate;
+		this.cache = cache;
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#close()
+	 */
+	@Override
+	public void close () {
+		this.delegate.close();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#loadQuestions(java.lang.Class)
+	 */
+	@Override
+	public <T extends Question> void loadQuestions (Class<T> key) {
+		this.delegate.loadQuestions(key);
+		this.cache.invalidate(key);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#loadAll()
+	 */
+	@Override
+	public int loadAll () {
+		int loaded = this.delegate.loadAll();
+		this.cache.invalidate();
+		return loaded;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#syncQuestions(java.lang.Class)
+	 */
+	@Override
+	public <T extends Question> int syncQuestions (Class<T> key) {
+
+		// Synchronize the stored questions
+		int changed = this.delegate.syncQuestions(key);
+
+		if (changed > 0) {
+			// Read the changed questions again when next requested
+			this.cache.invalidate(key);
+		}
+
+		return changed;
+	}
+
+	/**
+	 * The questions are selected from the cache. If the questions of the type
+	 * are not cached, all of the questions of the type are first read into the
+	 * cache from the decorated data controller (unless the questions of the
+	 * type do not fit in the cache, in which case the questions are obtained
+	 * directly from the decorated data controller). If the stored questions
+	 * are changed (for example, by a round saved on another thread) while the
+	 * questions are read into the cache, the questions read are discarded and
+	 * the questions are obtained directly from the decorated data controller;
+	 * the questions are read into the cache again by the next request.
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#getQuestions(java.lang.Class,
+	 *      int)
+	 */
+	@Override
+	public <T extends Question> Queue<T> getQuestions (Class<T> key, int number) {
+
+		if (number <= 0) {
+			// No questions requested
+			return new LinkedList<T>();
+		}
+
+		// Select the questions from the cache
+		Queue<T> questions = this.cache.getQuestions(key, number);
+
+		if (questions == null) {
+
+			if (!this.cache.isCacheable(key)) {
+				// The questions of the type do not fit in the cache
+				return this.delegate.getQuestions(key, number);
+			}
+
+			// Read all of the questions of the type into the cache, unless
+			// the questions changed while they were read
+			long generation = this.cache.getGeneration();
+			Queue<T> all = this.delegate.getQuestions(key, Integer.MAX_VALUE);
+
+			if (this.cache.put(key, all, generation)) {
+				questions = this.cache.getQuestions(key, number);
+			}
+
+			if (questions == null) {
+				// The questions did not fit in the cache (or changed while
+				// they were read)
+				return this.delegate.getQuestions(key, number);
+			}
+		}
+
+		return questions;
+	}
+
+	/**
+	 * The questions of both types are selected from the cache (reading them
+	 * into the cache first, if necessary). If the questions of either type do
+	 * not fit in the cache, the questions are obtained directly from the
+	 * decorated data controller.
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#getRoundQuestions(com.oceans7.mobile.eagleswag.domain.RoundType)
+	 */
+	@Override
+	public List<Question> getRoundQuestions (RoundType type) {
+
+		Class<? extends Question> specificKey = type.getSpecificQuestionType();
+
+		if (!this.cache.isCacheable(specificKey) || !this.cache.isCacheable(GeneralQuestion.class)) {
+			// The questions of the round do not fit in the cache
+			return this.delegate.getRoundQuestions(type);
+		}
+
+		// Select the questions of both types from the cache
+		Queue<? extends Question> specificQuestions = this.getQuestions(specificKey, type.getSpecificQuestionCount(this.context));
+		Queue<GeneralQuestion> generalQuestions = this.getQuestions(GeneralQuestion.class, type.getGeneralQuestionCount(this.context));
+
+		// Combine and shuffle the questions in place
+		List<Question> questions = new ArrayList<Question>(specificQuestions.size() + generalQuestions.size());
+		questions.addAll(specificQuestions);
+		questions.addAll(generalQuestions);
+		Collections.shuffle(questions);
+
+		return questions;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#getQuestionsVersion()
+	 */
+	@Override
+	public long getQuestionsVersion () {
+		return this.delegate.getQuestionsVersion();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#getTotalScore(java.lang.String)
+	 */
+	@Override
+	public int getTotalScore (String type) {
+		return this.delegate.getTotalScore(type);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#getAverageScore(java.lang.String)
+	 */
+	@Override
+	public int getAverageScore (String type) {
+		return this.delegate.getAverageScore(type);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#saveQuestion(java.lang.Class,
+	 *      com.oceans7.mobile.eagleswag.domain.Question)
+	 */
+	@Override
+	public void saveQuestion (Class<? extends Question> key, Question question) {
+		this.delegate.saveQuestion(key, question);
+		this.cache.update(key, question);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#saveRoundScore(com.oceans7.mobile.eagleswag.domain.Score,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void saveRoundScore (Score score, String type) {
+		this.delegate.saveRoundScore(score, type);
+	}
+
+	/**
+	 * No questions are read into the cache while the round is being saved (see
+	 * {@link QuestionCache#beginSave()}).
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#saveRound(java.util.List,
+	 *      com.oceans7.mobile.eagleswag.domain.Score, java.lang.String)
+	 */
+	@Override
+	public void saveRound (List<? extends Question> questions, Score score, String type) {
+
+		this.cache.beginSave();
+
+		try {
+			// Save the round and reflect the saved used counts in the cache
+			this.delegate.saveRound(questions, score, type);
+			this.cache.incrementUsedCounts(questions);
+		}
+		finally {
+			this.cache.endSave();
+		}
+	}
+
+	/**
+	 * The used counts of the cached questions are incremented once the round
+	 * has been saved, before the listener is notified. No questions are read
+	 * into the cache until then (see {@link QuestionCache#beginSave()}).
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#saveRound(java.util.List,
+	 *      com.oceans7.mobile.eagleswag.domain.Score, java.lang.String,
+	 *      com.oceans7.mobile.eagleswag.persistence.SaveListener)
+	 */
+	@Override
+	public void saveRound (final List<? extends Question> questions, Score score, String type, final SaveListener listener) {
+
+		this.cache.beginSave();
+
+		try {
+			this.delegate.saveRound(questions, score, type, new SaveListener() {
+
+				@Override
+				public void saved () {
+
+					// Reflect the saved used counts in the cache
+					cache.incrementUsedCounts(questions);
+					cache.endSave();
+
+					if (listener != null) {
+						listener.saved();
+					}
+				}
+
+				@Override
+				public void failed (RuntimeException e) {
+
+					cache.endSave();
+
+					if (listener != null) {
+						listener.failed(e);
+					}
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			// The round could not be submitted to be saved
+			this.cache.endSave();
+			throw e;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#flush(long)
+	 */
+	@Override
+	public boolean flush (long timeout) {
+		return this.delegate.flush(timeout);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#updateLoadingListeners(int,
+	 *      int)
+	 */
+	@Override
+	public void updateLoadingListeners (int total, int current) {
+		this.delegate.updateLoadingListeners(total, current);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#addLoadingListener(com.oceans7.mobile.eagleswag.persistence.sqlite.LoadingListener)
+	 */
+	@Override
+	public void addLoadingListener (LoadingListener listener) {
+		this.delegate.addLoadingListener(listener);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#removeLoadingListener(com.oceans7.mobile.eagleswag.persistence.sqlite.LoadingListener)
+	 */
+	@Override
+	public void removeLoadingListener (LoadingListener listener) {
+		this.delegate.removeLoadingListener(listener);
+	}
+
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         The decorated data controller.
+	 */
+	public DataController getDelegate () {
+		return this.delegate;
+	}
+
+	/**
+	 * @return
+	 *         The cache of the stored questions.
+	 */
+	public QuestionCache getCache () {
+		return this.cache;
+	}
+}
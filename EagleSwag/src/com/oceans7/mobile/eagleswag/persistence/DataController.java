@@ -18,9 +18,11 @@
 
 package com.oceans7.mobile.eagleswag.persistence;
 
+import java.util.List;
 import java.util.Queue;
 
 import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.RoundType;
 import com.oceans7.mobile.eagleswag.domain.Score;
 import com.oceans7.mobile.eagleswag.persistence.sqlite.LoadingListener;
 
@@ -47,6 +49,39 @@ public interface DataController {
 	
 	public <T extends Question> void loadQuestions (Class<T> key);
 
+	/**
+	 * Loads the questions of all of the question types that have a questions
+	 * data file (see
+	 * {@link DataFileParserStrategies#getQuestionTypes(android.content.Context)}
+	 * ). The questions of the types that have not yet been loaded are loaded
+	 * at once, the data files being parsed in parallel; the questions of the
+	 * other types are synchronized with their data files. The registered
+	 * loading listeners are notified of the progress of all of the types as a
+	 * single load. This allows all of the questions to be loaded in advance
+	 * (for example, on the first run of the application), rather than the
+	 * questions of each type being loaded the first time they are requested.
+	 * 
+	 * @return
+	 *         The number of questions loaded.
+	 */
+	public int loadAll ();
+
+	/**
+	 * Synchronizes the stored questions of the supplied type with the
+	 * questions data file for the type. Questions that are new to the data
+	 * file are added, questions whose point values have changed are updated,
+	 * and questions that have been removed from the data file are retired (no
+	 * longer obtained from the data controller). The used count of each of the
+	 * existing questions is kept. If no questions of the type are stored yet,
+	 * all of the questions are loaded from the data file.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 * @return
+	 *         The number of questions added, updated or retired.
+	 */
+	public <T extends Question> int syncQuestions (Class<T> key);
+
 	/**
 	 * Obtains a specified number of questions of the supplied type, T. The
 	 * generic parameter, T, specified the type of the questions returned from
@@ -67,6 +102,34 @@ public interface DataController {
 	 */
 	public <T extends Question> Queue<T> getQuestions (Class<T> key, int number);
 
+	/**
+	 * Obtains the questions for a round of the supplied type: the least
+	 * frequently used questions of the specific type of the round type and the
+	 * least frequently used general questions, in the numbers specified by the
+	 * round type. The questions of both types are obtained at once (for
+	 * example, in a single query), rather than with a separate
+	 * {@link #getQuestions(Class, int)} call for each type.
+	 * 
+	 * @param type
+	 *            The type of round to obtain the questions for.
+	 * @return
+	 *         A list (supporting random access) containing the specific and
+	 *         general questions for the round, in random order.
+	 */
+	public List<Question> getRoundQuestions (RoundType type);
+
+	/**
+	 * Obtains the version of the stored questions. The version changes each
+	 * time the stored questions, including the used count of any question, are
+	 * changed. Questions obtained from the data controller while the version
+	 * remains unchanged (for example, the questions for a round obtained in
+	 * advance) are therefore still current.
+	 * 
+	 * @return
+	 *         The version of the stored questions.
+	 */
+	public long getQuestionsVersion ();
+
 	/**
 	 * Obtains the total score (total number of points earned) for a specified
 	 * type. A type is essentially a key that groups saved rounds together. For
@@ -134,6 +197,77 @@ public interface DataController {
 	 */
 	public void saveRoundScore (Score score, String type);
 
+	/**
+	 * Saves the questions used in a round and the score for the round as a
+	 * single unit: either all of the questions and the score are saved, or none
+	 * of them are. Saving a question used in the round increments its used
+	 * count in persistent storage by one; the remainder of the question is not
+	 * modified. This is the preferred means of saving a completed round, as
+	 * the data for the entire round is written to persistent storage at once,
+	 * rather than once for each question and once for the score.<br />
+	 * <br />
+	 * <strong>Postconditions</strong>
+	 * <ul>
+	 * <li>The supplied questions and score are permanently saved in persistent
+	 * storage.</li>
+	 * </ul>
+	 * If the round cannot be saved, none of it is saved and a runtime exception
+	 * describing the failure is thrown.
+	 * 
+	 * @param questions
+	 *            The questions used in the round (the key of each question is
+	 *            the class of the question).
+	 * @param score
+	 *            The score for the round; null if no score should be saved.
+	 * @param type
+	 *            The type of the round that the score originated from (see
+	 *            {@link #saveRoundScore(Score, String)}).
+	 */
+	public void saveRound (List<? extends Question> questions, Score score, String type);
+
+	/**
+	 * Saves the questions used in a round and the score for the round as a
+	 * single unit (see {@link #saveRound(List, Score, String)}) in the
+	 * background. This method returns once the round has been submitted to be
+	 * saved; the supplied listener is notified once the round has been saved
+	 * (or could not be saved). The rounds submitted are saved in the order
+	 * they were submitted. The data controller must not be closed until the
+	 * listener has been notified.
+	 * 
+	 * @param questions
+	 *            The questions used in the round (the key of each question is
+	 *            the class of the question).
+	 * @param score
+	 *            The score for the round; null if no score should be saved.
+	 * @param type
+	 *            The type of the round that the score originated from (see
+	 *            {@link #saveRoundScore(Score, String)}).
+	 * @param listener
+	 *            The listener notified once the round has been saved; null if
+	 *            no notification is required.
+	 */
+	public void saveRound (List<? extends Question> questions, Score score, String type, SaveListener listener);
+
+	/**
+	 * Waits for all of the data submitted to be saved in the background (see
+	 * {@link #saveRound(List, Score, String, SaveListener)}) so far to be
+	 * saved. This method blocks, and must therefore not be called on the UI
+	 * thread.
+	 * <p/>
+	 * <strong>Note:</strong> the data submitted to be saved in the background
+	 * is only held in memory until it has been committed: the rounds not yet
+	 * committed are lost if the process is killed. The data controller should
+	 * therefore be flushed (on a background thread) when the application is
+	 * stopped.
+	 * 
+	 * @param timeout
+	 *            The maximum time (in milliseconds) to wait.
+	 * @return
+	 *         True if all of the data was saved within the timeout; false
+	 *         otherwise.
+	 */
+	public boolean flush (long timeout);
+
 	/**
 	 * Notifies all registered loading listeners of the data controller of an
 	 * update to the loading status of the controller.
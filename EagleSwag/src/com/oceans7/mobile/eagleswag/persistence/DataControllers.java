@@ -20,6 +20,9 @@ package com.oceans7.mobile.eagleswag.persistence;
 
 import android.content.Context;
 
+import com.oceans7.mobile.eagleswag.persistence.sqlite.LfuRetrievalStrategy;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.RetrievalStrategies;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager;
 import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController;
 
 /**
@@ -73,15 +76,52 @@ public class DataControllers {
 	 * @param context
 	 *            The context used to create the data controller.
 	 * @return
-	 *         The data controller (as specified by the data controller
-	 *         configuration file).
+	 *         The data controller (a caching data controller, see
+	 *         {@link #getCachingDataController(Context)}).
 	 */
 	public DataController getDataController (Context context) {
-		return this.getSqliteDataController(context);
+		return this.getCachingDataController(context);
 	}
 
 	/**
-	 * Creates an SQLite data controller.
+	 * Creates a caching data controller, which decorates an SQLite data
+	 * controller with the question cache shared by all of the data controllers
+	 * for the same database. Like the SQLite data controller, the caching data
+	 * controller must be closed once it is no longer needed. The question
+	 * cache only selects questions in least frequently used order: if the
+	 * configured retrieval strategy is not the LFU strategy, the questions
+	 * are not cached.
+	 * 
+	 * @param context
+	 *            The context used to create the data controller.
+	 * @return
+	 *         An instance of a caching data controller; the SQLite data
+	 *         controller itself if the database could not be opened or the
+	 *         retrieval strategy is not the LFU strategy.
+	 */
+	public DataController getCachingDataController (Context context) {
+
+		// Create the decorated data controller
+		SqliteDataController controller = this.getSqliteDataController(context);
+
+		if (controller.getDatabase() == null) {
+			// Nothing can be cached if the database could not be opened
+			return controller;
+		}
+
+		if (!(RetrievalStrategies.getInstance().getRetrieveQuestionsStrategy() instanceof LfuRetrievalStrategy)) {
+			// The cache cannot select the questions using the strategy
+			return controller;
+		}
+
+		return new CachingDataController(context, controller, QuestionCache.getInstance(controller.getDatabase().getPath()));
+	}
+
+	/**
+	 * Creates an SQLite data controller. The SQLite data controller is a
+	 * lightweight handle to the database shared by all SQLite data controllers
+	 * in the process; the data controller must be closed once it is no longer
+	 * needed, in order to release its reference to the shared database.
 	 * 
 	 * @param context
 	 *            The context used to create the SQLite data controller.
@@ -92,4 +132,17 @@ public class DataControllers {
 		return new SqliteDataController(context);
 	}
 
+	/**
+	 * Releases any memory held by the data controllers that is not required.
+	 * This method should be called when the application is asked to trim its
+	 * memory usage by the Android framework.
+	 * 
+	 * @param level
+	 *            The trim level supplied by the Android framework.
+	 */
+	public void trimMemory (int level) {
+		SqliteConnectionManager.getInstance().trimMemory(level);
+		QuestionCache.invalidateAll();
+	}
+
 }
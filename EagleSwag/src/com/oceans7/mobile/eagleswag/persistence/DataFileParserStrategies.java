@@ -18,9 +18,19 @@
 
 package com.oceans7.mobile.eagleswag.persistence;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
 import android.content.Context;
 
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactories;
+import com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileParserStrategy;
 import com.oceans7.mobile.eagleswag.persistence.parsers.JsonDataFileParserStrategy;
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * Factory for the creation of the data file parser strategies.
@@ -33,6 +43,12 @@ public class DataFileParserStrategies {
 	 * Attributes
 	 **************************************************************************/
 
+	/**
+	 * The directory containing the questions data files, relative to the
+	 * assets/ directory of the Android project structure.
+	 */
+	public static final String DATA_FILE_DIRECTORY = "data";
+
 	/**
 	 * Singleton instance of factory.
 	 */
@@ -68,7 +84,9 @@ public class DataFileParserStrategies {
 	}
 
 	/**
-	 * Obtains a data file parser strategy.
+	 * Obtains a data file parser strategy. The binary data file parser
+	 * strategy is preset, which parses the JSON data file for a question type
+	 * if no binary data file exists for the question type.
 	 * 
 	 * @param context
 	 *            The context used to access the data files.
@@ -77,7 +95,57 @@ public class DataFileParserStrategies {
 	 *         A preset data file parser strategy.
 	 */
 	public DataFileParserStrategy getDataFileParserStrategy (Context context) {
-		return this.getJsonDataFileParserStrategy(context);
+		return this.getBinaryDataFileParserStrategy(context);
+	}
+
+	/**
+	 * Discovers the question types that have a questions data file. A question
+	 * type has a data file if a factory is registered for the type (see
+	 * {@link QuestionFactories}) and a data file named after the simple class
+	 * name of the type (in any of the data file formats) exists in the data
+	 * file directory.
+	 * 
+	 * @param context
+	 *            The context used to access the data files.
+	 * @return
+	 *         The question types that have a data file, ordered by name.
+	 */
+	public List<Class<? extends Question>> getQuestionTypes (Context context) {
+
+		// The discovered question types
+		List<Class<? extends Question>> types = new ArrayList<Class<? extends Question>>();
+
+		try {
+			// Obtain the names of the data files
+			String[] files = context.getAssets().list(DATA_FILE_DIRECTORY);
+
+			for (Class<? extends Question> type : QuestionFactories.getInstance().getRegisteredTypes()) {
+
+				for (String file : files) {
+
+					if (file.startsWith(type.getSimpleName() + ".")) {
+						// A data file exists for the type
+						types.add(type);
+						break;
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			// The data file directory could not be listed
+			Logger.e(this.getClass().getName(), "Could not list the data files in '{}': {}", DATA_FILE_DIRECTORY, e);
+		}
+
+		// Order the types by name
+		Collections.sort(types, new Comparator<Class<? extends Question>>() {
+
+			@Override
+			public int compare (Class<? extends Question> lhs, Class<? extends Question> rhs) {
+				return lhs.getName().compareTo(rhs.getName());
+			}
+		});
+
+		return types;
 	}
 
 	/**
@@ -92,4 +160,17 @@ public class DataFileParserStrategies {
 	public JsonDataFileParserStrategy getJsonDataFileParserStrategy (Context context) {
 		return new JsonDataFileParserStrategy(context);
 	}
+
+	/**
+	 * Obtains a binary data file parser strategy.
+	 * 
+	 * @param context
+	 *            The context used to access the data files.
+	 * 
+	 * @return
+	 *         A binary data file parser strategy.
+	 */
+	public BinaryDataFileParserStrategy getBinaryDataFileParserStrategy (Context context) {
+		return new BinaryDataFileParserStrategy(context);
+	}
 }
@@ -52,4 +52,21 @@ public interface DataFileParserStrategy {
 	 *         provided.
 	 */
 	public <T extends Question> Queue<T> getQuestions (Class<T> key);
+
+	/**
+	 * Parses the questions from the data file for a specific question type,
+	 * supplying each question to the consumer as soon as it has been parsed.
+	 * Unlike {@link #getQuestions(Class)}, the questions are not collected, so
+	 * the memory required to parse the data file does not depend on the
+	 * number of questions in the data file.
+	 * 
+	 * @param key
+	 *            Specifies which question type to retrieve from the data file
+	 *            (see {@link #getQuestions(Class)}).
+	 * @param consumer
+	 *            The consumer the parsed questions are supplied to.
+	 * @return
+	 *         The number of questions supplied to the consumer.
+	 */
+	public <T extends Question> int parseQuestions (Class<T> key, QuestionConsumer<? super T> consumer);
 }
@@ -0,0 +1,678 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactories;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactory;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.LfuRetrievalStrategy;
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * An in-memory cache of the stored questions of each question type, used by
+ * the {@link CachingDataController}. The cache holds the data of each of the
+ * questions of a type that can be selected (the questions that have not been
+ * retired), and selects the least frequently used questions of a type in the
+ * same order as the database: by ascending used count, then by ascending ID.
+ * The cache therefore only replaces the {@link LfuRetrievalStrategy}; the
+ * questions are not cached if another retrieval strategy is configured (see
+ * {@link DataControllers#getCachingDataController(android.content.Context)}).
+ * <p/>
+ * The number of questions held by the cache is bounded by the capacity of the
+ * cache. When the questions of a type are added and the capacity is exceeded,
+ * the questions of the least recently used types are evicted. The questions of
+ * a type that cannot fit in the cache at all are never cached.
+ * <p/>
+ * A single cache is shared by the entire process for each database file
+ * (obtained through {@link #getInstance(String)}), which allows the questions
+ * to be kept between the short-lived data controllers. The cache must be kept
+ * consistent with the database by the data controller: any change made to the
+ * stored questions must either be applied to the cache or must invalidate the
+ * questions of the type. Since the questions of a type are read from the
+ * database without holding the lock of the cache, a change may be applied to
+ * the cache while the questions are being read (before they are held by the
+ * cache); such reads are detected through the generation of the cache (see
+ * {@link #put(Class, Collection, long)}) and are discarded. Likewise, the
+ * questions read while a round is being saved (between the commit of the
+ * round and the increment of its used counts in the cache) are discarded (see
+ * {@link #beginSave()}).
+ * 
+ * @author Justin Albano
+ */
+public class QuestionCache {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The default maximum number of questions held by a cache.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * The shared caches, keyed by the path of the database file.
+	 */
+	private static final Map<String, QuestionCache> instances = new HashMap<String, QuestionCache>();
+
+	/**
+	 * The cached questions of each type, in least recently used order.
+	 */
+	private final LinkedHashMap<Class<? extends Question>, Bank> banks;
+
+	/**
+	 * The types whose questions do not fit in the cache.
+	 */
+	private final Set<Class<? extends Question>> uncacheable;
+
+	/**
+	 * The maximum number of questions held by the cache.
+	 */
+	private int capacity;
+
+	/**
+	 * The number of questions held by the cache.
+	 */
+	private int size;
+
+	/**
+	 * The generation of the cache, incremented each time the stored questions
+	 * are changed through the cache (see {@link #getGeneration()}).
+	 */
+	private long generation;
+
+	/**
+	 * The number of rounds being saved whose used counts have not yet been
+	 * applied to the cache (see {@link #beginSave()}).
+	 */
+	private int pendingSaves;
+
+	/**
+	 * The number of times the questions of a type were found in the cache.
+	 */
+	private long hits;
+
+	/**
+	 * The number of times the questions of a type were not found in the cache.
+	 */
+	private long misses;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Creates an empty cache with the default capacity.
+	 */
+	public QuestionCache () {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param capacity
+	 *            The maximum number of questions held by the cache.
+	 */
+	public QuestionCache (int capacity) {
+		this.banks = new LinkedHashMap<Class<? extends Question>, Bank>(16, 0.75f, true);
+		this.uncacheable = new HashSet<Class<? extends Question>>();
+		this.capacity = capacity;
+	}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains the cache shared by the process for a database file, creating
+	 * the cache if it does not yet exist.
+	 * 
+	 * @param path
+	 *            The path of the database file.
+	 * @return
+	 *         The shared cache for the database file.
+	 */
+	public static QuestionCache getInstance (String path) {
+
+		synchronized (instances) {
+			// Obtain the cache for the database file
+			QuestionCache cache = instances.get(path);
+
+			if (cache == null) {
+				// Lazy instantiation of the cache for the database file
+				cache = new QuestionCache();
+				instances.put(path, cache);
+			}
+
+			return cache;
+		}
+	}
+
+	/**
+	 * Invalidates the shared cache for a database file (if one exists). This
+	 * must be called whenever the questions tables of the database are
+	 * created, dropped or changed by any means other than a caching data
+	 * controller.
+	 * 
+	 * @param path
+	 *            The path of the database file.
+	 */
+	public static void invalidate (String path) {
+
+		// The cache for the database file
+		QuestionCache cache;
+
+		synchronized (instances) {
+			// Obtain the cache for the database file
+			cache = instances.get(path);
+		}
+
+		if (cache != null) {
+			// Invalidate the cache if it exists
+			cache.invalidate();
+		}
+	}
+
+	/**
+	 * Removes all of the questions from all of the shared caches. This method
+	 * should be called when the application is asked to trim its memory usage;
+	 * the questions are read again from the database when next requested.
+	 */
+	public static void invalidateAll () {
+
+		synchronized (instances) {
+
+			for (QuestionCache cache : instances.values()) {
+				// Remove the questions of each of the caches
+				cache.invalidate();
+			}
+		}
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Checks if the questions of a type could be held by the cache. The
+	 * questions of a type cannot be held if they did not fit in the cache when
+	 * they were last added.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 * @return
+	 *         True if the questions of the type could be held by the cache.
+	 */
+	public synchronized boolean isCacheable (Class<? extends Question> key) {
+		return !this.uncacheable.contains(key);
+	}
+
+	/**
+	 * Selects the least frequently used questions of a type from the cache.
+	 * The questions are new question objects, created through the factory of
+	 * the type.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 * @param number
+	 *            The number of questions to select.
+	 * @return
+	 *         The selected questions (at most the number requested); null if
+	 *         the questions of the type are not held by the cache.
+	 */
+	public synchronized <T extends Question> Queue<T> getQuestions (Class<T> key, int number) {
+
+		// Obtain the cached questions of the type
+		Bank bank = this.banks.get(key);
+
+		if (bank == null) {
+			// The questions of the type are not cached
+			this.misses++;
+			return null;
+		}
+
+		this.hits++;
+
+		// Create the least frequently used questions
+		QuestionFactory<T> factory = QuestionFactories.getInstance().getFactory(key);
+		Queue<T> questions = new LinkedList<T>();
+
+		for (CachedQuestion cached : bank.select(number)) {
+			questions.add(factory.create((int) cached.id, cached.text, cached.yesValue, cached.noValue, cached.usedCount));
+		}
+
+		return questions;
+	}
+
+	/**
+	 * Adds the questions of a type to the cache, replacing any questions of
+	 * the type already held. The least recently used types are evicted until
+	 * the questions fit in the cache; if the questions cannot fit in the cache
+	 * at all, they are not added and the type is considered uncacheable until
+	 * the type is invalidated.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 * @param questions
+	 *            All of the questions of the type that can be selected.
+	 */
+	public synchronized void put (Class<? extends Question> key, Collection<? extends Question> questions) {
+		this.put(key, questions, this.generation);
+	}
+
+	/**
+	 * Adds the questions of a type to the cache (see
+	 * {@link #put(Class, Collection)}), provided that no changes have been
+	 * applied to the cache since the supplied generation was obtained. The
+	 * generation is obtained through {@link #getGeneration()} before the
+	 * questions are read from the database: if the questions have changed
+	 * since (for example, the used counts of a round saved by another thread
+	 * have been incremented), the questions read may not include the change,
+	 * and they are not added.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 * @param questions
+	 *            All of the questions of the type that can be selected.
+	 * @param generation
+	 *            The generation of the cache obtained before the questions
+	 *            were read.
+	 * @return
+	 *         True if the questions were added (or were found not to fit in
+	 *         the cache); false if the questions were discarded because the
+	 *         cache changed while they were read (or a round is being saved).
+	 */
+	public synchronized boolean put (Class<? extends Question> key, Collection<? extends Question> questions, long generation) {
+
+		if (generation != this.generation || this.pendingSaves > 0) {
+			// The questions may have changed since they were read
+			Logger.i(this.getClass().getName(), "Discarded questions of {} read while the questions changed", key.getSimpleName());
+			return false;
+		}
+
+		// Remove the questions of the type already held
+		this.invalidate(key);
+
+		if (questions.size() > this.capacity) {
+			// The questions do not fit in the cache
+			this.uncacheable.add(key);
+			Logger.i(this.getClass().getName(), "Questions of {} exceed the cache capacity ({} > {})", key.getSimpleName(), questions.size(), this.capacity);
+			return true;
+		}
+
+		// Copy the data of the questions
+		Bank bank = new Bank(questions);
+		this.banks.put(key, bank);
+		this.size += questions.size();
+
+		// Evict the least recently used types until the cache is within capacity
+		this.trimToCapacity();
+		return true;
+	}
+
+	/**
+	 * Marks the start of the save of a round. Until the save is ended (see
+	 * {@link #endSave()}), no questions are added to the cache: the questions
+	 * read while the round is being saved may already include the used counts
+	 * of the round, which are only applied to the cache once the round has
+	 * been saved (see {@link #incrementUsedCounts(Collection)}).
+	 */
+	public synchronized void beginSave () {
+
+		// The questions may be being read into the cache
+		this.pendingSaves++;
+		this.generation++;
+	}
+
+	/**
+	 * Marks the end of the save of a round (see {@link #beginSave()}), once
+	 * its used counts have been applied to the cache, or once the save has
+	 * failed.
+	 */
+	public synchronized void endSave () {
+
+		// Discard the questions read while the round was being saved
+		this.pendingSaves--;
+		this.generation++;
+	}
+
+	/**
+	 * Increments the used count of each of the supplied questions that is held
+	 * by the cache by one (as done by the data controller when a round is
+	 * saved).
+	 * 
+	 * @param questions
+	 *            The questions whose used counts are incremented (the type of
+	 *            each question is the class of the question).
+	 */
+	public synchronized void incrementUsedCounts (Collection<? extends Question> questions) {
+
+		// The questions may be being read into the cache
+		this.generation++;
+
+		for (Question question : questions) {
+			// Increment the used count of each of the cached questions
+			Bank bank = this.banks.get(question.getClass());
+
+			if (bank != null) {
+				CachedQuestion cached = bank.find(question.getId());
+
+				if (cached != null) {
+					cached.usedCount++;
+					bank.sorted = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replaces the data of a question held by the cache with the data of the
+	 * supplied question (as done by the data controller when a question is
+	 * saved).
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 * @param question
+	 *            The question containing the new data of the question.
+	 */
+	public synchronized void update (Class<? extends Question> key, Question question) {
+
+		// The question may be being read into the cache
+		this.generation++;
+
+		// Obtain the cached question
+		Bank bank = this.banks.get(key);
+		CachedQuestion cached = (bank == null) ? null : bank.find(question.getId());
+
+		if (cached != null) {
+			// Replace the data of the question
+			cached.text = question.getQuestionString();
+			cached.yesValue = question.getYesPointValue();
+			cached.noValue = question.getNoPointValue();
+			cached.usedCount = question.getUsedCount();
+			bank.sorted = false;
+		}
+	}
+
+	/**
+	 * Removes the questions of a type from the cache. The questions are read
+	 * again from the database when next requested.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 */
+	public synchronized void invalidate (Class<? extends Question> key) {
+
+		// The questions may be being read into the cache
+		this.generation++;
+
+		// Remove the questions of the type
+		Bank bank = this.banks.remove(key);
+
+		if (bank != null) {
+			this.size -= bank.questions.size();
+		}
+
+		this.uncacheable.remove(key);
+	}
+
+	/**
+	 * Removes all of the questions from the cache.
+	 */
+	public synchronized void invalidate () {
+
+		// Remove the questions of all of the types
+		this.generation++;
+		this.banks.clear();
+		this.uncacheable.clear();
+		this.size = 0;
+		Logger.i(this.getClass().getName(), "Invalidated question cache [hits: {}, misses: {}]", this.hits, this.misses);
+	}
+
+	/**
+	 * Evicts the questions of the least recently used types until the number
+	 * of questions held by the cache is within its capacity.
+	 */
+	private void trimToCapacity () {
+
+		Iterator<Map.Entry<Class<? extends Question>, Bank>> iterator = this.banks.entrySet().iterator();
+
+		while (this.size > this.capacity && iterator.hasNext()) {
+			// Evict the least recently used type
+			Map.Entry<Class<? extends Question>, Bank> eldest = iterator.next();
+			this.size -= eldest.getValue().questions.size();
+			iterator.remove();
+			Logger.i(this.getClass().getName(), "Evicted questions of {} from the cache", eldest.getKey().getSimpleName());
+		}
+	}
+
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         The generation of the cache, which changes each time a change to
+	 *         the stored questions is applied to the cache (or the cache is
+	 *         invalidated).
+	 */
+	public synchronized long getGeneration () {
+		return this.generation;
+	}
+
+	/**
+	 * @return
+	 *         The maximum number of questions held by the cache.
+	 */
+	public synchronized int getCapacity () {
+		return this.capacity;
+	}
+
+	/**
+	 * Sets the maximum number of questions held by the cache, evicting the
+	 * questions of the least recently used types if the cache holds more
+	 * questions than the new capacity.
+	 * 
+	 * @param capacity
+	 *            The maximum number of questions held by the cache.
+	 */
+	public synchronized void setCapacity (int capacity) {
+		this.capacity = capacity;
+		this.uncacheable.clear();
+		this.trimToCapacity();
+	}
+
+	/**
+	 * @return
+	 *         The number of questions held by the cache.
+	 */
+	public synchronized int getSize () {
+		return this.size;
+	}
+
+	/**
+	 * @return
+	 *         The number of times the questions of a type were found in the
+	 *         cache.
+	 */
+	public synchronized long getHits () {
+		return this.hits;
+	}
+
+	/**
+	 * @return
+	 *         The number of times the questions of a type were not found in
+	 *         the cache.
+	 */
+	public synchronized long getMisses () {
+		return this.misses;
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * The cached questions of a single question type.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class Bank {
+
+		/**
+		 * The cached questions, in least frequently used order when sorted.
+		 */
+		private final List<CachedQuestion> questions;
+
+		/**
+		 * The cached questions, keyed by ID.
+		 */
+		private final Map<Long, CachedQuestion> index;
+
+		/**
+		 * True if the questions are in least frequently used order.
+		 */
+		private boolean sorted;
+
+		/**
+		 * Copies the data of the supplied questions.
+		 * 
+		 * @param questions
+		 *            The questions of the type.
+		 */
+		public Bank (Collection<? extends Question> questions) {
+
+			this.questions = new ArrayList<CachedQuestion>(questions.size());
+			this.index = new HashMap<Long, CachedQuestion>();
+
+			for (Question question : questions) {
+				// Copy the data of each of the questions
+				CachedQuestion cached = new CachedQuestion(question);
+				this.questions.add(cached);
+				this.index.put(cached.id, cached);
+			}
+		}
+
+		/**
+		 * @param id
+		 *            The ID of the question.
+		 * @return
+		 *         The cached question with the ID; null if no question with
+		 *         the ID is cached.
+		 */
+		public CachedQuestion find (long id) {
+			return this.index.get(id);
+		}
+
+		/**
+		 * Selects the least frequently used questions.
+		 * 
+		 * @param number
+		 *            The number of questions to select.
+		 * @return
+		 *         The selected questions (at most the number requested).
+		 */
+		public List<CachedQuestion> select (int number) {
+
+			if (!this.sorted) {
+				// Order the questions by used count (then by ID) once changed
+				Collections.sort(this.questions);
+				this.sorted = true;
+			}
+
+			return this.questions.subList(0, Math.max(0, Math.min(number, this.questions.size())));
+		}
+	}
+
+	/**
+	 * The data of a cached question.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class CachedQuestion implements Comparable<CachedQuestion> {
+
+		/**
+		 * The ID of the question.
+		 */
+		private final long id;
+
+		/**
+		 * The text of the question.
+		 */
+		private String text;
+
+		/**
+		 * The yes point value of the question.
+		 */
+		private int yesValue;
+
+		/**
+		 * The no point value of the question.
+		 */
+		private int noValue;
+
+		/**
+		 * The used count of the question.
+		 */
+		private int usedCount;
+
+		/**
+		 * Copies the data of a question.
+		 * 
+		 * @param question
+		 *            The question.
+		 */
+		public CachedQuestion (Question question) {
+			this.id = question.getId();
+			this.text = question.getQuestionString();
+			this.yesValue = question.getYesPointValue();
+			this.noValue = question.getNoPointValue();
+			this.usedCount = question.getUsedCount();
+		}
+
+		/**
+		 * Orders the questions by ascending used count, then by ascending ID.
+		 * 
+		 * @see java.lang.Comparable#compareTo(java.lang.Object)
+		 */
+		@Override
+		public int compareTo (CachedQuestion other) {
+
+			if (this.usedCount != other.usedCount) {
+				return (this.usedCount < other.usedCount) ? -1 : 1;
+			}
+
+			return (this.id < other.id) ? -1 : ((this.id == other.id) ? 0 : 1);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+
+/**
+ * A consumer of the questions parsed from a data file. The questions are
+ * supplied to the consumer one at a time, as soon as each question has been
+ * parsed, which allows each question to be processed (such as inserted into a
+ * database) while the remainder of the data file is parsed.
+ * 
+ * @author Justin Albano
+ * 
+ * @param <T>
+ *            The type of the questions consumed.
+ */
+public interface QuestionConsumer<T extends Question> {
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Consumes a single question parsed from a data file.
+	 * 
+	 * @param question
+	 *            The parsed question.
+	 */
+	public void accept (T question);
+}
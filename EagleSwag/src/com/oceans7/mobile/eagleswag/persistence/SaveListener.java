@@ -0,0 +1,49 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence;
+
+/**
+ * An interface for an observer of the completion of a write submitted to a
+ * data controller in the background (see
+ * {@link DataController#saveRound(java.util.List, com.oceans7.mobile.eagleswag.domain.Score, String, SaveListener)}
+ * ). The listener is notified on the thread that performed the write, not on
+ * the thread that submitted it.
+ * 
+ * @author Justin Albano
+ */
+public interface SaveListener {
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Called once the data has been saved to persistent storage.
+	 */
+	public void saved ();
+
+	/**
+	 * Called if the data could not be saved to persistent storage (none of
+	 * the data has been saved).
+	 * 
+	 * @param e
+	 *            The exception that prevented the data from being saved.
+	 */
+	public void failed (RuntimeException e);
+}
@@ -0,0 +1,86 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.parsers;
+
+/**
+ * Constants that describe the binary data file format read by the
+ * {@link BinaryDataFileParserStrategy} and written by the
+ * {@link BinaryDataFileWriter}. A binary data file contains the questions of
+ * a single question type and is laid out as follows (all integers are 32-bit
+ * and big-endian):
+ * 
+ * <pre>
+ * Header:  magic | version | question count | heap length
+ * Records: text offset | text length | yes value | no value | used count
+ *          (one fixed-width record for each question)
+ * Heap:    the UTF-8 encoded text of the questions
+ * </pre>
+ * 
+ * The text offset of a record is relative to the start of the heap and the
+ * text length is the number of bytes of the UTF-8 encoded text. This class
+ * does not depend on the Android platform, which allows the data files to be
+ * written as part of the build.
+ * 
+ * @author Justin Albano
+ */
+public final class BinaryDataFileConstants {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The magic number at the start of each binary data file ("EQB1").
+	 */
+	public static final int MAGIC = 0x45514231;
+
+	/**
+	 * The version of the binary data file format.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The size (in bytes) of the header of a binary data file.
+	 */
+	public static final int HEADER_SIZE = 4 * 4;
+
+	/**
+	 * The size (in bytes) of the record for each question.
+	 */
+	public static final int RECORD_SIZE = 5 * 4;
+
+	/**
+	 * The character encoding of the text in the heap.
+	 */
+	public static final String ENCODING = "UTF-8";
+
+	/**
+	 * The extension for the binary data files containing questions data.
+	 */
+	public static final String EXTENSION = ".qb";
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Hidden constructor (constants only).
+	 */
+	private BinaryDataFileConstants () {}
+}
@@ -0,0 +1,344 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.parsers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.LinkedList;
+import java.util.Queue;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactories;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactory;
+import com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy;
+import com.oceans7.mobile.eagleswag.persistence.QuestionConsumer;
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * A data parser strategy for a binary data file (see
+ * {@link BinaryDataFileConstants} for the layout of the format). The binary
+ * data files are converted from the JSON data files as part of the build, and
+ * follow the same "convention over configuration" naming as the JSON data
+ * files, with a ".qb" file extension. The numeric data of the questions is
+ * stored in fixed-width records, so no text parsing is required, and the data
+ * file is read through a memory mapped buffer when the asset is stored
+ * uncompressed in the application package.
+ * <p/>
+ * If no binary data file exists for a question type, the questions are parsed
+ * from the JSON data file for the question type instead.
+ * 
+ * @author Justin Albano
+ */
+public class BinaryDataFileParserStrategy implements DataFileParserStrategy {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The path (not including file name) of the directory containing the
+	 * binary data files to be parsed. This path is relative to the assets/
+	 * directory of the Android project structure.
+	 */
+	private static final String DATA_FILE_ASSET_PATH = "data/";
+
+	/**
+	 * The character set of the text of the questions.
+	 */
+	private static final Charset CHARSET = Charset.forName(BinaryDataFileConstants.ENCODING);
+
+	/**
+	 * The size of the buffer used to read a compressed data file.
+	 */
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	/**
+	 * The context used to access the data files.
+	 */
+	private Context context;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	public BinaryDataFileParserStrategy (Context context) {
+		// Set the context used to access the data files
+		this.setContext(context);
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * The data file name is the simple class name of the key provided, with a
+	 * ".qb" file extension (for example, "GeneralQuestion.qb" for the key
+	 * GeneralQuestion.class). If no data file is found for the key provided,
+	 * the questions are obtained from the JSON data file for the key.
+	 * <p/>
+	 * 
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy#getQuestions(java.lang.Class)
+	 */
+	@Override
+	public <T extends Question> Queue<T> getQuestions (Class<T> key) {
+
+		// The queue used to store the questions retrieved from the data file
+		final Queue<T> questions = new LinkedList<T>();
+
+		// Parse the questions into the queue
+		this.parseQuestions(key, new QuestionConsumer<T>() {
+
+			@Override
+			public void accept (T question) {
+				questions.add(question);
+			}
+		});
+
+		// Return the queue containing the questions (which may be empty)
+		return questions;
+	}
+
+	/**
+	 * The data file naming conventions are the same as those for
+	 * {@link #getQuestions(Class)}.
+	 * <p/>
+	 * 
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy#parseQuestions(java.lang.Class,
+	 *      com.oceans7.mobile.eagleswag.persistence.QuestionConsumer)
+	 */
+	@Override
+	public <T extends Question> int parseQuestions (Class<T> key, QuestionConsumer<? super T> consumer) {
+
+		// The name of the binary data file for the key
+		String dataFileName = key.getSimpleName() + BinaryDataFileConstants.EXTENSION;
+
+		try {
+			// Read the data file
+			ByteBuffer buffer = this.open(DATA_FILE_ASSET_PATH + dataFileName);
+			return readQuestions(buffer, QuestionFactories.getInstance().getFactory(key), consumer);
+		}
+		catch (FileNotFoundException e) {
+			// No binary data file exists for the key: parse the JSON data file
+			Logger.i(this.getClass().getName(), "No data file named '{}' found; parsing JSON data file", dataFileName);
+			return new JsonDataFileParserStrategy(this.context).parseQuestions(key, consumer);
+		}
+		catch (IOException e) {
+			// IO exception occurred while accessing the data file
+			Logger.e(this.getClass().getName(), "IO exception occurred while parsing {}: {}", dataFileName, e);
+		}
+		catch (IllegalArgumentException e) {
+			// No factory exists for the key
+			Logger.e(this.getClass().getName(), "Invalid question type while trying to create new {}: {}", key.getSimpleName(), e);
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Opens a binary data file asset. If the asset is stored uncompressed, the
+	 * asset is memory mapped; otherwise, the asset is read into memory.
+	 * 
+	 * @param asset
+	 *            The path of the asset.
+	 * @return
+	 *         A buffer containing the contents of the asset.
+	 * @throws FileNotFoundException
+	 *             The asset does not exist.
+	 * @throws IOException
+	 *             The asset could not be read.
+	 */
+	private ByteBuffer open (String asset) throws IOException {
+
+		AssetFileDescriptor descriptor;
+
+		try {
+			// Only uncompressed assets can be opened as a file descriptor
+			descriptor = this.context.getAssets().openFd(asset);
+		}
+		catch (FileNotFoundException e) {
+			// The asset is compressed (or does not exist): read it into memory
+			Logger.w(this.getClass().getName(), "Data file '{}' is not stored uncompressed; reading it into memory", asset);
+			return read(this.context.getAssets().open(asset));
+		}
+
+		try {
+			// Map the region of the application package containing the asset
+			FileChannel channel = new FileInputStream(descriptor.getFileDescriptor()).getChannel();
+
+			try {
+				return channel.map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength());
+			}
+			finally {
+				// The mapping remains valid after the channel is closed
+				channel.close();
+			}
+		}
+		finally {
+			descriptor.close();
+		}
+	}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Reads the questions from a buffer containing a binary data file,
+	 * supplying each question to the consumer in the order of the data file.
+	 * The ID of each question is set to 0. The position of the buffer is not
+	 * modified.
+	 * 
+	 * @param buffer
+	 *            The buffer containing the binary data file.
+	 * @param factory
+	 *            The factory used to create the questions.
+	 * @param consumer
+	 *            The consumer the questions are supplied to.
+	 * @return
+	 *         The number of questions supplied to the consumer.
+	 * @throws IOException
+	 *             The buffer does not contain a valid binary data file.
+	 */
+	public static <T extends Question> int readQuestions (ByteBuffer buffer, QuestionFactory<T> factory, QuestionConsumer<? super T> consumer)
+			throws IOException {
+
+		// Use a view of the buffer to leave the position of the buffer intact
+		ByteBuffer data = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+
+		try {
+			// Read and verify the header
+			if (data.getInt() != BinaryDataFileConstants.MAGIC) {
+				throw new IOException("Not a binary data file");
+			}
+
+			int version = data.getInt();
+
+			if (version != BinaryDataFileConstants.VERSION) {
+				throw new IOException("Unsupported binary data file version " + version);
+			}
+
+			int count = data.getInt();
+			int heapLength = data.getInt();
+			int heapStart = BinaryDataFileConstants.HEADER_SIZE + count * BinaryDataFileConstants.RECORD_SIZE;
+
+			if (count < 0 || heapLength < 0 || (long) heapStart + heapLength > data.limit()) {
+				throw new IOException("Truncated binary data file");
+			}
+
+			// The view of the heap and the buffer used to decode the text
+			ByteBuffer heap = data.duplicate();
+			byte[] text = new byte[64];
+
+			for (int i = 0; i < count; i++) {
+				// Read the record of each question
+				int offset = data.getInt();
+				int length = data.getInt();
+				int yesValue = data.getInt();
+				int noValue = data.getInt();
+				int usedCount = data.getInt();
+
+				if (offset < 0 || length < 0 || (long) offset + length > heapLength) {
+					throw new IOException("Invalid text in record " + i + " of the binary data file");
+				}
+
+				if (length > text.length) {
+					// Grow the text buffer to fit the text
+					text = new byte[Math.max(length, text.length * 2)];
+				}
+
+				// Decode the text from the heap
+				heap.position(heapStart + offset);
+				heap.get(text, 0, length);
+
+				// Create the question (the ID is set to 0 because it is
+				// supplied later by the data controller)
+				consumer.accept(factory.create(0, new String(text, 0, length, CHARSET), yesValue, noValue, usedCount));
+			}
+
+			return count;
+		}
+		catch (BufferUnderflowException e) {
+			throw new IOException("Truncated binary data file");
+		}
+	}
+
+	/**
+	 * Reads the remaining contents of an input stream into a buffer, closing
+	 * the input stream.
+	 * 
+	 * @param inputStream
+	 *            The input stream to read.
+	 * @return
+	 *         A buffer containing the contents of the input stream.
+	 * @throws IOException
+	 *             The input stream could not be read.
+	 */
+	private static ByteBuffer read (InputStream inputStream) throws IOException {
+
+		try {
+			ByteArrayOutputStream contents = new ByteArrayOutputStream(READ_BUFFER_SIZE);
+			byte[] buffer = new byte[READ_BUFFER_SIZE];
+			int read;
+
+			while ((read = inputStream.read(buffer)) != -1) {
+				contents.write(buffer, 0, read);
+			}
+
+			return ByteBuffer.wrap(contents.toByteArray());
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         The context used to access the data files.
+	 */
+	public Context getContext () {
+		return context;
+	}
+
+	/**
+	 * @param context
+	 *            The context used to access the data files.
+	 */
+	public void setContext (Context context) {
+		this.context = context;
+	}
+}
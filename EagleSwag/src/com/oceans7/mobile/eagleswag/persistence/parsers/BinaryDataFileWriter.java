@@ -0,0 +1,162 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.parsers;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Writer for the binary data file format (see {@link BinaryDataFileConstants}
+ * for the layout of the format). The questions are added to the writer one at
+ * a time and are then written as a single binary data file. This class does
+ * not depend on the Android platform, which allows the binary data files to be
+ * converted from the JSON data files as part of the build.
+ * 
+ * @author Justin Albano
+ */
+public class BinaryDataFileWriter {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The initial capacity of the records (in questions).
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The number of fields in a record.
+	 */
+	private static final int RECORD_FIELDS = BinaryDataFileConstants.RECORD_SIZE / 4;
+
+	/**
+	 * The records of the questions added to the writer (stored as the fields
+	 * of each record, in order).
+	 */
+	private int[] records = new int[INITIAL_CAPACITY * RECORD_FIELDS];
+
+	/**
+	 * The heap containing the UTF-8 encoded text of the questions.
+	 */
+	private ByteArrayOutputStream heap = new ByteArrayOutputStream();
+
+	/**
+	 * The number of questions added to the writer.
+	 */
+	private int count;
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Adds a question to the data file.
+	 * 
+	 * @param text
+	 *            The text of the question.
+	 * @param yesValue
+	 *            The yes point value of the question.
+	 * @param noValue
+	 *            The no point value of the question.
+	 * @param usedCount
+	 *            The used count of the question.
+	 */
+	public void addQuestion (String text, int yesValue, int noValue, int usedCount) {
+
+		if (text == null) {
+			throw new IllegalArgumentException("The text of a question cannot be null");
+		}
+
+		// Encode the text of the question
+		byte[] encoded;
+
+		try {
+			encoded = text.getBytes(BinaryDataFileConstants.ENCODING);
+		}
+		catch (UnsupportedEncodingException e) {
+			// UTF-8 is supported by all Java platforms
+			throw new IllegalStateException(e);
+		}
+
+		if ((this.count + 1) * RECORD_FIELDS > this.records.length) {
+			// Grow the records
+			int[] grown = new int[this.records.length * 2];
+			System.arraycopy(this.records, 0, grown, 0, this.records.length);
+			this.records = grown;
+		}
+
+		// Store the record of the question
+		int index = this.count * RECORD_FIELDS;
+		this.records[index] = this.heap.size();
+		this.records[index + 1] = encoded.length;
+		this.records[index + 2] = yesValue;
+		this.records[index + 3] = noValue;
+		this.records[index + 4] = usedCount;
+
+		// Append the text to the heap
+		this.heap.write(encoded, 0, encoded.length);
+		this.count++;
+	}
+
+	/**
+	 * Writes the questions added to the writer as a binary data file. The
+	 * output stream is not closed.
+	 * 
+	 * @param outputStream
+	 *            The output stream the data file is written to.
+	 * @throws IOException
+	 *             The data file could not be written.
+	 */
+	public void write (OutputStream outputStream) throws IOException {
+
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+
+		// Write the header
+		output.writeInt(BinaryDataFileConstants.MAGIC);
+		output.writeInt(BinaryDataFileConstants.VERSION);
+		output.writeInt(this.count);
+		output.writeInt(this.heap.size());
+
+		for (int i = 0; i < this.count * RECORD_FIELDS; i++) {
+			// Write the records
+			output.writeInt(this.records[i]);
+		}
+
+		// Write the heap
+		this.heap.writeTo(output);
+		output.flush();
+	}
+
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         The number of questions added to the writer.
+	 */
+	public int getCount () {
+		return this.count;
+	}
+}
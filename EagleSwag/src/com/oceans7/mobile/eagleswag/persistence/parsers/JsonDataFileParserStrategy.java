@@ -22,21 +22,21 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.LinkedList;
 import java.util.Queue;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 import android.content.Context;
-import android.util.Log;
 
 import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactories;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactory;
 import com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy;
+import com.oceans7.mobile.eagleswag.persistence.QuestionConsumer;
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * A data parser strategy for a JSON data file. This parser strategy extracts
@@ -148,7 +148,38 @@ public class JsonDataFileParserStrategy implements DataFileParserStrategy {
 	public <T extends Question> Queue<T> getQuestions (Class<T> key) {
 
 		// The queue used to store the questions retrieved from the data file
-		Queue<T> questions = new LinkedList<T>();
+		final Queue<T> questions = new LinkedList<T>();
+
+		// Parse the questions into the queue
+		this.parseQuestions(key, new QuestionConsumer<T>() {
+
+			@Override
+			public void accept (T question) {
+				questions.add(question);
+			}
+		});
+
+		// Return the queue containing the questions (which may be empty)
+		return questions;
+	}
+
+	/**
+	 * The data file is parsed as a stream of JSON tokens (using the
+	 * {@link ContentHandler} interface of the JSON parser), rather than being
+	 * parsed into JSON objects, and each question is supplied to the consumer
+	 * as soon as its object in the data file has been parsed. The data file
+	 * naming conventions are the same as those for {@link #getQuestions(Class)}.
+	 * If no data file is found for the key provided, no questions are supplied
+	 * to the consumer.
+	 * <p/>
+	 * 
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy#parseQuestions(java.lang.Class,
+	 *      com.oceans7.mobile.eagleswag.persistence.QuestionConsumer)
+	 */
+	@Override
+	public <T extends Question> int parseQuestions (Class<T> key, QuestionConsumer<? super T> consumer) {
 
 		// Set the object name for the data file and the name of the data file
 		// to the simple name of the key. This is the implementation of the
@@ -156,89 +187,230 @@ public class JsonDataFileParserStrategy implements DataFileParserStrategy {
 		String id = key.getSimpleName();
 		String dataFileName = key.getSimpleName() + EXTENSION;
 
+		// The handler that supplies the questions to the consumer
+		QuestionsContentHandler<T> handler = null;
+
 		try {
 
 			// The JSON parser to parse the data file
 			JSONParser parser = new JSONParser();
 
+			// Obtain the factory used to create the questions (resolved once
+			// for all of the questions)
+			QuestionFactory<T> factory = QuestionFactories.getInstance().getFactory(key);
+			handler = new QuestionsContentHandler<T>(id, factory, consumer);
+
 			// Open the JSON file containing the questions
 			InputStream dataFileInputStream = this.context.getAssets().open(DATA_FILE_ASSET_PATH + dataFileName);
 
-			// Parse the JSON file
-			JSONObject jsonObj = (JSONObject) parser.parse(new InputStreamReader(dataFileInputStream));
-			dataFileInputStream.close();
-
-			// Obtain a JSON array for the question type supplied (dependent on
-			// the ID supplied)
-			JSONArray questionsArray = (JSONArray) jsonObj.get(id);
-
-			for (Object question : questionsArray) {
-				// Loop through each of the questions found in the data file
-
-				// Convert the object to a JSON object
-				JSONObject jsonQuestion = (JSONObject) question;
-
-				// --------------------------------------------------------------
-				// Extract the JSON values (note that the ID value is set to 0
-				// because it will be supplied later by the data controller
-				// (there is no ID associated with the questions in the
-				// questions data file)
-				// --------------------------------------------------------------
-				int questionId = 0;
-				String text = (String) jsonQuestion.get(QUESTION_TEXT_ID);
-				int yesValue = Integer.parseInt((String) jsonQuestion.get(YES_VALUE_ID));
-				int noValue = Integer.parseInt((String) jsonQuestion.get(NO_VALUE_ID));
-				int usedCount = Integer.parseInt((String) jsonQuestion.get(USED_COUNT_ID));
-
-				// Obtain the constructor for the supplied class
-				Class<?>[] argTypes = new Class<?>[] { Integer.class, String.class, Integer.class, Integer.class, Integer.class };
-				Constructor<T> constructor = key.getDeclaredConstructor(argTypes);
-				Object[] args = new Object[] { questionId, text, yesValue, noValue, usedCount };
-
-				// Invoke the constructor to obtain the object
-				T questionToAdd = constructor.newInstance(args);
-
-				// Add the new general question (ignoring the ID)
-				questions.add(questionToAdd);
+			try {
+				// Parse the JSON file, supplying each question to the consumer
+				parser.parse(new InputStreamReader(dataFileInputStream), handler);
+			}
+			finally {
+				// Close the JSON file
+				dataFileInputStream.close();
 			}
 		}
 		catch (FileNotFoundException e) {
 			// A data file for the key provided cannot be found
-			Log.e(this.getClass().getName(), "No data file named '" + dataFileName + "' found in '" + DATA_FILE_ASSET_PATH + "'");
+			Logger.e(this.getClass().getName(), "No data file named '{}' found in '{}'", dataFileName, DATA_FILE_ASSET_PATH);
 		}
 		catch (IOException e) {
 			// IO exception occurred while accessing the JSON data file
-			Log.e(this.getClass().getName(), "IO exception occurred while parsing " + dataFileName + ": " + e);
+			Logger.e(this.getClass().getName(), "IO exception occurred while parsing {}: {}", dataFileName, e);
 		}
 		catch (ParseException e) {
 			// A parse exception occurred while parsing a data file
-			Log.e(this.getClass().getName(), "A parser exception occurred while parsing " + dataFileName + ": " + e);
-		}
-		catch (NoSuchMethodException e) {
-			// A constructor with the specified format cannot be found for key
-			Log.e(this.getClass().getName(), "Could not find the desired constructor for the " + id + ": " + e);
+			Logger.e(this.getClass().getName(), "A parser exception occurred while parsing {}: {}", dataFileName, e);
 		}
 		catch (IllegalArgumentException e) {
-			// The arguments for the question constructor are incorrect
-			Log.e(this.getClass().getName(), "Invalid constructor arguments while trying to create new " + id + ": " + e);
+			// The question data is invalid or no factory exists for the key
+			Logger.e(this.getClass().getName(), "Invalid question data or question type while trying to create new {}: {}", id, e);
 		}
-		catch (InstantiationException e) {
-			// The selected question object could not be instantiated
-			Log.e(this.getClass().getName(), "Could not not instantiate an object for " + id + ": " + e);
+
+		// Return the number of questions supplied to the consumer
+		return (handler == null) ? 0 : handler.getCount();
+	}
+	
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * A handler for the tokens of a JSON data file that creates a question for
+	 * each object in the questions array of the data file and supplies the
+	 * question to a consumer. Only the data for the question currently being
+	 * parsed is held by the handler.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class QuestionsContentHandler<T extends Question> implements ContentHandler {
+
+		/**
+		 * The name of the questions array in the data file.
+		 */
+		private final String id;
+
+		/**
+		 * The factory used to create the questions.
+		 */
+		private final QuestionFactory<T> factory;
+
+		/**
+		 * The consumer the questions are supplied to.
+		 */
+		private final QuestionConsumer<? super T> consumer;
+
+		/**
+		 * The depth of the object currently being parsed (1 is the root
+		 * object of the data file).
+		 */
+		private int depth;
+
+		/**
+		 * Flag used to track if the questions array is being parsed.
+		 */
+		private boolean inQuestions;
+
+		/**
+		 * The key of the object entry currently being parsed.
+		 */
+		private String key;
+
+		/**
+		 * The data of the question currently being parsed.
+		 */
+		private String text;
+		private String yesValue;
+		private String noValue;
+		private String usedCount;
+
+		/**
+		 * The number of questions supplied to the consumer.
+		 */
+		private int count;
+
+		/**
+		 * @param id
+		 *            The name of the questions array in the data file.
+		 * @param factory
+		 *            The factory used to create the questions.
+		 * @param consumer
+		 *            The consumer the questions are supplied to.
+		 */
+		public QuestionsContentHandler (String id, QuestionFactory<T> factory, QuestionConsumer<? super T> consumer) {
+			this.id = id;
+			this.factory = factory;
+			this.consumer = consumer;
 		}
-		catch (IllegalAccessException e) {
-			// The selected question constructor could not be accessed
-			Log.e(this.getClass().getName(), "Could not access the desired constructor for " + id + ": " + e);
+
+		@Override
+		public void startJSON () {}
+
+		@Override
+		public void endJSON () {}
+
+		@Override
+		public boolean startObject () {
+
+			this.depth++;
+
+			if (this.inQuestions && this.depth == 2) {
+				// A new question object: clear the previous question data
+				this.text = null;
+				this.yesValue = null;
+				this.noValue = null;
+				this.usedCount = null;
+			}
+
+			return true;
+		}
+
+		@Override
+		public boolean endObject () {
+
+			if (this.inQuestions && this.depth == 2) {
+				// The question object is complete (the ID is set to 0 because
+				// it is supplied later by the data controller)
+				T question = this.factory.create(0, this.text, Integer.parseInt(this.yesValue), Integer.parseInt(this.noValue),
+					Integer.parseInt(this.usedCount));
+
+				// Supply the question to the consumer
+				this.consumer.accept(question);
+				this.count++;
+			}
+
+			this.depth--;
+			return true;
 		}
-		catch (InvocationTargetException e) {
-			// The constructor could not be invoked on the target object
-			Log.e(this.getClass().getName(), "Could not invoke constructor on the target " + id + ": " + e);
+
+		@Override
+		public boolean startObjectEntry (String key) {
+			this.key = key;
+			return true;
 		}
 
-		// Return the queue containing the questions (which may be empty)
-		return questions;
+		@Override
+		public boolean endObjectEntry () {
+			return true;
+		}
+
+		@Override
+		public boolean startArray () {
+
+			if (this.depth == 1 && this.id.equals(this.key)) {
+				// The questions array of the root object has been reached
+				this.inQuestions = true;
+			}
+
+			return true;
+		}
+
+		@Override
+		public boolean endArray () {
+
+			if (this.depth == 1) {
+				// The questions array (if being parsed) is complete
+				this.inQuestions = false;
+			}
+
+			return true;
+		}
+
+		@Override
+		public boolean primitive (Object value) {
+
+			if (this.inQuestions && this.depth == 2) {
+				// Store the value of the question data entry
+				String string = (value == null) ? null : value.toString();
+
+				if (QUESTION_TEXT_ID.equals(this.key)) {
+					this.text = string;
+				}
+				else if (YES_VALUE_ID.equals(this.key)) {
+					this.yesValue = string;
+				}
+				else if (NO_VALUE_ID.equals(this.key)) {
+					this.noValue = string;
+				}
+				else if (USED_COUNT_ID.equals(this.key)) {
+					this.usedCount = string;
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * @return
+		 *         The number of questions supplied to the consumer.
+		 */
+		public int getCount () {
+			return this.count;
+		}
 	}
-	
+
 	/***************************************************************************
 	 * Getters & Setters
 	 **************************************************************************/
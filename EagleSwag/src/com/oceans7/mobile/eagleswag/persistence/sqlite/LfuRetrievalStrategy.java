@@ -23,7 +23,10 @@ package com.oceans7.mobile.eagleswag.persistence.sqlite;
  * questions table in an SQLite database. The used count of the questions is
  * used as the variable which dictates the frequency of use for a question (a
  * question with a lower used count is considered to have been used less
- * frequently than a question with a higher used count).
+ * frequently than a question with a higher used count). The questions are read
+ * in order of the index on the used count column, which avoids sorting the
+ * entire table each time questions are selected. Retired questions (questions
+ * that have been removed from the questions data file) are not selected.
  * 
  * @author Justin Albano
  */
@@ -39,10 +42,21 @@ public class LfuRetrievalStrategy implements RetrievalStrategy {
 	 * @see com.oceans7.mobile.eagleswag.persistence.sqlite.RetrievalStrategy#getQuery(java.lang.String)
 	 */
 	@Override
-	public String getQuery (String table, int numberOfQuestions) {
+	public String getQuery (String table) {
 
-		// Use a LFU query to obtain the questions
-		return "SELECT * FROM " + table + " " + "ORDER BY " + SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + " ASC " + "LIMIT " + numberOfQuestions;
+		// Select each of the question columns (in the order of the columns)
+		StringBuilder builder = new StringBuilder("SELECT ");
+
+		for (SqliteDataControllerConstants.QuestionsColumns column : SqliteDataControllerConstants.QuestionsColumns.values()) {
+			// Add each column to the list of selected columns
+			builder.append((column.ordinal() == 0) ? column : ", " + column);
+		}
+
+		// Use a LFU query (read using the used count index) to obtain the
+		// questions that have not been retired
+		builder.append(" FROM " + table + " WHERE " + SqliteDataControllerConstants.QuestionsColumns.RETIRED + " = 0 ORDER BY " + SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + " ASC " + "LIMIT ?");
+
+		return builder.toString();
 	}
 
 }
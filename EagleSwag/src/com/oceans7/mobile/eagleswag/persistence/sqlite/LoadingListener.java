@@ -26,12 +26,28 @@ package com.oceans7.mobile.eagleswag.persistence.sqlite;
  */
 public interface LoadingListener {
 
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The total supplied to the listener while the questions are still being
+	 * loaded from a data file that is being streamed (the total number of
+	 * questions is not known until the entire data file has been read).
+	 */
+	public static final int UNKNOWN_TOTAL = -1;
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
 	/**
 	 * Update method called when an observer is notified of when loading
 	 * questions in the database.
 	 * 
 	 * @param total
-	 *            The total of number of questions that are being loaded.
+	 *            The total of number of questions that are being loaded;
+	 *            {@link #UNKNOWN_TOTAL} if the total is not yet known.
 	 * @param current
 	 *            The number of questions that have already been loaded into the
 	 *            database.
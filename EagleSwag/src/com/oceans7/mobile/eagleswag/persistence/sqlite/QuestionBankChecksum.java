@@ -0,0 +1,93 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.io.UnsupportedEncodingException;
+import java.util.zip.CRC32;
+
+/**
+ * Computes the checksum of a questions data file (a question bank), as stored
+ * in the question banks table. The checksum covers the text and the point
+ * values of each of the questions, in the order of the data file. This class
+ * does not depend on the Android platform, which allows the checksums to be
+ * computed when the prebuilt database is generated.
+ * 
+ * @author Justin Albano
+ */
+public final class QuestionBankChecksum {
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Hidden constructor (static methods only).
+	 */
+	private QuestionBankChecksum () {}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Factors a question of a questions data file into the checksum of the
+	 * data file.
+	 * 
+	 * @param checksum
+	 *            The checksum of the data file.
+	 * @param text
+	 *            The text of the question.
+	 * @param yesValue
+	 *            The yes point value of the question.
+	 * @param noValue
+	 *            The no point value of the question.
+	 */
+	public static void update (CRC32 checksum, String text, int yesValue, int noValue) {
+
+		try {
+			// Factor in the text of the question
+			checksum.update(text.getBytes("UTF-8"));
+		}
+		catch (UnsupportedEncodingException e) {
+			// UTF-8 is supported by all Java platforms
+			throw new IllegalStateException(e);
+		}
+
+		// Factor in the point values of the question (and a separator, so that
+		// the values of adjacent questions cannot be confused)
+		updateInt(checksum, yesValue);
+		updateInt(checksum, noValue);
+		checksum.update(0);
+	}
+
+	/**
+	 * Factors the four bytes of an integer into a checksum.
+	 * 
+	 * @param checksum
+	 *            The checksum.
+	 * @param value
+	 *            The integer to factor into the checksum.
+	 */
+	private static void updateInt (CRC32 checksum, int value) {
+		checksum.update(value >>> 24);
+		checksum.update(value >>> 16);
+		checksum.update(value >>> 8);
+		checksum.update(value);
+	}
+}
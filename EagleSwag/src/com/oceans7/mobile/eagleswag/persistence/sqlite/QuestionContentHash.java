@@ -0,0 +1,95 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Computes the content hash stored with each question in a questions table.
+ * The content hash is a 64-bit FNV-1a hash of the UTF-8 encoded text of the
+ * question, which identifies the question across updates of the questions data
+ * file: a question whose point values change in the data file keeps its
+ * content hash (and therefore its row and used count in the database), while a
+ * question whose text changes is treated as a new question. This class does
+ * not depend on the Android platform, which allows the content hashes to be
+ * computed when the prebuilt database is generated.
+ * 
+ * @author Justin Albano
+ */
+public final class QuestionContentHash {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The FNV-1a 64-bit offset basis.
+	 */
+	private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	/**
+	 * The FNV-1a 64-bit prime.
+	 */
+	private static final long PRIME = 0x100000001b3L;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Hidden constructor (static methods only).
+	 */
+	private QuestionContentHash () {}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Computes the content hash of a question.
+	 * 
+	 * @param text
+	 *            The text of the question.
+	 * @return
+	 *         The content hash of the question.
+	 */
+	public static long of (String text) {
+
+		// Encode the text of the question
+		byte[] bytes;
+
+		try {
+			bytes = text.getBytes("UTF-8");
+		}
+		catch (UnsupportedEncodingException e) {
+			// UTF-8 is supported by all Java platforms
+			throw new IllegalStateException(e);
+		}
+
+		// Hash each of the bytes of the text
+		long hash = OFFSET_BASIS;
+
+		for (byte b : bytes) {
+			hash ^= (b & 0xff);
+			hash *= PRIME;
+		}
+
+		return hash;
+	}
+}
@@ -34,16 +34,18 @@ public interface RetrievalStrategy {
 	/**
 	 * A query that defines how questions should be retrieved from the database.
 	 * This query contains the required logic for retrieving questions and is
-	 * intended to be executed against an SQLite database.
+	 * intended to be executed against an SQLite database. The number of
+	 * questions to retrieve is not part of the query: the query contains a
+	 * single parameter (?) for the number of questions, which is bound when the
+	 * query is executed. This allows the query to be cached and reused for any
+	 * number of questions.
 	 * 
 	 * @param table
 	 *            The name of the table where the questions will be retrieved
 	 *            from.
-	 * @param numberOfQuestions
-	 *            The number of questions to retrieve from the supplied table.
 	 * @return
 	 *         A query that defines how the questions will be retrieved from the
 	 *         database.
 	 */
-	public String getQuery (String table, int numberOfQuestions);
+	public String getQuery (String table);
 }
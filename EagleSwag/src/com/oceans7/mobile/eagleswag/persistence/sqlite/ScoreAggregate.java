@@ -0,0 +1,159 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+/**
+ * The aggregate of all of the scores saved for a type of round, as stored in
+ * the score totals table. The aggregate is maintained as each score is saved,
+ * which allows the total and average score for a type to be obtained without
+ * reading each of the scores for the type.
+ * 
+ * @author Justin Albano
+ */
+public class ScoreAggregate {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The number of scores saved for the type.
+	 */
+	private final long count;
+
+	/**
+	 * The sum of the scores saved for the type.
+	 */
+	private final long sum;
+
+	/**
+	 * The minimum score saved for the type.
+	 */
+	private final int min;
+
+	/**
+	 * The maximum score saved for the type.
+	 */
+	private final int max;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Creates an aggregate of scores.
+	 * 
+	 * @param count
+	 *            The number of scores saved for the type.
+	 * @param sum
+	 *            The sum of the scores saved for the type.
+	 * @param min
+	 *            The minimum score saved for the type.
+	 * @param max
+	 *            The maximum score saved for the type.
+	 */
+	public ScoreAggregate (long count, long sum, int min, int max) {
+		this.count = count;
+		this.sum = sum;
+		this.min = min;
+		this.max = max;
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Calculates the arithmetic average of the scores, rounded to the nearest
+	 * integer.
+	 * 
+	 * @return
+	 *         The average of the scores; 0 if no scores have been saved.
+	 */
+	public int getAverage () {
+		return (this.count == 0) ? 0 : (int) Math.round((double) this.sum / this.count);
+	}
+
+	/**
+	 * Creates a new aggregate that includes the scores of this aggregate and
+	 * the supplied score. This aggregate is not modified.
+	 * 
+	 * @param score
+	 *            The score to include.
+	 * @return
+	 *         The aggregate including the supplied score.
+	 */
+	public ScoreAggregate plus (int score) {
+
+		if (this.count == 0) {
+			// The score is the first score in the aggregate
+			return new ScoreAggregate(1, score, score, score);
+		}
+		else {
+			// Add the score to the existing scores
+			return new ScoreAggregate(this.count + 1, this.sum + score, Math.min(this.min, score), Math.max(this.max, score));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString () {
+		return "[Count:] " + this.count + ", [Sum:] " + this.sum + ", [Min:] " + this.min + ", [Max:] " + this.max;
+	}
+
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         The number of scores saved for the type.
+	 */
+	public long getCount () {
+		return this.count;
+	}
+
+	/**
+	 * @return
+	 *         The sum of the scores saved for the type.
+	 */
+	public long getSum () {
+		return this.sum;
+	}
+
+	/**
+	 * @return
+	 *         The minimum score saved for the type.
+	 */
+	public int getMin () {
+		return this.min;
+	}
+
+	/**
+	 * @return
+	 *         The maximum score saved for the type.
+	 */
+	public int getMax () {
+		return this.max;
+	}
+}
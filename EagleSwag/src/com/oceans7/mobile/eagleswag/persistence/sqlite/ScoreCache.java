@@ -18,15 +18,44 @@
 
 package com.oceans7.mobile.eagleswag.persistence.sqlite;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-import android.util.Log;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * A cache containing the score data from the database, include total scores and
  * average scores. The total and average scores for each score type are accessed
  * through a key.
+ * <p/>
+ * The scores for each key are cached as an immutable
+ * {@link ScoreAggregate}, which holds the exact sum and number of the scores.
+ * The total and average are derived from the aggregate when read, which
+ * ensures that no rounding error accumulates as scores are factored into the
+ * cache. Factoring a score into the cache atomically replaces the aggregate for
+ * the key (through a compare-and-set of the aggregate), which ensures that no
+ * scores are lost when scores are factored in concurrently.
+ * <p/>
+ * A single cache is shared by the entire process for each database file
+ * (obtained through {@link #getInstance(String)}). The shared cache is warmed
+ * once from the score totals table of the database and is then kept up to date
+ * as scores are saved. When the scores in the database are changed by any
+ * other means (such as an upgrade of the database or an import of data), the
+ * cache must be invalidated through {@link #invalidate(String)}, after which
+ * it is warmed again on its next use.
+ * <p/>
+ * <strong>Note:</strong> scores must only be factored into the cache by the
+ * writer thread of the database (see {@link SqliteWriter}), between calls to
+ * {@link #beginSave()} and {@link #endSave()} that enclose the transaction
+ * saving the scores. The cache may be warmed or loaded from the database by
+ * any thread; no lock is held while the database is read: the scores read are
+ * discarded if the cache is invalidated or a score is saved while they are
+ * being read, so that the cache never misses (or double counts) a score.
  * 
  * @author Justin Albano
  */
@@ -37,20 +66,42 @@ public class ScoreCache {
 	 **************************************************************************/
 
 	/**
-	 * The cached total score data.
+	 * The shared caches, keyed by the path of the database file.
+	 */
+	private static final Map<String, ScoreCache> instances = new HashMap<String, ScoreCache>();
+
+	/**
+	 * Flag used to track if the cache has been warmed from the database.
+	 */
+	private volatile boolean warmed;
+
+	/**
+	 * The generation of the cache, incremented each time the cache is
+	 * invalidated or scores are saved. Scores read from the database are only stored in the cache
+	 * if the generation has not changed since the read began.
 	 */
-	private Map<String, Integer> totalsMap;
+	private volatile long generation;
 
 	/**
-	 * The cache average score data.
+	 * The number of transactions saving scores that have not yet ended (see
+	 * {@link #beginSave()}).
 	 */
-	private Map<String, Integer> averagesMap;
+	private int pendingSaves;
 
 	/**
-	 * The cached number of scores data (which is used for calculating the
-	 * average cached score).
+	 * The number of times a total or average was found in the cache.
 	 */
-	private Map<String, Integer> numberOfValuesMap;
+	private final AtomicLong hits = new AtomicLong();
+
+	/**
+	 * The number of times a total or average was not found in the cache.
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * The cached aggregates of the scores, keyed by the type of the scores.
+	 */
+	private ConcurrentMap<String, ScoreAggregate> aggregatesMap;
 
 	/***************************************************************************
 	 * Constructors
@@ -61,17 +112,137 @@ public class ScoreCache {
 	 * storing the cached score data.
 	 */
 	public ScoreCache () {
+		// Initialize the empty map
+		this.aggregatesMap = new ConcurrentHashMap<String, ScoreAggregate>();
+	}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains the cache shared by the process for a database file, creating
+	 * the cache if it does not yet exist.
+	 * 
+	 * @param path
+	 *            The path of the database file.
+	 * @return
+	 *         The shared cache for the database file.
+	 */
+	public static ScoreCache getInstance (String path) {
+
+		synchronized (instances) {
+			// Obtain the cache for the database file
+			ScoreCache cache = instances.get(path);
+
+			if (cache == null) {
+				// Lazy instantiation of the cache for the database file
+				cache = new ScoreCache();
+				instances.put(path, cache);
+			}
+
+			return cache;
+		}
+	}
+
+	/**
+	 * Invalidates the shared cache for a database file (if one exists). This
+	 * must be called whenever the scores in the database are changed by any
+	 * means other than saving a score through a data controller.
+	 * 
+	 * @param path
+	 *            The path of the database file.
+	 */
+	public static void invalidate (String path) {
+
+		// The cache for the database file
+		ScoreCache cache;
 
-		// Initialize the empty maps
-		this.totalsMap = new ConcurrentHashMap<String, Integer>();
-		this.averagesMap = new ConcurrentHashMap<String, Integer>();
-		this.numberOfValuesMap = new ConcurrentHashMap<String, Integer>();
+		synchronized (instances) {
+			// Obtain the cache for the database file
+			cache = instances.get(path);
+		}
+
+		if (cache != null) {
+			// Invalidate the cache if it exists
+			cache.invalidate();
+		}
 	}
 
 	/***************************************************************************
 	 * Methods
 	 **************************************************************************/
 
+	/**
+	 * Warms the cache from the score totals table of the supplied database, if
+	 * the cache has not already been warmed (or has been invalidated since it
+	 * was warmed). Once warmed, the totals and averages of all of the types
+	 * with saved scores are available in the cache. The cache is not locked
+	 * while the database is read; if the cache is invalidated or a score is
+	 * saved during the read, the scores read are discarded and the cache
+	 * remains unwarmed.
+	 * 
+	 * @param db
+	 *            The database to warm the cache from.
+	 */
+	public void warm (SQLiteDatabase db) {
+
+		if (!this.warmed) {
+			// Read the aggregate of each type from the database
+			long generation = this.generation;
+			Map<String, ScoreAggregate> aggregates = SqliteDataControllerQueries.getScoreAggregates(db);
+
+			synchronized (this) {
+
+				if (!this.warmed && generation == this.generation && this.pendingSaves == 0) {
+					// Load the aggregates into the cache and mark it as warmed
+					this.aggregatesMap.putAll(aggregates);
+					this.warmed = true;
+					Logger.i(this.getClass().getName(), "Warmed score cache with {} type(s)", aggregates.size());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the start of a transaction saving scores. Until the transaction
+	 * has ended (see {@link #endSave()}), no scores read from the database are
+	 * stored in the cache: the scores read may or may not include the scores
+	 * being saved, depending on when the transaction is committed.
+	 */
+	public synchronized void beginSave () {
+
+		// The scores may be being read from the database
+		this.pendingSaves++;
+		this.generation++;
+	}
+
+	/**
+	 * Marks the end (commit or rollback) of a transaction saving scores (see
+	 * {@link #beginSave()}).
+	 */
+	public synchronized void endSave () {
+
+		// Discard the scores read while the scores were being saved
+		this.pendingSaves--;
+		this.generation++;
+	}
+
+	/**
+	 * Removes all of the values from the cache. The cache is warmed again the
+	 * next time {@link #warm(SQLiteDatabase)} is called.
+	 */
+	public synchronized void invalidate () {
+
+		// Clear the cached values
+		this.aggregatesMap.clear();
+
+		// Mark the cache as requiring warming
+		this.warmed = false;
+		this.generation++;
+		Logger.i(this.getClass().getName(), "Invalidated score cache [hits: {}, misses: {}]", this.hits, this.misses);
+	}
+
 	/**
 	 * Returns the current total value cached for the provided key. Note that an
 	 * Integer object is returned: This object is null if no value for the given
@@ -85,7 +256,11 @@ public class ScoreCache {
 	 *         associated with the key if a value is set for the key.
 	 */
 	public Integer getTotal (String key) {
-		return this.totalsMap.get(key);
+
+		// Obtain the aggregate for the key
+		ScoreAggregate aggregate = this.getAggregate(key);
+
+		return (aggregate == null) ? null : Integer.valueOf((int) aggregate.getSum());
 	}
 
 	/**
@@ -101,164 +276,178 @@ public class ScoreCache {
 	 *         associated with the key if a value is set for the key.
 	 */
 	public Integer getAverage (String key) {
-		return this.averagesMap.get(key);
+
+		// Obtain the aggregate for the key
+		ScoreAggregate aggregate = this.getAggregate(key);
+
+		return (aggregate == null) ? null : Integer.valueOf(aggregate.getAverage());
 	}
 
 	/**
-	 * Factors a value into the current total. For a total, factoring in a new
-	 * value adds the provided value to the current total.
-	 * <p/>
-	 * <strong>Preconditions:</strong>
-	 * <ul>
-	 * <li>The total has been loaded through the {@link #loadTotal(String, int)}
-	 * method</li>
-	 * </ul>
+	 * Returns the aggregate of the scores cached for the provided key. The
+	 * aggregate is a consistent snapshot of the scores: its sum and number of
+	 * scores always correspond to one another.
 	 * 
 	 * @param key
-	 *            The key for the cached total.
-	 * @param value
-	 *            The value to factor into the total.
+	 *            The key for the scores.
+	 * @return
+	 *         Null if no scores are associated with the key; the aggregate of
+	 *         the scores associated with the key otherwise.
 	 */
-	public void factorIntoTotal (String key, int value) {
-
-		if (!this.isTotalInCache(key)) {
-			// Set the total value if it is not in cache
-			this.loadTotal(key, value);
-		}
-		else {
-			// Add the provided value into the total value
-			int currentTotal = this.totalsMap.get(key);
-			this.loadTotal(key, currentTotal + value);
-		}
+	public ScoreAggregate getAggregate (String key) {
+		return this.record(this.aggregatesMap.get(key));
 	}
 
 	/**
-	 * Factors a value into the current average. For an average, factoring a new
-	 * value re-weighs the average to include the new value. This method should
-	 * be used after
+	 * Factors a score into the cache for a key. Factoring in a new score adds
+	 * the score to the total and re-weighs the average to include the score.
+	 * If no scores are cached for the key, the score is assumed to be the first
+	 * score for the key. This method is thread-safe: concurrent calls never
+	 * lose a score.
 	 * <p/>
 	 * <strong>Preconditions:</strong>
 	 * <ul>
-	 * <li>The average has been loaded through the
-	 * {@link #loadAverage(String, int, int)} method</li>
+	 * <li>The scores have been loaded through the
+	 * {@link #load(String, ScoreAggregate)} method (or the cache has been
+	 * warmed)</li>
 	 * </ul>
 	 * 
 	 * @param key
-	 *            The key for the cached average.
+	 *            The key for the cached scores.
 	 * @param value
-	 *            The new value to factor into the average.
+	 *            The score to factor into the cache.
 	 */
-	public void factorIntoAverage (String key, int value) {
-
-		if (!this.isAverageInCache(key)) {
-			// Set the average if it is not in cache (assumes this is the first
-			// value; therefore, the number of values for the key is set to 1)
-			this.loadAverage(key, value, 1);
-		}
-		else {
-			// Factor in the value to the average: convert the old average to
-			// have the new number of values as a denominator, and add the
-			// value, divided by the new number of values, to this newly
-			// weighted value
-
-			// Obtain the original values (casted to ensure proper arithmetic)
-			int originalNumber = this.numberOfValuesMap.get(key);
-			double originalAverage = this.averagesMap.get(key);
-
-			// Calculate the new average
-			int newAverage = (int) Math.round(((originalAverage * originalNumber) + value) / (originalNumber + 1));
-			Log.d(this.getClass().getName(), "Original average: " + originalAverage);
-			Log.d(this.getClass().getName(), "Original number: " + originalNumber);
-			Log.d(this.getClass().getName(), "Original average times number: " + (originalAverage * originalNumber));
-
-			// Save the new average
-			this.averagesMap.put(key, newAverage);
-
-			// Increment the number of values for the key
-			this.incrementValueCount(key);
+	public void factor (String key, int value) {
+
+		while (true) {
+			// Obtain the current aggregate for the key
+			ScoreAggregate current = this.aggregatesMap.get(key);
+
+			if (current == null) {
+				// Set the score as the first score if nothing is cached
+				if (this.aggregatesMap.putIfAbsent(key, new ScoreAggregate(1, value, value, value)) == null) {
+					return;
+				}
+			}
+			else if (this.aggregatesMap.replace(key, current, current.plus(value))) {
+				// Replace the aggregate only if it was not concurrently changed
+				return;
+			}
 		}
 	}
 
 	/**
-	 * Returns true if there is a total set for the key.
+	 * Returns true if there are scores cached for the key.
 	 * 
 	 * @param key
-	 *            The key for cached total value.
+	 *            The key for the cached scores.
 	 * @return
-	 *         True if there is a non-null total associated with the key.
+	 *         True if there is an aggregate associated with the key.
 	 */
-	public boolean isTotalInCache (String key) {
-
-		// Return if the value in the totals is null for the provided key
-		return this.totalsMap.get(key) != null;
+	public boolean isInCache (String key) {
+		// Return if the aggregate is null for the provided key
+		return this.aggregatesMap.get(key) != null;
 	}
 
 	/**
-	 * Returns true if there is an average set for the key.
+	 * Loads the aggregate of the scores for a key in the cache. This method
+	 * should be used the first time the scores for a key are cached.
 	 * 
 	 * @param key
-	 *            The key for the cached average value.
-	 * @return
-	 *         True if there is a non-null total associated with the key.
+	 *            The key for the scores.
+	 * @param aggregate
+	 *            The aggregate of the scores.
 	 */
-	public boolean isAverageInCache (String key) {
-
-		// Return if the value in the averages is null for the provided key
-		return this.averagesMap.get(key) != null;
+	public void load (String key, ScoreAggregate aggregate) {
+		// Set the aggregate associated with the key
+		this.aggregatesMap.put(key, aggregate);
 	}
 
 	/**
-	 * Loads the total value for a key in the cache. This method should be used
-	 * the first time the totals cache is loaded.
+	 * Loads the aggregate of the scores for a key in the cache, unless the
+	 * cache has been invalidated (or a score has been saved) since the
+	 * aggregate was read from the database.
 	 * 
 	 * @param key
-	 *            The key for the total value.
-	 * @param value
-	 *            The total value.
+	 *            The key for the scores.
+	 * @param aggregate
+	 *            The aggregate of the scores.
+	 * @param generation
+	 *            The generation of the cache (see {@link #getGeneration()})
+	 *            obtained before the aggregate was read.
+	 * @return
+	 *         True if the aggregate was loaded; false if it was discarded.
 	 */
-	public void loadTotal (String key, int value) {
+	public synchronized boolean load (String key, ScoreAggregate aggregate, long generation) {
 
-		// Set the total value associated with the key
-		this.totalsMap.put(key, value);
+		if (generation != this.generation || this.pendingSaves > 0) {
+			// The aggregate may be stale: do not cache it
+			return false;
+		}
+
+		this.load(key, aggregate);
+		return true;
 	}
 
 	/**
-	 * Loads the average value for a key in the cache. This method should be
-	 * used the first time the average cache is loaded.
+	 * Helper method to record a lookup of a value in the cache.
 	 * 
-	 * @param key
-	 *            The key for the average value.
 	 * @param value
-	 *            The average value.
-	 * @param numberOfValues
-	 *            The number of values that makes up the average.
+	 *            The value found in the cache; null if no value was found.
+	 * @return
+	 *         The supplied value.
 	 */
-	public void loadAverage (String key, int value, int numberOfValues) {
+	private <T> T record (T value) {
 
-		// Set the average value associated with the key
-		this.averagesMap.put(key, value);
+		if (value != null) {
+			// Increment the number of hits
+			this.hits.incrementAndGet();
+		}
+		else {
+			// Increment the number of misses
+			this.misses.incrementAndGet();
+		}
 
-		// Reset the numbe of values in the average
-		this.numberOfValuesMap.put(key, numberOfValues);
+		return value;
 	}
 
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
 	/**
-	 * Helper method to increment the number of values that are factored in the
-	 * current average.
-	 * 
-	 * @param key
-	 *            The key for the average in cache.
+	 * @return
+	 *         True if the cache has been warmed from the database; false
+	 *         otherwise.
 	 */
-	private void incrementValueCount (String key) {
+	public boolean isWarmed () {
+		return this.warmed;
+	}
 
-		if (this.numberOfValuesMap.get(key) == null) {
-			// Set the default value to 1
-			this.numberOfValuesMap.put(key, 1);
-		}
-		else {
-			// Increment the number associated with the key
-			this.numberOfValuesMap.put(key, this.numberOfValuesMap.get(key) + 1);
-			Log.d(this.getClass().getName(), "New average count value for '" + key + "': " + this.numberOfValuesMap.get(key));
-		}
+	/**
+	 * @return
+	 *         The generation of the cache (incremented each time the cache is
+	 *         invalidated, and as each transaction saving scores begins and
+	 *         ends).
+	 */
+	public long getGeneration () {
+		return this.generation;
+	}
+
+	/**
+	 * @return
+	 *         The number of times a total or average was found in the cache.
+	 */
+	public long getHits () {
+		return this.hits.get();
+	}
+
+	/**
+	 * @return
+	 *         The number of times a total or average was not found in the
+	 *         cache.
+	 */
+	public long getMisses () {
+		return this.misses.get();
 	}
 }
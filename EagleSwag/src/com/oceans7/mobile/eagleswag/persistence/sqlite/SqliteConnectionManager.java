@@ -0,0 +1,279 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import android.content.Context;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * Process-wide manager of the connections to the SQLite database. Rather than
+ * opening (and closing) the database each time a data controller is created,
+ * the manager keeps a single database open for each database file and hands it
+ * out to each of the data controllers that acquire it. The manager counts the
+ * references to each database. Once the last data controller using a database
+ * has released it, the database is kept open (idle), so that the next data
+ * controller does not reopen it; idle databases are closed when the
+ * application is asked to trim its memory usage (see {@link #trimMemory(int)}).
+ * <p/>
+ * <strong>Note:</strong> the databases are keyed by the path of the database
+ * file, which allows contexts that rename the database (such as the contexts
+ * used for testing) to obtain a connection of their own.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteConnectionManager {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * Singleton instance of the manager.
+	 */
+	private static SqliteConnectionManager instance;
+
+	/**
+	 * The open connections, keyed by the path of the database file.
+	 */
+	private Map<String, Connection> connections;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Hidden constructor (for singleton).
+	 */
+	private SqliteConnectionManager () {
+		this.connections = new HashMap<String, Connection>();
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains a singleton instance of the connection manager.
+	 * 
+	 * @return
+	 *         A singleton instance of the connection manager.
+	 */
+	public static synchronized SqliteConnectionManager getInstance () {
+
+		if (instance == null) {
+			// Lazy instantiation of the instance
+			instance = new SqliteConnectionManager();
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Acquires a reference to the shared writable database. If the database
+	 * has not yet been opened, it is opened (and created or upgraded, if
+	 * required) using the SQLite database helper. Each call to this method must
+	 * be matched with a call to {@link #release(SQLiteDatabase)}.
+	 * 
+	 * @param context
+	 *            The context used to open the database.
+	 * @return
+	 *         The shared writable database.
+	 * @throws SQLException
+	 *             The database could not be opened.
+	 */
+	public synchronized SQLiteDatabase acquire (Context context) throws SQLException {
+
+		// Obtain the connection for the database file of the context
+		String path = context.getDatabasePath(SqliteDataControllerConstants.DATABASE_NAME).getPath();
+		Connection connection = this.connections.get(path);
+
+		if (connection == null || !connection.database.isOpen()) {
+			// Open the database if it is not already open
+			SqliteDataControllerHelper helper = new SqliteDataControllerHelper(context);
+			connection = new Connection(helper, helper.getWritableDatabase());
+			this.connections.put(path, connection);
+
+			// Use write-ahead logging, so that reads are not blocked by the writer
+			boolean wal = connection.database.enableWriteAheadLogging();
+
+			// Fill the schema catalog of the database
+			SqliteSchemaCatalog.forDatabase(connection.database);
+
+			Logger.i(this.getClass().getName(), "Opened shared database '{}' (write-ahead logging: {})", connection.database.getPath(), wal);
+		}
+
+		// Add a reference to the connection
+		connection.references++;
+
+		return connection.database;
+	}
+
+	/**
+	 * Releases a reference to a shared database previously obtained through
+	 * {@link #acquire(Context)}. When the last reference to the database is
+	 * released, the database is kept open until it is closed as idle (see
+	 * {@link #closeIdle()}).
+	 * 
+	 * @param database
+	 *            The database to release.
+	 */
+	public synchronized void release (SQLiteDatabase database) {
+
+		for (Map.Entry<String, Connection> entry : this.connections.entrySet()) {
+			// Find the connection for the database
+			Connection connection = entry.getValue();
+
+			if (connection.database == database) {
+
+				if (--connection.references <= 0) {
+					// The last reference has been released: keep the database
+					// open until it is closed as idle
+					connection.references = 0;
+					Logger.i(this.getClass().getName(), "Shared database '{}' is idle", entry.getKey());
+				}
+
+				return;
+			}
+		}
+
+		// The database is not managed by this manager
+		Logger.w(this.getClass().getName(), "Attempted to release unmanaged database '{}'", database.getPath());
+	}
+
+	/**
+	 * Closes each of the open databases to which no references are held. A
+	 * closed database is opened again by the next call to
+	 * {@link #acquire(Context)}.
+	 * 
+	 * @return
+	 *         The number of databases closed.
+	 */
+	public synchronized int closeIdle () {
+
+		// The number of databases closed
+		int closed = 0;
+
+		for (Iterator<Map.Entry<String, Connection>> it = this.connections.entrySet().iterator(); it.hasNext();) {
+			// Find each of the connections without references
+			Map.Entry<String, Connection> entry = it.next();
+			Connection connection = entry.getValue();
+
+			if (connection.references <= 0) {
+				// Close the database once its writes have been committed
+				it.remove();
+				SqliteReaderPool.release(connection.database);
+				SqliteWriter.release(connection.database);
+				SqliteStatementCache.release(connection.database);
+				SqliteSchemaCatalog.release(connection.database);
+				connection.helper.close();
+				closed++;
+
+				Logger.i(this.getClass().getName(), "Closed idle shared database '{}'", entry.getKey());
+			}
+		}
+
+		return closed;
+	}
+
+	/**
+	 * Closes the idle databases (see {@link #closeIdle()}) and releases any
+	 * memory held by the databases still in use that is not required for their
+	 * continued use. This method should be called when the application is
+	 * asked to trim its memory usage.
+	 * 
+	 * @param level
+	 *            The trim level supplied by the Android framework.
+	 */
+	public synchronized void trimMemory (int level) {
+
+		// Close the databases that are no longer in use
+		int closed = this.closeIdle();
+
+		// Release the memory held by SQLite that is not required
+		int released = SQLiteDatabase.releaseMemory();
+
+		Logger.i(this.getClass().getName(), "Trimmed (level {}) {} bytes and {} idle database(s); {} database(s) open", level, released, closed, this.connections.size());
+	}
+
+	/**
+	 * Obtains the number of references currently held to the database opened
+	 * by the supplied context.
+	 * 
+	 * @param context
+	 *            The context used to open the database.
+	 * @return
+	 *         The number of references held to the database; 0 if the
+	 *         database is idle or not open.
+	 */
+	public synchronized int getReferenceCount (Context context) {
+
+		// Obtain the connection for the database file of the context
+		Connection connection = this.connections.get(context.getDatabasePath(SqliteDataControllerConstants.DATABASE_NAME).getPath());
+
+		return (connection == null) ? 0 : connection.references;
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * An open connection to a database file, including the helper used to open
+	 * it and the number of data controllers referencing it.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class Connection {
+
+		/**
+		 * The helper used to open the database.
+		 */
+		private final SqliteDataControllerHelper helper;
+
+		/**
+		 * The open writable database.
+		 */
+		private final SQLiteDatabase database;
+
+		/**
+		 * The number of references held to the database.
+		 */
+		private int references;
+
+		/**
+		 * Creates a new connection with no references.
+		 * 
+		 * @param helper
+		 *            The helper used to open the database.
+		 * @param database
+		 *            The open writable database.
+		 */
+		public Connection (SqliteDataControllerHelper helper, SQLiteDatabase database) {
+			this.helper = helper;
+			this.database = database;
+		}
+	}
+}
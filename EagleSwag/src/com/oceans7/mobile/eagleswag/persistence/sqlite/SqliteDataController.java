@@ -18,23 +18,36 @@
 
 package com.oceans7.mobile.eagleswag.persistence.sqlite;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
-import android.util.Log;
 
 import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactories;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactory;
+import com.oceans7.mobile.eagleswag.domain.RoundType;
 import com.oceans7.mobile.eagleswag.domain.Score;
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
 import com.oceans7.mobile.eagleswag.persistence.DataController;
 import com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategies;
 import com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy;
+import com.oceans7.mobile.eagleswag.persistence.SaveListener;
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * A data controller that implements data storage and retrieval using a SQLite
@@ -66,25 +79,62 @@ public class SqliteDataController implements DataController {
 
 	/**
 	 * The writable database object used to retrieve and store data in the
-	 * SQLite database.
+	 * SQLite database. This database is shared by all SQLite data controllers
+	 * and is managed by the SqliteConnectionManager.
 	 */
 	private SQLiteDatabase database;
 
 	/**
 	 * Internal cache to speed up the retrieval of score data from the SQLite
-	 * database.
+	 * database. The cache is shared by all SQLite data controllers using the
+	 * same database.
 	 */
 	private ScoreCache cache;
 
 	/**
-	 * The list of observers that are notified the update method is called.
+	 * The single writer of the shared database, which executes all of the
+	 * writes of the data controller (see {@link SqliteWriter}).
 	 */
-	private ArrayList<LoadingListener> observers;
+	private SqliteWriter writer;
 
 	/**
-	 * The number of questions loaded before the loading listeners are notified.
+	 * The pool of read-only connections to the shared database, used to read
+	 * the questions without waiting for the writer (see
+	 * {@link SqliteReaderPool}). The scores are read from the score cache,
+	 * which is only filled by the writer.
 	 */
-	private static final int LOADING_THRESHOLD = 5;
+	private SqliteReaderPool readers;
+
+	/**
+	 * The list of observers that are notified the update method is called. The
+	 * list is copied when a listener is added or removed, so that the
+	 * listeners can be notified without locking.
+	 */
+	private final CopyOnWriteArrayList<LoadingListener> observers = new CopyOnWriteArrayList<LoadingListener>();
+
+	/**
+	 * The default minimum time (in milliseconds) between the progress updates
+	 * delivered to the loading listeners (about one frame).
+	 */
+	public static final long DEFAULT_LOADING_NOTIFICATION_INTERVAL = 16;
+
+	/**
+	 * The minimum time (in milliseconds) between the progress updates
+	 * delivered to the loading listeners.
+	 */
+	private volatile long loadingNotificationInterval = DEFAULT_LOADING_NOTIFICATION_INTERVAL;
+
+	/**
+	 * The time (in milliseconds) at which the last progress update was
+	 * delivered to the loading listeners.
+	 */
+	private final AtomicLong lastLoadingNotification = new AtomicLong(Long.MIN_VALUE / 2);
+
+	/**
+	 * The number of questions inserted in each transaction while loading the
+	 * questions from a data file.
+	 */
+	private int loadingBatchSize = SqliteQuestionLoader.DEFAULT_BATCH_SIZE;
 
 	/***************************************************************************
 	 * Constructors
@@ -93,7 +143,12 @@ public class SqliteDataController implements DataController {
 	/**
 	 * Opens the data controller. This will establish any necessary connections
 	 * to external services (such as a database) and open any files on the file
-	 * system required necessary for storing and retrieving question data.
+	 * system required necessary for storing and retrieving question data. The
+	 * database itself is shared between all SQLite data controllers: creating a
+	 * data controller only acquires a reference to the shared database, which
+	 * is released when the data controller is closed. If the database cannot
+	 * be opened, the failure is logged and the data controller is left without
+	 * a database (see {@link #getDatabase()}).
 	 * 
 	 * @param context
 	 *            The Android context used to open any database connections or
@@ -104,19 +159,34 @@ public class SqliteDataController implements DataController {
 		// Store the context
 		this.context = context;
 
-		// Create the score cache
-		this.cache = new ScoreCache();
+		try {
+			// Obtain a reference to the shared writable database
+			this.database = SqliteConnectionManager.getInstance().acquire(context);
 
-		// Create the database helper
-		SqliteDataControllerHelper helper = new SqliteDataControllerHelper(context);
+			// Obtain the score cache shared by the database
+			this.cache = ScoreCache.getInstance(this.database.getPath());
 
-		try {
-			// Obtain a writable database reference
-			this.database = helper.getWritableDatabase();
+			// Obtain the writer of the shared database
+			this.writer = SqliteWriter.forDatabase(this.database);
+
+			// Obtain the pool of read-only connections to the shared database
+			this.readers = SqliteReaderPool.forDatabase(this.database);
 		}
 		catch (SQLException e) {
 			// The helper could not create a writable database
-			Log.i(this.getClass().getName(), "Writable database cannot be created by SQLite database helper: " + e);
+			Logger.e(this.getClass().getName(), "Writable database cannot be created by SQLite database helper: {}", e);
+
+			if (this.database != null) {
+				// Release the database if it was acquired before the failure,
+				// so that a data controller without a database is never left
+				// partially opened
+				SqliteConnectionManager.getInstance().release(this.database);
+			}
+
+			this.database = null;
+			this.cache = null;
+			this.writer = null;
+			this.readers = null;
 		}
 	}
 
@@ -125,20 +195,32 @@ public class SqliteDataController implements DataController {
 	 **************************************************************************/
 
 	/**
+	 * Releases the reference this data controller holds to the shared
+	 * database. The database itself is kept open once all of the data
+	 * controllers using it have been closed, until the application is asked to
+	 * trim its memory usage (see {@link SqliteConnectionManager#closeIdle()}).
+	 * Closing a data controller more than once has no effect.
+	 * <p/>
 	 * {@inheritDoc}
 	 * 
 	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#close()
 	 */
 	@Override
-	public void close () {
+	public synchronized void close () {
 
 		if (this.database != null) {
-			// Close the database if it has been opened
-			this.database.close();
+			// Release the shared database if it has been acquired
+			SqliteConnectionManager.getInstance().release(this.database);
+			this.database = null;
 		}
 	}
 
 	/**
+	 * The questions are loaded by a {@link SqliteQuestionLoader} in its
+	 * pipelined mode: the data file is parsed on a separate thread while the
+	 * questions are inserted in batches of the loading batch size (see
+	 * {@link #setLoadingBatchSize(int)}).
+	 * <p/>
 	 * {@inheritDoc}
 	 * 
 	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#loadQuestions(java.lang.Class)
@@ -149,49 +231,174 @@ public class SqliteDataController implements DataController {
 		// Obtain a reference to the data file parser
 		DataFileParserStrategy parser = DataFileParserStrategies.getInstance().getDataFileParserStrategy(this.context);
 
-		// Parse the data file and retrieve the parsed questions
-		Queue<? extends Question> questions = parser.getQuestions(key);
-		
-		// Variables to store the number of questions (total and loaded)
-		int total = questions.size();
-		int loaded = 0;
-
 		// Generate the table name from the key
-		String table = generateTableName(key);
+		final String table = generateTableName(key);
 
-		// Create the table in the database
-		SqliteDataControllerQueries.createQuestionsTable(this.database, table);
-		Log.i(this.getClass().getName(), "Created table '" + table + "'");
+		// Create the table in the database (on the writer of the database)
+		this.writer.execute(new SqliteWriter.Command<Void>() {
+
+			@Override
+			public Void execute (SQLiteDatabase db) {
+				SqliteDataControllerQueries.createQuestionsTable(db, table);
+				return null;
+			}
+		});
+		Logger.i(this.getClass().getName(), "Created table '{}'", table);
 
 		try {
-			// Begin SQL insertion transaction
-			this.database.beginTransaction();
-
-			for (Question question : questions) {
-				// Insert each question into the database
-
-				// Insert the question into the database
-				SqliteDataControllerQueries.insertIntoQuestionsTable(this.database, table, question);
-				Log.i(this.getClass().getName(), "Inserted " + question + " into '" + table + "'");
-				loaded++;
-				
-				if (loaded % LOADING_THRESHOLD == 0 || loaded == total) {
-					// If the loading threshold is met, notifiy listeners
-					this.updateLoadingListeners(total, loaded);
+			// Load the questions, forwarding the progress to the listeners
+			SqliteQuestionLoader loader = new SqliteQuestionLoader(this.database, this.loadingBatchSize, SqliteQuestionLoader.DEFAULT_QUEUE_CAPACITY);
+			loader.loadPipelined(parser, key, table, new LoadingListener() {
+
+				@Override
+				public void update (int total, int current) {
+					updateLoadingListeners(total, current);
 				}
-			}
+			});
 
-			// Mark SQL insertion transaction as successfully completed
-			this.database.setTransactionSuccessful();
+			// The table now matches the data file (the checksum is recorded by
+			// the loader)
+			SqliteSchemaCatalog.forDatabase(this.database).markSynchronized(table);
 		}
 		catch (SQLException e) {
 			// An exception occurred while trying to create the table
-			Log.e(this.getClass().getName(), "SQL Error while creating the database: " + e);
+			Logger.e(this.getClass().getName(), "SQL Error while creating the database: {}", e);
 		}
-		finally {
-			// End SQL insertion transaction
-			this.database.endTransaction();
+	}
+
+	/**
+	 * The questions tables that do not yet exist are created and loaded by a
+	 * {@link SqliteQuestionLoader} in its pipelined mode: the data files are
+	 * parsed in parallel (by at most one thread for each processor), while
+	 * the questions of all of the data files are inserted in batches by the
+	 * writer of the shared database (see {@link SqliteWriter}).
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#loadAll()
+	 */
+	@Override
+	public int loadAll () {
+
+		// Obtain a reference to the data file parser
+		DataFileParserStrategy parser = DataFileParserStrategies.getInstance().getDataFileParserStrategy(this.context);
+		SqliteSchemaCatalog catalog = SqliteSchemaCatalog.forDatabase(this.database);
+
+		// The questions tables to load, keyed by question type
+		final Map<Class<? extends Question>, String> tables = new LinkedHashMap<Class<? extends Question>, String>();
+
+		for (Class<? extends Question> key : DataFileParserStrategies.getInstance().getQuestionTypes(this.context)) {
+
+			// Generate the table name from the key
+			String table = generateTableName(key);
+
+			if (!catalog.isQuestionsTable(table)) {
+				// The table must be created and loaded
+				tables.put(key, table);
+			}
+			else {
+				// Ensure the existing table is synchronized
+				this.prepareQuestionsTable(key);
+			}
+		}
+
+		// The number of questions loaded
+		int loaded = 0;
+
+		if (!tables.isEmpty()) {
+
+			// Create the tables in the database (in a single transaction of
+			// the writer of the database)
+			this.writer.execute(new SqliteWriter.Command<Void>() {
+
+				@Override
+				public Void execute (SQLiteDatabase db) {
+
+					for (String table : tables.values()) {
+						SqliteDataControllerQueries.createQuestionsTable(db, table);
+					}
+
+					return null;
+				}
+			});
+			Logger.i(this.getClass().getName(), "Created tables {}", tables.values());
+
+			// Parse the data files in parallel
+			int threads = Math.min(tables.size(), Runtime.getRuntime().availableProcessors());
+			ExecutorService executor = Executors.newFixedThreadPool(Math.max(threads, 1));
+
+			try {
+				// Load the questions, forwarding the combined progress to the
+				// listeners
+				SqliteQuestionLoader loader = new SqliteQuestionLoader(this.database, this.loadingBatchSize, SqliteQuestionLoader.DEFAULT_QUEUE_CAPACITY);
+				loaded = loader.loadPipelined(parser, tables, executor, new LoadingListener() {
+
+					@Override
+					public void update (int total, int current) {
+						updateLoadingListeners(total, current);
+					}
+				});
+
+				for (String table : tables.values()) {
+					// The tables now match the data files
+					catalog.markSynchronized(table);
+				}
+			}
+			catch (SQLException e) {
+				// An exception occurred while trying to load the tables
+				Logger.e(this.getClass().getName(), "SQL Error while creating the database: {}", e);
+			}
+			finally {
+				// Release the parser threads
+				executor.shutdown();
+			}
+		}
+
+		return loaded;
+	}
+
+	/**
+	 * The questions table is synchronized by the
+	 * {@link SqliteQuestionBankSynchronizer}: only the questions that have
+	 * changed are written to the database, in a single transaction. If the
+	 * questions table does not yet exist, the questions are loaded instead.
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#syncQuestions(java.lang.Class)
+	 */
+	@Override
+	public <T extends Question> int syncQuestions (Class<T> key) {
+
+		// Generate the table name from the key
+		String table = generateTableName(key);
+		SqliteSchemaCatalog catalog = SqliteSchemaCatalog.forDatabase(this.database);
+
+		if (!catalog.isQuestionsTable(table)) {
+			// The questions table does not exist: load all of the questions
+			this.loadQuestions(key);
+			return 0;
+		}
+
+		// Obtain a reference to the data file parser
+		DataFileParserStrategy parser = DataFileParserStrategies.getInstance().getDataFileParserStrategy(this.context);
+
+		// The number of questions changed by the synchronization
+		int changed = 0;
+
+		try {
+			// Synchronize the table with the data file
+			changed = SqliteQuestionBankSynchronizer.synchronize(this.database, table, parser, key);
 		}
+		catch (SQLException e) {
+			// An exception occurred while trying to synchronize the table
+			Logger.e(this.getClass().getName(), "SQL Error while synchronizing table '{}': {}", table, e);
+		}
+
+		// The table is only synchronized once while the database is open
+		catalog.markSynchronized(table);
+
+		return changed;
 	}
 
 	/**
@@ -218,13 +425,106 @@ public class SqliteDataController implements DataController {
 			// Generate the table name from the key
 			String table = generateTableName(key);
 
-			if (!SqliteDataControllerQueries.isTableExists(this.database, table)) {
-				// If the questions table has not yet been created, create it
-				this.loadQuestions(key);
+			// Ensure the questions table is loaded and synchronized
+			this.prepareQuestionsTable(key);
+
+			// Obtain the factory used to create the questions (resolved once
+			// for all of the rows)
+			QuestionFactory<T> factory = QuestionFactories.getInstance().getFactory(key);
+
+			// Obtain a read-only connection to the database
+			SQLiteDatabase reader = this.readers.acquireReader();
+
+			try {
+				// Obtain the data for the questions from the database
+				Cursor cursor = SqliteDataControllerQueries.getQuestions(this.context, reader, table, number);
+
+				// Reset cursor
+				cursor.moveToFirst();
+
+				while (!cursor.isAfterLast()) {
+					// Loop through the cursor
+
+					// Question data
+					int id = cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.ID.ordinal());
+					String text = cursor.getString(SqliteDataControllerConstants.QuestionsColumns.QUESTION.ordinal());
+					int yesValue = cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE.ordinal());
+					int noValue = cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE.ordinal());
+					int usedCount = cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT.ordinal());
+
+					// Create the question using the factory for the supplied
+					// class
+					T question = factory.create(id, text, yesValue, noValue, usedCount);
+
+					// Add the new question to the queue
+					questions.add(question);
+
+					if (Logger.isLoggable(Logger.INFO)) {
+						// Log the question (the class name is only obtained if
+						// logged)
+						Logger.i(this.getClass().getName(), "Added general question to {} queue: {}", key.getCanonicalName(), question);
+					}
+
+					// Increment the cursor
+					cursor.moveToNext();
+				}
+
+				// Close the cursor
+				cursor.close();
+			}
+			finally {
+				// Return the connection to the pool
+				this.readers.releaseReader(reader);
 			}
+		}
 
-			// Obtain the data for the questions from the database
-			Cursor cursor = SqliteDataControllerQueries.getQuestions(this.context, this.database, table, number);
+		return questions;
+	}
+
+	/**
+	 * The specific and general questions are retrieved from the SQLite
+	 * database in a single query (see
+	 * {@link SqliteDataControllerQueries#getRoundQuestions(SQLiteDatabase, String, int, String, int)}
+	 * ).
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#getRoundQuestions(com.oceans7.mobile.eagleswag.domain.RoundType)
+	 */
+	@Override
+	public List<Question> getRoundQuestions (RoundType type) {
+
+		// Obtain the number of questions of each type in the round
+		Class<? extends Question> specificKey = type.getSpecificQuestionType();
+		int specificCount = type.getSpecificQuestionCount(this.context);
+		int generalCount = type.getGeneralQuestionCount(this.context);
+
+		// Ensure both questions tables are loaded and synchronized
+		this.prepareQuestionsTable(specificKey);
+		this.prepareQuestionsTable(GeneralQuestion.class);
+
+		// Obtain the factories used to create the questions (resolved once for
+		// all of the rows)
+		QuestionFactory<? extends Question> specificFactory = QuestionFactories.getInstance().getFactory(specificKey);
+		QuestionFactory<GeneralQuestion> generalFactory = QuestionFactories.getInstance().getFactory(GeneralQuestion.class);
+
+		// The column that distinguishes the specific questions from the
+		// general questions follows the question columns
+		int specificColumn = SqliteDataControllerConstants.QuestionsColumns.values().length;
+
+		// The list of questions (array-backed, to be shuffled in place)
+		List<Question> questions;
+
+		// Obtain a read-only connection to the database
+		SQLiteDatabase reader = this.readers.acquireReader();
+
+		try {
+			// Obtain the data for the questions of both types from the database
+			Cursor cursor = SqliteDataControllerQueries.getRoundQuestions(reader, generateTableName(specificKey), specificCount,
+				generateTableName(GeneralQuestion.class), generalCount);
+
+			// Create the list of questions
+			questions = new ArrayList<Question>(cursor.getCount());
 
 			// Reset cursor
 			cursor.moveToFirst();
@@ -239,38 +539,9 @@ public class SqliteDataController implements DataController {
 				int noValue = cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE.ordinal());
 				int usedCount = cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT.ordinal());
 
-				try {
-					// Obtain the constructor for the supplied class
-					Class<?>[] argTypes = new Class<?>[] { Integer.class, String.class, Integer.class, Integer.class, Integer.class };
-					Constructor<T> constructor = key.getDeclaredConstructor(argTypes);
-					Object[] args = new Object[] { id, text, yesValue, noValue, usedCount };
-
-					// Invoke the constructor to obtain the object
-					T question = constructor.newInstance(args);
-
-					// Add the new question to the queue
-					questions.add(question);
-					Log.i(this.getClass().getName(), "Added general question to " + key.getCanonicalName() + " queue: " + question);
-				}
-				catch (IllegalArgumentException e) {
-					Log.e(this.getClass().getName(),
-						"Illegal argument exception occurred while trying to instantiate new question using reflective method: " + e);
-				}
-				catch (InstantiationException e) {
-					Log.e(this.getClass().getName(),
-						"Instantiation exception occurred while trying to instantiate new question using reflective method: " + e);
-				}
-				catch (IllegalAccessException e) {
-					Log.e(this.getClass().getName(),
-						"Illegal access exception occurred while trying to instantiate new question using reflective method: " + e);
-				}
-				catch (InvocationTargetException e) {
-					Log.e(this.getClass().getName(),
-						"Invokation target exception occurred while trying to instantiate new question using reflective method: " + e);
-				}
-				catch (NoSuchMethodException e) {
-					Log.e(this.getClass().getName(), "The constructor used to create the generic question object cannot be found: " + e);
-				}
+				// Create the question using the factory for the type of the row
+				QuestionFactory<? extends Question> factory = (cursor.getInt(specificColumn) == 1) ? specificFactory : generalFactory;
+				questions.add(factory.create(id, text, yesValue, noValue, usedCount));
 
 				// Increment the cursor
 				cursor.moveToNext();
@@ -279,10 +550,29 @@ public class SqliteDataController implements DataController {
 			// Close the cursor
 			cursor.close();
 		}
+		finally {
+			// Return the connection to the pool
+			this.readers.releaseReader(reader);
+		}
+
+		// Shuffle the questions in place before returning them
+		Collections.shuffle(questions);
+
+		Logger.i(this.getClass().getName(), "Obtained ({}) questions for a round of type {}", questions.size(), type.getName());
 
 		return questions;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#getQuestionsVersion()
+	 */
+	@Override
+	public long getQuestionsVersion () {
+		return SqliteDataControllerQueries.getQuestionsVersion();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -290,20 +580,7 @@ public class SqliteDataController implements DataController {
 	 */
 	@Override
 	public int getTotalScore (String type) {
-
-		if (!this.cache.isTotalInCache(type)) {
-			// Obtain the total from database if it is not cached
-			int total = SqliteDataControllerQueries.getTotalScore(this.database, type);
-
-			// Set the value in cache
-			this.cache.loadTotal(type, total);
-
-			return total;
-		}
-		else {
-			// Obtain the value from cache
-			return this.cache.getTotal(type);
-		}
+		return (int) this.getScoreAggregate(type).getSum();
 	}
 
 	/**
@@ -313,51 +590,90 @@ public class SqliteDataController implements DataController {
 	 */
 	@Override
 	public int getAverageScore (String type) {
+		return this.getScoreAggregate(type).getAverage();
+	}
+
+	/**
+	 * Obtains the aggregate of the scores for a type from the score cache. If
+	 * the scores are not cached, they are read from the database on a pooled
+	 * read-only connection (see {@link SqliteReaderPool}), without waiting for
+	 * the writes queued on the writer; the scores read are only stored in the
+	 * cache if no score was saved (or the cache invalidated) during the read.
+	 * 
+	 * @param type
+	 *            The type of round to retrieve the scores for.
+	 * @return
+	 *         The aggregate of the scores for the specified type.
+	 */
+	private ScoreAggregate getScoreAggregate (String type) {
 
-		if (!this.cache.isAverageInCache(type)) {
-			// Obtain the total score from database since it is not yet cached
-			double totalScore = SqliteDataControllerQueries.getTotalScore(this.database, type);
+		// Obtain the aggregate from cache
+		ScoreAggregate aggregate = this.cache.getAggregate(type);
 
-			// Obtain the number of entries
-			int entries = (int) SqliteDataControllerQueries.getNumberOfScores(this.database, type);
+		if (aggregate == null) {
+			// Read the scores from the database since they are not yet cached
+			SQLiteDatabase reader = this.readers.acquireReader();
 
-			// Calculate the average
-			int average = (int) Math.round(totalScore / entries);
+			try {
+				// Ensure the cache has been warmed from the database
+				long generation = this.cache.getGeneration();
+				this.cache.warm(reader);
 
-			// Set the average in cache
-			this.cache.loadAverage(type, average, entries);
+				// Obtain the aggregate from cache now that it is warmed
+				aggregate = this.cache.getAggregate(type);
 
-			return average;
-		}
-		else {
-			// Return the cached value of the average
-			return this.cache.getAverage(type);
+				if (aggregate == null) {
+					// No scores of the type are cached (or the scores read
+					// were discarded): read them from the database and set
+					// them in cache
+					aggregate = SqliteDataControllerQueries.getScoreAggregate(reader, type);
+					this.cache.load(type, aggregate, generation);
+				}
+			}
+			finally {
+				// Return the connection to the pool
+				this.readers.releaseReader(reader);
+			}
 		}
+
+		return aggregate;
 	}
 
 	/**
+	 * The question is saved by the writer of the shared database (see
+	 * {@link SqliteWriter}); this method returns once the question has been
+	 * committed.
+	 * <p/>
 	 * {@inheritDoc}
 	 * 
 	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#saveQuestion(java.lang.Class,
 	 *      com.oceans7.mobile.eagleswag.domain.Question)
 	 */
 	@Override
-	public void saveQuestion (Class<? extends Question> key, Question question) {
+	public void saveQuestion (Class<? extends Question> key, final Question question) {
 
 		// Convert the key into the table name where the data will be saved
-		String table = generateTableName(key);
+		final String table = generateTableName(key);
 
-		if (!SqliteDataControllerQueries.isTableExists(this.database, table)) {
-			// If the questions table has not yet been created, create it
-			this.loadQuestions(key);
-		}
+		// Ensure the questions table is loaded and synchronized
+		this.prepareQuestionsTable(key);
 
 		// Save the question in the database
-		SqliteDataControllerQueries.updateQuestion(this.database, table, question);
+		this.writer.execute(new SqliteWriter.Command<Void>() {
 
+			@Override
+			public Void execute (SQLiteDatabase db) {
+				SqliteDataControllerQueries.updateQuestion(db, table, question);
+				return null;
+			}
+		});
 	}
 
 	/**
+	 * The score is saved by the writer of the shared database (see
+	 * {@link SqliteWriter}); this method returns once the score has been
+	 * committed.
+	 * <p/>
 	 * {@inheritDoc}
 	 * 
 	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#saveRoundScore(com.oceans7.mobile.eagleswag.domain.Score,
@@ -367,40 +683,113 @@ public class SqliteDataController implements DataController {
 	public void saveRoundScore (Score score, String type) {
 
 		// Save the score in the database
-		SqliteDataControllerQueries.insertIntoScoreTable(this.database, type, score);
+		this.writer.execute(new ScoreCommand(null, score, type, null));
+	}
 
-		// Factor in the total and average values for this score
-		this.cache.factorIntoTotal(type, score.getScore());
-		this.cache.factorIntoAverage(type, score.getScore());
+	/**
+	 * The questions and the score are written by the writer of the shared
+	 * database (see {@link SqliteWriter}) in a single SQLite transaction, which
+	 * may be shared with the writes of other data controllers, and which
+	 * requires only a single commit for the entire round. The used counts of
+	 * the questions are incremented by a single update for each type of
+	 * question, which leaves the remainder of each question unchanged. This
+	 * method returns once the round has been committed; if the round cannot
+	 * be committed, the {@link SQLException} is thrown to the caller.
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#saveRound(java.util.List,
+	 *      com.oceans7.mobile.eagleswag.domain.Score, java.lang.String)
+	 */
+	@Override
+	public void saveRound (List<? extends Question> questions, Score score, String type) {
+
+		// Group the IDs of the questions by question table
+		Map<String, long[]> ids = this.groupQuestionIds(questions);
 
+		try {
+			// Save the round in the database
+			this.writer.execute(new ScoreCommand(ids, score, type, null));
+		}
+		catch (SQLException e) {
+			// An exception occurred while trying to save the round: none of
+			// the round was saved, so report the failure to the caller
+			Logger.e(this.getClass().getName(), "SQL Error while saving the round: {}", e);
+			throw e;
+		}
+
+		Logger.i(this.getClass().getName(), "Saved round of {} question(s) successfully", questions.size());
 	}
 
 	/**
+	 * The round is submitted to the writer of the shared database (see
+	 * {@link SqliteWriter}), and is saved as by
+	 * {@link #saveRound(List, Score, String)}; the listener is notified on the
+	 * writer thread. The listener may close the data controller.
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#saveRound(java.util.List,
+	 *      com.oceans7.mobile.eagleswag.domain.Score, java.lang.String,
+	 *      com.oceans7.mobile.eagleswag.persistence.SaveListener)
+	 */
+	@Override
+	public void saveRound (List<? extends Question> questions, Score score, String type, SaveListener listener) {
+
+		// Group the IDs of the questions by question table
+		Map<String, long[]> ids = this.groupQuestionIds(questions);
+
+		// Submit the round to be saved in the database
+		this.writer.submit(new ScoreCommand(ids, score, type, listener));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#flush(long)
+	 */
+	@Override
+	public boolean flush (long timeout) {
+		return this.writer.flush(timeout);
+	}
+
+	/**
+	 * Progress updates are coalesced: while questions are being loaded, the
+	 * listeners are notified at most once per loading notification interval
+	 * (see {@link #setLoadingNotificationInterval(long)}), and the other
+	 * updates within the interval are dropped. The final update of a load (an
+	 * update whose total is known and whose current number has reached the
+	 * total) is always delivered.
+	 * <p/>
 	 * {@inheritDoc}
 	 * 
 	 * @see com.oceans7.mobile.eagleswag.persistence.DataController#updateLoadingListeners()
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
-	public synchronized void updateLoadingListeners (int total, int currentNumber) {
+	public void updateLoadingListeners (int total, int currentNumber) {
 
-		// Local copy of the list of loading listeners
-		ArrayList<LoadingListener> list;
+		// The time of the update (in milliseconds)
+		long now = System.nanoTime() / 1000000L;
 
-		synchronized (this) {
-			// Return from method if the loading listener list is null
-			if (this.observers == null) return;
+		if (total != LoadingListener.UNKNOWN_TOTAL && currentNumber >= total) {
+			// Always deliver the final update of a load
+			this.lastLoadingNotification.set(now);
+		}
+		else {
+			// Deliver the update only if no other update has been delivered in
+			// the current interval (if another thread delivers an update first,
+			// this update is dropped)
+			long last = this.lastLoadingNotification.get();
 
-			// Copy the list of loading listeners to the local copy
-			list = (ArrayList<LoadingListener>) this.observers.clone();
+			if (now - last < this.loadingNotificationInterval || !this.lastLoadingNotification.compareAndSet(last, now)) {
+				return;
+			}
 		}
 
-		for (LoadingListener listener : list) {
-			// Repeat for each of the loading listeners
+		for (LoadingListener listener : this.observers) {
+			// Notify each of the loading listeners (the iteration is over a
+			// snapshot of the listeners)
 			listener.update(total, currentNumber);
-
-			// Log the update
-			Log.i(this.getClass().getName(), "Notified listener '" + listener + "': " + currentNumber + " of " + total + " questions loaded");
 		}
 	}
 
@@ -412,17 +801,9 @@ public class SqliteDataController implements DataController {
 	@Override
 	public void addLoadingListener (LoadingListener listener) {
 
-		if (this.observers == null) {
-			// Create list of listeners if it has not yet been created
-			this.observers = new ArrayList<LoadingListener>();
-		}
-
-		if (!this.observers.contains(listener)) {
-			// Add the listener to the list if it is not already in the list
-			this.observers.add(listener);
-
+		if (this.observers.addIfAbsent(listener)) {
 			// Log the addition
-			Log.i(this.getClass().getName(), "Added listener " + listener);
+			Logger.i(this.getClass().getName(), "Added listener {}", listener);
 		}
 	}
 
@@ -434,16 +815,74 @@ public class SqliteDataController implements DataController {
 	@Override
 	public void removeLoadingListener (LoadingListener listener) {
 
-		if (this.observers != null && this.observers.contains(listener)) {
-			// Remove the listener if the list has been created and contains the
-			// listener specified
-			this.observers.remove(listener);
-
+		if (this.observers.remove(listener)) {
 			// Log the removal
-			Log.i(this.getClass().getName(), "Removed listener " + listener);
+			Logger.i(this.getClass().getName(), "Removed listener {}", listener);
 		}
 	}
 
+	/**
+	 * Ensures that the questions table for a key has been loaded from the
+	 * questions data file (if the table does not yet exist) and synchronized
+	 * with the data file since the database was opened.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 */
+	private <T extends Question> void prepareQuestionsTable (Class<T> key) {
+
+		if (!SqliteSchemaCatalog.forDatabase(this.database).isSynchronized(generateTableName(key))) {
+			// Load or synchronize the table if it has not yet been synchronized
+			this.syncQuestions(key);
+		}
+	}
+
+	/**
+	 * Groups the IDs of the questions used in a round by questions table,
+	 * ensuring that each of the questions tables has been loaded and
+	 * synchronized.
+	 * 
+	 * @param questions
+	 *            The questions used in the round.
+	 * @return
+	 *         The IDs of the questions, keyed by questions table.
+	 */
+	private Map<String, long[]> groupQuestionIds (List<? extends Question> questions) {
+
+		// Group the IDs of the questions by question type
+		Map<String, long[]> ids = new LinkedHashMap<String, long[]>();
+		Map<Class<? extends Question>, List<Long>> grouped = new LinkedHashMap<Class<? extends Question>, List<Long>>();
+
+		for (Question question : questions) {
+			// Add the ID of each question to the list for its type
+			List<Long> list = grouped.get(question.getClass());
+
+			if (list == null) {
+				// Create the list for the type if it does not yet exist
+				list = new ArrayList<Long>();
+				grouped.put(question.getClass(), list);
+			}
+
+			list.add(question.getId());
+		}
+
+		for (Map.Entry<Class<? extends Question>, List<Long>> entry : grouped.entrySet()) {
+			// Ensure the questions table of each type is loaded and synchronized
+			this.prepareQuestionsTable(entry.getKey());
+
+			// Copy the IDs into an array for the table of the type
+			long[] batch = new long[entry.getValue().size()];
+
+			for (int i = 0; i < batch.length; i++) {
+				batch[i] = entry.getValue().get(i);
+			}
+
+			ids.put(generateTableName(entry.getKey()), batch);
+		}
+
+		return ids;
+	}
+
 	/**
 	 * A helper method for generating a table name from a key.
 	 * 
@@ -462,10 +901,231 @@ public class SqliteDataController implements DataController {
 
 	/**
 	 * @return
-	 *         The internal database used by the
+	 *         The internal database used by the data controller; null if the
+	 *         database could not be opened (or the data controller has been
+	 *         closed).
 	 */
 	public SQLiteDatabase getDatabase () {
 		return this.database;
 	}
 
+	/**
+	 * @return
+	 *         The writer of the shared database used by the data controller.
+	 */
+	public SqliteWriter getWriter () {
+		return this.writer;
+	}
+
+	/**
+	 * @return
+	 *         The minimum time (in milliseconds) between the progress updates
+	 *         delivered to the loading listeners.
+	 */
+	public long getLoadingNotificationInterval () {
+		return this.loadingNotificationInterval;
+	}
+
+	/**
+	 * @param loadingNotificationInterval
+	 *            The minimum time (in milliseconds) between the progress
+	 *            updates delivered to the loading listeners; 0 to deliver every
+	 *            update.
+	 */
+	public void setLoadingNotificationInterval (long loadingNotificationInterval) {
+		this.loadingNotificationInterval = loadingNotificationInterval;
+	}
+
+	/**
+	 * @return
+	 *         The number of questions inserted in each transaction while
+	 *         loading the questions from a data file.
+	 */
+	public int getLoadingBatchSize () {
+		return this.loadingBatchSize;
+	}
+
+	/**
+	 * @param loadingBatchSize
+	 *            The number of questions inserted in each transaction while
+	 *            loading the questions from a data file (must be positive).
+	 */
+	public void setLoadingBatchSize (int loadingBatchSize) {
+
+		if (loadingBatchSize < 1) {
+			throw new IllegalArgumentException("The loading batch size must be positive");
+		}
+
+		this.loadingBatchSize = loadingBatchSize;
+	}
+
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * The writer command that saves a round: increments the used counts of the
+	 * questions used in the round and saves the score for the round. The score
+	 * is factored into the score cache as it is saved, if the cache holds the
+	 * previous scores of the type (otherwise, the scores of the type are read
+	 * from the database, including the saved score, when next requested); if
+	 * the transaction of the command is rolled back, the score cache is
+	 * invalidated (and is warmed again from the database by the next use).
+	 * No scores read from the database are stored in the score cache until the
+	 * transaction of the command has ended (see {@link ScoreCache#beginSave()}).
+	 * Once the transaction of the command has ended, the save listener (if
+	 * any) is notified.
+	 * 
+	 * @author Justin Albano
+	 */
+	private class ScoreCommand extends SqliteWriter.Command<Void> {
+
+		/**
+		 * The IDs of the questions used in the round, by question table; null
+		 * if only the score is saved.
+		 */
+		private final Map<String, long[]> ids;
+
+		/**
+		 * The score for the round; null if no score is saved.
+		 */
+		private final Score score;
+
+		/**
+		 * The type of the round.
+		 */
+		private final String type;
+
+		/**
+		 * The listener notified once the round has been saved; null if no
+		 * notification is required.
+		 */
+		private final SaveListener listener;
+
+		/**
+		 * True if the save of the score has been marked in the score cache,
+		 * until the transaction of the command has ended (see
+		 * {@link ScoreCache#beginSave()}).
+		 */
+		private boolean saving;
+
+		/**
+		 * Creates a command that saves a round.
+		 * 
+		 * @param ids
+		 *            The IDs of the questions used in the round, by question
+		 *            table; null if only the score is saved.
+		 * @param score
+		 *            The score for the round; null if no score is saved.
+		 * @param type
+		 *            The type of the round.
+		 * @param listener
+		 *            The listener notified once the round has been saved; null
+		 *            if no notification is required.
+		 */
+		public ScoreCommand (Map<String, long[]> ids, Score score, String type, SaveListener listener) {
+			this.ids = ids;
+			this.score = score;
+			this.type = type;
+			this.listener = listener;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter.Command#execute(android.database.sqlite.SQLiteDatabase)
+		 */
+		@Override
+		public Void execute (SQLiteDatabase db) {
+
+			if (this.ids != null) {
+
+				for (Map.Entry<String, long[]> entry : this.ids.entrySet()) {
+					// Increment the used counts of the questions of each type
+					SqliteDataControllerQueries.incrementUsedCounts(db, entry.getKey(), entry.getValue());
+				}
+			}
+
+			if (this.score != null) {
+
+				if (!this.saving) {
+					// Discard the scores read until the transaction has ended
+					// (the command is executed again if its batch fails)
+					cache.beginSave();
+					this.saving = true;
+				}
+
+				// Save the score in the database
+				SqliteDataControllerQueries.insertIntoScoreTable(db, this.type, this.score);
+
+				if (cache.isWarmed() || cache.isInCache(this.type)) {
+					// Factor in the total and average values for this score
+					// (only if the cache holds the previous scores of the type)
+					cache.factor(this.type, this.score.getScore());
+				}
+			}
+
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter.Command#rolledBack()
+		 */
+		@Override
+		public void rolledBack () {
+
+			if (this.score != null) {
+				// The cache may hold the score that was rolled back
+				cache.invalidate();
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter.Command#done(java.util.concurrent.Future)
+		 */
+		@Override
+		public void done (Future<Void> result) {
+
+			if (this.saving) {
+				// The transaction saving the score has ended
+				this.saving = false;
+				cache.endSave();
+			}
+
+			if (this.listener == null) {
+				// No notification is required
+				return;
+			}
+
+			// The exception that prevented the round from being saved (if any)
+			RuntimeException failure = null;
+
+			try {
+				// The result has been completed: obtain it without waiting
+				result.get();
+			}
+			catch (InterruptedException e) {
+				// Restore the interrupt
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException e) {
+				// The round could not be saved
+				failure = (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+			}
+
+			if (failure == null) {
+				// Notify the listener of the saved round
+				this.listener.saved();
+			}
+			else {
+				Logger.e(SqliteDataController.class.getName(), "SQL Error while saving the round: {}", failure);
+				this.listener.failed(failure);
+			}
+		}
+	}
 }
@@ -39,15 +39,26 @@ public class SqliteDataControllerConstants {
 	 * The version number of the database. When the version number is altered,
 	 * and the application is run, the database is automatically updated (the
 	 * SqliteDataControllerHelper runs its update logic to update the database).
+	 * A migration from the previous version must be registered in
+	 * SqliteMigrations for each new version.
 	 */
-	public static final int DATABASE_VERSION = 17;
+	public static final int DATABASE_VERSION = 20;
+
+	/**
+	 * The path (within the assets of the application) of the prebuilt database
+	 * containing the questions tables. The prebuilt database is generated from
+	 * the questions data files at build time (see custom_rules.xml) and is
+	 * copied into place the first time the database is opened.
+	 */
+	public static final String PREBUILT_DATABASE_ASSET = "databases/" + DATABASE_NAME;
 
 	/**
 	 * A numerical reference for each of the columns in a questions table.
 	 */
 	public static enum QuestionsColumns {
 		
-		ID("_id"), QUESTION("question"), YES_VALUE("yesValue"), NO_VALUE("noValue"), USED_COUNT("usedCount");
+		ID("_id"), QUESTION("question"), YES_VALUE("yesValue"), NO_VALUE("noValue"), USED_COUNT("usedCount"), CONTENT_HASH("contentHash"),
+		RETIRED("retired");
 		
 		private final String name;
 
@@ -60,6 +71,70 @@ public class SqliteDataControllerConstants {
 		}
 	}
 
+	/**
+	 * The suffix appended to the name of a questions table to form the name of
+	 * the index on the used count column of the table.
+	 */
+	public static final String USED_COUNT_INDEX_SUFFIX = "_usedCountIndex";
+
+	/**
+	 * The suffix appended to the name of a questions table to form the name of
+	 * the index on the content hash column of the table.
+	 */
+	public static final String CONTENT_HASH_INDEX_SUFFIX = "_contentHashIndex";
+
+	/**
+	 * Creates the query used to create a questions table (if it does not
+	 * already exist).
+	 * 
+	 * @param table
+	 *            The name of the questions table.
+	 * @return
+	 *         The query used to create the questions table.
+	 */
+	public static String createQuestionsTableQuery (String table) {
+
+		// The query used to create the table
+		StringBuilder builder = new StringBuilder();
+		builder.append("CREATE TABLE IF NOT EXISTS " + table + " (");
+		builder.append(QuestionsColumns.ID + " INTEGER PRIMARY KEY AUTOINCREMENT,");
+		builder.append(QuestionsColumns.QUESTION + " TEXT NOT NULL,");
+		builder.append(QuestionsColumns.YES_VALUE + " INTEGER NOT NULL,");
+		builder.append(QuestionsColumns.NO_VALUE + " INTEGER NOT NULL,");
+		builder.append(QuestionsColumns.USED_COUNT + " INTEGER NOT NULL,");
+		builder.append(QuestionsColumns.CONTENT_HASH + " INTEGER NOT NULL DEFAULT 0,");
+		builder.append(QuestionsColumns.RETIRED + " INTEGER NOT NULL DEFAULT 0");
+		builder.append(");");
+
+		return builder.toString();
+	}
+
+	/**
+	 * Creates the query used to create the index on the used count column of a
+	 * questions table (if it does not already exist).
+	 * 
+	 * @param table
+	 *            The name of the questions table.
+	 * @return
+	 *         The query used to create the index.
+	 */
+	public static String createUsedCountIndexQuery (String table) {
+		return "CREATE INDEX IF NOT EXISTS " + table + USED_COUNT_INDEX_SUFFIX + " ON " + table + " (" + QuestionsColumns.USED_COUNT + ")";
+	}
+
+	/**
+	 * Creates the query used to create the index on the content hash column of
+	 * a questions table (if it does not already exist).
+	 * 
+	 * @param table
+	 *            The name of the questions table.
+	 * @return
+	 *         The query used to create the index.
+	 */
+	public static String createContentHashIndexQuery (String table) {
+		return "CREATE INDEX IF NOT EXISTS " + table + CONTENT_HASH_INDEX_SUFFIX + " ON " + table + " (" + QuestionsColumns.CONTENT_HASH + ")";
+	}
+
 	// -------------------------------------------------------------------------
 	// Question table column names
 	// -------------------------------------------------------------------------
@@ -118,4 +193,92 @@ public class SqliteDataControllerConstants {
 			return this.name;
 		}
 	}
+
+	/**
+	 * The name of the index on the type and timestamp columns of the scores
+	 * table.
+	 */
+	public static final String SCORE_TYPE_INDEX_NAME = "Scores_typeTimestampIndex";
+
+	// -------------------------------------------------------------------------
+	// Score totals table
+	// -------------------------------------------------------------------------
+
+	/**
+	 * The name of the SQLite table containing the aggregate of the scores for
+	 * each type of round (one row for each type).
+	 */
+	public static final String SCORE_TOTALS_TABLE_NAME = "ScoreTotals";
+
+	/**
+	 * Enumeration of the table column names for the SQLite database table
+	 * containing the aggregate of the scores for each type.
+	 * 
+	 * @author Justin Albano
+	 */
+	public static enum ScoreTotalsColumns {
+
+		TYPE("type"), COUNT("scoreCount"), SUM("scoreSum"), MIN("minScore"), MAX("maxScore");
+
+		private final String name;
+
+		private ScoreTotalsColumns (String name) {
+			this.name = name;
+		}
+
+		public String toString () {
+			return this.name;
+		}
+	}
+
+	// -------------------------------------------------------------------------
+	// Question banks table
+	// -------------------------------------------------------------------------
+
+	/**
+	 * The name of the SQLite table containing the checksum of the questions
+	 * data file last synchronized into each questions table (one row for each
+	 * questions table).
+	 */
+	public static final String QUESTION_BANKS_TABLE_NAME = "QuestionBanks";
+
+	/**
+	 * Enumeration of the table column names for the SQLite database table
+	 * containing the checksums of the questions data files.
+	 * 
+	 * @author Justin Albano
+	 */
+	public static enum QuestionBanksColumns {
+
+		TABLE("questionsTable"), CHECKSUM("checksum");
+
+		private final String name;
+
+		private QuestionBanksColumns (String name) {
+			this.name = name;
+		}
+
+		public String toString () {
+			return this.name;
+		}
+	}
+
+	/**
+	 * Creates the query used to create the question banks table (if it does
+	 * not already exist).
+	 * 
+	 * @return
+	 *         The query used to create the question banks table.
+	 */
+	public static String createQuestionBanksTableQuery () {
+
+		// The query used to create the table
+		StringBuilder builder = new StringBuilder();
+		builder.append("CREATE TABLE IF NOT EXISTS " + QUESTION_BANKS_TABLE_NAME + " (");
+		builder.append(QuestionBanksColumns.TABLE + " TEXT PRIMARY KEY,");
+		builder.append(QuestionBanksColumns.CHECKSUM + " INTEGER NOT NULL");
+		builder.append(");");
+
+		return builder.toString();
+	}
 }
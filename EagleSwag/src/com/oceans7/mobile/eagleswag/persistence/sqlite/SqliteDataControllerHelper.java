@@ -18,13 +18,22 @@
 
 package com.oceans7.mobile.eagleswag.persistence.sqlite;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 import android.content.Context;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
-import android.util.Log;
+
+import com.oceans7.mobile.eagleswag.persistence.QuestionCache;
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * A helper class used to create, update, and management the SQLite database.
@@ -33,6 +42,15 @@ import android.util.Log;
  * crating the SQLite database used by the application. When the version number
  * of the database is incremented in the SqliteDataControllerConstants class,
  * this helper automatically updates the database.
+ * <p/>
+ * The first time the database is opened, the prebuilt database shipped in the
+ * assets of the application (which already contains the questions tables and
+ * their indexes) is copied into place, rather than creating the database and
+ * parsing the questions data files. The prebuilt database is not versioned;
+ * the helper then creates the remaining tables (as it would for a new
+ * database) and marks the database with the current version. If no prebuilt
+ * database is shipped, a new empty database is created and the questions
+ * tables are loaded from the data files on demand.
  * 
  * @author Justin Albano
  * 
@@ -40,6 +58,20 @@ import android.util.Log;
  */
 public class SqliteDataControllerHelper extends SQLiteOpenHelper {
 
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The context used to locate the database file and the prebuilt database.
+	 */
+	private Context context;
+
+	/**
+	 * The size of the buffer used to copy the prebuilt database.
+	 */
+	private static final int COPY_BUFFER_SIZE = 8192;
+
 	/***************************************************************************
 	 * Constructors
 	 **************************************************************************/
@@ -52,12 +84,49 @@ public class SqliteDataControllerHelper extends SQLiteOpenHelper {
 	 */
 	public SqliteDataControllerHelper (Context context) {
 		super(context, SqliteDataControllerConstants.DATABASE_NAME, null, SqliteDataControllerConstants.DATABASE_VERSION);
+
+		// Store the context
+		this.context = context;
 	}
 
 	/***************************************************************************
 	 * Methods
 	 **************************************************************************/
 
+	/**
+	 * Copies the prebuilt database into place before the database is opened
+	 * for the first time.
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see android.database.sqlite.SQLiteOpenHelper#getWritableDatabase()
+	 */
+	@Override
+	public synchronized SQLiteDatabase getWritableDatabase () {
+
+		// Install the prebuilt database if no database exists yet
+		this.installPrebuiltDatabase();
+
+		return super.getWritableDatabase();
+	}
+
+	/**
+	 * Copies the prebuilt database into place before the database is opened
+	 * for the first time.
+	 * <p/>
+	 * {@inheritDoc}
+	 * 
+	 * @see android.database.sqlite.SQLiteOpenHelper#getReadableDatabase()
+	 */
+	@Override
+	public synchronized SQLiteDatabase getReadableDatabase () {
+
+		// Install the prebuilt database if no database exists yet
+		this.installPrebuiltDatabase();
+
+		return super.getReadableDatabase();
+	}
+
 	/**
 	 * The configuration data from the question type configuration file is used
 	 * to specify the name of the table the data for each question type is
@@ -72,14 +141,23 @@ public class SqliteDataControllerHelper extends SQLiteOpenHelper {
 	@Override
 	public void onCreate (SQLiteDatabase db) {
 
-		// Create scores table
+		// Create scores, score totals and question banks tables
 		SqliteDataControllerQueries.createScoreTable(db);
+		SqliteDataControllerQueries.createScoreTotalsTable(db);
+		SqliteDataControllerQueries.createQuestionBanksTable(db);
 
+		// The questions cached for a previous database at the same path are
+		// no longer valid
+		QuestionCache.invalidate(db.getPath());
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Databases created before {@link SqliteMigrations#MINIMUM_VERSION} are
+	 * cleared and recreated. Later databases are migrated to the current
+	 * version by running each of the registered migrations (see
+	 * {@link SqliteMigrations}) without the loss of any data.
 	 * <p/>
+	 * {@inheritDoc}
 	 * 
 	 * @see android.database.sqlite.SQLiteOpenHelper#onUpgrade(android.database.sqlite.SQLiteDatabase,
 	 *      int, int)
@@ -87,24 +165,144 @@ public class SqliteDataControllerHelper extends SQLiteOpenHelper {
 	@Override
 	public void onUpgrade (SQLiteDatabase db, int oldVersion, int newVersion) {
 
-		// Warning that the database will be upgraded
-		Log.w(this.getClass().getName(), "Database is about to be upgraded [" + oldVersion + " => " + newVersion + "]. All data will lost");
+		// Log the upgrade of the database
+		Logger.w(this.getClass().getName(), "Database is about to be upgraded [{} => {}]", oldVersion, newVersion);
+
+		if (oldVersion < SqliteMigrations.MINIMUM_VERSION) {
+			// Legacy databases cannot be migrated: clear the database
+			this.clear(db);
+		}
+		else {
+			// Run each of the migrations up to the current version
+			SqliteMigrations.getInstance().migrate(db, oldVersion, newVersion);
+		}
+
+		// The scores and questions cached for the database may no longer be
+		// valid
+		ScoreCache.invalidate(db.getPath());
+		QuestionCache.invalidate(db.getPath());
+
+		// The schema of the database may have changed
+		SqliteSchemaCatalog.release(db);
+	}
+
+	/**
+	 * Copies the prebuilt database from the assets of the application to the
+	 * location of the database file, if the database file does not yet exist.
+	 * The database is copied to a temporary file that is renamed once the copy
+	 * is complete, which ensures that a partially copied database is never
+	 * opened.
+	 * 
+	 * @return
+	 *         True if the prebuilt database was installed; false otherwise.
+	 */
+	private boolean installPrebuiltDatabase () {
+
+		// The location of the database file
+		File database = this.context.getDatabasePath(SqliteDataControllerConstants.DATABASE_NAME);
+
+		if (database.exists()) {
+			// The database has already been created
+			return false;
+		}
+
+		// The temporary file the prebuilt database is copied to
+		File temporary = new File(database.getPath() + ".tmp");
+		InputStream in = null;
+		OutputStream out = null;
+
+		try {
+			// Open the prebuilt database
+			in = this.context.getAssets().open(SqliteDataControllerConstants.PREBUILT_DATABASE_ASSET);
+
+			// Ensure the database directory exists
+			database.getParentFile().mkdirs();
+			out = new FileOutputStream(temporary);
+
+			// Copy the prebuilt database
+			byte[] buffer = new byte[COPY_BUFFER_SIZE];
+			int read;
+
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+
+			// Close the copy and move it into place
+			out.close();
+			out = null;
+
+			if (!temporary.renameTo(database)) {
+				throw new IOException("Could not rename '" + temporary + "' to '" + database + "'");
+			}
+
+			Logger.i(this.getClass().getName(), "Installed prebuilt database '{}' to '{}'", SqliteDataControllerConstants.PREBUILT_DATABASE_ASSET, database);
+			return true;
+		}
+		catch (FileNotFoundException e) {
+			// No prebuilt database is shipped: the database is created empty
+			Logger.i(this.getClass().getName(), "No prebuilt database found; creating an empty database");
+			return false;
+		}
+		catch (IOException e) {
+			// The prebuilt database could not be copied
+			Logger.e(this.getClass().getName(), "Error while installing the prebuilt database: {}", e);
+			return false;
+		}
+		finally {
+			// Close the streams and remove any partial copy
+			closeQuietly(in);
+			closeQuietly(out);
+			temporary.delete();
+		}
+	}
+
+	/**
+	 * Closes a stream, ignoring any exception thrown while closing it.
+	 * 
+	 * @param stream
+	 *            The stream to close; may be null.
+	 */
+	private static void closeQuietly (Closeable stream) {
+
+		if (stream != null) {
+
+			try {
+				// Close the stream
+				stream.close();
+			}
+			catch (IOException e) {
+				// Nothing can be done if the stream cannot be closed
+			}
+		}
+	}
+
+	/**
+	 * Removes all of the data from the database and recreates the database.
+	 * 
+	 * @param db
+	 *            The database to clear.
+	 */
+	private void clear (SQLiteDatabase db) {
+
+		// Warning that the data in the database will be lost
+		Logger.w(this.getClass().getName(), "Database is about to be cleared. All data will lost");
 
 		try {
 			// Obtain the list of non-system table names
 			List<String> tables = SqliteDataControllerQueries.getNonSystemTableNames(db);
 
 			for (String table : tables) {
-				// Drop all non-system tables
-				db.delete(table, null, null);
+				// Drop all non-system tables (along with their indexes)
+				db.execSQL("DROP TABLE IF EXISTS '" + table + "'");
 			}
 
-			// Recreate the database
+			// Recreate the database at the current version (the questions
+			// tables are loaded from the data files on demand)
 			this.onCreate(db);
 		}
 		catch (SQLException e) {
 			// An exception occurred while dropping database tables
-			Log.e(this.getClass().getName(), "Error while dropping tables from the database: " + e);
+			Logger.e(this.getClass().getName(), "Error while dropping tables from the database: {}", e);
 		}
 	}
 }
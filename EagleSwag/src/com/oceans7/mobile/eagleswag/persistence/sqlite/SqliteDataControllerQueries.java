@@ -19,19 +19,20 @@
 package com.oceans7.mobile.eagleswag.persistence.sqlite;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
-import android.database.DatabaseUtils;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteStatement;
-import android.util.Log;
 
 import com.oceans7.mobile.eagleswag.domain.Question;
 import com.oceans7.mobile.eagleswag.domain.Score;
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * A catalog of queries for the SQLite database. This catalog contains static
@@ -43,10 +44,121 @@ import com.oceans7.mobile.eagleswag.domain.Score;
  */
 public class SqliteDataControllerQueries {
 
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The name of the operation for inserting a question into a table (used to
+	 * cache the compiled statement).
+	 */
+	private static final String INSERT_QUESTION = "insertQuestion";
+
+	/**
+	 * The version of the stored questions, incremented each time questions are
+	 * inserted, updated, retired or removed in any database (see
+	 * {@link #getQuestionsVersion()}).
+	 */
+	private static final AtomicLong questionsVersion = new AtomicLong();
+
+	/**
+	 * The name of the operation for updating a question in a table (used to
+	 * cache the compiled statement).
+	 */
+	private static final String UPDATE_QUESTION = "updateQuestion";
+
+	/**
+	 * The name of the operation for updating the point values of a question in
+	 * a table (used to cache the compiled statement).
+	 */
+	private static final String UPDATE_QUESTION_VALUES = "updateQuestionValues";
+
+	/**
+	 * The name of the operation for retiring a question in a table (used to
+	 * cache the compiled statement).
+	 */
+	private static final String RETIRE_QUESTION = "retireQuestion";
+
+	/**
+	 * The name of the operation for incrementing the used counts of questions
+	 * in a table (used to cache the compiled statement for each number of
+	 * questions).
+	 */
+	private static final String INCREMENT_USED_COUNTS = "incrementUsedCounts";
+
+	/**
+	 * The maximum number of questions whose used counts are incremented by a
+	 * single statement (this keeps the number of bound arguments well below the
+	 * SQLite limit of 999).
+	 */
+	private static final int MAX_INCREMENT_BATCH_SIZE = 100;
+
+	/**
+	 * The name of the operation for selecting questions from a table (used to
+	 * cache the query).
+	 */
+	private static final String SELECT_QUESTIONS = "selectQuestions";
+
+	/**
+	 * The name of the operation for selecting the questions for a round from
+	 * two tables (used to cache the query).
+	 */
+	private static final String SELECT_ROUND_QUESTIONS = "selectRoundQuestions";
+
+	/**
+	 * The name of the operation for inserting a score (used to cache the
+	 * compiled statement).
+	 */
+	private static final String INSERT_SCORE = "insertScore";
+
+	/**
+	 * The name of the operation for obtaining the total of the scores for a
+	 * type (used to cache the compiled statement).
+	 */
+	private static final String TOTAL_SCORE = "totalScore";
+
+	/**
+	 * The name of the operation for obtaining the number of scores for a type
+	 * (used to cache the compiled statement).
+	 */
+	private static final String NUMBER_OF_SCORES = "numberOfScores";
+
+	/**
+	 * The name of the operation for adding a type to the score totals table
+	 * (used to cache the compiled statement).
+	 */
+	private static final String INSERT_SCORE_TOTAL = "insertScoreTotal";
+
+	/**
+	 * The name of the operation for factoring a score into the score totals
+	 * table (used to cache the compiled statement).
+	 */
+	private static final String UPDATE_SCORE_TOTAL = "updateScoreTotal";
+
+	/**
+	 * The name of the operation for selecting the aggregate of the scores for a
+	 * type (used to cache the query).
+	 */
+	private static final String SELECT_SCORE_AGGREGATE = "selectScoreAggregate";
+
 	/***************************************************************************
 	 * Static Methods
 	 **************************************************************************/
 
+	/**
+	 * Obtains the version of the stored questions. The version is incremented
+	 * each time questions (including their used counts) are inserted, updated,
+	 * retired or removed through the queries of this class, in any database.
+	 * Questions read from a database while the version remains unchanged are
+	 * therefore still current.
+	 * 
+	 * @return
+	 *         The version of the stored questions.
+	 */
+	public static long getQuestionsVersion () {
+		return questionsVersion.get();
+	}
+
 	/**
 	 * Obtains the names of all the tables in the database provided.
 	 * Citation: http://stackoverflow.com/a/15384267/2403253
@@ -64,29 +176,61 @@ public class SqliteDataControllerQueries {
 		// Obtain the cursor for the names of the tables
 		Cursor c = db.rawQuery("SELECT name FROM sqlite_master WHERE type='table'", null);
 
-		if (c.moveToFirst()) {
-			// The cursor is iterable
-			String name;
+		try {
+			if (c.moveToFirst()) {
+				// The cursor is iterable
+				String name;
+
+				while (!c.isAfterLast()) {
+					name = c.getString(0);
 
-			while (!c.isAfterLast()) {
-				name = c.getString(0);
+					if (!name.equals("android_metadata") && !name.equals("sqlite_sequence")) {
+						// Add the table name to the list
+						tables.add(c.getString(0));
+					}
 
-				if (!name.equals("android_metadata") && !name.equals("sqlite_sequence")) {
-					// Add the table name to the list
-					tables.add(c.getString(0));
+					c.moveToNext();
 				}
-
-				c.moveToNext();
 			}
 		}
+		finally {
+			// Close the cursor
+			c.close();
+		}
+
+		Logger.d(SqliteDataControllerQueries.class.getName(), "Found questions tables: {}", tables);
+
+		return tables;
+	}
+
+	/**
+	 * Obtains the names of all the questions tables in the database provided
+	 * (all of the non-system tables other than the scores and question banks
+	 * tables).
+	 * 
+	 * @param db
+	 *            The database to search for tables.
+	 * @return
+	 *         The names of all the questions tables in the database.
+	 */
+	public static List<String> getQuestionsTableNames (SQLiteDatabase db) {
 
-		Log.e("TEST", tables.toString());
+		// Obtain the names of all of the non-system tables
+		List<String> tables = getNonSystemTableNames(db);
+
+		// Remove the scores tables
+		tables.remove(SqliteDataControllerConstants.SCORE_TABLE_NAME);
+		tables.remove(SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME);
+		tables.remove(SqliteDataControllerConstants.QUESTION_BANKS_TABLE_NAME);
 
 		return tables;
 	}
 
 	/**
-	 * Queries if a table exists in the database.
+	 * Queries if a table exists in the database. This method queries the
+	 * schema of the database: the existence of a questions table should
+	 * instead be checked through the {@link SqliteSchemaCatalog} of the
+	 * database.
 	 * Citation: http://stackoverflow.com/a/8827554/2403253
 	 * 
 	 * @param db
@@ -106,15 +250,14 @@ public class SqliteDataControllerQueries {
 		// A cursor from the query to the database
 		Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM sqlite_master WHERE type = ? AND name = ?", new String[] { "table", tableName });
 
-		if (!cursor.moveToFirst()) {
-			// If the cursor is not iterable
-			return false;
+		try {
+			// Obtain the data from the cursor (if the cursor is iterable)
+			return cursor.moveToFirst() && cursor.getInt(0) > 0;
+		}
+		finally {
+			// Close the cursor
+			cursor.close();
 		}
-
-		// Obtain the data from the cursor
-		int count = cursor.getInt(0);
-		cursor.close();
-		return count > 0;
 	}
 
 	/**
@@ -131,28 +274,165 @@ public class SqliteDataControllerQueries {
 	public static void createQuestionsTable (SQLiteDatabase db, String table) {
 
 		// The query used to create the table
-		StringBuilder builder = new StringBuilder();
-		builder.append("CREATE TABLE IF NOT EXISTS " + table + " (");
-		builder.append(SqliteDataControllerConstants.QuestionsColumns.ID + " INTEGER PRIMARY KEY AUTOINCREMENT,");
-		builder.append(SqliteDataControllerConstants.QuestionsColumns.QUESTION + " TEXT NOT NULL,");
-		builder.append(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE + " INTEGER NOT NULL,");
-		builder.append(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE + " INTEGER NOT NULL,");
-		builder.append(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + " INTEGER NOT NULL");
-		builder.append(");");
+		String query = SqliteDataControllerConstants.createQuestionsTableQuery(table);
 
 		try {
 			// Execute the SQL command on the database
-			db.execSQL(builder.toString());
+			db.execSQL(query);
+
+			// Record the table in the schema catalog
+			SqliteSchemaCatalog.forDatabase(db).addQuestionsTable(table);
+
+			// Record the change to the questions
+			questionsVersion.incrementAndGet();
 		}
 		catch (SQLException e) {
 			// An SQL exception occurred while trying to create the database
 			// table
-			Log.e(SqliteDataControllerQueries.class.getName(),
-				"An error occurred while attempting to create the table '" + table + "' in the database: " + e);
+			Logger.e(SqliteDataControllerQueries.class.getName(), "An error occurred while attempting to create the table '{}' in the database: {}", table, e);
 		}
 
 		// Log the creation of the database table
-		Log.i(SqliteDataControllerQueries.class.getName(), "Created table '" + table + "' in database '" + db + "' using the query: " + builder);
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Created table '{}' in database '{}' using the query: {}", table, db, query);
+
+		// Create the indexes used to select and synchronize the questions
+		createUsedCountIndex(db, table);
+		createContentHashIndex(db, table);
+	}
+
+	/**
+	 * Drops a questions table (if it exists) from the database supplied.
+	 * 
+	 * @param db
+	 *            The database to drop the table from.
+	 * @param table
+	 *            The name of the questions table.
+	 */
+	public static void dropQuestionsTable (SQLiteDatabase db, String table) {
+
+		try {
+			// Execute the SQL command on the database
+			db.execSQL("DROP TABLE IF EXISTS '" + table + "'");
+
+			// Remove the table from the schema catalog
+			SqliteSchemaCatalog.forDatabase(db).removeQuestionsTable(table);
+
+			// Record the change to the questions
+			questionsVersion.incrementAndGet();
+
+			// Remove the checksum of the questions data file for the table
+			db.delete(SqliteDataControllerConstants.QUESTION_BANKS_TABLE_NAME, SqliteDataControllerConstants.QuestionBanksColumns.TABLE + " = ?",
+				new String[] { table });
+		}
+		catch (SQLException e) {
+			// An SQL exception occurred while trying to drop the table
+			Logger.e(SqliteDataControllerQueries.class.getName(), "An error occurred while attempting to drop the table '{}': {}", table, e);
+		}
+
+		// Log the removal of the database table
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Dropped table '{}' from database '{}'", table, db);
+	}
+
+	/**
+	 * Creates the index on the used count column of a questions table (if it
+	 * does not already exist). This index allows the least frequently used
+	 * questions to be read in order of their used count, rather than sorting
+	 * the entire table each time questions are selected.
+	 * 
+	 * @param db
+	 *            The database containing the questions table.
+	 * @param table
+	 *            The name of the questions table.
+	 */
+	public static void createUsedCountIndex (SQLiteDatabase db, String table) {
+
+		// The query used to create the index
+		String query = SqliteDataControllerConstants.createUsedCountIndexQuery(table);
+
+		try {
+			// Execute the SQL command on the database
+			db.execSQL(query);
+		}
+		catch (SQLException e) {
+			// An SQL exception occurred while trying to create the index
+			Logger.e(SqliteDataControllerQueries.class.getName(), "An error occurred while attempting to create the used count index for table '{}': {}", table, e);
+		}
+
+		// Log the creation of the index
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Created used count index for table '{}' using the query: {}", table, query);
+	}
+
+	/**
+	 * Creates the index on the content hash column of a questions table (if it
+	 * does not already exist). This index allows the questions of a table to
+	 * be matched to the questions of the questions data file when the table is
+	 * synchronized.
+	 * 
+	 * @param db
+	 *            The database containing the questions table.
+	 * @param table
+	 *            The name of the questions table.
+	 */
+	public static void createContentHashIndex (SQLiteDatabase db, String table) {
+
+		// The query used to create the index
+		String query = SqliteDataControllerConstants.createContentHashIndexQuery(table);
+
+		try {
+			// Execute the SQL command on the database
+			db.execSQL(query);
+		}
+		catch (SQLException e) {
+			// An SQL exception occurred while trying to create the index
+			Logger.e(SqliteDataControllerQueries.class.getName(), "An error occurred while attempting to create the content hash index for table '{}': {}", table, e);
+		}
+
+		// Log the creation of the index
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Created content hash index for table '{}' using the query: {}", table, query);
+	}
+
+	/**
+	 * Adds the content hash and retired columns to a questions table created
+	 * before the columns existed, computes the content hash of each of the
+	 * questions in the table, and creates the content hash index. None of the
+	 * questions are retired.
+	 * 
+	 * @param db
+	 *            The database containing the questions table.
+	 * @param table
+	 *            The name of the questions table.
+	 */
+	public static void addContentHashColumns (SQLiteDatabase db, String table) {
+
+		// Add the columns
+		db.execSQL("ALTER TABLE " + table + " ADD COLUMN " + SqliteDataControllerConstants.QuestionsColumns.CONTENT_HASH + " INTEGER NOT NULL DEFAULT 0");
+		db.execSQL("ALTER TABLE " + table + " ADD COLUMN " + SqliteDataControllerConstants.QuestionsColumns.RETIRED + " INTEGER NOT NULL DEFAULT 0");
+
+		// Compute the content hash of each of the questions
+		SQLiteStatement statement = db.compileStatement("UPDATE " + table + " SET " + SqliteDataControllerConstants.QuestionsColumns.CONTENT_HASH + " = ? WHERE "
+			+ SqliteDataControllerConstants.QuestionsColumns.ID + " = ?");
+		Cursor cursor = db.rawQuery("SELECT " + SqliteDataControllerConstants.QuestionsColumns.ID + ", " + SqliteDataControllerConstants.QuestionsColumns.QUESTION
+			+ " FROM " + table, null);
+
+		try {
+			while (cursor.moveToNext()) {
+				// Store the content hash of each question
+				statement.bindLong(1, QuestionContentHash.of(cursor.getString(1)));
+				statement.bindLong(2, cursor.getLong(0));
+				statement.executeUpdateDelete();
+			}
+		}
+		finally {
+			// Close the cursor and the statement
+			cursor.close();
+			statement.close();
+		}
+
+		// Create the index used to synchronize the questions
+		createContentHashIndex(db, table);
+
+		// Log the addition of the columns
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Added content hash columns to table '{}'", table);
 	}
 
 	/**
@@ -171,29 +451,47 @@ public class SqliteDataControllerQueries {
 	 */
 	public static long insertIntoQuestionsTable (SQLiteDatabase db, String table, Question question) {
 
-		// Build the SQL statement
-		StringBuilder builder = new StringBuilder();
-		builder.append("INSERT INTO " + table + " (");
-		builder.append(SqliteDataControllerConstants.QuestionsColumns.QUESTION + ", ");
-		builder.append(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE + ", ");
-		builder.append(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE + ", ");
-		builder.append(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + " ");
-		builder.append(") VALUES (?,?,?,?)");
+		// Obtain the compiled statement from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		SQLiteStatement statement = cache.getStatement(INSERT_QUESTION, table);
 
-		// Create a compiled SQL statement
-		SQLiteStatement statement = db.compileStatement(builder.toString());
+		if (statement == null) {
+			// Build and compile the SQL statement if it has not been cached
+			StringBuilder builder = new StringBuilder();
+			builder.append("INSERT INTO " + table + " (");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.QUESTION + ", ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE + ", ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE + ", ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + ", ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.CONTENT_HASH + " ");
+			builder.append(") VALUES (?,?,?,?,?)");
+			statement = cache.putStatement(db, INSERT_QUESTION, table, builder.toString());
+		}
+
+		// The ID of the inserted question
+		long id;
 
-		// Bind the values to the statement
-		statement.bindString(1, question.getQuestionString());
-		statement.bindLong(2, question.getYesPointValue());
-		statement.bindLong(3, question.getNoPointValue());
-		statement.bindLong(4, question.getUsedCount());
+		synchronized (statement) {
+			// Bind the values to the statement
+			statement.clearBindings();
+			statement.bindString(1, question.getQuestionString());
+			statement.bindLong(2, question.getYesPointValue());
+			statement.bindLong(3, question.getNoPointValue());
+			statement.bindLong(4, question.getUsedCount());
+			statement.bindLong(5, QuestionContentHash.of(question.getQuestionString()));
 
-		// Execute the statement
-		long id = statement.executeInsert();
+			// Execute the statement
+			id = statement.executeInsert();
+		}
 
-		Log.i(SqliteDataControllerConstants.class.getName(),
-			"Inserting question into '" + table + "' where id -> " + id + ": " + builder + " -> (" + question.getQuestionString() + ", " + question.getYesPointValue() + ", " + question.getNoPointValue() + ", " + question.getUsedCount() + ")");
+		// Record the change to the questions
+		questionsVersion.incrementAndGet();
+
+		if (Logger.isLoggable(Logger.INFO)) {
+			// Log the insertion (the question data is only boxed if logged)
+			Logger.i(SqliteDataControllerConstants.class.getName(), "Inserting question into '{}' where id -> {}: ({}, {}, {}, {})", table, id, question.getQuestionString(),
+				question.getYesPointValue(), question.getNoPointValue(), question.getUsedCount());
+		}
 
 		return id;
 	}
@@ -215,17 +513,71 @@ public class SqliteDataControllerQueries {
 	 */
 	public static Cursor getQuestions (Context context, SQLiteDatabase db, String table, int number) {
 
-		// Obtain the strategy from factory for getting questions
-		RetrievalStrategy strategy = RetrievalStrategies.getInstance().getRetrieveQuestionsStrategy();
+		// Obtain the query to obtain the questions from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		String query = cache.getQuery(SELECT_QUESTIONS, table);
 
-		// The query to obtain the questions
-		String query = strategy.getQuery(table, number);
+		if (query == null) {
+			// Obtain the query from the retrieval strategy if it is not cached
+			RetrievalStrategy strategy = RetrievalStrategies.getInstance().getRetrieveQuestionsStrategy();
+			query = cache.putQuery(SELECT_QUESTIONS, table, strategy.getQuery(table));
+		}
 
 		// Execute the query against the database
-		Cursor cursor = db.rawQuery(query, null);
+		Cursor cursor = db.rawQuery(query, new String[] { String.valueOf(number) });
 
 		// Log the execution of the select query
-		Log.i(SqliteDataControllerQueries.class.getName(), "Retrieved questions from table '" + table + "' using the query:" + query);
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Retrieved questions from table '{}' using the query:{}", table, query);
+
+		return cursor;
+	}
+
+	/**
+	 * Obtains the questions for a round from two tables within a given
+	 * database in a single query: a specified number of questions from the
+	 * table of the specific questions and a specified number of questions from
+	 * the table of the general questions. The questions of each table are
+	 * selected using the retrieval strategy dictated by the SQLite
+	 * configuration file, and the results are combined using UNION ALL. Each
+	 * row contains the question columns (in the order of the columns),
+	 * followed by a column containing 1 if the question was selected from the
+	 * specific table and 0 if the question was selected from the general
+	 * table.
+	 * 
+	 * @param db
+	 *            The database to extract the data from.
+	 * @param specificTable
+	 *            The table to extract the specific questions from.
+	 * @param specificNumber
+	 *            The number of specific questions to retrieve.
+	 * @param generalTable
+	 *            The table to extract the general questions from.
+	 * @param generalNumber
+	 *            The number of general questions to retrieve.
+	 * @return
+	 *         A cursor containing the data retrieved from the specified
+	 *         database tables.
+	 */
+	public static Cursor getRoundQuestions (SQLiteDatabase db, String specificTable, int specificNumber, String generalTable, int generalNumber) {
+
+		// Obtain the query to obtain the questions from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		String tables = specificTable + "," + generalTable;
+		String query = cache.getQuery(SELECT_ROUND_QUESTIONS, tables);
+
+		if (query == null) {
+			// Combine the queries of the retrieval strategy for both tables
+			// (the queries are nested so that each keeps its order and limit)
+			RetrievalStrategy strategy = RetrievalStrategies.getInstance().getRetrieveQuestionsStrategy();
+			query = cache.putQuery(SELECT_ROUND_QUESTIONS, tables, "SELECT *, 1 FROM (" + strategy.getQuery(specificTable) + ") UNION ALL SELECT *, 0 FROM ("
+				+ strategy.getQuery(generalTable) + ")");
+		}
+
+		// Execute the query against the database
+		Cursor cursor = db.rawQuery(query, new String[] { String.valueOf(specificNumber), String.valueOf(generalNumber) });
+
+		// Log the execution of the select query
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Retrieved round questions from tables '{}' and '{}' using the query:{}", specificTable, generalTable, query);
 
 		return cursor;
 	}
@@ -242,19 +594,298 @@ public class SqliteDataControllerQueries {
 	 */
 	public static void updateQuestion (SQLiteDatabase db, String table, Question question) {
 
-		// Create the mapping of values for the question
-		ContentValues content = new ContentValues();
-		content.put(SqliteDataControllerConstants.QuestionsColumns.QUESTION.toString(), question.getQuestionString());
-		content.put(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE.toString(), question.getYesPointValue());
-		content.put(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE.toString(), question.getNoPointValue());
-		content.put(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT.toString(), question.getUsedCount());
+		// Obtain the compiled statement from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		SQLiteStatement statement = cache.getStatement(UPDATE_QUESTION, table);
+
+		if (statement == null) {
+			// Build and compile the SQL statement if it has not been cached
+			StringBuilder builder = new StringBuilder();
+			builder.append("UPDATE " + table + " SET ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.QUESTION + " = ?, ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE + " = ?, ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE + " = ?, ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + " = ?, ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.CONTENT_HASH + " = ? ");
+			builder.append("WHERE " + SqliteDataControllerConstants.QuestionsColumns.ID + " = ?");
+			statement = cache.putStatement(db, UPDATE_QUESTION, table, builder.toString());
+		}
+
+		synchronized (statement) {
+			// Bind the values to the statement
+			statement.clearBindings();
+			statement.bindString(1, question.getQuestionString());
+			statement.bindLong(2, question.getYesPointValue());
+			statement.bindLong(3, question.getNoPointValue());
+			statement.bindLong(4, question.getUsedCount());
+			statement.bindLong(5, QuestionContentHash.of(question.getQuestionString()));
+			statement.bindLong(6, question.getId());
+
+			// Update the database
+			statement.executeUpdateDelete();
+		}
+
+		// Record the change to the questions
+		questionsVersion.incrementAndGet();
+
+		// Log the update
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Updated question with id [{}] in table '{}' : {}", question.getId(), table, question);
+	}
+
+	/**
+	 * Increments the used count of each of the supplied questions in a
+	 * questions table. The used counts are incremented by the database itself
+	 * (rather than written from the value held in memory), and the remainder of
+	 * each question row is left unchanged; this ensures that concurrent
+	 * increments of the same question are not lost.
+	 * 
+	 * @param db
+	 *            The database to execute the update on.
+	 * @param table
+	 *            The table containing the questions.
+	 * @param ids
+	 *            The IDs of the questions whose used counts are incremented.
+	 * @return
+	 *         The number of questions updated.
+	 */
+	public static int incrementUsedCounts (SQLiteDatabase db, String table, long[] ids) {
+
+		// Obtain the statement cache for the database
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+
+		// The number of questions updated
+		int updated = 0;
+
+		for (int start = 0; start < ids.length; start += MAX_INCREMENT_BATCH_SIZE) {
+			// Increment the used counts in batches
+
+			// The number of questions in this batch (used as part of the key
+			// for the compiled statement)
+			int size = Math.min(MAX_INCREMENT_BATCH_SIZE, ids.length - start);
+			String operation = INCREMENT_USED_COUNTS + size;
+			SQLiteStatement statement = cache.getStatement(operation, table);
+
+			if (statement == null) {
+				// Build and compile the SQL statement if it has not been cached
+				StringBuilder builder = new StringBuilder();
+				builder.append("UPDATE " + table + " SET ");
+				builder.append(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + " = " + SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + " + 1 ");
+				builder.append("WHERE " + SqliteDataControllerConstants.QuestionsColumns.ID + " IN (");
+
+				for (int i = 0; i < size; i++) {
+					// Add a parameter for each of the questions in the batch
+					builder.append((i == 0) ? "?" : ",?");
+				}
+
+				builder.append(")");
+				statement = cache.putStatement(db, operation, table, builder.toString());
+			}
 
-		// Update the database
-		db.update(table, content, SqliteDataControllerConstants.QuestionsColumns.ID + " = ?", new String[] { "" + question.getId() });
+			synchronized (statement) {
+				// Bind the IDs of the questions to the statement
+				statement.clearBindings();
+
+				for (int i = 0; i < size; i++) {
+					statement.bindLong(i + 1, ids[start + i]);
+				}
+
+				// Update the database
+				updated += statement.executeUpdateDelete();
+			}
+		}
+
+		// Record the change to the questions
+		questionsVersion.incrementAndGet();
 
 		// Log the update
-		Log.i(SqliteDataControllerQueries.class.getName(),
-			"Updated question with id [" + question.getId() + "] in table '" + table + "' : " + content);
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Incremented used count of {} question(s) in table '{}'", updated, table);
+
+		return updated;
+	}
+
+	/**
+	 * Obtains the synchronization state of each of the questions in a
+	 * questions table: the ID, content hash, yes point value, no point value
+	 * and retired flag of each question (in that column order).
+	 * 
+	 * @param db
+	 *            The database containing the questions table.
+	 * @param table
+	 *            The name of the questions table.
+	 * @return
+	 *         A cursor containing the synchronization state of the questions.
+	 */
+	public static Cursor getQuestionSyncStates (SQLiteDatabase db, String table) {
+
+		// The query used to obtain the state of the questions
+		StringBuilder builder = new StringBuilder();
+		builder.append("SELECT " + SqliteDataControllerConstants.QuestionsColumns.ID + ", ");
+		builder.append(SqliteDataControllerConstants.QuestionsColumns.CONTENT_HASH + ", ");
+		builder.append(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE + ", ");
+		builder.append(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE + ", ");
+		builder.append(SqliteDataControllerConstants.QuestionsColumns.RETIRED + " ");
+		builder.append("FROM " + table);
+
+		return db.rawQuery(builder.toString(), null);
+	}
+
+	/**
+	 * Updates the point values of a question and restores the question if it
+	 * has been retired. The text and used count of the question are left
+	 * unchanged.
+	 * 
+	 * @param db
+	 *            The database containing the questions table.
+	 * @param table
+	 *            The name of the questions table.
+	 * @param id
+	 *            The ID of the question.
+	 * @param yesValue
+	 *            The yes point value of the question.
+	 * @param noValue
+	 *            The no point value of the question.
+	 */
+	public static void updateQuestionValues (SQLiteDatabase db, String table, long id, int yesValue, int noValue) {
+
+		// Obtain the compiled statement from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		SQLiteStatement statement = cache.getStatement(UPDATE_QUESTION_VALUES, table);
+
+		if (statement == null) {
+			// Build and compile the SQL statement if it has not been cached
+			StringBuilder builder = new StringBuilder();
+			builder.append("UPDATE " + table + " SET ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE + " = ?, ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE + " = ?, ");
+			builder.append(SqliteDataControllerConstants.QuestionsColumns.RETIRED + " = 0 ");
+			builder.append("WHERE " + SqliteDataControllerConstants.QuestionsColumns.ID + " = ?");
+			statement = cache.putStatement(db, UPDATE_QUESTION_VALUES, table, builder.toString());
+		}
+
+		synchronized (statement) {
+			// Bind the values to the statement
+			statement.clearBindings();
+			statement.bindLong(1, yesValue);
+			statement.bindLong(2, noValue);
+			statement.bindLong(3, id);
+
+			// Update the database
+			statement.executeUpdateDelete();
+		}
+
+		// Record the change to the questions
+		questionsVersion.incrementAndGet();
+	}
+
+	/**
+	 * Retires a question: the question remains in the questions table (along
+	 * with its used count), but is no longer selected.
+	 * 
+	 * @param db
+	 *            The database containing the questions table.
+	 * @param table
+	 *            The name of the questions table.
+	 * @param id
+	 *            The ID of the question.
+	 */
+	public static void retireQuestion (SQLiteDatabase db, String table, long id) {
+
+		// Obtain the compiled statement from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		SQLiteStatement statement = cache.getStatement(RETIRE_QUESTION, table);
+
+		if (statement == null) {
+			// Build and compile the SQL statement if it has not been cached
+			statement = cache.putStatement(db, RETIRE_QUESTION, table, "UPDATE " + table + " SET " + SqliteDataControllerConstants.QuestionsColumns.RETIRED
+				+ " = 1 WHERE " + SqliteDataControllerConstants.QuestionsColumns.ID + " = ?");
+		}
+
+		synchronized (statement) {
+			// Bind the ID to the statement
+			statement.clearBindings();
+			statement.bindLong(1, id);
+
+			// Update the database
+			statement.executeUpdateDelete();
+		}
+
+		// Record the change to the questions
+		questionsVersion.incrementAndGet();
+	}
+
+	/**
+	 * Creates a SQLite database table to store the checksum of the questions
+	 * data file last synchronized into each questions table.
+	 * 
+	 * @param db
+	 *            The database to in which to create the question banks table.
+	 */
+	public static void createQuestionBanksTable (SQLiteDatabase db) {
+
+		// The query used to create the table
+		String query = SqliteDataControllerConstants.createQuestionBanksTableQuery();
+
+		try {
+			// Execute the SQL command on the database
+			db.execSQL(query);
+		}
+		catch (SQLException e) {
+			// An SQL exception occurred while trying to create database table
+			Logger.e(SqliteDataControllerQueries.class.getName(), "An error occurred while attempting to create the question banks table in the database: {}", e);
+		}
+
+		// Log the creation of the database table
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Created question banks table in database '{}' using the query: {}", db, query);
+	}
+
+	/**
+	 * Obtains the checksum of the questions data file last synchronized into
+	 * a questions table.
+	 * 
+	 * @param db
+	 *            The database containing the question banks table.
+	 * @param table
+	 *            The name of the questions table.
+	 * @return
+	 *         The checksum of the questions data file; null if the questions
+	 *         table has not been synchronized.
+	 */
+	public static Long getQuestionBankChecksum (SQLiteDatabase db, String table) {
+
+		// Query the checksum for the table
+		Cursor cursor = db.rawQuery("SELECT " + SqliteDataControllerConstants.QuestionBanksColumns.CHECKSUM + " FROM "
+			+ SqliteDataControllerConstants.QUESTION_BANKS_TABLE_NAME + " WHERE " + SqliteDataControllerConstants.QuestionBanksColumns.TABLE + " = ?",
+			new String[] { table });
+
+		try {
+			// Obtain the checksum (if the table has been synchronized)
+			return cursor.moveToFirst() ? cursor.getLong(0) : null;
+		}
+		finally {
+			// Close the cursor
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Sets the checksum of the questions data file synchronized into a
+	 * questions table.
+	 * 
+	 * @param db
+	 *            The database containing the question banks table.
+	 * @param table
+	 *            The name of the questions table.
+	 * @param checksum
+	 *            The checksum of the questions data file.
+	 */
+	public static void setQuestionBankChecksum (SQLiteDatabase db, String table, long checksum) {
+
+		// Replace the checksum for the table
+		db.execSQL("INSERT OR REPLACE INTO " + SqliteDataControllerConstants.QUESTION_BANKS_TABLE_NAME + " (" + SqliteDataControllerConstants.QuestionBanksColumns.TABLE
+			+ ", " + SqliteDataControllerConstants.QuestionBanksColumns.CHECKSUM + ") VALUES (?, ?)", new Object[] { table, checksum });
+
+		// Log the checksum
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Set question bank checksum of table '{}' to {}", table, checksum);
 	}
 
 	/**
@@ -280,16 +911,109 @@ public class SqliteDataControllerQueries {
 		}
 		catch (SQLException e) {
 			// An SQL exception occurred while trying to create database table
-			Log.e(SqliteDataControllerQueries.class.getName(), "An error occurred while attempting to create the scores table in the database: " + e);
+			Logger.e(SqliteDataControllerQueries.class.getName(), "An error occurred while attempting to create the scores table in the database: {}", e);
 		}
 
 		// Log the creation of the database table
-		Log.i(SqliteDataControllerQueries.class.getName(), "Created scores table in database '" + db + "' using the query: " + builder);
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Created scores table in database '{}' using the query: {}", db, builder);
 
+		// The query used to create the index on the type of the scores
+		String index = "CREATE INDEX IF NOT EXISTS " + SqliteDataControllerConstants.SCORE_TYPE_INDEX_NAME + " ON " + SqliteDataControllerConstants.SCORE_TABLE_NAME + " ("
+			+ SqliteDataControllerConstants.ScoresColumns.TYPE + ", " + SqliteDataControllerConstants.ScoresColumns.TIMESTAMP + ")";
+
+		try {
+			// Execute the SQL command on the database
+			db.execSQL(index);
+		}
+		catch (SQLException e) {
+			// An SQL exception occurred while trying to create the index
+			Logger.e(SqliteDataControllerQueries.class.getName(), "An error occurred while attempting to create the scores index in the database: {}", e);
+		}
 	}
 
 	/**
-	 * Inserts a score into the scores table in the SQLite database.
+	 * Creates a SQLite database table to store the aggregate of the scores for
+	 * each type of round (the number of scores and their sum, minimum and
+	 * maximum). The table contains a single row for each type, which is
+	 * maintained as each score is inserted.
+	 * 
+	 * @param db
+	 *            The database to in which to create the score totals table.
+	 */
+	public static void createScoreTotalsTable (SQLiteDatabase db) {
+
+		// The query used to create the table
+		StringBuilder builder = new StringBuilder();
+		builder.append("CREATE TABLE IF NOT EXISTS " + SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME + " (");
+		builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.TYPE + " TEXT PRIMARY KEY,");
+		builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.COUNT + " INTEGER NOT NULL,");
+		builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.SUM + " INTEGER NOT NULL,");
+		builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MIN + " INTEGER NOT NULL,");
+		builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MAX + " INTEGER NOT NULL");
+		builder.append(");");
+
+		try {
+			// Execute the SQL command on the database
+			db.execSQL(builder.toString());
+		}
+		catch (SQLException e) {
+			// An SQL exception occurred while trying to create database table
+			Logger.e(SqliteDataControllerQueries.class.getName(), "An error occurred while attempting to create the score totals table in the database: {}", e);
+		}
+
+		// Log the creation of the database table
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Created score totals table in database '{}' using the query: {}", db, builder);
+	}
+
+	/**
+	 * Recalculates the score totals table from the scores stored in the scores
+	 * table. This is used to populate the score totals table for scores that
+	 * were saved before the score totals table existed. The caller must
+	 * invalidate the score cache of the database (see
+	 * {@link ScoreCache#invalidate(String)}).
+	 * 
+	 * @param db
+	 *            The database containing the scores.
+	 * @throws SQLException
+	 *             The totals could not be rebuilt (the enclosing transaction,
+	 *             if any, is then rolled back).
+	 */
+	public static void rebuildScoreTotals (SQLiteDatabase db) {
+
+		// The query used to recalculate the totals
+		StringBuilder builder = new StringBuilder();
+		builder.append("INSERT INTO " + SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME + " ");
+		builder.append("SELECT " + SqliteDataControllerConstants.ScoresColumns.TYPE + ", ");
+		builder.append("COUNT(*), ");
+		builder.append("SUM(" + SqliteDataControllerConstants.ScoresColumns.SCORE + "), ");
+		builder.append("MIN(" + SqliteDataControllerConstants.ScoresColumns.SCORE + "), ");
+		builder.append("MAX(" + SqliteDataControllerConstants.ScoresColumns.SCORE + ") ");
+		builder.append("FROM " + SqliteDataControllerConstants.SCORE_TABLE_NAME + " ");
+		builder.append("GROUP BY " + SqliteDataControllerConstants.ScoresColumns.TYPE);
+
+		try {
+			// Begin SQL rebuild transaction
+			db.beginTransaction();
+
+			// Replace the existing totals with the recalculated totals
+			db.delete(SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME, null, null);
+			db.execSQL(builder.toString());
+
+			// Mark SQL rebuild transaction as successfully completed
+			db.setTransactionSuccessful();
+		}
+		finally {
+			// End SQL rebuild transaction
+			db.endTransaction();
+		}
+
+		// Log the recalculation of the totals
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Rebuilt score totals using the query: {}", builder);
+	}
+
+	/**
+	 * Inserts a score into the scores table in the SQLite database. The score
+	 * is factored into the score totals table in the same transaction.
 	 * 
 	 * @param db
 	 *            The database to add the score to.
@@ -303,32 +1027,119 @@ public class SqliteDataControllerQueries {
 	 */
 	public static long insertIntoScoreTable (SQLiteDatabase db, String key, Score score) {
 
-		// Build the SQL statement
-		StringBuilder builder = new StringBuilder();
-		builder.append("INSERT INTO " + SqliteDataControllerConstants.SCORE_TABLE_NAME + " (");
-		builder.append(SqliteDataControllerConstants.ScoresColumns.SCORE + ", ");
-		builder.append(SqliteDataControllerConstants.ScoresColumns.TIMESTAMP + ", ");
-		builder.append(SqliteDataControllerConstants.ScoresColumns.TYPE + " ");
-		builder.append(") VALUES (?,?,?)");
+		// Obtain the compiled statement from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		SQLiteStatement statement = cache.getStatement(INSERT_SCORE, SqliteDataControllerConstants.SCORE_TABLE_NAME);
+
+		if (statement == null) {
+			// Build and compile the SQL statement if it has not been cached
+			StringBuilder builder = new StringBuilder();
+			builder.append("INSERT INTO " + SqliteDataControllerConstants.SCORE_TABLE_NAME + " (");
+			builder.append(SqliteDataControllerConstants.ScoresColumns.SCORE + ", ");
+			builder.append(SqliteDataControllerConstants.ScoresColumns.TIMESTAMP + ", ");
+			builder.append(SqliteDataControllerConstants.ScoresColumns.TYPE + " ");
+			builder.append(") VALUES (?,?,?)");
+			statement = cache.putStatement(db, INSERT_SCORE, SqliteDataControllerConstants.SCORE_TABLE_NAME, builder.toString());
+		}
+
+		// The ID of the inserted score
+		long id;
+
+		try {
+			// Begin SQL score transaction
+			db.beginTransaction();
 
-		// Create a compiled SQL statement
-		SQLiteStatement statement = db.compileStatement(builder.toString());
+			synchronized (statement) {
+				// Bind the values to the statement
+				statement.clearBindings();
+				statement.bindLong(1, score.getScore());
+				statement.bindLong(2, score.getTimestamp());
+				statement.bindString(3, key);
 
-		// Bind the values to the statement
-		statement.bindLong(1, score.getScore());
-		statement.bindLong(2, score.getTimestamp());
-		statement.bindString(3, key);
+				// Execute the statement
+				id = statement.executeInsert();
+			}
+
+			// Factor the score into the totals for the type
+			updateScoreTotals(db, key, score.getScore());
 
-		// Execute the statement
-		long id = statement.executeInsert();
+			// Mark SQL score transaction as successfully completed
+			db.setTransactionSuccessful();
+		}
+		finally {
+			// End SQL score transaction
+			db.endTransaction();
+		}
 
 		// Log the insertion
-		Log.i(SqliteDataControllerConstants.class.getName(),
-			"Inserting score into '" + SqliteDataControllerConstants.SCORE_TABLE_NAME + "' where id -> " + id + ": " + builder + " -> (" + score.getScore() + ", " + score.getTimestamp() + ", " + key + ")");
+		Logger.i(SqliteDataControllerConstants.class.getName(), "Inserting score into '{}' where id -> {}: ({}, {}, {})", SqliteDataControllerConstants.SCORE_TABLE_NAME, id, score.getScore(), score.getTimestamp(), key);
 
 		return id;
 	}
 
+	/**
+	 * Factors a score into the row of the score totals table for a type,
+	 * creating the row if the type does not yet have a row.
+	 * 
+	 * @param db
+	 *            The database containing the score totals table.
+	 * @param key
+	 *            The key that associates the score with a type of round.
+	 * @param score
+	 *            The value of the score.
+	 */
+	private static void updateScoreTotals (SQLiteDatabase db, String key, int score) {
+
+		// Obtain the compiled statements from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		SQLiteStatement insert = cache.getStatement(INSERT_SCORE_TOTAL, SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME);
+		SQLiteStatement update = cache.getStatement(UPDATE_SCORE_TOTAL, SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME);
+
+		if (insert == null) {
+			// Build and compile the SQL statement if it has not been cached
+			StringBuilder builder = new StringBuilder();
+			builder.append("INSERT OR IGNORE INTO " + SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME + " (");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.TYPE + ", ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.COUNT + ", ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.SUM + ", ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MIN + ", ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MAX + " ");
+			builder.append(") VALUES (?,0,0,?,?)");
+			insert = cache.putStatement(db, INSERT_SCORE_TOTAL, SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME, builder.toString());
+		}
+
+		if (update == null) {
+			// Build and compile the SQL statement if it has not been cached
+			StringBuilder builder = new StringBuilder();
+			builder.append("UPDATE " + SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME + " SET ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.COUNT + " = " + SqliteDataControllerConstants.ScoreTotalsColumns.COUNT + " + 1, ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.SUM + " = " + SqliteDataControllerConstants.ScoreTotalsColumns.SUM + " + ?, ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MIN + " = MIN(" + SqliteDataControllerConstants.ScoreTotalsColumns.MIN + ", ?), ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MAX + " = MAX(" + SqliteDataControllerConstants.ScoreTotalsColumns.MAX + ", ?) ");
+			builder.append("WHERE " + SqliteDataControllerConstants.ScoreTotalsColumns.TYPE + " = ?");
+			update = cache.putStatement(db, UPDATE_SCORE_TOTAL, SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME, builder.toString());
+		}
+
+		synchronized (insert) {
+			// Ensure a row exists for the type
+			insert.clearBindings();
+			insert.bindString(1, key);
+			insert.bindLong(2, score);
+			insert.bindLong(3, score);
+			insert.executeInsert();
+		}
+
+		synchronized (update) {
+			// Factor the score into the row for the type
+			update.clearBindings();
+			update.bindLong(1, score);
+			update.bindLong(2, score);
+			update.bindLong(3, score);
+			update.bindString(4, key);
+			update.executeUpdateDelete();
+		}
+	}
+
 	/**
 	 * Obtains the total score for all scores associated with a key.
 	 * 
@@ -344,24 +1155,14 @@ public class SqliteDataControllerQueries {
 
 		if (db == null) {
 			// The database was not set
-			Log.e(SqliteDataControllerQueries.class.getName(), "Database is null");
+			Logger.e(SqliteDataControllerQueries.class.getName(), "Database is null");
 		}
 
-		// Obtain the sum of the scores for a type
-		String query = "SELECT SUM(" + SqliteDataControllerConstants.ScoresColumns.SCORE + ") FROM " + SqliteDataControllerConstants.SCORE_TABLE_NAME + " WHERE type = ?";
-		Cursor cursor = db.rawQuery(query, new String[] { key });
+		// Obtain the sum of the scores for the type from the score totals
+		int totalScore = (int) queryScoreTotal(db, TOTAL_SCORE, SqliteDataControllerConstants.ScoreTotalsColumns.SUM, key);
 
 		// Obtained the sum data from the database
-		Log.i(SqliteDataControllerQueries.class.getName(), "Obtained sum of scores using the query: " + query);
-
-		// Default value
-		int totalScore = 0;
-
-		if (cursor.moveToFirst()) {
-			// Reassign the value if one is present
-			totalScore = cursor.getInt(0);
-			cursor.close();
-		}
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Obtained sum of scores for '{}': {}", key, totalScore);
 
 		return totalScore;
 	}
@@ -380,6 +1181,177 @@ public class SqliteDataControllerQueries {
 	 *         provided database.
 	 */
 	public static long getNumberOfScores (SQLiteDatabase db, String key) {
-		return DatabaseUtils.queryNumEntries(db, SqliteDataControllerConstants.SCORE_TABLE_NAME, "type=?", new String[] { key });
+		return queryScoreTotal(db, NUMBER_OF_SCORES, SqliteDataControllerConstants.ScoreTotalsColumns.COUNT, key);
+	}
+
+	/**
+	 * Obtains the aggregate of the scores associated with the provided key
+	 * (the number of scores and their sum, minimum and maximum) using a single
+	 * read of the score totals table.
+	 * 
+	 * @param db
+	 *            The database to obtain the aggregate from.
+	 * @param key
+	 *            The key associated with the scores.
+	 * @return
+	 *         The aggregate of the scores associated with the provided key; if
+	 *         no scores are associated with the key, the count, sum, minimum
+	 *         and maximum of the aggregate are 0.
+	 */
+	public static ScoreAggregate getScoreAggregate (SQLiteDatabase db, String key) {
+
+		// Obtain the query from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		String query = cache.getQuery(SELECT_SCORE_AGGREGATE, SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME);
+
+		if (query == null) {
+			// Build the query if it has not been cached
+			StringBuilder builder = new StringBuilder();
+			builder.append("SELECT " + SqliteDataControllerConstants.ScoreTotalsColumns.COUNT + ", ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.SUM + ", ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MIN + ", ");
+			builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MAX + " ");
+			builder.append("FROM " + SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME + " ");
+			builder.append("WHERE " + SqliteDataControllerConstants.ScoreTotalsColumns.TYPE + " = ?");
+			query = cache.putQuery(SELECT_SCORE_AGGREGATE, SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME, builder.toString());
+		}
+
+		// Default aggregate (no scores)
+		ScoreAggregate aggregate = new ScoreAggregate(0, 0, 0, 0);
+		Cursor cursor = db.rawQuery(query, new String[] { key });
+
+		try {
+			if (cursor.moveToFirst()) {
+				// Reassign the aggregate if one is present
+				aggregate = new ScoreAggregate(cursor.getLong(0), cursor.getLong(1), cursor.getInt(2), cursor.getInt(3));
+			}
+		}
+		finally {
+			// Close the cursor
+			cursor.close();
+		}
+
+		// Log the aggregate
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Obtained aggregate of scores for '{}': {}", key, aggregate);
+
+		return aggregate;
+	}
+
+	/**
+	 * Obtains the aggregate of the scores for each of the keys that have saved
+	 * scores, as stored in the score totals table.
+	 * 
+	 * @param db
+	 *            The database containing the score totals table.
+	 * @return
+	 *         A map of each key to the aggregate of the scores for the key.
+	 */
+	public static Map<String, ScoreAggregate> getScoreAggregates (SQLiteDatabase db) {
+
+		// The query used to obtain all of the aggregates
+		StringBuilder builder = new StringBuilder();
+		builder.append("SELECT " + SqliteDataControllerConstants.ScoreTotalsColumns.TYPE + ", ");
+		builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.COUNT + ", ");
+		builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.SUM + ", ");
+		builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MIN + ", ");
+		builder.append(SqliteDataControllerConstants.ScoreTotalsColumns.MAX + " ");
+		builder.append("FROM " + SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME);
+
+		// The aggregates keyed by type
+		Map<String, ScoreAggregate> aggregates = new HashMap<String, ScoreAggregate>();
+		Cursor cursor = db.rawQuery(builder.toString(), null);
+
+		try {
+			while (cursor.moveToNext()) {
+				// Add the aggregate for each type
+				aggregates.put(cursor.getString(0), new ScoreAggregate(cursor.getLong(1), cursor.getLong(2), cursor.getInt(3), cursor.getInt(4)));
+			}
+		}
+		finally {
+			// Close the cursor
+			cursor.close();
+		}
+
+		// Log the number of aggregates obtained
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Obtained aggregates of scores for {} type(s)", aggregates.size());
+
+		return aggregates;
+	}
+
+	/**
+	 * Deletes all of the scores associated with the provided key, along with
+	 * the totals of the scores for the key. The caller must invalidate the
+	 * score cache of the database (see {@link ScoreCache#invalidate(String)}).
+	 * 
+	 * @param db
+	 *            The database to delete the scores from.
+	 * @param key
+	 *            The key associated with the scores to delete.
+	 * @return
+	 *         The number of scores deleted.
+	 */
+	public static int deleteScores (SQLiteDatabase db, String key) {
+
+		// The number of scores deleted
+		int deleted = 0;
+
+		try {
+			// Begin SQL delete transaction
+			db.beginTransaction();
+
+			// Delete the scores and the totals for the key
+			deleted = db.delete(SqliteDataControllerConstants.SCORE_TABLE_NAME, SqliteDataControllerConstants.ScoresColumns.TYPE + " = ?", new String[] { key });
+			db.delete(SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME, SqliteDataControllerConstants.ScoreTotalsColumns.TYPE + " = ?", new String[] { key });
+
+			// Mark SQL delete transaction as successfully completed
+			db.setTransactionSuccessful();
+		}
+		finally {
+			// End SQL delete transaction
+			db.endTransaction();
+		}
+
+		// Log the deletion
+		Logger.i(SqliteDataControllerQueries.class.getName(), "Deleted {} score(s) for '{}'", deleted, key);
+
+		return deleted;
+	}
+
+	/**
+	 * Reads a single column of the score totals row for a key.
+	 * 
+	 * @param db
+	 *            The database containing the score totals table.
+	 * @param operation
+	 *            The name of the operation (used to cache the compiled
+	 *            statement).
+	 * @param column
+	 *            The column to read.
+	 * @param key
+	 *            The key associated with the scores.
+	 * @return
+	 *         The value of the column for the key; 0 if no scores are
+	 *         associated with the key.
+	 */
+	private static long queryScoreTotal (SQLiteDatabase db, String operation, SqliteDataControllerConstants.ScoreTotalsColumns column, String key) {
+
+		// Obtain the compiled statement from the statement cache
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(db);
+		SQLiteStatement statement = cache.getStatement(operation, SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME);
+
+		if (statement == null) {
+			// Compile the primary key read if it has not been cached (the outer
+			// select ensures a row is returned even if the type has no row)
+			String query = "SELECT COALESCE((SELECT " + column + " FROM " + SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME + " WHERE "
+				+ SqliteDataControllerConstants.ScoreTotalsColumns.TYPE + " = ?), 0)";
+			statement = cache.putStatement(db, operation, SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME, query);
+		}
+
+		synchronized (statement) {
+			// Bind the type and obtain the value from the database
+			statement.clearBindings();
+			statement.bindString(1, key);
+			return statement.simpleQueryForLong();
+		}
 	}
 }
@@ -0,0 +1,47 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * A single step in the migration of the SQLite database from one version to
+ * the next version. A migration only alters the parts of the schema (and the
+ * data) that differ between the two versions: all other tables, indexes and
+ * data are left unchanged.
+ * 
+ * @author Justin Albano
+ * 
+ * @see SqliteMigrations
+ */
+public interface SqliteMigration {
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Migrates the database to the next version. The migration is run in a
+	 * transaction, which is rolled back if the migration throws an exception.
+	 * 
+	 * @param db
+	 *            The database to migrate.
+	 */
+	public void migrate (SQLiteDatabase db);
+}
@@ -0,0 +1,232 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * Registry of the migrations of the SQLite database, keyed by the version each
+ * migration migrates from. A database is upgraded by running each of the
+ * migrations from its version up to the current version, in order. This
+ * allows a database to be upgraded from any version
+ * since {@link #MINIMUM_VERSION} without the loss of any data, and only the
+ * tables and indexes changed by each version are altered.
+ * <p/>
+ * When the version of the database is incremented in the
+ * SqliteDataControllerConstants class, a migration from the previous version
+ * must be registered in the constructor of the registry.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteMigrations {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The oldest version of the database that can be migrated. Databases
+	 * created before this version are cleared and recreated.
+	 */
+	public static final int MINIMUM_VERSION = 17;
+
+	/**
+	 * Singleton instance of the registry.
+	 */
+	private static SqliteMigrations instance;
+
+	/**
+	 * The registered migrations, keyed by the version each migrates from.
+	 */
+	private Map<Integer, SqliteMigration> migrations = new TreeMap<Integer, SqliteMigration>();
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Creates an empty registry. The registry containing the migrations of the
+	 * application is obtained through {@link #getInstance()}.
+	 */
+	public SqliteMigrations () {}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains a singleton instance of the registry containing the migrations
+	 * of the application.
+	 * 
+	 * @return
+	 *         A singleton instance of the migration registry.
+	 */
+	public static synchronized SqliteMigrations getInstance () {
+
+		if (instance == null) {
+			// Lazy instantiation of the instance
+			instance = new SqliteMigrations();
+			instance.registerApplicationMigrations();
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Registers the migration from a version of the database to the next
+	 * version, replacing any migration previously registered for the version.
+	 * 
+	 * @param fromVersion
+	 *            The version the migration migrates from.
+	 * @param migration
+	 *            The migration.
+	 */
+	public synchronized void register (int fromVersion, SqliteMigration migration) {
+		this.migrations.put(fromVersion, migration);
+	}
+
+	/**
+	 * Returns true if a migration is registered for each of the versions
+	 * between the supplied versions.
+	 * 
+	 * @param oldVersion
+	 *            The version to migrate from.
+	 * @param newVersion
+	 *            The version to migrate to.
+	 * @return
+	 *         True if the database can be migrated; false otherwise.
+	 */
+	public synchronized boolean canMigrate (int oldVersion, int newVersion) {
+
+		for (int version = oldVersion; version < newVersion; version++) {
+
+			if (!this.migrations.containsKey(version)) {
+				// No migration from the version
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Migrates a database by running each of the migrations from the old
+	 * version to the new version, in order, each in a transaction. If a
+	 * migration fails, the exception is rethrown and no further migrations are
+	 * run.
+	 * <p/>
+	 * <strong>Note:</strong> when called by the SQLite database helper (from
+	 * {@link android.database.sqlite.SQLiteOpenHelper#onUpgrade(SQLiteDatabase, int, int)}
+	 * ), the entire upgrade already runs in a transaction of the helper, in
+	 * which the transaction of each migration is nested. A failed migration
+	 * therefore rolls back the entire upgrade, including the migrations that
+	 * preceded it, and the version of the database is left unchanged: the next
+	 * time the database is opened, it is migrated again from the old version.
+	 * Only when this method is called outside of a transaction are the
+	 * changes of the migrations that preceded a failed migration kept.
+	 * 
+	 * @param db
+	 *            The database to migrate.
+	 * @param oldVersion
+	 *            The version to migrate from.
+	 * @param newVersion
+	 *            The version to migrate to.
+	 * @throws IllegalStateException
+	 *             A migration is not registered for one of the versions.
+	 */
+	public synchronized void migrate (SQLiteDatabase db, int oldVersion, int newVersion) {
+
+		if (!this.canMigrate(oldVersion, newVersion)) {
+			throw new IllegalStateException("No migration path from version " + oldVersion + " to version " + newVersion);
+		}
+
+		for (int version = oldVersion; version < newVersion; version++) {
+			// Run each of the migrations
+			long start = System.currentTimeMillis();
+
+			try {
+				// Begin SQL migration transaction
+				db.beginTransaction();
+
+				this.migrations.get(version).migrate(db);
+
+				// Mark SQL migration transaction as successfully completed
+				db.setTransactionSuccessful();
+			}
+			finally {
+				// End SQL migration transaction
+				db.endTransaction();
+			}
+
+			Logger.i(this.getClass().getName(), "Migrated database from version {} to version {} in {} ms", version, version + 1, System.currentTimeMillis() - start);
+		}
+	}
+
+	/**
+	 * Registers the migrations of the application.
+	 */
+	private void registerApplicationMigrations () {
+
+		// Version 18: create the used count index of each questions table
+		this.register(17, new SqliteMigration() {
+
+			@Override
+			public void migrate (SQLiteDatabase db) {
+
+				for (String table : SqliteDataControllerQueries.getQuestionsTableNames(db)) {
+					SqliteDataControllerQueries.createUsedCountIndex(db, table);
+				}
+			}
+		});
+
+		// Version 19: index the scores by type and populate the score totals
+		// table from the existing scores (the score cache is invalidated by
+		// the open helper once the database has been upgraded)
+		this.register(18, new SqliteMigration() {
+
+			@Override
+			public void migrate (SQLiteDatabase db) {
+				SqliteDataControllerQueries.createScoreTable(db);
+				SqliteDataControllerQueries.createScoreTotalsTable(db);
+				SqliteDataControllerQueries.rebuildScoreTotals(db);
+			}
+		});
+
+		// Version 20: add the content hash of each question, which allows the
+		// questions tables to be synchronized with the questions data files
+		// (rather than cleared and reloaded)
+		this.register(19, new SqliteMigration() {
+
+			@Override
+			public void migrate (SQLiteDatabase db) {
+
+				for (String table : SqliteDataControllerQueries.getQuestionsTableNames(db)) {
+					SqliteDataControllerQueries.addContentHashColumns(db, table);
+				}
+
+				SqliteDataControllerQueries.createQuestionBanksTable(db);
+			}
+		});
+	}
+}
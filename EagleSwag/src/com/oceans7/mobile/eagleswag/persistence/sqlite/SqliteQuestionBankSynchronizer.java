@@ -0,0 +1,271 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy;
+import com.oceans7.mobile.eagleswag.persistence.QuestionConsumer;
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * Synchronizes a questions table with the questions data file (the question
+ * bank) for its question type. The questions of the data file are matched to
+ * the questions in the table by their content hash (see
+ * {@link QuestionContentHash}): questions that are new to the data file are
+ * inserted, questions whose point values have changed are updated, and
+ * questions that have been removed from the data file are retired. The used
+ * count of each existing question is kept, and only the questions that have
+ * changed are written to the database.
+ * <p/>
+ * The checksum of the data file synchronized into each table is stored in the
+ * question banks table, which allows a data file that has not changed since
+ * the last synchronization to be detected without reading the questions
+ * table.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteQuestionBankSynchronizer {
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Hidden constructor (static methods only).
+	 */
+	private SqliteQuestionBankSynchronizer () {}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Synchronizes a questions table with the questions data file for its
+	 * question type. The data file is parsed by the calling thread, and all of
+	 * the changes are then written in a single transaction by the writer of
+	 * the database (see {@link SqliteWriter}). If the data file contains no
+	 * questions (or cannot be read), the table is left unchanged.
+	 * 
+	 * @param db
+	 *            The database containing the questions table.
+	 * @param table
+	 *            The name of the questions table.
+	 * @param parser
+	 *            The parser used to read the questions data file.
+	 * @param key
+	 *            The question type of the questions data file.
+	 * @return
+	 *         The number of questions inserted, updated or retired.
+	 */
+	public static <T extends Question> int synchronize (SQLiteDatabase db, final String table, DataFileParserStrategy parser, Class<T> key) {
+
+		// Parse the questions and compute the checksum of the data file
+		final CRC32 checksum = new CRC32();
+		final List<T> questions = new ArrayList<T>();
+		parser.parseQuestions(key, new QuestionConsumer<T>() {
+
+			@Override
+			public void accept (T question) {
+				update(checksum, question);
+				questions.add(question);
+			}
+		});
+
+		if (questions.isEmpty()) {
+			// Never retire the questions because of an empty or missing file
+			Logger.w(SqliteQuestionBankSynchronizer.class.getName(), "No questions found for '{}'; table not synchronized", table);
+			return 0;
+		}
+
+		// Write the changes on the writer of the database
+		return SqliteWriter.forDatabase(db).execute(new SqliteWriter.Command<Integer>() {
+
+			@Override
+			public Integer execute (SQLiteDatabase db) {
+				return apply(db, table, questions, checksum.getValue());
+			}
+		});
+	}
+
+	/**
+	 * Factors a question of a questions data file into the checksum of the
+	 * data file (see {@link QuestionBankChecksum}).
+	 * 
+	 * @param checksum
+	 *            The checksum of the data file.
+	 * @param question
+	 *            The question to factor into the checksum.
+	 */
+	public static void update (CRC32 checksum, Question question) {
+		QuestionBankChecksum.update(checksum, question.getQuestionString(), question.getYesPointValue(), question.getNoPointValue());
+	}
+
+	/***************************************************************************
+	 * Helper Methods
+	 **************************************************************************/
+
+	/**
+	 * Writes the changes between the questions of a data file and the
+	 * questions table (executed by the writer of the database, within its
+	 * transaction). The changes are computed from the state of the table each
+	 * time this method is executed.
+	 * 
+	 * @param db
+	 *            The database containing the questions table.
+	 * @param table
+	 *            The name of the questions table.
+	 * @param questions
+	 *            The questions of the data file.
+	 * @param checksum
+	 *            The checksum of the data file.
+	 * @return
+	 *         The number of questions inserted, updated or retired.
+	 */
+	private static <T extends Question> int apply (SQLiteDatabase db, String table, List<T> questions, long checksum) {
+
+		Long stored = SqliteDataControllerQueries.getQuestionBankChecksum(db, table);
+
+		if (stored != null && stored.longValue() == checksum) {
+			// The data file has not changed since the last synchronization
+			Logger.i(SqliteQuestionBankSynchronizer.class.getName(), "Questions table '{}' is up to date", table);
+			return 0;
+		}
+
+		// Obtain the state of the questions in the table
+		Map<Long, SyncState> states = new HashMap<Long, SyncState>();
+		Cursor cursor = SqliteDataControllerQueries.getQuestionSyncStates(db, table);
+
+		try {
+			while (cursor.moveToNext()) {
+				states.put(cursor.getLong(1), new SyncState(cursor.getLong(0), cursor.getInt(2), cursor.getInt(3), cursor.getInt(4) != 0));
+			}
+		}
+		finally {
+			// Close the cursor
+			cursor.close();
+		}
+
+		// The content hashes of the questions in the data file, and the number
+		// of questions inserted, updated or retired
+		Set<Long> hashes = new HashSet<Long>();
+		int changed = 0;
+
+		for (T question : questions) {
+
+			// The content hash of the question
+			long hash = QuestionContentHash.of(question.getQuestionString());
+
+			if (!hashes.add(hash)) {
+				// Only the first of any duplicate questions is kept
+				continue;
+			}
+
+			SyncState state = states.get(hash);
+
+			if (state == null) {
+				// The question is new to the data file
+				SqliteDataControllerQueries.insertIntoQuestionsTable(db, table, question);
+				changed++;
+			}
+			else if (state.retired || state.yesValue != question.getYesPointValue() || state.noValue != question.getNoPointValue()) {
+				// The point values of the question have changed (or the
+				// question has been restored to the data file)
+				SqliteDataControllerQueries.updateQuestionValues(db, table, state.id, question.getYesPointValue(), question.getNoPointValue());
+				changed++;
+			}
+		}
+
+		for (Map.Entry<Long, SyncState> entry : states.entrySet()) {
+
+			if (!entry.getValue().retired && !hashes.contains(entry.getKey())) {
+				// Retire the questions removed from the data file
+				SqliteDataControllerQueries.retireQuestion(db, table, entry.getValue().id);
+				changed++;
+			}
+		}
+
+		// Record the checksum of the synchronized data file
+		SqliteDataControllerQueries.setQuestionBankChecksum(db, table, checksum);
+
+		Logger.i(SqliteQuestionBankSynchronizer.class.getName(), "Synchronized questions table '{}': {} question(s) changed", table, changed);
+
+		return changed;
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * The state of a question in a questions table used to synchronize the
+	 * table with its questions data file.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class SyncState {
+
+		/**
+		 * The ID of the question.
+		 */
+		private final long id;
+
+		/**
+		 * The yes point value of the question.
+		 */
+		private final int yesValue;
+
+		/**
+		 * The no point value of the question.
+		 */
+		private final int noValue;
+
+		/**
+		 * Flag used to track if the question has been retired.
+		 */
+		private final boolean retired;
+
+		/**
+		 * @param id
+		 *            The ID of the question.
+		 * @param yesValue
+		 *            The yes point value of the question.
+		 * @param noValue
+		 *            The no point value of the question.
+		 * @param retired
+		 *            True if the question has been retired.
+		 */
+		public SyncState (long id, int yesValue, int noValue, boolean retired) {
+			this.id = id;
+			this.yesValue = yesValue;
+			this.noValue = noValue;
+			this.retired = retired;
+		}
+	}
+}
@@ -0,0 +1,689 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy;
+import com.oceans7.mobile.eagleswag.persistence.QuestionConsumer;
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * Loads the questions of a questions data file into a questions table. The
+ * questions can be loaded in one of two modes:
+ * <ul>
+ * <li><strong>Sequential:</strong> each question is inserted by the writer of
+ * the database (see {@link SqliteWriter}) as soon as it is parsed, in a
+ * single transaction.</li>
+ * <li><strong>Pipelined:</strong> the data file is parsed by a separate parser
+ * thread, which places the questions in a bounded queue. The calling thread
+ * drains the queue and has the questions inserted in batches by the writer of
+ * the database, each batch in its own transaction. Parsing and
+ * inserting therefore overlap, and the parser is blocked (rather than
+ * buffering the entire data file) whenever the writer falls behind. A number
+ * of data files can be loaded at once, in which case the data files are
+ * parsed in parallel into the same queue, which is drained by the calling
+ * thread alone.</li>
+ * </ul>
+ * In both modes, the checksum of the data file is recorded once all of the
+ * questions have been inserted (see {@link SqliteQuestionBankSynchronizer})
+ * and the progress of the load is reported to a loading listener.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteQuestionLoader {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The default number of questions inserted in each transaction by the
+	 * pipelined mode.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 50;
+
+	/**
+	 * The default number of parsed questions that can be waiting to be
+	 * inserted in the pipelined mode.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+	/**
+	 * The number of questions loaded before the loading listener is notified
+	 * in the sequential mode.
+	 */
+	private static final int LOADING_THRESHOLD = 5;
+
+	/**
+	 * The database containing the questions table.
+	 */
+	private final SQLiteDatabase db;
+
+	/**
+	 * The number of questions inserted in each transaction by the pipelined
+	 * mode.
+	 */
+	private final int batchSize;
+
+	/**
+	 * The number of parsed questions that can be waiting to be inserted in the
+	 * pipelined mode.
+	 */
+	private final int queueCapacity;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Creates a loader with the default batch size and queue capacity.
+	 * 
+	 * @param db
+	 *            The database containing the questions tables.
+	 */
+	public SqliteQuestionLoader (SQLiteDatabase db) {
+		this(db, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Creates a loader.
+	 * 
+	 * @param db
+	 *            The database containing the questions tables.
+	 * @param batchSize
+	 *            The number of questions inserted in each transaction by the
+	 *            pipelined mode.
+	 * @param queueCapacity
+	 *            The number of parsed questions that can be waiting to be
+	 *            inserted in the pipelined mode.
+	 */
+	public SqliteQuestionLoader (SQLiteDatabase db, int batchSize, int queueCapacity) {
+
+		if (batchSize < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("The batch size and queue capacity must be positive");
+		}
+
+		this.db = db;
+		this.batchSize = batchSize;
+		this.queueCapacity = queueCapacity;
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Loads the questions of a data file in the sequential mode.
+	 * 
+	 * @param parser
+	 *            The parser used to read the questions data file.
+	 * @param key
+	 *            The question type of the questions data file.
+	 * @param table
+	 *            The name of the questions table (which must exist).
+	 * @param listener
+	 *            The listener notified of the progress of the load.
+	 * @return
+	 *         The number of questions loaded.
+	 */
+	public <T extends Question> int loadSequentially (final DataFileParserStrategy parser, final Class<T> key, final String table, final LoadingListener listener) {
+
+		// Parse and insert the questions on the writer of the database, in a
+		// single transaction
+		int total = SqliteWriter.forDatabase(this.db).execute(new SqliteWriter.Command<Integer>() {
+
+			@Override
+			public Integer execute (final SQLiteDatabase db) {
+
+				// The checksum of the data file
+				final CRC32 checksum = new CRC32();
+
+				// Insert each question as soon as it is parsed
+				int total = parser.parseQuestions(key, new QuestionConsumer<T>() {
+
+					/**
+					 * The number of questions inserted into the database.
+					 */
+					private int loaded = 0;
+
+					@Override
+					public void accept (T question) {
+
+						// Insert the question into the database
+						SqliteDataControllerQueries.insertIntoQuestionsTable(db, table, question);
+						SqliteQuestionBankSynchronizer.update(checksum, question);
+						this.loaded++;
+
+						if (this.loaded % LOADING_THRESHOLD == 0) {
+							// If the loading threshold is met, notify the listener
+							listener.update(LoadingListener.UNKNOWN_TOTAL, this.loaded);
+						}
+					}
+				});
+
+				// Record the checksum of the loaded data file
+				SqliteDataControllerQueries.setQuestionBankChecksum(db, table, checksum.getValue());
+				return total;
+			}
+		});
+
+		// Notify the listener that all of the questions have been loaded
+		listener.update(total, total);
+		return total;
+	}
+
+	/**
+	 * Loads the questions of a data file in the pipelined mode. The data file
+	 * is parsed by a new parser thread while the calling thread inserts the
+	 * questions (see
+	 * {@link #loadPipelined(DataFileParserStrategy, Map, ExecutorService, LoadingListener)}
+	 * ).
+	 * 
+	 * @param parser
+	 *            The parser used to read the questions data file.
+	 * @param key
+	 *            The question type of the questions data file.
+	 * @param table
+	 *            The name of the questions table (which must exist).
+	 * @param listener
+	 *            The listener notified of the progress of the load.
+	 * @return
+	 *         The number of questions loaded.
+	 */
+	public <T extends Question> int loadPipelined (DataFileParserStrategy parser, Class<T> key, String table, LoadingListener listener) {
+
+		// The parser thread
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+			// Load the single data file
+			return this.loadPipelined(parser, Collections.<Class<? extends Question>, String> singletonMap(key, table), executor, listener);
+		}
+		finally {
+			// Release the parser thread
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Loads the questions of a number of data files in the pipelined mode. The
+	 * data files are parsed in parallel by the supplied executor (one task for
+	 * each data file), while the calling thread inserts the questions of all
+	 * of the data files as they are parsed. The progress reported to the
+	 * listener is the progress of all of the data files combined: the total is
+	 * only reported once all of the data files have been loaded.
+	 * <p/>
+	 * If a data file cannot be parsed, the questions of the other data files
+	 * are still loaded and the exception is then rethrown on the calling
+	 * thread (the checksum of the data file that could not be parsed is not
+	 * recorded). If the writer fails, the parser tasks are stopped and the
+	 * exception is rethrown; the batches inserted before the failure are kept.
+	 * 
+	 * @param parser
+	 *            The parser used to read the questions data files (used by
+	 *            each of the parser tasks at the same time).
+	 * @param tables
+	 *            The questions tables (which must exist) to load, keyed by the
+	 *            question type of the questions data file for each table.
+	 * @param executor
+	 *            The executor used to run the parser tasks.
+	 * @param listener
+	 *            The listener notified of the progress of the load.
+	 * @return
+	 *         The number of questions loaded.
+	 */
+	public int loadPipelined (DataFileParserStrategy parser, Map<Class<? extends Question>, String> tables, ExecutorService executor, LoadingListener listener) {
+
+		// The queue of parsed questions waiting to be inserted, shared by all
+		// of the parser tasks
+		BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(this.queueCapacity);
+
+		// Set when the writer has failed, to stop the parser tasks
+		AtomicBoolean aborted = new AtomicBoolean();
+
+		for (Map.Entry<Class<? extends Question>, String> entry : tables.entrySet()) {
+			// Start a parser task for each of the data files
+			executor.execute(new ParserTask(parser, entry.getKey(), entry.getValue(), queue, aborted));
+		}
+
+		// The questions of the current batch, the checksum of each data file,
+		// the number of questions loaded and the number of parser tasks that
+		// have not yet ended
+		List<Object> batch = new ArrayList<Object>(this.batchSize);
+		Map<String, CRC32> checksums = new HashMap<String, CRC32>();
+		int loaded = 0;
+		int remaining = tables.size();
+		RuntimeException failure = null;
+
+		try {
+			while (remaining > 0) {
+				// Wait for the next question, then take any others that are
+				// waiting (up to the batch size)
+				batch.add(takeUninterruptibly(queue));
+				queue.drainTo(batch, this.batchSize - 1);
+
+				// Insert the batch of questions in a single transaction
+				loaded += this.insertBatch(batch, checksums);
+
+				for (Object element : batch) {
+
+					if (element instanceof ParserEnd) {
+						// A parser task has ended (keep the first failure)
+						remaining--;
+
+						if (failure == null) {
+							failure = ((ParserEnd) element).failure;
+						}
+					}
+				}
+
+				batch.clear();
+
+				// Notify the listener of the progress of the load
+				boolean completed = (remaining == 0 && failure == null);
+				listener.update(completed ? loaded : LoadingListener.UNKNOWN_TOTAL, loaded);
+			}
+		}
+		finally {
+
+			if (remaining > 0) {
+				// The writer failed: stop the parser tasks, emptying the queue
+				// until each of the parser tasks has ended
+				aborted.set(true);
+
+				while (remaining > 0) {
+
+					if (takeUninterruptibly(queue) instanceof ParserEnd) {
+						remaining--;
+					}
+				}
+			}
+		}
+
+		if (failure != null) {
+			// A data file could not be parsed
+			throw failure;
+		}
+
+		Logger.i(this.getClass().getName(), "Loaded {} question(s) into {} in batches of {}", loaded, tables.values(), this.batchSize);
+		return loaded;
+	}
+
+	/**
+	 * Inserts a batch of questions in a single transaction, executed by the
+	 * writer of the database (see {@link SqliteWriter}). The checksum of each
+	 * data file whose parser task has successfully ended within the batch is
+	 * recorded in the same transaction. The checksums are updated on the
+	 * calling thread before the batch is written, so that they are not
+	 * updated again if the writer executes the batch more than once.
+	 * 
+	 * @param batch
+	 *            The parsed questions and parser ends to insert.
+	 * @param checksums
+	 *            The checksum of each data file (keyed by questions table),
+	 *            updated with each question.
+	 * @return
+	 *         The number of questions inserted.
+	 */
+	private int insertBatch (List<Object> batch, Map<String, CRC32> checksums) {
+
+		// The questions to insert and the checksums of the ended data files
+		final List<ParsedQuestion> questions = new ArrayList<ParsedQuestion>(batch.size());
+		final Map<String, Long> ended = new HashMap<String, Long>();
+
+		for (Object element : batch) {
+
+			if (element instanceof ParsedQuestion) {
+				// Factor each of the questions into the checksum of its file
+				ParsedQuestion parsed = (ParsedQuestion) element;
+				SqliteQuestionBankSynchronizer.update(checksumFor(checksums, parsed.table), parsed.question);
+				questions.add(parsed);
+			}
+			else {
+				ParserEnd end = (ParserEnd) element;
+
+				if (end.failure == null) {
+					// Obtain the checksum of the loaded data file
+					ended.put(end.table, checksumFor(checksums, end.table).getValue());
+				}
+			}
+		}
+
+		// Insert the batch on the writer of the database
+		SqliteWriter.forDatabase(this.db).execute(new SqliteWriter.Command<Void>() {
+
+			@Override
+			public Void execute (SQLiteDatabase db) {
+
+				for (ParsedQuestion parsed : questions) {
+					// Insert each of the questions
+					SqliteDataControllerQueries.insertIntoQuestionsTable(db, parsed.table, parsed.question);
+				}
+
+				for (Map.Entry<String, Long> entry : ended.entrySet()) {
+					// Record the checksum of each loaded data file
+					SqliteDataControllerQueries.setQuestionBankChecksum(db, entry.getKey(), entry.getValue());
+				}
+
+				return null;
+			}
+		});
+
+		return questions.size();
+	}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains the checksum of a data file, creating the checksum for the first
+	 * question of the data file.
+	 * 
+	 * @param checksums
+	 *            The checksum of each data file, keyed by questions table.
+	 * @param table
+	 *            The questions table of the data file.
+	 * @return
+	 *         The checksum of the data file.
+	 */
+	private static CRC32 checksumFor (Map<String, CRC32> checksums, String table) {
+
+		CRC32 checksum = checksums.get(table);
+
+		if (checksum == null) {
+			// Start the checksum of the data file
+			checksum = new CRC32();
+			checksums.put(table, checksum);
+		}
+
+		return checksum;
+	}
+
+	/**
+	 * Places an element in a queue, waiting for room in the queue even if the
+	 * current thread is interrupted (the interrupt is restored afterwards).
+	 * 
+	 * @param queue
+	 *            The queue.
+	 * @param element
+	 *            The element to place in the queue.
+	 */
+	private static void putUninterruptibly (BlockingQueue<Object> queue, Object element) {
+
+		boolean interrupted = false;
+
+		while (true) {
+
+			try {
+				queue.put(element);
+				break;
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Takes an element from a queue, waiting for an element even if the
+	 * current thread is interrupted (the interrupt is restored afterwards).
+	 * 
+	 * @param queue
+	 *            The queue.
+	 * @return
+	 *         The element taken from the queue.
+	 */
+	private static Object takeUninterruptibly (BlockingQueue<Object> queue) {
+
+		boolean interrupted = false;
+
+		try {
+			while (true) {
+
+				try {
+					return queue.take();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		finally {
+
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         The number of questions inserted in each transaction by the
+	 *         pipelined mode.
+	 */
+	public int getBatchSize () {
+		return this.batchSize;
+	}
+
+	/**
+	 * @return
+	 *         The number of parsed questions that can be waiting to be
+	 *         inserted in the pipelined mode.
+	 */
+	public int getQueueCapacity () {
+		return this.queueCapacity;
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * Task that parses a data file into the queue of parsed questions. The
+	 * task always ends by placing a parser end in the queue, even if the data
+	 * file could not be parsed.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class ParserTask implements Runnable {
+
+		/**
+		 * The parser used to read the questions data file.
+		 */
+		private final DataFileParserStrategy parser;
+
+		/**
+		 * The question type of the questions data file.
+		 */
+		private final Class<? extends Question> key;
+
+		/**
+		 * The name of the questions table.
+		 */
+		private final String table;
+
+		/**
+		 * The queue of parsed questions.
+		 */
+		private final BlockingQueue<Object> queue;
+
+		/**
+		 * Set when the writer has failed.
+		 */
+		private final AtomicBoolean aborted;
+
+		/**
+		 * Creates a parser task.
+		 * 
+		 * @param parser
+		 *            The parser used to read the questions data file.
+		 * @param key
+		 *            The question type of the questions data file.
+		 * @param table
+		 *            The name of the questions table.
+		 * @param queue
+		 *            The queue of parsed questions.
+		 * @param aborted
+		 *            Set when the writer has failed.
+		 */
+		public ParserTask (DataFileParserStrategy parser, Class<? extends Question> key, String table, BlockingQueue<Object> queue, AtomicBoolean aborted) {
+			this.parser = parser;
+			this.key = key;
+			this.table = table;
+			this.queue = queue;
+			this.aborted = aborted;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run () {
+
+			// The exception thrown while parsing the data file (if any)
+			RuntimeException failure = null;
+
+			try {
+				// Parse the questions into the queue
+				this.parser.parseQuestions(this.key, new QuestionConsumer<Question>() {
+
+					@Override
+					public void accept (Question question) {
+
+						if (aborted.get()) {
+							// The writer has stopped: abandon the parse
+							throw new LoadAbortedException();
+						}
+
+						// Wait for room in the queue
+						putUninterruptibly(queue, new ParsedQuestion(table, question));
+					}
+				});
+			}
+			catch (RuntimeException e) {
+				// Report the exception to the writer
+				failure = e;
+			}
+			finally {
+				// Signal the writer that the parse has ended
+				putUninterruptibly(this.queue, new ParserEnd(this.table, failure));
+			}
+		}
+	}
+
+	/**
+	 * A parsed question waiting to be inserted into its questions table.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class ParsedQuestion {
+
+		/**
+		 * The name of the questions table.
+		 */
+		private final String table;
+
+		/**
+		 * The parsed question.
+		 */
+		private final Question question;
+
+		/**
+		 * @param table
+		 *            The name of the questions table.
+		 * @param question
+		 *            The parsed question.
+		 */
+		public ParsedQuestion (String table, Question question) {
+			this.table = table;
+			this.question = question;
+		}
+	}
+
+	/**
+	 * Placed in the queue by a parser task once its data file has been parsed
+	 * (nothing from the same data file follows the parser end).
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class ParserEnd {
+
+		/**
+		 * The name of the questions table.
+		 */
+		private final String table;
+
+		/**
+		 * The exception thrown while parsing the data file; null if the data
+		 * file was parsed.
+		 */
+		private final RuntimeException failure;
+
+		/**
+		 * @param table
+		 *            The name of the questions table.
+		 * @param failure
+		 *            The exception thrown while parsing the data file; null if
+		 *            the data file was parsed.
+		 */
+		public ParserEnd (String table, RuntimeException failure) {
+			this.table = table;
+			this.failure = failure;
+		}
+	}
+
+	/**
+	 * Thrown by a parser task to abandon the parse of a data file once
+	 * the writer has stopped.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class LoadAbortedException extends RuntimeException {
+
+		/**
+		 * Serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+	}
+}
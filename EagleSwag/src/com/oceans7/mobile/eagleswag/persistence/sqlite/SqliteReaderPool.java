@@ -0,0 +1,359 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.database.DatabaseUtils;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * A small pool of read-only connections to a SQLite database. When the shared
+ * database uses write-ahead logging, each read-only connection reads the last
+ * committed state of the database without waiting for the transaction of the
+ * writer (see {@link SqliteWriter}) to end, so reads (such as loading the
+ * questions for a round) are not blocked by writes (such as saving the score
+ * of the previous round). At most {@link #POOL_SIZE} read-only connections
+ * are opened, lazily, as they are needed; a reader waits for an idle
+ * connection once all of them are in use.
+ * <p/>
+ * If the shared database does not use write-ahead logging (or a read-only
+ * connection cannot be opened), the shared database itself is handed out to
+ * the readers.
+ * <p/>
+ * A pool is obtained for a database through
+ * {@link #forDatabase(SQLiteDatabase)} and is closed through
+ * {@link #release(SQLiteDatabase)}, which must be called before the database
+ * is closed.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteReaderPool {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The maximum number of read-only connections opened by the pool.
+	 */
+	public static final int POOL_SIZE = 2;
+
+	/**
+	 * The pools for each of the open databases.
+	 */
+	private static final Map<SQLiteDatabase, SqliteReaderPool> pools = new WeakHashMap<SQLiteDatabase, SqliteReaderPool>();
+
+	/**
+	 * The shared database the read-only connections are opened for.
+	 */
+	private final SQLiteDatabase db;
+
+	/**
+	 * Flag used to track if the shared database uses write-ahead logging.
+	 */
+	private final boolean writeAheadLogging;
+
+	/**
+	 * The read-only connections that are not in use.
+	 */
+	private final BlockingQueue<SQLiteDatabase> idle = new LinkedBlockingQueue<SQLiteDatabase>();
+
+	/**
+	 * All of the read-only connections opened by the pool.
+	 */
+	private final List<SQLiteDatabase> readers = new ArrayList<SQLiteDatabase>(POOL_SIZE);
+
+	/**
+	 * Flag used to track if the pool has been closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * The number of connections handed out by the pool.
+	 */
+	private final AtomicLong acquisitions = new AtomicLong();
+
+	/**
+	 * The number of times a reader had to wait for an idle connection.
+	 */
+	private final AtomicLong waits = new AtomicLong();
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Creates a pool for the supplied database (obtained through
+	 * {@link #forDatabase(SQLiteDatabase)}).
+	 * 
+	 * @param db
+	 *            The shared database the read-only connections are opened
+	 *            for.
+	 */
+	private SqliteReaderPool (SQLiteDatabase db) {
+		this.db = db;
+		this.writeAheadLogging = "wal".equalsIgnoreCase(DatabaseUtils.stringForQuery(db, "PRAGMA journal_mode", null));
+	}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains the pool for the supplied database, creating it if the database
+	 * does not yet have a pool.
+	 * 
+	 * @param db
+	 *            The database to obtain the pool for.
+	 * @return
+	 *         The pool for the supplied database.
+	 */
+	public static SqliteReaderPool forDatabase (SQLiteDatabase db) {
+
+		synchronized (pools) {
+			// Obtain the pool for the database
+			SqliteReaderPool pool = pools.get(db);
+
+			if (pool == null) {
+				// Lazy instantiation of the pool for the database
+				pool = new SqliteReaderPool(db);
+				pools.put(db, pool);
+			}
+
+			return pool;
+		}
+	}
+
+	/**
+	 * Closes the read-only connections of the pool for the supplied database
+	 * and discards the pool. Connections that are in use are closed once they
+	 * are returned to the pool. This method must be called before the
+	 * database is closed.
+	 * 
+	 * @param db
+	 *            The database to release the pool of.
+	 */
+	public static void release (SQLiteDatabase db) {
+
+		// Pool removed from the map of pools
+		SqliteReaderPool pool;
+
+		synchronized (pools) {
+			// Remove the pool for the database
+			pool = pools.remove(db);
+		}
+
+		if (pool != null) {
+			// Close the pool if the database had one
+			pool.close();
+		}
+	}
+
+	/**
+	 * Closes a read-only connection, along with its statement cache.
+	 * 
+	 * @param reader
+	 *            The connection to close.
+	 */
+	private static void closeReader (SQLiteDatabase reader) {
+		SqliteStatementCache.release(reader);
+		reader.close();
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains a connection to read from, waiting for an idle connection if all
+	 * of the read-only connections are in use. Each call to this method must
+	 * be matched with a call to {@link #releaseReader(SQLiteDatabase)} once
+	 * the reads (including any cursors obtained from the connection) are
+	 * complete.
+	 * 
+	 * @return
+	 *         A read-only connection; the shared database if the database does
+	 *         not use write-ahead logging.
+	 */
+	public SQLiteDatabase acquireReader () {
+
+		this.acquisitions.incrementAndGet();
+
+		if (!this.writeAheadLogging) {
+			// Readers would be blocked by the writer: use the shared database
+			return this.db;
+		}
+
+		// Obtain an idle connection, if there is one
+		SQLiteDatabase reader = this.idle.poll();
+
+		if (reader == null) {
+			// Open another connection if the pool is not yet full
+			reader = this.open();
+		}
+
+		if (reader == null) {
+			// Wait for a connection to be returned, even if interrupted
+			this.waits.incrementAndGet();
+			boolean interrupted = false;
+
+			while (reader == null) {
+
+				try {
+					reader = this.idle.take();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		return reader;
+	}
+
+	/**
+	 * Returns a connection obtained through {@link #acquireReader()} to the
+	 * pool.
+	 * 
+	 * @param reader
+	 *            The connection to return.
+	 */
+	public void releaseReader (SQLiteDatabase reader) {
+
+		if (reader == this.db) {
+			// The shared database is not pooled
+			return;
+		}
+
+		synchronized (this) {
+
+			if (!this.closed) {
+				// Make the connection available to the other readers
+				this.idle.add(reader);
+				return;
+			}
+		}
+
+		// The pool has been closed while the connection was in use
+		closeReader(reader);
+	}
+
+	/**
+	 * Opens a read-only connection, if the pool is not yet full.
+	 * 
+	 * @return
+	 *         The new connection; the shared database if the connection could
+	 *         not be opened; null if the pool is full.
+	 */
+	private synchronized SQLiteDatabase open () {
+
+		if (this.closed || this.readers.size() >= POOL_SIZE) {
+			// Wait for one of the existing connections
+			return (this.closed) ? this.db : null;
+		}
+
+		try {
+			// Open a read-only connection to the database file
+			SQLiteDatabase reader = SQLiteDatabase.openDatabase(this.db.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+			this.readers.add(reader);
+
+			Logger.i(this.getClass().getName(), "Opened read-only connection {} of {} to '{}'", this.readers.size(), POOL_SIZE, this.db.getPath());
+			return reader;
+		}
+		catch (SQLException e) {
+			// Fall back on the shared database
+			Logger.w(this.getClass().getName(), "Read-only connection to '{}' cannot be opened: {}", this.db.getPath(), e);
+			return this.db;
+		}
+	}
+
+	/**
+	 * Closes the idle read-only connections of the pool. Connections that are
+	 * in use are closed once they are returned.
+	 */
+	private void close () {
+
+		// The connections that are not in use
+		List<SQLiteDatabase> connections = new ArrayList<SQLiteDatabase>();
+
+		synchronized (this) {
+			this.closed = true;
+			this.idle.drainTo(connections);
+		}
+
+		for (SQLiteDatabase reader : connections) {
+			// Close each of the idle connections
+			closeReader(reader);
+		}
+
+		Logger.i(this.getClass().getName(), "Closed reader pool for '{}' after {} acquisition(s) ({} wait(s))", this.db.getPath(), this.acquisitions.get(), this.waits.get());
+	}
+
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         True if the shared database uses write-ahead logging (and
+	 *         read-only connections are therefore handed out); false
+	 *         otherwise.
+	 */
+	public boolean isWriteAheadLogging () {
+		return this.writeAheadLogging;
+	}
+
+	/**
+	 * @return
+	 *         The number of read-only connections opened by the pool.
+	 */
+	public synchronized int getSize () {
+		return this.readers.size();
+	}
+
+	/**
+	 * @return
+	 *         The number of connections handed out by the pool.
+	 */
+	public long getAcquisitions () {
+		return this.acquisitions.get();
+	}
+
+	/**
+	 * @return
+	 *         The number of times a reader had to wait for an idle connection.
+	 */
+	public long getWaits () {
+		return this.waits.get();
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * A catalog of the questions tables known to exist in a single SQLite
+ * database. The catalog is filled from the schema of the database once, when
+ * the catalog is first obtained for the database, and is then kept up to date
+ * as questions tables are created or dropped (through
+ * {@link SqliteDataControllerQueries}). This allows the existence of a
+ * questions table to be checked without querying the schema of the database
+ * each time.
+ * <p/>
+ * A catalog is obtained for a database through
+ * {@link #forDatabase(SQLiteDatabase)} and is discarded through
+ * {@link #release(SQLiteDatabase)}, which must be called whenever the schema
+ * of the database is changed by any other means (such as an upgrade of the
+ * database) or the database is closed.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteSchemaCatalog {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The catalogs for each of the open databases.
+	 */
+	private static final Map<SQLiteDatabase, SqliteSchemaCatalog> catalogs = new WeakHashMap<SQLiteDatabase, SqliteSchemaCatalog>();
+
+	/**
+	 * The names of the questions tables known to exist in the database.
+	 */
+	private Set<String> tables;
+
+	/**
+	 * The names of the questions tables that have been synchronized with their
+	 * questions data files since the catalog was filled.
+	 */
+	private Set<String> synchronizedTables = new HashSet<String>();
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Creates a catalog filled from the schema of the supplied database
+	 * (obtained through {@link #forDatabase(SQLiteDatabase)}).
+	 * 
+	 * @param db
+	 *            The database to fill the catalog from.
+	 */
+	private SqliteSchemaCatalog (SQLiteDatabase db) {
+		this.tables = new HashSet<String>(SqliteDataControllerQueries.getQuestionsTableNames(db));
+	}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains the catalog for the supplied database, creating it (and filling
+	 * it from the schema of the database) if the database does not yet have a
+	 * catalog.
+	 * 
+	 * @param db
+	 *            The database to obtain the catalog for.
+	 * @return
+	 *         The catalog for the supplied database.
+	 */
+	public static SqliteSchemaCatalog forDatabase (SQLiteDatabase db) {
+
+		synchronized (catalogs) {
+			// Obtain the catalog for the database
+			SqliteSchemaCatalog catalog = catalogs.get(db);
+
+			if (catalog != null) {
+				return catalog;
+			}
+		}
+
+		// Fill a new catalog from the schema (outside of the lock, so that a
+		// thread holding the database waiting on the lock cannot deadlock)
+		SqliteSchemaCatalog created = new SqliteSchemaCatalog(db);
+
+		synchronized (catalogs) {
+			// Use the catalog created by another thread if there is one
+			SqliteSchemaCatalog catalog = catalogs.get(db);
+
+			if (catalog == null) {
+				// Store the new catalog for the database
+				catalog = created;
+				catalogs.put(db, catalog);
+
+				Logger.i(SqliteSchemaCatalog.class.getName(), "Loaded schema catalog for '{}': {}", db.getPath(), catalog.tables);
+			}
+
+			return catalog;
+		}
+	}
+
+	/**
+	 * Discards the catalog for the supplied database. The catalog is filled
+	 * from the schema of the database again the next time it is obtained.
+	 * 
+	 * @param db
+	 *            The database to release the catalog of.
+	 */
+	public static void release (SQLiteDatabase db) {
+
+		synchronized (catalogs) {
+			// Remove the catalog for the database
+			catalogs.remove(db);
+		}
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Returns true if the questions table is known to exist in the database.
+	 * 
+	 * @param table
+	 *            The name of the questions table.
+	 * @return
+	 *         True if the questions table exists; false otherwise.
+	 */
+	public synchronized boolean isQuestionsTable (String table) {
+		return this.tables.contains(table);
+	}
+
+	/**
+	 * Records that a questions table has been created in the database.
+	 * 
+	 * @param table
+	 *            The name of the questions table.
+	 */
+	public synchronized void addQuestionsTable (String table) {
+		this.tables.add(table);
+	}
+
+	/**
+	 * Records that a questions table has been dropped from the database.
+	 * 
+	 * @param table
+	 *            The name of the questions table.
+	 */
+	public synchronized void removeQuestionsTable (String table) {
+		this.tables.remove(table);
+		this.synchronizedTables.remove(table);
+	}
+
+	/**
+	 * Returns true if the questions table has been synchronized with its
+	 * questions data file since the catalog was filled.
+	 * 
+	 * @param table
+	 *            The name of the questions table.
+	 * @return
+	 *         True if the questions table has been synchronized; false
+	 *         otherwise.
+	 */
+	public synchronized boolean isSynchronized (String table) {
+		return this.synchronizedTables.contains(table);
+	}
+
+	/**
+	 * Records that a questions table has been synchronized with its questions
+	 * data file.
+	 * 
+	 * @param table
+	 *            The name of the questions table.
+	 */
+	public synchronized void markSynchronized (String table) {
+		this.synchronizedTables.add(table);
+	}
+}
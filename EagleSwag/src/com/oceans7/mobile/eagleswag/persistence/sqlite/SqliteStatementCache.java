@@ -0,0 +1,321 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * A cache of the compiled SQL statements (and query strings) used against a
+ * single SQLite database. Statements are keyed by the operation they perform
+ * and the table they are performed on, so that each statement is compiled only
+ * once for the lifetime of the database and is reused (after clearing its
+ * bindings) each time the operation is performed.
+ * <p/>
+ * A statement cache is obtained for a database through
+ * {@link #forDatabase(SQLiteDatabase)} and all of its statements are closed
+ * through {@link #release(SQLiteDatabase)}, which must be called before the
+ * database is closed.
+ * <p/>
+ * <strong>Note:</strong> a cached statement may be shared between threads;
+ * callers must synchronize on the statement while binding its arguments and
+ * executing it.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteStatementCache {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The statement caches for each of the open databases.
+	 */
+	private static final Map<SQLiteDatabase, SqliteStatementCache> caches = new WeakHashMap<SQLiteDatabase, SqliteStatementCache>();
+
+	/**
+	 * The compiled statements, keyed by operation and table.
+	 */
+	private Map<String, SQLiteStatement> statements;
+
+	/**
+	 * The query strings used for queries that return a cursor (which cannot be
+	 * compiled into a statement), keyed by operation and table.
+	 */
+	private Map<String, String> queries;
+
+	/**
+	 * The number of times a statement or query was found in the cache.
+	 */
+	private long hits;
+
+	/**
+	 * The number of times a statement or query was not found in the cache.
+	 */
+	private long misses;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Creates an empty statement cache (obtained through
+	 * {@link #forDatabase(SQLiteDatabase)}).
+	 */
+	private SqliteStatementCache () {
+		this.statements = new HashMap<String, SQLiteStatement>();
+		this.queries = new HashMap<String, String>();
+	}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains the statement cache for the supplied database, creating it if
+	 * the database does not yet have a statement cache.
+	 * 
+	 * @param db
+	 *            The database to obtain the statement cache for.
+	 * @return
+	 *         The statement cache for the supplied database.
+	 */
+	public static SqliteStatementCache forDatabase (SQLiteDatabase db) {
+
+		synchronized (caches) {
+			// Obtain the cache for the database
+			SqliteStatementCache cache = caches.get(db);
+
+			if (cache == null) {
+				// Lazy instantiation of the cache for the database
+				cache = new SqliteStatementCache();
+				caches.put(db, cache);
+			}
+
+			return cache;
+		}
+	}
+
+	/**
+	 * Closes all of the statements cached for the supplied database and
+	 * discards its statement cache. This method must be called before the
+	 * database is closed.
+	 * 
+	 * @param db
+	 *            The database to release the statement cache of.
+	 */
+	public static void release (SQLiteDatabase db) {
+
+		// Statement cache removed from the map of caches
+		SqliteStatementCache cache;
+
+		synchronized (caches) {
+			// Remove the cache for the database
+			cache = caches.remove(db);
+		}
+
+		if (cache != null) {
+			// Close the cache if the database had one
+			cache.close();
+		}
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains the compiled statement for an operation on a table.
+	 * 
+	 * @param operation
+	 *            The name of the operation performed by the statement.
+	 * @param table
+	 *            The table the operation is performed on.
+	 * @return
+	 *         The cached statement; null if the statement has not yet been
+	 *         compiled and must be added using
+	 *         {@link #putStatement(SQLiteDatabase, String, String, String)}.
+	 */
+	public synchronized SQLiteStatement getStatement (String operation, String table) {
+
+		// Obtain the statement from the cache
+		SQLiteStatement statement = this.statements.get(generateKey(operation, table));
+		this.record(statement != null);
+
+		return statement;
+	}
+
+	/**
+	 * Compiles a statement for an operation on a table and adds it to the
+	 * cache. If a statement has already been cached for the operation and table
+	 * (such as by another thread), the cached statement is returned instead.
+	 * 
+	 * @param db
+	 *            The database to compile the statement against.
+	 * @param operation
+	 *            The name of the operation performed by the statement.
+	 * @param table
+	 *            The table the operation is performed on.
+	 * @param sql
+	 *            The SQL of the statement.
+	 * @return
+	 *         The cached statement for the operation and table.
+	 */
+	public synchronized SQLiteStatement putStatement (SQLiteDatabase db, String operation, String table, String sql) {
+
+		// Generate the key for the statement
+		String key = generateKey(operation, table);
+		SQLiteStatement statement = this.statements.get(key);
+
+		if (statement == null) {
+			// Compile the statement only if it has not been compiled
+			statement = db.compileStatement(sql);
+			this.statements.put(key, statement);
+
+			Logger.i(this.getClass().getName(), "Compiled statement '{}': {}", key, sql);
+		}
+
+		return statement;
+	}
+
+	/**
+	 * Obtains the query string for an operation on a table.
+	 * 
+	 * @param operation
+	 *            The name of the operation performed by the query.
+	 * @param table
+	 *            The table the query is performed on.
+	 * @return
+	 *         The cached query string; null if the query has not yet been
+	 *         added using {@link #putQuery(String, String, String)}.
+	 */
+	public synchronized String getQuery (String operation, String table) {
+
+		// Obtain the query from the cache
+		String query = this.queries.get(generateKey(operation, table));
+		this.record(query != null);
+
+		return query;
+	}
+
+	/**
+	 * Adds the query string for an operation on a table to the cache.
+	 * 
+	 * @param operation
+	 *            The name of the operation performed by the query.
+	 * @param table
+	 *            The table the query is performed on.
+	 * @param query
+	 *            The query string.
+	 * @return
+	 *         The cached query string.
+	 */
+	public synchronized String putQuery (String operation, String table, String query) {
+
+		// Add the query to the cache
+		this.queries.put(generateKey(operation, table), query);
+
+		return query;
+	}
+
+	/**
+	 * Closes all of the statements in the cache and clears the cache.
+	 */
+	public synchronized void close () {
+
+		for (SQLiteStatement statement : this.statements.values()) {
+			// Close each of the compiled statements
+			statement.close();
+		}
+
+		Logger.i(this.getClass().getName(), "Closed {} cached statement(s) [hits: {}, misses: {}]", this.statements.size(), this.hits, this.misses);
+
+		// Clear the cache
+		this.statements.clear();
+		this.queries.clear();
+	}
+
+	/**
+	 * Records a lookup in the cache.
+	 * 
+	 * @param hit
+	 *            True if the lookup was a hit; false otherwise.
+	 */
+	private void record (boolean hit) {
+
+		if (hit) {
+			// Increment the number of hits
+			this.hits++;
+		}
+		else {
+			// Increment the number of misses
+			this.misses++;
+		}
+	}
+
+	/**
+	 * A helper method for generating the cache key for an operation on a table.
+	 * 
+	 * @param operation
+	 *            The name of the operation.
+	 * @param table
+	 *            The table the operation is performed on.
+	 * @return
+	 *         The cache key for the operation on the table.
+	 */
+	private static String generateKey (String operation, String table) {
+		return operation + ":" + table;
+	}
+
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         The number of times a statement or query was found in the cache.
+	 */
+	public synchronized long getHits () {
+		return this.hits;
+	}
+
+	/**
+	 * @return
+	 *         The number of times a statement or query was not found in the
+	 *         cache.
+	 */
+	public synchronized long getMisses () {
+		return this.misses;
+	}
+
+	/**
+	 * @return
+	 *         The number of compiled statements in the cache.
+	 */
+	public synchronized int getSize () {
+		return this.statements.size();
+	}
+}
@@ -0,0 +1,638 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.persistence.sqlite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * The single writer of a SQLite database. All of the mutations of the
+ * database made by the data controllers (creating the questions tables,
+ * loading and synchronizing the questions, used count increments, score
+ * inserts, etc.) are submitted to the writer as commands, which are executed
+ * in order by the writer thread of the database. The only exception is the
+ * creation and upgrade of the schema by the open helper (see
+ * {@link SqliteDataControllerHelper}), which completes while the database is
+ * being opened, before the database has a writer. Each time
+ * the writer thread drains its command queue, all of the commands that have
+ * queued up (up to {@link #MAX_BATCH_SIZE}) are executed in a single
+ * transaction, so that writes submitted at the same time by different threads
+ * share a single commit.
+ * <p/>
+ * If any command of a batch fails, the transaction of the batch is rolled
+ * back and each of the commands of the batch is executed again in a
+ * transaction of its own, so that only the failing command fails.
+ * <p/>
+ * The commands are only held in memory until they have been committed: the
+ * commands (such as rounds saved in the background) not yet committed are
+ * lost if the process is killed. The writer should therefore be flushed (see
+ * {@link #flush(long)}) when the application is stopped.
+ * <p/>
+ * A writer is obtained for a database through
+ * {@link #forDatabase(SQLiteDatabase)} and is stopped through
+ * {@link #release(SQLiteDatabase)}, which must be called before the database
+ * is closed.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteWriter {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The maximum number of commands executed in a single transaction.
+	 */
+	public static final int MAX_BATCH_SIZE = 64;
+
+	/**
+	 * The writers for each of the open databases.
+	 */
+	private static final Map<SQLiteDatabase, SqliteWriter> writers = new WeakHashMap<SQLiteDatabase, SqliteWriter>();
+
+	/**
+	 * The command that stops the writer thread once the commands queued before
+	 * it have been executed.
+	 */
+	private final Write<Void> stop = new Write<Void>(null);
+
+	/**
+	 * The database written by the writer.
+	 */
+	private final SQLiteDatabase db;
+
+	/**
+	 * The commands waiting to be executed.
+	 */
+	private final BlockingQueue<Write<?>> queue = new LinkedBlockingQueue<Write<?>>();
+
+	/**
+	 * The writer thread.
+	 */
+	private final Thread thread;
+
+	/**
+	 * Flag used to track if the writer has been stopped (guarded by the
+	 * queue, so that no command can be queued behind the stop command).
+	 */
+	private boolean stopped;
+
+	/**
+	 * The number of transactions committed (or rolled back) by the writer.
+	 */
+	private final AtomicLong batches = new AtomicLong();
+
+	/**
+	 * The number of commands executed by the writer.
+	 */
+	private final AtomicLong commands = new AtomicLong();
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Creates a writer for the supplied database and starts its writer thread
+	 * (obtained through {@link #forDatabase(SQLiteDatabase)}).
+	 * 
+	 * @param db
+	 *            The database written by the writer.
+	 */
+	private SqliteWriter (SQLiteDatabase db) {
+		this.db = db;
+		this.thread = new Thread(new Runnable() {
+
+			@Override
+			public void run () {
+				drain();
+			}
+		}, "SqliteWriter");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Obtains the writer for the supplied database, creating it if the
+	 * database does not yet have a writer.
+	 * 
+	 * @param db
+	 *            The database to obtain the writer for.
+	 * @return
+	 *         The writer for the supplied database.
+	 */
+	public static SqliteWriter forDatabase (SQLiteDatabase db) {
+
+		synchronized (writers) {
+			// Obtain the writer for the database
+			SqliteWriter writer = writers.get(db);
+
+			if (writer == null) {
+				// Lazy instantiation of the writer for the database
+				writer = new SqliteWriter(db);
+				writers.put(db, writer);
+			}
+
+			return writer;
+		}
+	}
+
+	/**
+	 * Stops the writer of the supplied database, once the commands already
+	 * submitted to it have been executed. This method must be called before
+	 * the database is closed.
+	 * 
+	 * @param db
+	 *            The database to release the writer of.
+	 */
+	public static void release (SQLiteDatabase db) {
+
+		// Writer removed from the map of writers
+		SqliteWriter writer;
+
+		synchronized (writers) {
+			// Remove the writer for the database
+			writer = writers.remove(db);
+		}
+
+		if (writer != null) {
+			// Stop the writer if the database had one
+			writer.stop();
+		}
+	}
+
+	/***************************************************************************
+	 * Methods
+	 **************************************************************************/
+
+	/**
+	 * Submits a command to be executed by the writer thread.
+	 * 
+	 * @param command
+	 *            The command to execute.
+	 * @return
+	 *         A future completed once the transaction containing the command
+	 *         has been committed (or the command has failed).
+	 * @throws IllegalStateException
+	 *             The writer has been stopped.
+	 */
+	public <V> Future<V> submit (Command<V> command) {
+
+		Write<V> write = new Write<V>(command);
+
+		synchronized (this.queue) {
+
+			if (this.stopped) {
+				// The database is being closed
+				throw new IllegalStateException("Writer for '" + this.db.getPath() + "' has been stopped");
+			}
+
+			// Queue the command for the writer thread
+			this.queue.add(write);
+		}
+
+		return write.result;
+	}
+
+	/**
+	 * Executes a command on the writer thread and waits for the transaction
+	 * containing the command to be committed. If called from the writer thread
+	 * itself (by another command), the command is executed immediately,
+	 * within the current transaction.
+	 * 
+	 * @param command
+	 *            The command to execute.
+	 * @return
+	 *         The result of the command.
+	 * @throws RuntimeException
+	 *             The exception thrown by the command (or by the commit of its
+	 *             transaction).
+	 */
+	public <V> V execute (Command<V> command) {
+
+		if (Thread.currentThread() == this.thread) {
+			// Execute the nested command within the current transaction
+			return command.execute(this.db);
+		}
+
+		// Wait for the command to be executed, even if interrupted
+		Future<V> result = this.submit(command);
+		boolean interrupted = false;
+
+		try {
+			while (true) {
+
+				try {
+					return result.get();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		catch (ExecutionException e) {
+			// Rethrow the failure of the command on the calling thread
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw new RuntimeException(e.getCause());
+		}
+		finally {
+
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Waits for all of the commands submitted to the writer so far to be
+	 * executed. This method blocks, and must therefore not be called on the UI
+	 * thread.
+	 * 
+	 * @param timeout
+	 *            The maximum time (in milliseconds) to wait.
+	 * @return
+	 *         True if all of the commands were executed within the timeout;
+	 *         false otherwise.
+	 */
+	public boolean flush (long timeout) {
+
+		if (Thread.currentThread() == this.thread) {
+			// The commands before the calling command have been executed
+			return true;
+		}
+
+		// Commands are executed in order, so once a marker command queued
+		// after the commands has been executed, the commands have been
+		// executed
+		Future<Void> marker = this.submit(new Command<Void>() {
+
+			@Override
+			public Void execute (SQLiteDatabase db) {
+				return null;
+			}
+		});
+
+		try {
+			marker.get(timeout, TimeUnit.MILLISECONDS);
+			return true;
+		}
+		catch (InterruptedException e) {
+			// Restore the interrupt
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		catch (ExecutionException e) {
+			// The marker command does not throw
+			return false;
+		}
+		catch (TimeoutException e) {
+			// The commands were not executed within the timeout
+			Logger.w(this.getClass().getName(), "Writes not committed within {} ms", timeout);
+			return false;
+		}
+	}
+
+	/**
+	 * Stops the writer thread once the commands already submitted have been
+	 * executed, and waits for the writer thread to end. If called from the
+	 * writer thread itself (by the completion of a command), the writer
+	 * thread ends once the current batch has been completed.
+	 */
+	private void stop () {
+
+		synchronized (this.queue) {
+			// Queue the stop command behind all of the submitted commands
+			this.stopped = true;
+			this.queue.add(this.stop);
+		}
+
+		if (Thread.currentThread() == this.thread) {
+			// The writer thread cannot wait for itself to end
+			return;
+		}
+
+		boolean interrupted = false;
+
+		while (this.thread.isAlive()) {
+
+			try {
+				this.thread.join();
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		Logger.i(this.getClass().getName(), "Stopped writer for '{}' after {} command(s) in {} transaction(s)", this.db.getPath(), this.commands.get(), this.batches.get());
+	}
+
+	/**
+	 * The loop of the writer thread: takes each batch of queued commands and
+	 * executes it, until the writer is stopped.
+	 */
+	private void drain () {
+
+		List<Write<?>> batch = new ArrayList<Write<?>>(MAX_BATCH_SIZE);
+		boolean stopping = false;
+
+		while (!stopping) {
+
+			try {
+				// Wait for a command, then take any others queued behind it
+				batch.add(this.queue.take());
+				this.queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+			}
+			catch (InterruptedException e) {
+				// The writer thread is only stopped by the stop command
+				continue;
+			}
+
+			// Execute the commands queued before the stop command
+			stopping = batch.remove(this.stop);
+
+			if (!batch.isEmpty()) {
+				this.write(batch);
+			}
+
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Executes a batch of commands in a single transaction. If the transaction
+	 * fails, each of the commands is executed again in a transaction of its
+	 * own. The result of each command is completed once its transaction has
+	 * ended.
+	 * 
+	 * @param batch
+	 *            The commands to execute.
+	 */
+	private void write (List<Write<?>> batch) {
+
+		// Execute the batch in a single transaction
+		RuntimeException failure = this.transact(batch);
+
+		if (failure != null) {
+			// The changes of all of the commands have been rolled back
+			for (Write<?> write : batch) {
+				write.command.rolledBack();
+			}
+
+			if (batch.size() == 1) {
+				// The only command of the batch failed
+				batch.get(0).failure = failure;
+			}
+			else {
+				Logger.w(this.getClass().getName(), "Batch of {} command(s) rolled back; executing each separately: {}", batch.size(), failure);
+
+				for (Write<?> write : batch) {
+					// Execute each of the commands on its own
+					RuntimeException e = this.transact(Collections.<Write<?>> singletonList(write));
+
+					if (e != null) {
+						write.command.rolledBack();
+						write.failure = e;
+					}
+				}
+			}
+		}
+
+		for (Write<?> write : batch) {
+			// Complete the result of each command
+			write.result.run();
+		}
+	}
+
+	/**
+	 * Executes commands in a single transaction.
+	 * 
+	 * @param writes
+	 *            The commands to execute.
+	 * @return
+	 *         The exception that caused the transaction to be rolled back
+	 *         (an error is wrapped in a runtime exception, so that the writer
+	 *         thread survives it); null if the transaction was committed.
+	 */
+	private RuntimeException transact (List<Write<?>> writes) {
+
+		this.batches.incrementAndGet();
+
+		try {
+			// Begin SQL batch transaction
+			this.db.beginTransaction();
+
+			try {
+				for (Write<?> write : writes) {
+					// Execute each of the commands
+					write.execute(this.db);
+					this.commands.incrementAndGet();
+				}
+
+				// Mark SQL batch transaction as successfully completed
+				this.db.setTransactionSuccessful();
+			}
+			finally {
+				// End SQL batch transaction
+				this.db.endTransaction();
+			}
+
+			return null;
+		}
+		catch (RuntimeException e) {
+			return e;
+		}
+		catch (Throwable e) {
+			return new RuntimeException(e);
+		}
+	}
+
+	/***************************************************************************
+	 * Getters & Setters
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         The number of transactions executed by the writer.
+	 */
+	public long getBatchCount () {
+		return this.batches.get();
+	}
+
+	/**
+	 * @return
+	 *         The number of commands executed by the writer.
+	 */
+	public long getCommandCount () {
+		return this.commands.get();
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * A mutation of the database executed by the writer thread. A command is
+	 * executed within a transaction shared with the other commands of its
+	 * batch: it must not begin a transaction of its own, and must signal a
+	 * failure by throwing an exception (which rolls back the transaction). A
+	 * command may be executed again if its transaction is rolled back.
+	 * 
+	 * @author Justin Albano
+	 * 
+	 * @param <V>
+	 *            The type of the result of the command.
+	 */
+	public static abstract class Command<V> {
+
+		/**
+		 * Executes the command against the database.
+		 * 
+		 * @param db
+		 *            The database (within a transaction).
+		 * @return
+		 *         The result of the command.
+		 */
+		public abstract V execute (SQLiteDatabase db);
+
+		/**
+		 * Called (on the writer thread) when the transaction containing the
+		 * command has been rolled back, so that any state kept outside of the
+		 * database can be discarded. By default, nothing is done.
+		 */
+		public void rolledBack () {}
+
+		/**
+		 * Called (on the writer thread) once the result of the command has
+		 * been completed, after the transaction containing the command has
+		 * ended. The result can be obtained from the supplied future without
+		 * waiting. By default, nothing is done.
+		 * 
+		 * @param result
+		 *            The completed result of the command.
+		 */
+		public void done (Future<V> result) {}
+	}
+
+	/**
+	 * A command submitted to the writer, along with its result.
+	 * 
+	 * @author Justin Albano
+	 * 
+	 * @param <V>
+	 *            The type of the result of the command.
+	 */
+	private static class Write<V> {
+
+		/**
+		 * The command to execute.
+		 */
+		private final Command<V> command;
+
+		/**
+		 * The result of the command, completed (by running it) once the
+		 * transaction of the command has ended.
+		 */
+		private final FutureTask<V> result;
+
+		/**
+		 * The value returned by the command.
+		 */
+		private V value;
+
+		/**
+		 * The exception thrown by the command; null if the command succeeded.
+		 */
+		private RuntimeException failure;
+
+		/**
+		 * Creates a write for a command.
+		 * 
+		 * @param command
+		 *            The command to execute.
+		 */
+		public Write (final Command<V> command) {
+			this.command = command;
+			this.result = new FutureTask<V>(new Callable<V>() {
+
+				@Override
+				public V call () throws Exception {
+
+					if (failure != null) {
+						throw failure;
+					}
+
+					return value;
+				}
+			}) {
+
+				@Override
+				protected void done () {
+
+					try {
+						// Notify the command of its completed result
+						command.done(this);
+					}
+					catch (RuntimeException e) {
+						// Never let the completion of a command stop the
+						// writer thread
+						Logger.e(SqliteWriter.class.getName(), "Completion of command failed: {}", e);
+					}
+				}
+			};
+		}
+
+		/**
+		 * Executes the command, recording its value.
+		 * 
+		 * @param db
+		 *            The database (within a transaction).
+		 */
+		public void execute (SQLiteDatabase db) {
+			this.failure = null;
+			this.value = this.command.execute(db);
+		}
+	}
+}
@@ -32,8 +32,12 @@ import android.widget.TextSwitcher;
 
 import com.oceans7.mobile.eagleswag.domain.RoundController;
 import com.oceans7.mobile.eagleswag.domain.RoundNotStartedException;
+import com.oceans7.mobile.eagleswag.domain.RoundPrefetcher;
+import com.oceans7.mobile.eagleswag.domain.RoundType;
 import com.oceans7.mobile.eagleswag.domain.roundtype.EngineeringRoundType;
 import com.oceans7.mobile.eagleswag.domain.roundtype.PilotRoundType;
+import com.oceans7.mobile.eagleswag.persistence.DataController;
+import com.oceans7.mobile.eagleswag.persistence.DataControllers;
 import com.oceans7.mobile.eagleswag.ui.SplashScreenActivity.Usertype;
 import com.oceans7.mobileapps.eagleswag.R;
 
@@ -53,6 +57,12 @@ public class QuestionsActivity<T> extends Activity {
 	 * Attributes
 	 **************************************************************************/
 
+	/**
+	 * The maximum time (in milliseconds) that the activity waits in the
+	 * background for the ended rounds to be saved once it has been stopped.
+	 */
+	private static final long FLUSH_TIMEOUT = 10000;
+
 	/**
 	 * The round controller that manages the answering of questions by the user.
 	 */
@@ -155,6 +165,56 @@ public class QuestionsActivity<T> extends Activity {
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see android.app.Activity#onStop()
+	 * 
+	 *      Commits the rounds ended in the background, so that they are not
+	 *      lost if the process is killed once the activity has been stopped.
+	 */
+	@Override
+	protected void onStop () {
+		super.onStop();
+
+		// Flush the saved rounds without blocking the UI thread
+		new FlushRounds().execute();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see android.app.Activity#onDestroy()
+	 * 
+	 *      Abandons the round (if the user left the activity before ending
+	 *      it) and releases the persistent storage held for the round.
+	 */
+	@Override
+	protected void onDestroy () {
+		super.onDestroy();
+
+		// Close the round controller in the background (the tasks of the
+		// activity are executed serially, so the round controller is closed
+		// once the round has been started)
+		new CloseRoundController().execute();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see android.app.Activity#onTrimMemory(int)
+	 * 
+	 *      Releases the memory held by persistent storage that is not
+	 *      required.
+	 */
+	@Override
+	public void onTrimMemory (int level) {
+		super.onTrimMemory(level);
+
+		// Trim the memory held by the data controllers
+		DataControllers.getInstance().trimMemory(level);
+	}
+
 	/**
 	 * Helper method to display the next question in the text area of the
 	 * activity. If no more questions are available, the current round will be
@@ -212,6 +272,11 @@ public class QuestionsActivity<T> extends Activity {
 		 */
 		private ProgressDialog progress;
 
+		/**
+		 * The type of round to start.
+		 */
+		private RoundType roundType;
+
 		/***********************************************************************
 		 * Methods
 		 **********************************************************************/
@@ -222,14 +287,35 @@ public class QuestionsActivity<T> extends Activity {
 		 * @see android.os.AsyncTask#onPreExecute()
 		 * 
 		 *      Displays a loading dialog to the user while the questions for
-		 *      the round are loaded.
+		 *      the round are loaded (unless the questions for the round have
+		 *      already been prefetched).
 		 */
 		@Override
 		protected void onPreExecute () {
 			super.onPreExecute();
 
-			// Display a progress dialog to the user
-			this.progress = ProgressDialog.show(QuestionsActivity.this, "Loading Questions", "Loading question data...", true);
+			// Obtain the type of questions to load
+			Usertype type = Usertype.values()[getIntent().getExtras().getInt("QuestionType")];
+			Log.i(this.getClass().getName(), "Type: " + type);
+
+			switch (type) {
+			// Start the correct round based on the type supplied
+
+				case ENGINEER:
+					// Engineer was selected
+					this.roundType = new EngineeringRoundType();
+					break;
+
+				case PILOT:
+					// Pilot was selected
+					this.roundType = new PilotRoundType();
+					break;
+			}
+
+			if (!RoundPrefetcher.getInstance().isPrefetched(this.roundType)) {
+				// Display a progress dialog to the user
+				this.progress = ProgressDialog.show(QuestionsActivity.this, "Loading Questions", "Loading question data...", true);
+			}
 		}
 
 		/**
@@ -247,23 +333,8 @@ public class QuestionsActivity<T> extends Activity {
 			// Create the round controller
 			roundController = new RoundController(QuestionsActivity.this);
 
-			// Obtain the type of questions to load
-			Usertype type = Usertype.values()[getIntent().getExtras().getInt("QuestionType")];
-			Log.i(this.getClass().getName(), "Type: " + type);
-
-			switch (type) {
-			// Load the correct questions based on the type supplied
-
-				case ENGINEER:
-					// Engineer was selected
-					roundController.startRound(new EngineeringRoundType());
-					break;
-
-				case PILOT:
-					// Pilot was selected
-					roundController.startRound(new PilotRoundType());
-					break;
-			}
+			// Start the round of the type supplied
+			roundController.startRound(this.roundType);
 
 			return true;
 		}
@@ -283,8 +354,67 @@ public class QuestionsActivity<T> extends Activity {
 			// Display the first question
 			nextQuestionIfPossible();
 
-			// Dismiss the loading bar
-			this.progress.dismiss();
+			if (this.progress != null) {
+				// Dismiss the loading bar
+				this.progress.dismiss();
+			}
+		}
+	}
+
+	/**
+	 * Asynchronous task that waits for the rounds ended in the background to
+	 * be saved (see {@link DataController#flush(long)}).
+	 */
+	private class FlushRounds extends AsyncTask<Object, Void, Boolean> {
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see android.os.AsyncTask#doInBackground(Params[])
+		 * 
+		 *      Flushes the persistent storage, holding it open until the
+		 *      rounds have been saved.
+		 */
+		@Override
+		protected Boolean doInBackground (Object... arg0) {
+
+			// Obtain a data controller for the duration of the flush
+			DataController dataController = DataControllers.getInstance().getDataController(QuestionsActivity.this);
+
+			try {
+				// Wait for the ended rounds to be saved
+				return dataController.flush(FLUSH_TIMEOUT);
+			}
+			finally {
+				// Release the persistent storage
+				dataController.close();
+			}
+		}
+	}
+
+	/**
+	 * Asynchronous task that closes the round controller of the activity (see
+	 * {@link RoundController#close()}), which may wait for the round to be
+	 * started.
+	 */
+	private class CloseRoundController extends AsyncTask<Object, Void, Void> {
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see android.os.AsyncTask#doInBackground(Params[])
+		 * 
+		 *      Closes the round controller, if it was created.
+		 */
+		@Override
+		protected Void doInBackground (Object... arg0) {
+
+			if (roundController != null) {
+				// Abandon the round and release the persistent storage
+				roundController.close();
+			}
+
+			return null;
 		}
 	}
 
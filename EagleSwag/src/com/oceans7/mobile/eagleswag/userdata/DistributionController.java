@@ -24,10 +24,10 @@ import java.io.InputStream;
 import java.util.Properties;
 
 import android.content.Context;
-import android.util.Log;
 
 import com.oceans7.mobile.eagleswag.domain.Question;
 import com.oceans7.mobile.eagleswag.domain.RoundType;
+import com.oceans7.mobile.eagleswag.util.Logger;
 
 /**
  * TODO Class documentation
@@ -126,14 +126,14 @@ public class DistributionController {
 		}
 		catch (FileNotFoundException e) {
 			// The configuration file specified cannot be found
-			Log.e(this.getClass().getName(), "The distribution configuration '" + file + "' cannot be found: " + e);
+			Logger.e(this.getClass().getName(), "The distribution configuration '{}' cannot be found: {}", file, e);
 
 			// Use the default distribution value
 			intDistribution = DEFAULT_DISTRIBUTION;
 		}
 		catch (IOException e) {
 			// An IO exception occurred while opening the configuration file
-			Log.e(this.getClass().getName(), "An IO exception occurred while opening configuration file: " + e);
+			Logger.e(this.getClass().getName(), "An IO exception occurred while opening configuration file: {}", e);
 
 			// Use the default distribution value
 			intDistribution = DEFAULT_DISTRIBUTION;
@@ -0,0 +1,373 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.util;
+
+import android.util.Log;
+
+import com.oceans7.mobileapps.eagleswag.BuildConfig;
+
+/**
+ * Logging facade used in place of {@link android.util.Log}. Messages are
+ * supplied as a format and a number of arguments, where each <code>{}</code>
+ * in the format is replaced by the next argument (using
+ * {@link String#valueOf(Object)}). The message is only formatted, and the
+ * arguments are only converted to strings, if the level of the message is
+ * enabled: a disabled message costs a single level check.
+ * <p/>
+ * By default, all levels are enabled in debug builds, while only warnings and
+ * errors are enabled in release builds (as determined by
+ * {@link BuildConfig#DEBUG}). Debug and info messages with up to three
+ * arguments do not allocate an argument array; if the arguments of a message
+ * must be computed or boxed, the call should be guarded by
+ * {@link #isLoggable(int)}.
+ * 
+ * @author Justin Albano
+ */
+public final class Logger {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The level of debug messages.
+	 */
+	public static final int DEBUG = Log.DEBUG;
+
+	/**
+	 * The level of info messages.
+	 */
+	public static final int INFO = Log.INFO;
+
+	/**
+	 * The level of warning messages.
+	 */
+	public static final int WARN = Log.WARN;
+
+	/**
+	 * The level of error messages.
+	 */
+	public static final int ERROR = Log.ERROR;
+
+	/**
+	 * The placeholder replaced by an argument in a message format.
+	 */
+	private static final String PLACEHOLDER = "{}";
+
+	/**
+	 * The minimum level of the messages that are logged (one of the levels of
+	 * {@link android.util.Log}).
+	 */
+	private static volatile int level = BuildConfig.DEBUG ? Log.VERBOSE : WARN;
+
+	/***************************************************************************
+	 * Constructors
+	 **************************************************************************/
+
+	/**
+	 * Hidden constructor (static methods only).
+	 */
+	private Logger () {}
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Checks if the messages of a level are logged.
+	 * 
+	 * @param priority
+	 *            The level of the messages (one of the levels of
+	 *            {@link android.util.Log}, such as {@link #INFO}).
+	 * @return
+	 *         True if the messages of the level are logged.
+	 */
+	public static boolean isLoggable (int priority) {
+		return priority >= level;
+	}
+
+	/**
+	 * Logs a debug message.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param message
+	 *            The message.
+	 */
+	public static void d (String tag, String message) {
+
+		if (isLoggable(DEBUG)) {
+			Log.d(tag, message);
+		}
+	}
+
+	/**
+	 * Logs a debug message with one argument.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param arg
+	 *            The argument of the message.
+	 */
+	public static void d (String tag, String format, Object arg) {
+
+		if (isLoggable(DEBUG)) {
+			Log.d(tag, format(format, arg));
+		}
+	}
+
+	/**
+	 * Logs a debug message with two arguments.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param arg1
+	 *            The first argument of the message.
+	 * @param arg2
+	 *            The second argument of the message.
+	 */
+	public static void d (String tag, String format, Object arg1, Object arg2) {
+
+		if (isLoggable(DEBUG)) {
+			Log.d(tag, format(format, arg1, arg2));
+		}
+	}
+
+	/**
+	 * Logs a debug message with three arguments.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param arg1
+	 *            The first argument of the message.
+	 * @param arg2
+	 *            The second argument of the message.
+	 * @param arg3
+	 *            The third argument of the message.
+	 */
+	public static void d (String tag, String format, Object arg1, Object arg2, Object arg3) {
+
+		if (isLoggable(DEBUG)) {
+			Log.d(tag, format(format, arg1, arg2, arg3));
+		}
+	}
+
+	/**
+	 * Logs a debug message with any number of arguments.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param args
+	 *            The arguments of the message.
+	 */
+	public static void d (String tag, String format, Object... args) {
+
+		if (isLoggable(DEBUG)) {
+			Log.d(tag, format(format, args));
+		}
+	}
+
+	/**
+	 * Logs an info message.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param message
+	 *            The message.
+	 */
+	public static void i (String tag, String message) {
+
+		if (isLoggable(INFO)) {
+			Log.i(tag, message);
+		}
+	}
+
+	/**
+	 * Logs an info message with one argument.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param arg
+	 *            The argument of the message.
+	 */
+	public static void i (String tag, String format, Object arg) {
+
+		if (isLoggable(INFO)) {
+			Log.i(tag, format(format, arg));
+		}
+	}
+
+	/**
+	 * Logs an info message with two arguments.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param arg1
+	 *            The first argument of the message.
+	 * @param arg2
+	 *            The second argument of the message.
+	 */
+	public static void i (String tag, String format, Object arg1, Object arg2) {
+
+		if (isLoggable(INFO)) {
+			Log.i(tag, format(format, arg1, arg2));
+		}
+	}
+
+	/**
+	 * Logs an info message with three arguments.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param arg1
+	 *            The first argument of the message.
+	 * @param arg2
+	 *            The second argument of the message.
+	 * @param arg3
+	 *            The third argument of the message.
+	 */
+	public static void i (String tag, String format, Object arg1, Object arg2, Object arg3) {
+
+		if (isLoggable(INFO)) {
+			Log.i(tag, format(format, arg1, arg2, arg3));
+		}
+	}
+
+	/**
+	 * Logs an info message with any number of arguments.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param args
+	 *            The arguments of the message.
+	 */
+	public static void i (String tag, String format, Object... args) {
+
+		if (isLoggable(INFO)) {
+			Log.i(tag, format(format, args));
+		}
+	}
+
+	/**
+	 * Logs a warning message.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param args
+	 *            The arguments of the message.
+	 */
+	public static void w (String tag, String format, Object... args) {
+
+		if (isLoggable(WARN)) {
+			Log.w(tag, format(format, args));
+		}
+	}
+
+	/**
+	 * Logs an error message.
+	 * 
+	 * @param tag
+	 *            The tag of the message.
+	 * @param format
+	 *            The format of the message.
+	 * @param args
+	 *            The arguments of the message.
+	 */
+	public static void e (String tag, String format, Object... args) {
+
+		if (isLoggable(ERROR)) {
+			Log.e(tag, format(format, args));
+		}
+	}
+
+	/**
+	 * Formats a message, replacing each placeholder (<code>{}</code>) in the
+	 * format with the next argument. Placeholders without a matching argument
+	 * are kept, and arguments without a matching placeholder are ignored.
+	 * 
+	 * @param format
+	 *            The format of the message.
+	 * @param args
+	 *            The arguments of the message.
+	 * @return
+	 *         The formatted message.
+	 */
+	public static String format (String format, Object... args) {
+
+		if (args == null || args.length == 0 || format.indexOf(PLACEHOLDER) < 0) {
+			// Nothing to replace
+			return format;
+		}
+
+		StringBuilder builder = new StringBuilder(format.length() + 16 * args.length);
+		int start = 0;
+
+		for (Object arg : args) {
+			// Replace the next placeholder with the argument
+			int index = format.indexOf(PLACEHOLDER, start);
+
+			if (index < 0) {
+				break;
+			}
+
+			builder.append(format, start, index).append(String.valueOf(arg));
+			start = index + PLACEHOLDER.length();
+		}
+
+		return builder.append(format, start, format.length()).toString();
+	}
+
+	/**
+	 * @return
+	 *         The minimum level of the messages that are logged.
+	 */
+	public static int getLevel () {
+		return level;
+	}
+
+	/**
+	 * Sets the minimum level of the messages that are logged.
+	 * 
+	 * @param priority
+	 *            The minimum level (one of the levels of
+	 *            {@link android.util.Log}); {@link Integer#MAX_VALUE} to
+	 *            disable all messages.
+	 */
+	public static void setLevel (int priority) {
+		level = priority;
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.tools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileConstants;
+import com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileWriter;
+
+/**
+ * Build tool that converts the JSON questions data files into the binary data
+ * files read by the binary data file parser strategy. A binary data file is
+ * written for each of the JSON data files in the data directory, with the same
+ * name as the JSON data file and a ".qb" extension.
+ * <p/>
+ * The conversion is run as part of the build (see custom_rules.xml). The
+ * converted data files are not checked in.
+ * <p/>
+ * Usage: <code>BinaryDataFileConverter &lt;data directory&gt;
+ * &lt;output directory&gt;</code>
+ * 
+ * @author Justin Albano
+ */
+public class BinaryDataFileConverter {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The extension of the JSON questions data files.
+	 */
+	private static final String EXTENSION = ".json";
+
+	/**
+	 * The character encoding of the JSON data files.
+	 */
+	private static final String ENCODING = "UTF-8";
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Converts the JSON data files into binary data files.
+	 * 
+	 * @param args
+	 *            The data directory containing the JSON data files and the
+	 *            directory the binary data files are written to.
+	 * @throws Exception
+	 *             The data files could not be read or written.
+	 */
+	public static void main (String[] args) throws Exception {
+
+		if (args.length != 2) {
+			// Print usage if the arguments are not supplied
+			System.err.println("Usage: BinaryDataFileConverter <data directory> <output directory>");
+			System.exit(1);
+		}
+
+		// Convert the data files
+		int questions = convertAll(new File(args[0]), new File(args[1]));
+		System.out.println("Converted " + questions + " question(s) into binary data files in '" + args[1] + "'");
+	}
+
+	/**
+	 * Converts each of the JSON data files in a directory into a binary data
+	 * file.
+	 * 
+	 * @param dataDirectory
+	 *            The directory containing the JSON data files.
+	 * @param outputDirectory
+	 *            The directory the binary data files are written to.
+	 * @return
+	 *         The number of questions converted.
+	 * @throws IOException
+	 *             A data file could not be read or written.
+	 * @throws ParseException
+	 *             A data file could not be parsed.
+	 */
+	public static int convertAll (File dataDirectory, File outputDirectory) throws IOException, ParseException {
+
+		// Obtain the data files (sorted to ensure a repeatable conversion)
+		File[] dataFiles = dataDirectory.listFiles(new FilenameFilter() {
+
+			@Override
+			public boolean accept (File dir, String name) {
+				return name.endsWith(EXTENSION);
+			}
+		});
+
+		if (dataFiles == null) {
+			throw new IOException("Data directory '" + dataDirectory + "' cannot be read");
+		}
+
+		Arrays.sort(dataFiles);
+		outputDirectory.mkdirs();
+
+		// The number of questions converted
+		int questions = 0;
+
+		for (File dataFile : dataFiles) {
+			// Convert each of the data files
+			String name = dataFile.getName().substring(0, dataFile.getName().length() - EXTENSION.length());
+			OutputStream output = new FileOutputStream(new File(outputDirectory, name + BinaryDataFileConstants.EXTENSION));
+
+			try {
+				questions += convert(dataFile, name, output);
+			}
+			finally {
+				output.close();
+			}
+		}
+
+		return questions;
+	}
+
+	/**
+	 * Converts a single JSON data file into a binary data file.
+	 * 
+	 * @param dataFile
+	 *            The JSON data file.
+	 * @param name
+	 *            The name of the questions array in the JSON data file.
+	 * @param output
+	 *            The output stream the binary data file is written to.
+	 * @return
+	 *         The number of questions converted.
+	 * @throws IOException
+	 *             The data file could not be read or written.
+	 * @throws ParseException
+	 *             The data file could not be parsed.
+	 */
+	public static int convert (File dataFile, String name, OutputStream output) throws IOException, ParseException {
+
+		// Parse the data file
+		Reader reader = new InputStreamReader(new FileInputStream(dataFile), ENCODING);
+		JSONObject root;
+
+		try {
+			root = (JSONObject) new JSONParser().parse(reader);
+		}
+		finally {
+			reader.close();
+		}
+
+		JSONArray questions = (JSONArray) root.get(name);
+
+		if (questions == null) {
+			throw new IOException("Data file '" + dataFile + "' does not contain a '" + name + "' array");
+		}
+
+		// Add each of the questions to the binary data file
+		BinaryDataFileWriter writer = new BinaryDataFileWriter();
+
+		for (Object question : questions) {
+			JSONObject jsonQuestion = (JSONObject) question;
+			writer.addQuestion((String) jsonQuestion.get("text"), Integer.parseInt((String) jsonQuestion.get("yesValue")),
+				Integer.parseInt((String) jsonQuestion.get("noValue")), Integer.parseInt((String) jsonQuestion.get("usedCount")));
+		}
+
+		// Write the binary data file
+		writer.write(output);
+		return writer.getCount();
+	}
+}
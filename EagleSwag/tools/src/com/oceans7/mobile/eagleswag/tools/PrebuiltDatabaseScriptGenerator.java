@@ -0,0 +1,252 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.tools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import com.oceans7.mobile.eagleswag.persistence.sqlite.QuestionBankChecksum;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.QuestionContentHash;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerConstants;
+
+/**
+ * Build tool that generates the SQL script used to create the prebuilt
+ * questions database shipped in the assets of the application. A questions
+ * table (and its used count and content hash indexes) is created for each of
+ * the questions data files in the data directory, and the questions in the
+ * data file are inserted into the table. The name of each table is the name of
+ * its data file (without the extension), which is the same name used by the
+ * SQLite data controller for the questions table of the question type. The
+ * checksum of each data file (see {@link QuestionBankChecksum}) is recorded in
+ * the question banks table, so that the questions tables of the prebuilt
+ * database are known to be synchronized with their data files, and the data
+ * files are not parsed again on the device until they change.
+ * <p/>
+ * The script is run by the sqlite3 command line tool as part of the build (see
+ * custom_rules.xml). The generated database is not versioned: the SQLite
+ * database helper creates the remaining tables and sets the version of the
+ * database the first time it is opened on the device.
+ * <p/>
+ * Usage: <code>PrebuiltDatabaseScriptGenerator &lt;data directory&gt;
+ * &lt;output script&gt;</code>
+ * 
+ * @author Justin Albano
+ */
+public class PrebuiltDatabaseScriptGenerator {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The extension of the questions data files.
+	 */
+	private static final String EXTENSION = ".json";
+
+	/**
+	 * The character encoding of the data files and the generated script.
+	 */
+	private static final String ENCODING = "UTF-8";
+
+	/***************************************************************************
+	 * Static Methods
+	 **************************************************************************/
+
+	/**
+	 * Generates the SQL script for the prebuilt database.
+	 * 
+	 * @param args
+	 *            The data directory containing the questions data files and
+	 *            the path of the script to generate.
+	 * @throws Exception
+	 *             The data files could not be read or the script could not be
+	 *             written.
+	 */
+	public static void main (String[] args) throws Exception {
+
+		if (args.length != 2) {
+			// Print usage if the arguments are not supplied
+			System.err.println("Usage: PrebuiltDatabaseScriptGenerator <data directory> <output script>");
+			System.exit(1);
+		}
+
+		// Generate the script
+		int questions = generate(new File(args[0]), new File(args[1]));
+		System.out.println("Generated prebuilt database script '" + args[1] + "' containing " + questions + " question(s)");
+	}
+
+	/**
+	 * Generates the SQL script for the prebuilt database from the questions
+	 * data files in a directory.
+	 * 
+	 * @param dataDirectory
+	 *            The directory containing the questions data files.
+	 * @param script
+	 *            The script file to generate.
+	 * @return
+	 *         The number of questions written to the script.
+	 * @throws IOException
+	 *             A data file could not be read or the script could not be
+	 *             written.
+	 * @throws ParseException
+	 *             A data file could not be parsed.
+	 */
+	public static int generate (File dataDirectory, File script) throws IOException, ParseException {
+
+		// Obtain the data files (sorted to ensure a repeatable script)
+		File[] dataFiles = dataDirectory.listFiles(new FilenameFilter() {
+
+			@Override
+			public boolean accept (File dir, String name) {
+				return name.endsWith(EXTENSION);
+			}
+		});
+
+		if (dataFiles == null) {
+			throw new IOException("Data directory '" + dataDirectory + "' cannot be read");
+		}
+
+		Arrays.sort(dataFiles);
+
+		// The number of questions written to the script
+		int questions = 0;
+		script.getParentFile().mkdirs();
+		PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(script), ENCODING));
+
+		try {
+			// Create all of the tables in a single transaction
+			writer.println("BEGIN TRANSACTION;");
+			writer.println(SqliteDataControllerConstants.createQuestionBanksTableQuery());
+
+			for (File dataFile : dataFiles) {
+				// Write the table for each of the data files
+				questions += writeTable(writer, dataFile);
+			}
+
+			writer.println("COMMIT;");
+
+			// Compact the database
+			writer.println("VACUUM;");
+		}
+		finally {
+			// Close the script
+			writer.close();
+		}
+
+		if (writer.checkError()) {
+			throw new IOException("Error while writing script '" + script + "'");
+		}
+
+		return questions;
+	}
+
+	/**
+	 * Writes the statements used to create and fill the questions table for a
+	 * single data file.
+	 * 
+	 * @param writer
+	 *            The writer for the script.
+	 * @param dataFile
+	 *            The questions data file.
+	 * @return
+	 *         The number of questions written for the data file.
+	 * @throws IOException
+	 *             The data file could not be read.
+	 * @throws ParseException
+	 *             The data file could not be parsed.
+	 */
+	private static int writeTable (PrintWriter writer, File dataFile) throws IOException, ParseException {
+
+		// The name of the table (and the name of the questions array)
+		String table = dataFile.getName().substring(0, dataFile.getName().length() - EXTENSION.length());
+
+		// Parse the data file
+		Reader reader = new InputStreamReader(new FileInputStream(dataFile), ENCODING);
+		JSONObject root;
+
+		try {
+			root = (JSONObject) new JSONParser().parse(reader);
+		}
+		finally {
+			reader.close();
+		}
+
+		JSONArray questions = (JSONArray) root.get(table);
+
+		if (questions == null) {
+			throw new IOException("Data file '" + dataFile + "' does not contain a '" + table + "' array");
+		}
+
+		// Create the table
+		writer.println(SqliteDataControllerConstants.createQuestionsTableQuery(table));
+
+		// The checksum of the data file
+		CRC32 checksum = new CRC32();
+
+		for (Object question : questions) {
+			// Insert each of the questions
+			JSONObject jsonQuestion = (JSONObject) question;
+			String text = (String) jsonQuestion.get("text");
+			int yesValue = Integer.parseInt((String) jsonQuestion.get("yesValue"));
+			int noValue = Integer.parseInt((String) jsonQuestion.get("noValue"));
+			QuestionBankChecksum.update(checksum, text, yesValue, noValue);
+			writer.println("INSERT INTO " + table + " (" + SqliteDataControllerConstants.QuestionsColumns.QUESTION + ", "
+				+ SqliteDataControllerConstants.QuestionsColumns.YES_VALUE + ", " + SqliteDataControllerConstants.QuestionsColumns.NO_VALUE + ", "
+				+ SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + ", " + SqliteDataControllerConstants.QuestionsColumns.CONTENT_HASH + ") VALUES ("
+				+ quote(text) + ", " + yesValue + ", " + noValue + ", "
+				+ Integer.parseInt((String) jsonQuestion.get("usedCount")) + ", " + QuestionContentHash.of(text) + ");");
+		}
+
+		// Build the indexes once all of the questions have been inserted
+		writer.println(SqliteDataControllerConstants.createUsedCountIndexQuery(table) + ";");
+		writer.println(SqliteDataControllerConstants.createContentHashIndexQuery(table) + ";");
+
+		// Record the checksum of the data file
+		writer.println("INSERT OR REPLACE INTO " + SqliteDataControllerConstants.QUESTION_BANKS_TABLE_NAME + " (" + SqliteDataControllerConstants.QuestionBanksColumns.TABLE
+			+ ", " + SqliteDataControllerConstants.QuestionBanksColumns.CHECKSUM + ") VALUES (" + quote(table) + ", " + checksum.getValue() + ");");
+
+		return questions.size();
+	}
+
+	/**
+	 * Quotes a string as an SQL string literal.
+	 * 
+	 * @param value
+	 *            The string to quote.
+	 * @return
+	 *         The SQL string literal.
+	 */
+	private static String quote (String value) {
+		return "'" + value.replace("'", "''") + "'";
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.domain;
+
+import junit.framework.TestCase;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactories;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactory;
+import com.oceans7.mobile.eagleswag.domain.questions.EngineeringQuestion;
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.domain.questions.PilotQuestion;
+import com.oceans7.mobile.eagleswag.test.persistence.FakeQuestion;
+
+/**
+ * Test cases for {@link com.oceans7.mobile.eagleswag.domain.QuestionFactories}.
+ * 
+ * @author Justin Albano
+ */
+public class QuestionFactoriesTest extends TestCase {
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * A question without a constructor accepting the question data.
+	 */
+	private static class InvalidQuestion extends Question {
+
+		public InvalidQuestion () {
+			super(0, null, 0, 0, 0);
+		}
+	}
+
+	/***************************************************************************
+	 * Helper Methods
+	 **************************************************************************/
+
+	/**
+	 * Helper method that ensures a question created by the factory for a type
+	 * is of the type and contains the supplied question data.
+	 * 
+	 * @param key
+	 *            The class of the question type.
+	 */
+	private <T extends Question> void helperCreate (Class<T> key) {
+
+		// Create a question of the supplied type
+		T question = QuestionFactories.getInstance().create(key, 7, "A test question", 10, 5, 2);
+
+		// Ensure the question was created with the question data
+		assertEquals("Question type is correct:", key, question.getClass());
+		assertEquals("ID is correct:", 7, question.getId());
+		assertEquals("Text is correct:", "A test question", question.getQuestionString());
+		assertEquals("Yes value is correct:", 10, question.getYesPointValue());
+		assertEquals("No value is correct:", 5, question.getNoPointValue());
+		assertEquals("Used count is correct:", 2, question.getUsedCount());
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.QuestionFactories#create(Class, int, String, int, int, int)}
+	 * .
+	 */
+	public void testCreateGeneralQuestion () {
+		this.helperCreate(GeneralQuestion.class);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.QuestionFactories#create(Class, int, String, int, int, int)}
+	 * .
+	 */
+	public void testCreateEngineeringQuestion () {
+		this.helperCreate(EngineeringQuestion.class);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.QuestionFactories#create(Class, int, String, int, int, int)}
+	 * .
+	 */
+	public void testCreatePilotQuestion () {
+		this.helperCreate(PilotQuestion.class);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.QuestionFactories#getFactory(Class)}
+	 * .
+	 */
+	public void testUnregisteredQuestionType () {
+
+		// Ensure a factory is created for a question type that is not
+		// registered
+		this.helperCreate(FakeQuestion.class);
+
+		// Ensure the factory is only resolved once
+		QuestionFactory<FakeQuestion> factory = QuestionFactories.getInstance().getFactory(FakeQuestion.class);
+		assertSame("Factory is reused:", factory, QuestionFactories.getInstance().getFactory(FakeQuestion.class));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.QuestionFactories#getFactory(Class)}
+	 * .
+	 */
+	public void testInvalidQuestionType () {
+
+		try {
+			// Attempt to obtain a factory for a type without a constructor
+			// accepting the question data
+			QuestionFactories.getInstance().getFactory(InvalidQuestion.class);
+			fail("No factory should be created for an invalid question type");
+		}
+		catch (IllegalArgumentException e) {
+			// Expected exception
+		}
+	}
+}
@@ -73,6 +73,9 @@ public class RoundControllerTest extends InstrumentationTestCase {
 	 */
 	protected void tearDown () throws Exception {
 		super.tearDown();
+
+		// Release the persistent storage held by the manager
+		this.manager.close();
 	}
 
 	/***************************************************************************
@@ -278,4 +281,28 @@ public class RoundControllerTest extends InstrumentationTestCase {
 		}
 	}
 
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.RoundController#close()}
+	 * .
+	 */
+	public void testClose () {
+
+		// Start a round and abandon it
+		this.manager.startRound(new PilotRoundType());
+		this.manager.close();
+
+		// Ensure that the round was abandoned
+		assertNull("Round is abandoned:", this.manager.getCurrentRound());
+
+		try {
+			// Start a round once the manager has been closed
+			this.manager.startRound(new PilotRoundType());
+			fail("Started a round after closing the round controller without receiving an exception");
+		}
+		catch (IllegalStateException e) {
+			// An exception was thrown as expected
+		}
+	}
+
 }
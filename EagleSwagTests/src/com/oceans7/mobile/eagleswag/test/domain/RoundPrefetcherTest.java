@@ -0,0 +1,172 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.RoundPrefetcher;
+import com.oceans7.mobile.eagleswag.domain.questions.EngineeringQuestion;
+import com.oceans7.mobile.eagleswag.domain.roundtype.EngineeringRoundType;
+import com.oceans7.mobile.eagleswag.domain.roundtype.PilotRoundType;
+import com.oceans7.mobile.eagleswag.persistence.DataController;
+import com.oceans7.mobile.eagleswag.persistence.DataControllers;
+
+/**
+ * Test cases for {@link com.oceans7.mobile.eagleswag.domain.RoundPrefetcher}.
+ * 
+ * @author Justin Albano
+ */
+public class RoundPrefetcherTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The context used for the test cases.
+	 */
+	private Context context;
+
+	/**
+	 * The data controller used to take the prefetched rounds.
+	 */
+	private DataController dataController;
+
+	/**
+	 * The prefetcher under test.
+	 */
+	private RoundPrefetcher prefetcher;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Obtain the prefetcher and a data controller for the test database
+		this.context = new RenamingDelegatingContext(this.getInstrumentation().getTargetContext(), "test_");
+		this.dataController = DataControllers.getInstance().getDataController(this.context);
+		this.prefetcher = RoundPrefetcher.getInstance();
+		this.prefetcher.invalidate();
+
+		// Ensure the questions tables are loaded before prefetching (loading
+		// the tables changes the stored questions)
+		this.dataController.getRoundQuestions(new EngineeringRoundType());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see android.test.InstrumentationTestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+		super.tearDown();
+
+		// Discard any prefetched round and release the data controller
+		this.prefetcher.invalidate();
+		this.dataController.close();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.RoundPrefetcher#take(com.oceans7.mobile.eagleswag.domain.RoundType, DataController)}
+	 * .
+	 */
+	public void testTake () {
+
+		EngineeringRoundType type = new EngineeringRoundType();
+		this.prefetcher.prefetch(this.context, type);
+
+		// Ensure the prefetched round is handed out once
+		List<Question> questions = this.prefetcher.take(type, this.dataController);
+		assertNotNull("Prefetched round taken", questions);
+		assertEquals("Questions in round:", type.getSpecificQuestionCount(this.context) + type.getGeneralQuestionCount(this.context), questions.size());
+		assertNull("Prefetched round taken twice", this.prefetcher.take(type, this.dataController));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.RoundPrefetcher#take(com.oceans7.mobile.eagleswag.domain.RoundType, DataController)}
+	 * .
+	 * <p/>
+	 * Ensures that a round prefetched for another round type is not handed
+	 * out.
+	 */
+	public void testTakeOtherType () {
+
+		this.prefetcher.prefetch(this.context, new EngineeringRoundType());
+		assertNull("Round of other type taken", this.prefetcher.take(new PilotRoundType(), this.dataController));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.RoundPrefetcher#take(com.oceans7.mobile.eagleswag.domain.RoundType, DataController)}
+	 * .
+	 * <p/>
+	 * Ensures that a prefetched round is discarded once the used counts of the
+	 * stored questions change.
+	 */
+	public void testTakeStale () throws Exception {
+
+		EngineeringRoundType type = new EngineeringRoundType();
+		this.prefetcher.prefetch(this.context, type);
+
+		while (!this.prefetcher.isPrefetched(type)) {
+			// Wait for the round to be assembled
+			Thread.sleep(10);
+		}
+
+		// Save a round, which increments the used counts of its questions
+		List<Question> used = new ArrayList<Question>(this.dataController.getQuestions(EngineeringQuestion.class, 1));
+		this.dataController.saveRound(used, null, "test");
+
+		assertNull("Stale round taken", this.prefetcher.take(type, this.dataController));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.RoundPrefetcher#invalidate()}
+	 * .
+	 */
+	public void testInvalidate () {
+
+		EngineeringRoundType type = new EngineeringRoundType();
+		this.prefetcher.prefetch(this.context, type);
+		this.prefetcher.invalidate();
+
+		assertFalse("Round prefetched", this.prefetcher.isPrefetched(type));
+		assertNull("Invalidated round taken", this.prefetcher.take(type, this.dataController));
+	}
+}
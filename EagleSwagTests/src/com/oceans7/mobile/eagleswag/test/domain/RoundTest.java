@@ -18,6 +18,9 @@
 
 package com.oceans7.mobile.eagleswag.test.domain;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import android.content.Context;
 import android.test.InstrumentationTestCase;
 import android.test.RenamingDelegatingContext;
@@ -27,6 +30,9 @@ import com.oceans7.mobile.eagleswag.domain.Question;
 import com.oceans7.mobile.eagleswag.domain.Round;
 import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
 import com.oceans7.mobile.eagleswag.domain.roundtype.EngineeringRoundType;
+import com.oceans7.mobile.eagleswag.persistence.DataController;
+import com.oceans7.mobile.eagleswag.persistence.DataControllers;
+import com.oceans7.mobile.eagleswag.persistence.SaveListener;
 
 /**
  * Test cases for {@link com.oceans7.mobile.eagleswag.domain.Round}.
@@ -243,4 +249,50 @@ public class RoundTest extends InstrumentationTestCase {
 		assertEquals("Question 2 used count incremented:", 1, question2.getUsedCount());
 	}
 
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.domain.Round#save(com.oceans7.mobile.eagleswag.persistence.DataController, com.oceans7.mobile.eagleswag.persistence.SaveListener)}
+	 * .
+	 * <p/>
+	 * Ensures that the round is saved in the background and that the listener
+	 * is notified once the round has been saved.
+	 */
+	public void testSaveInBackground () throws Exception {
+
+		// Create a round with an answered question
+		Question question = new GeneralQuestion(0, null, 0, 0, 0);
+		this.round.submitYesQuestion(question);
+
+		// Save the round, recording the thread the listener is notified on
+		final CountDownLatch latch = new CountDownLatch(1);
+		final Thread[] notified = new Thread[1];
+		DataController controller = DataControllers.getInstance().getDataController(this.context);
+
+		try {
+			this.round.save(controller, new SaveListener() {
+
+				@Override
+				public void saved () {
+					notified[0] = Thread.currentThread();
+					latch.countDown();
+				}
+
+				@Override
+				public void failed (RuntimeException e) {
+					latch.countDown();
+				}
+			});
+
+			// Ensure the round was saved in the background
+			assertTrue("Listener notified", latch.await(10, TimeUnit.SECONDS));
+			assertNotNull("Round saved", notified[0]);
+			assertNotSame("Saved on the calling thread", Thread.currentThread(), notified[0]);
+			assertEquals("Used count incremented:", 1, question.getUsedCount());
+		}
+		finally {
+			// Close the controller
+			controller.close();
+		}
+	}
+
 }
@@ -0,0 +1,286 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactories;
+import com.oceans7.mobile.eagleswag.domain.questions.EngineeringQuestion;
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.domain.questions.PilotQuestion;
+import com.oceans7.mobile.eagleswag.persistence.QuestionConsumer;
+import com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileParserStrategy;
+import com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileWriter;
+import com.oceans7.mobile.eagleswag.persistence.parsers.JsonDataFileParserStrategy;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileParserStrategy}
+ * and
+ * {@link com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileWriter}.
+ * 
+ * @author Justin Albano
+ */
+public class BinaryDataFileParserStrategyTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The number of questions in the large question bank.
+	 */
+	private static final int LARGE_BANK_SIZE = 100000;
+
+	/**
+	 * The context used for the test cases.
+	 */
+	private Context context;
+
+	/**
+	 * The binary data file parser strategy under test.
+	 */
+	private BinaryDataFileParserStrategy parser;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see android.test.AndroidTestCase#setUp()
+	 */
+	@Override
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Establish the context for the test
+		this.context = this.getInstrumentation().getContext();
+
+		// Instantiate the parser
+		this.parser = new BinaryDataFileParserStrategy(this.context);
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileParserStrategy#readQuestions(ByteBuffer, com.oceans7.mobile.eagleswag.domain.QuestionFactory, QuestionConsumer)}
+	 * .
+	 * <p/>
+	 * Converts the questions of each of the JSON test data files into a binary
+	 * data file and ensures that the questions read from the binary data file
+	 * match the questions of the JSON data file.
+	 */
+	public void testRoundTrip () throws IOException {
+		this.assertRoundTrip(GeneralQuestion.class);
+		this.assertRoundTrip(EngineeringQuestion.class);
+		this.assertRoundTrip(PilotQuestion.class);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileParserStrategy#readQuestions(ByteBuffer, com.oceans7.mobile.eagleswag.domain.QuestionFactory, QuestionConsumer)}
+	 * .
+	 * <p/>
+	 * Reads a large question bank (including text that is not ASCII) and
+	 * ensures that each of the questions is read correctly.
+	 */
+	public void testReadLargeBank () throws IOException {
+
+		// Write the large question bank
+		BinaryDataFileWriter writer = new BinaryDataFileWriter();
+
+		for (int i = 0; i < LARGE_BANK_SIZE; i++) {
+			writer.addQuestion("Question \u00e9\u00e8 " + i, i % 11, i % 7, i % 3);
+		}
+
+		ByteBuffer buffer = toBuffer(writer);
+
+		// Read the large question bank
+		final int[] read = { 0 };
+		long start = System.nanoTime();
+
+		int count = BinaryDataFileParserStrategy.readQuestions(buffer, QuestionFactories.getInstance().getFactory(GeneralQuestion.class),
+			new QuestionConsumer<GeneralQuestion>() {
+
+				@Override
+				public void accept (GeneralQuestion question) {
+					int i = read[0]++;
+					assertEquals("Question \u00e9\u00e8 " + i, question.getQuestionString());
+					assertEquals(i % 11, question.getYesPointValue());
+					assertEquals(i % 7, question.getNoPointValue());
+					assertEquals(i % 3, question.getUsedCount());
+				}
+			});
+
+		Log.i(this.getClass().getName(), "Read " + count + " questions in " + (System.nanoTime() - start) / 1000000 + " ms");
+
+		// Ensure all of the questions were read
+		assertEquals(LARGE_BANK_SIZE, count);
+		assertEquals(LARGE_BANK_SIZE, read[0]);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileParserStrategy#readQuestions(ByteBuffer, com.oceans7.mobile.eagleswag.domain.QuestionFactory, QuestionConsumer)}
+	 * .
+	 * <p/>
+	 * Ensures that a buffer that does not contain a valid binary data file is
+	 * rejected.
+	 */
+	public void testReadInvalidDataFile () {
+
+		// A buffer that is not a binary data file
+		this.assertInvalid(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+
+		// A truncated binary data file
+		BinaryDataFileWriter writer = new BinaryDataFileWriter();
+		writer.addQuestion("Truncated question", 10, 0, 0);
+		ByteBuffer buffer = toBuffer(writer);
+		buffer.limit(buffer.limit() - 1);
+		this.assertInvalid(buffer);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.parsers.BinaryDataFileParserStrategy#getQuestions(Class)}
+	 * .
+	 * <p/>
+	 * Ensures that the questions are parsed from the JSON data file when no
+	 * binary data file exists for the question type.
+	 */
+	public void testGetQuestionsWithoutBinaryDataFile () {
+
+		// Obtain the questions (the test assets contain only JSON data files)
+		Queue<GeneralQuestion> questions = this.parser.getQuestions(GeneralQuestion.class);
+
+		// Ensure the questions of the JSON data file are obtained
+		assertEquals(2, questions.size());
+		assertEquals("General question 1", questions.remove().getQuestionString());
+		assertEquals("General question 2", questions.remove().getQuestionString());
+	}
+
+	/***************************************************************************
+	 * Helper Methods
+	 **************************************************************************/
+
+	/**
+	 * Converts the questions of a JSON test data file into a binary data file,
+	 * reads the binary data file, and ensures the questions match.
+	 * 
+	 * @param key
+	 *            The question type of the JSON test data file.
+	 */
+	private <T extends Question> void assertRoundTrip (Class<T> key) throws IOException {
+
+		// Obtain the questions from the JSON data file
+		Queue<T> expected = new JsonDataFileParserStrategy(this.context).getQuestions(key);
+		assertFalse("JSON data file contains questions", expected.isEmpty());
+
+		// Convert the questions into a binary data file
+		BinaryDataFileWriter writer = new BinaryDataFileWriter();
+
+		for (Question question : expected) {
+			writer.addQuestion(question.getQuestionString(), question.getYesPointValue(), question.getNoPointValue(), question.getUsedCount());
+		}
+
+		// Read the questions from the binary data file
+		final List<T> actual = new ArrayList<T>();
+		int count = BinaryDataFileParserStrategy.readQuestions(toBuffer(writer), QuestionFactories.getInstance().getFactory(key),
+			new QuestionConsumer<T>() {
+
+				@Override
+				public void accept (T question) {
+					actual.add(question);
+				}
+			});
+
+		// Ensure the questions match
+		assertEquals(expected.size(), count);
+		assertEquals(expected.size(), actual.size());
+
+		for (T question : actual) {
+			T expectedQuestion = expected.remove();
+			assertEquals(key, question.getClass());
+			assertEquals(expectedQuestion.getQuestionString(), question.getQuestionString());
+			assertEquals(expectedQuestion.getYesPointValue(), question.getYesPointValue());
+			assertEquals(expectedQuestion.getNoPointValue(), question.getNoPointValue());
+			assertEquals(expectedQuestion.getUsedCount(), question.getUsedCount());
+		}
+	}
+
+	/**
+	 * Ensures that reading a buffer fails with an IO exception.
+	 * 
+	 * @param buffer
+	 *            The buffer that does not contain a valid binary data file.
+	 */
+	private void assertInvalid (ByteBuffer buffer) {
+
+		try {
+			BinaryDataFileParserStrategy.readQuestions(buffer, QuestionFactories.getInstance().getFactory(GeneralQuestion.class),
+				new QuestionConsumer<GeneralQuestion>() {
+
+					@Override
+					public void accept (GeneralQuestion question) {}
+				});
+			fail("Invalid binary data file read");
+		}
+		catch (IOException e) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Writes the questions added to a writer into a buffer.
+	 * 
+	 * @param writer
+	 *            The writer containing the questions.
+	 * @return
+	 *         A buffer containing the binary data file.
+	 */
+	private static ByteBuffer toBuffer (BinaryDataFileWriter writer) {
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		try {
+			writer.write(output);
+		}
+		catch (IOException e) {
+			// Writing to memory does not fail
+			throw new IllegalStateException(e);
+		}
+
+		return ByteBuffer.wrap(output.toByteArray());
+	}
+}
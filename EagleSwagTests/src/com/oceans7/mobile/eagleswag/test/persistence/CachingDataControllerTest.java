@@ -0,0 +1,412 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import junit.framework.TestCase;
+
+import android.content.Context;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.RoundType;
+import com.oceans7.mobile.eagleswag.domain.Score;
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.domain.questions.PilotQuestion;
+import com.oceans7.mobile.eagleswag.persistence.CachingDataController;
+import com.oceans7.mobile.eagleswag.persistence.DataController;
+import com.oceans7.mobile.eagleswag.persistence.QuestionCache;
+import com.oceans7.mobile.eagleswag.persistence.SaveListener;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.LoadingListener;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.CachingDataController}.
+ * 
+ * @author Justin Albano
+ */
+public class CachingDataControllerTest extends TestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The decorated data controller.
+	 */
+	private StubDataController delegate;
+
+	/**
+	 * The data controller under test.
+	 */
+	private CachingDataController controller;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Decorate a data controller storing three questions
+		this.delegate = new StubDataController();
+		this.delegate.questions.add(new GeneralQuestion(1, "A", 1, 0, 0));
+		this.delegate.questions.add(new GeneralQuestion(2, "B", 1, 0, 1));
+		this.delegate.questions.add(new GeneralQuestion(3, "C", 1, 0, 2));
+		this.delegate.questions.add(new PilotQuestion(1, "P", 1, 0, 1));
+		this.delegate.questions.add(new PilotQuestion(2, "Q", 1, 0, 0));
+		this.controller = new CachingDataController(null, this.delegate, new QuestionCache());
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.CachingDataController#getQuestions(Class, int)}
+	 * .
+	 * <p/>
+	 * Ensures that the questions are only read from the decorated data
+	 * controller once.
+	 */
+	public void testGetQuestionsReadThrough () {
+
+		assertEquals("First question:", 1, this.controller.getQuestions(GeneralQuestion.class, 1).poll().getId());
+		assertEquals("Questions selected:", 2, this.controller.getQuestions(GeneralQuestion.class, 2).size());
+		assertEquals("Questions selected:", 0, this.controller.getQuestions(GeneralQuestion.class, 0).size());
+		assertEquals("Reads from the delegate:", 1, this.delegate.reads);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.CachingDataController#saveRound(List, Score, String)}
+	 * .
+	 * <p/>
+	 * Ensures that the round is saved through the decorated data controller
+	 * and that the used counts of the cached questions are incremented.
+	 */
+	public void testSaveRound () {
+
+		// Use the two least frequently used questions in two rounds
+		List<Question> round = new ArrayList<Question>(this.controller.getQuestions(GeneralQuestion.class, 2));
+		this.controller.saveRound(round, null, "test");
+		this.controller.saveRound(round, null, "test");
+
+		// Ensure the rounds were saved and the selection reflects the used
+		// counts
+		assertEquals("Rounds saved:", 2, this.delegate.roundsSaved);
+		Queue<GeneralQuestion> questions = this.controller.getQuestions(GeneralQuestion.class, 3);
+		assertEquals("First question:", 1, questions.poll().getId());
+		assertEquals("Second question:", 3, questions.poll().getId());
+		assertEquals("Reads from the delegate:", 1, this.delegate.reads);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.CachingDataController#saveRound(List, Score, String, SaveListener)}
+	 * .
+	 * <p/>
+	 * Ensures that the questions read after the round is committed but before
+	 * the listener is notified are not cached (the used counts of the round
+	 * would otherwise be applied to the cached questions twice).
+	 */
+	public void testSaveRoundFillBeforeSaved () {
+
+		// Save a round of the first question, deferring the notification
+		List<Question> round = new ArrayList<Question>();
+		round.add(new GeneralQuestion(1, "A", 1, 0, 0));
+		this.delegate.deferSaves = true;
+		this.controller.saveRound(round, null, "test", null);
+
+		// Read the committed questions before the round is reported as saved
+		assertEquals("Questions selected:", 3, this.controller.getQuestions(GeneralQuestion.class, 3).size());
+		this.delegate.pending.saved();
+
+		// Ensure the used counts of the round were only applied once
+		Queue<GeneralQuestion> questions = this.controller.getQuestions(GeneralQuestion.class, 3);
+		assertEquals("First question:", 1, questions.poll().getId());
+		assertEquals("Second question:", 2, questions.poll().getId());
+
+		// The questions read before the notification were read again
+		assertEquals("Reads from the delegate:", 3, this.delegate.reads);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.CachingDataController#saveQuestion(Class, Question)}
+	 * .
+	 */
+	public void testSaveQuestion () {
+
+		this.controller.getQuestions(GeneralQuestion.class, 1);
+		this.controller.saveQuestion(GeneralQuestion.class, new GeneralQuestion(1, "A", 1, 0, 5));
+
+		// Ensure the question was written through and the cache was updated
+		assertEquals("Questions saved:", 1, this.delegate.questionsSaved);
+		assertEquals("First question:", 2, this.controller.getQuestions(GeneralQuestion.class, 1).poll().getId());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.CachingDataController#syncQuestions(Class)}
+	 * .
+	 */
+	public void testSyncQuestionsInvalidates () {
+
+		this.controller.getQuestions(GeneralQuestion.class, 1);
+
+		// Synchronize a change to the stored questions
+		this.delegate.questions.add(new GeneralQuestion(4, "D", 1, 0, 0));
+		this.delegate.changes = 1;
+		assertEquals("Questions changed:", 1, this.controller.syncQuestions(GeneralQuestion.class));
+
+		// Ensure the questions are read again
+		assertEquals("Questions selected:", 4, this.controller.getQuestions(GeneralQuestion.class, 10).size());
+		assertEquals("Reads from the delegate:", 2, this.delegate.reads);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.CachingDataController#getRoundQuestions(RoundType)}
+	 * .
+	 * <p/>
+	 * Ensures that the least frequently used questions of both types are
+	 * selected from the cache.
+	 */
+	public void testGetRoundQuestions () {
+
+		// Obtain the questions for two rounds
+		List<Question> questions = this.controller.getRoundQuestions(new StubRoundType());
+		this.controller.getRoundQuestions(new StubRoundType());
+
+		// Ensure the distribution of the questions
+		int pilotQuestions = 0;
+		int generalQuestions = 0;
+
+		for (Question question : questions) {
+
+			if (question instanceof PilotQuestion) {
+				// Ensure the least frequently used pilot question is selected
+				assertEquals("Pilot question:", 2, question.getId());
+				pilotQuestions++;
+			}
+			else {
+				// Ensure the least frequently used general questions are
+				// selected
+				assertTrue("General question:", question.getId() == 1 || question.getId() == 2);
+				generalQuestions++;
+			}
+		}
+
+		assertEquals("Pilot questions:", 1, pilotQuestions);
+		assertEquals("General questions:", 2, generalQuestions);
+
+		// Ensure each type was only read from the delegate once
+		assertEquals("Reads from the delegate:", 2, this.delegate.reads);
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * A data controller that stores questions in memory (in least frequently
+	 * used order) and counts its reads and writes.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class StubDataController implements DataController {
+
+		/**
+		 * The stored questions.
+		 */
+		private final List<Question> questions = new ArrayList<Question>();
+
+		/**
+		 * The number of times the questions have been read.
+		 */
+		private int reads;
+
+		/**
+		 * The number of rounds saved.
+		 */
+		private int roundsSaved;
+
+		/**
+		 * The number of questions saved.
+		 */
+		private int questionsSaved;
+
+		/**
+		 * The number of questions changed by the next synchronization.
+		 */
+		private int changes;
+
+		/**
+		 * True if the rounds saved in the background are committed without
+		 * notifying their listeners.
+		 */
+		private boolean deferSaves;
+
+		/**
+		 * The listener of the last round committed without being notified.
+		 */
+		private SaveListener pending;
+
+		@Override
+		public void close () {}
+
+		@Override
+		public <T extends Question> void loadQuestions (Class<T> key) {}
+
+		@Override
+		public int loadAll () {
+			return 0;
+		}
+
+		@Override
+		public <T extends Question> int syncQuestions (Class<T> key) {
+			return this.changes;
+		}
+
+		@Override
+		public <T extends Question> Queue<T> getQuestions (Class<T> key, int number) {
+
+			this.reads++;
+			Queue<T> selected = new LinkedList<T>();
+
+			for (Question question : this.questions) {
+
+				if (selected.size() < number && key.isInstance(question)) {
+					// Select the questions of the supplied type
+					selected.add(key.cast(question));
+				}
+			}
+
+			return selected;
+		}
+
+		@Override
+		public List<Question> getRoundQuestions (RoundType type) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long getQuestionsVersion () {
+			return 0;
+		}
+
+		@Override
+		public int getTotalScore (String type) {
+			return 0;
+		}
+
+		@Override
+		public int getAverageScore (String type) {
+			return 0;
+		}
+
+		@Override
+		public void saveQuestion (Class<? extends Question> key, Question question) {
+			this.questionsSaved++;
+		}
+
+		@Override
+		public void saveRoundScore (Score score, String type) {}
+
+		@Override
+		public void saveRound (List<? extends Question> questions, Score score, String type) {
+			this.roundsSaved++;
+		}
+
+		@Override
+		public void saveRound (List<? extends Question> questions, Score score, String type, SaveListener listener) {
+			this.roundsSaved++;
+
+			if (this.deferSaves) {
+				// Commit the used counts, but notify the listener later
+				for (Question question : this.questions) {
+
+					for (Question used : questions) {
+
+						if (used.getClass() == question.getClass() && used.getId() == question.getId()) {
+							question.incrementUsedCount();
+						}
+					}
+				}
+
+				this.pending = listener;
+			}
+			else {
+				listener.saved();
+			}
+		}
+
+		@Override
+		public boolean flush (long timeout) {
+			return true;
+		}
+
+		@Override
+		public void updateLoadingListeners (int total, int current) {}
+
+		@Override
+		public void addLoadingListener (LoadingListener listener) {}
+
+		@Override
+		public void removeLoadingListener (LoadingListener listener) {}
+	}
+
+	/**
+	 * A round type of one pilot question and two general questions.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class StubRoundType extends RoundType {
+
+		@Override
+		public List<Question> getQuestions (Context context) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Class<? extends Question> getSpecificQuestionType () {
+			return PilotQuestion.class;
+		}
+
+		@Override
+		public int getSpecificQuestionCount (Context context) {
+			return 1;
+		}
+
+		@Override
+		public int getGeneralQuestionCount (Context context) {
+			return 2;
+		}
+	}
+}
@@ -22,12 +22,12 @@ import com.oceans7.mobile.eagleswag.domain.Question;
 
 /**
  * A fake question to test the JSON data file parser.
- *
+ * 
  * @author Justin Albano
  */
 public class FakeQuestion extends Question {
 
-	public FakeQuestion (Integer id, String text, Integer yesValue, Integer noValue, Integer usedCount) {
+	public FakeQuestion (int id, String text, int yesValue, int noValue, int usedCount) {
 		super(id, text, yesValue, noValue, usedCount);
 	}
 
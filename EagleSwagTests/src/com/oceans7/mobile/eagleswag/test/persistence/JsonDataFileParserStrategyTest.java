@@ -26,6 +26,7 @@ import android.test.InstrumentationTestCase;
 import com.oceans7.mobile.eagleswag.domain.questions.EngineeringQuestion;
 import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
 import com.oceans7.mobile.eagleswag.domain.questions.PilotQuestion;
+import com.oceans7.mobile.eagleswag.persistence.QuestionConsumer;
 import com.oceans7.mobile.eagleswag.persistence.parsers.JsonDataFileParserStrategy;
 
 /**
@@ -191,4 +192,56 @@ public class JsonDataFileParserStrategyTest extends InstrumentationTestCase {
 		assertEquals("The question queue is empty", 0, questions.size());
 	}
 
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.parsers.JsonDataFileParserStrategy#parseQuestions(Class, QuestionConsumer)}
+	 * .
+	 * <p/>
+	 * Ensures that the streamed questions are supplied to the consumer in the
+	 * order of the data file, and match the questions obtained from the
+	 * queue.
+	 */
+	public void testParseQuestions () {
+
+		// Obtain the parsed queue from the JSON data file parser
+		final Queue<GeneralQuestion> questions = this.parser.getQuestions(GeneralQuestion.class);
+
+		// Stream the questions, comparing each to the next question in the queue
+		int count = this.parser.parseQuestions(GeneralQuestion.class, new QuestionConsumer<GeneralQuestion>() {
+
+			@Override
+			public void accept (GeneralQuestion question) {
+				GeneralQuestion expected = questions.remove();
+				assertEquals(expected.getQuestionString(), question.getQuestionString());
+				assertEquals(expected.getYesPointValue(), question.getYesPointValue());
+				assertEquals(expected.getNoPointValue(), question.getNoPointValue());
+				assertEquals(expected.getUsedCount(), question.getUsedCount());
+			}
+		});
+
+		// Ensure all of the questions were supplied to the consumer
+		assertEquals("All questions streamed", 2, count);
+		assertEquals("No questions remain", 0, questions.size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.parsers.JsonDataFileParserStrategy#parseQuestions(Class, QuestionConsumer)}
+	 * .
+	 */
+	public void testParseQuestionsNoDataFileFound () {
+
+		// Stream the questions for a key without a data file
+		int count = this.parser.parseQuestions(FakeQuestion.class, new QuestionConsumer<FakeQuestion>() {
+
+			@Override
+			public void accept (FakeQuestion question) {
+				fail("No questions are supplied to the consumer");
+			}
+		});
+
+		// Ensure no questions were streamed
+		assertEquals("No questions streamed", 0, count);
+	}
+
 }
@@ -0,0 +1,227 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import junit.framework.TestCase;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.domain.questions.PilotQuestion;
+import com.oceans7.mobile.eagleswag.persistence.QuestionCache;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.QuestionCache}.
+ * 
+ * @author Justin Albano
+ */
+public class QuestionCacheTest extends TestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The cache under test.
+	 */
+	private QuestionCache cache;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Create a cache that holds at most five questions
+		this.cache = new QuestionCache(5);
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.QuestionCache#getQuestions(Class, int)}
+	 * .
+	 * <p/>
+	 * Ensures that the questions are selected by ascending used count, then by
+	 * ascending ID.
+	 */
+	public void testGetQuestionsLeastFrequentlyUsed () {
+
+		// Cache questions out of order
+		this.cache.put(GeneralQuestion.class, Arrays.asList(new GeneralQuestion(3, "C", 1, 0, 0), new GeneralQuestion(1, "A", 1, 0, 2),
+			new GeneralQuestion(2, "B", 1, 0, 0)));
+
+		// Ensure the selection order
+		assertIds(this.cache.getQuestions(GeneralQuestion.class, 3), 2, 3, 1);
+		assertIds(this.cache.getQuestions(GeneralQuestion.class, 1), 2);
+		assertEquals("Questions selected:", 3, this.cache.getQuestions(GeneralQuestion.class, 10).size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.QuestionCache#incrementUsedCounts(java.util.Collection)}
+	 * .
+	 */
+	public void testIncrementUsedCounts () {
+
+		this.cache.put(GeneralQuestion.class, Arrays.asList(new GeneralQuestion(1, "A", 1, 0, 0), new GeneralQuestion(2, "B", 1, 0, 0)));
+
+		// Use the first question
+		Queue<GeneralQuestion> used = this.cache.getQuestions(GeneralQuestion.class, 1);
+		this.cache.incrementUsedCounts(new ArrayList<Question>(used));
+
+		// Ensure the used question is now selected last
+		Queue<GeneralQuestion> questions = this.cache.getQuestions(GeneralQuestion.class, 2);
+		assertIds(questions, 2, 1);
+		questions.poll();
+		assertEquals("Used count:", 1, questions.poll().getUsedCount());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.QuestionCache#put(Class, java.util.Collection, long)}
+	 * .
+	 * <p/>
+	 * Ensures that questions read while the used counts of questions of the
+	 * type were incremented are not added to the cache.
+	 */
+	public void testPutDiscardsStaleQuestions () {
+
+		// Read the questions (before the used counts are incremented)
+		long generation = this.cache.getGeneration();
+		List<GeneralQuestion> read = Arrays.asList(new GeneralQuestion(1, "A", 1, 0, 0), new GeneralQuestion(2, "B", 1, 0, 0));
+
+		// Increment the used count of a question that is not yet cached
+		this.cache.incrementUsedCounts(Arrays.asList(new GeneralQuestion(1, "A", 1, 0, 0)));
+
+		// Ensure the stale questions are discarded
+		assertFalse("Stale questions added:", this.cache.put(GeneralQuestion.class, read, generation));
+		assertNull("Stale questions cached:", this.cache.getQuestions(GeneralQuestion.class, 2));
+
+		// Ensure questions read after the increment are added
+		generation = this.cache.getGeneration();
+		assertTrue("Questions not added:", this.cache.put(GeneralQuestion.class, read, generation));
+		assertIds(this.cache.getQuestions(GeneralQuestion.class, 2), 1, 2);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.QuestionCache#update(Class, Question)}
+	 * .
+	 */
+	public void testUpdate () {
+
+		this.cache.put(GeneralQuestion.class, Arrays.asList(new GeneralQuestion(1, "A", 1, 0, 0)));
+		this.cache.update(GeneralQuestion.class, new GeneralQuestion(1, "Changed", 7, 3, 4));
+
+		GeneralQuestion question = this.cache.getQuestions(GeneralQuestion.class, 1).poll();
+		assertEquals("Text:", "Changed", question.getQuestionString());
+		assertEquals("Yes value:", 7, question.getYesPointValue());
+		assertEquals("No value:", 3, question.getNoPointValue());
+		assertEquals("Used count:", 4, question.getUsedCount());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.QuestionCache#put(Class, java.util.Collection)}
+	 * .
+	 * <p/>
+	 * Ensures that the least recently used type is evicted once the capacity
+	 * is exceeded.
+	 */
+	public void testPutEvictsLeastRecentlyUsed () {
+
+		// Cache two types, then use the first
+		this.cache.put(GeneralQuestion.class, Arrays.asList(new GeneralQuestion(1, "A", 1, 0, 0), new GeneralQuestion(2, "B", 1, 0, 0)));
+		this.cache.put(PilotQuestion.class, Arrays.asList(new PilotQuestion(1, "P", 1, 0, 0), new PilotQuestion(2, "Q", 1, 0, 0)));
+		assertNotNull("General questions cached", this.cache.getQuestions(GeneralQuestion.class, 1));
+
+		// Replace the pilot questions with more questions than fit alongside
+		// the general questions
+		this.cache.put(PilotQuestion.class, Arrays.asList(new PilotQuestion(1, "P", 1, 0, 0), new PilotQuestion(2, "Q", 1, 0, 0),
+			new PilotQuestion(3, "R", 1, 0, 0), new PilotQuestion(4, "S", 1, 0, 0)));
+
+		// Ensure the general questions were evicted
+		assertNull("General questions evicted", this.cache.getQuestions(GeneralQuestion.class, 1));
+		assertNotNull("Pilot questions cached", this.cache.getQuestions(PilotQuestion.class, 1));
+		assertEquals("Cache size:", 4, this.cache.getSize());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.QuestionCache#put(Class, java.util.Collection)}
+	 * .
+	 * <p/>
+	 * Ensures that questions that exceed the capacity are not cached.
+	 */
+	public void testPutUncacheable () {
+
+		List<GeneralQuestion> questions = new ArrayList<GeneralQuestion>();
+
+		for (int i = 1; i <= 6; i++) {
+			questions.add(new GeneralQuestion(i, "Question " + i, 1, 0, 0));
+		}
+
+		this.cache.put(GeneralQuestion.class, questions);
+
+		assertNull("Questions not cached", this.cache.getQuestions(GeneralQuestion.class, 1));
+		assertFalse("Type cacheable", this.cache.isCacheable(GeneralQuestion.class));
+		assertEquals("Cache size:", 0, this.cache.getSize());
+
+		// Invalidating the type allows it to be cached again
+		this.cache.invalidate(GeneralQuestion.class);
+		assertTrue("Type cacheable", this.cache.isCacheable(GeneralQuestion.class));
+	}
+
+	/***************************************************************************
+	 * Helper Methods
+	 **************************************************************************/
+
+	/**
+	 * Ensures the IDs of the selected questions.
+	 * 
+	 * @param questions
+	 *            The selected questions.
+	 * @param ids
+	 *            The expected IDs, in order.
+	 */
+	private static void assertIds (Queue<? extends Question> questions, long... ids) {
+
+		assertEquals("Questions selected:", ids.length, questions.size());
+		int i = 0;
+
+		for (Question question : questions) {
+			assertEquals("ID of question " + i + ":", ids[i++], question.getId());
+		}
+	}
+}
@@ -18,8 +18,11 @@
 
 package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
 
+import java.util.concurrent.CountDownLatch;
+
 import junit.framework.TestCase;
 
+import com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreAggregate;
 import com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache;
 
 /**
@@ -79,7 +82,7 @@ public class ScoreCacheTest extends TestCase {
 	public void testGetTotal () {
 
 		// Add test total value into the cache
-		this.cache.loadTotal("test", 10);
+		this.cache.load("test", new ScoreAggregate(1, 10, 10, 10));
 
 		// Ensure the correct value is returned
 		assertEquals("Total value is set:", 10, (int) this.cache.getTotal("test"));
@@ -93,7 +96,7 @@ public class ScoreCacheTest extends TestCase {
 	public void testGetAverage () {
 
 		// Add test average value into the cache
-		this.cache.loadAverage("test", 10, 1);
+		this.cache.load("test", new ScoreAggregate(1, 10, 10, 10));
 
 		// Ensure the correct value is returned
 		assertEquals("Average value is set:", 10, (int) this.cache.getAverage("test"));
@@ -101,167 +104,327 @@ public class ScoreCacheTest extends TestCase {
 
 	/**
 	 * Test method for
-	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factorIntoTotal(java.lang.String, int)}
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factor(java.lang.String, int)}
 	 * .
 	 */
-	public void testFactorIntoTotal () {
+	public void testFactorTotal () {
 
 		// Ensure a total is not associated with the key
 		assertNull("Total is empty:", this.cache.getTotal("test"));
 
 		// Factor in a single value and ensure that is the total value
-		this.cache.factorIntoTotal("test", 25);
+		this.cache.factor("test", 25);
 		assertNotNull("Total is defined:", this.cache.getTotal("test"));
 		assertEquals("First factor set value:", 25, (int) this.cache.getTotal("test"));
 
 		// Factor in another value and ensure new total is the sum of the two
-		this.cache.factorIntoTotal("test", 50);
+		this.cache.factor("test", 50);
 		assertNotNull("Total is defined:", this.cache.getTotal("test"));
 		assertEquals("Total is sum of two factors:", 75, (int) this.cache.getTotal("test"));
 	}
 
 	/**
 	 * Test method for
-	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factorIntoTotal(java.lang.String, int)}
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factor(java.lang.String, int)}
 	 * .
 	 */
-	public void testFactorIntoTotalNegative () {
+	public void testFactorTotalNegative () {
 
 		// Ensure a total is not associated with the key
 		assertNull("Total is empty:", this.cache.getTotal("test"));
 
 		// Factor in a single value and ensure that is the total value
-		this.cache.factorIntoTotal("test", 25);
+		this.cache.factor("test", 25);
 		assertNotNull("Total is defined:", this.cache.getTotal("test"));
 		assertEquals("First factor set value:", 25, (int) this.cache.getTotal("test"));
 
 		// Factor in another value and ensure new total is the sum of the two
-		this.cache.factorIntoTotal("test", -50);
+		this.cache.factor("test", -50);
 		assertNotNull("Total is defined:", this.cache.getTotal("test"));
 		assertEquals("Total is sum of two factors:", -25, (int) this.cache.getTotal("test"));
 	}
 
 	/**
 	 * Test method for
-	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factorIntoTotal(java.lang.String, int)}
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factor(java.lang.String, int)}
 	 * .
 	 */
-	public void testFactorIntoTotalZero () {
+	public void testFactorTotalZero () {
 
 		// Ensure a total is not associated with the key
 		assertNull("Total is empty:", this.cache.getTotal("test"));
 
 		// Factor in a single value and ensure that is the total value
-		this.cache.factorIntoTotal("test", 25);
+		this.cache.factor("test", 25);
 		assertNotNull("Total is defined:", this.cache.getTotal("test"));
 		assertEquals("First factor set value:", 25, (int) this.cache.getTotal("test"));
 
 		// Factor in another value and ensure new total is the sum of the two
-		this.cache.factorIntoTotal("test", 0);
+		this.cache.factor("test", 0);
 		assertNotNull("Total is defined:", this.cache.getTotal("test"));
 		assertEquals("Total is sum of two factors:", 25, (int) this.cache.getTotal("test"));
 	}
 
 	/**
 	 * Test method for
-	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factorIntoAverage(java.lang.String, int)}
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factor(java.lang.String, int)}
 	 * .
 	 */
-	public void testFactorIntoAverage () {
+	public void testFactorAverage () {
 
 		// Ensure an average is not associated with the key
 		assertNull("Average is empty:", this.cache.getAverage("test"));
 
 		// Factor in a single value and ensure that is the average value
-		this.cache.factorIntoAverage("test", 25);
+		this.cache.factor("test", 25);
 		assertNotNull("Average is defined:", this.cache.getAverage("test"));
 		assertEquals("First factor set value:", 25, (int) this.cache.getAverage("test"));
 
 		// Factor in another value and ensure new average is correct
-		this.cache.factorIntoAverage("test", 70);
+		this.cache.factor("test", 70);
 		assertNotNull("Average is defined:", this.cache.getAverage("test"));
 		assertEquals("Average is correct:", 48, (int) this.cache.getAverage("test"));
 
 		// Factor in another value and ensure new average is correct
-		this.cache.factorIntoAverage("test", 100);
+		this.cache.factor("test", 100);
 		assertNotNull("Average is defined:", this.cache.getAverage("test"));
 		assertEquals("Average is correct:", 65, (int) this.cache.getAverage("test"));
 	}
 
 	/**
 	 * Test method for
-	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factorIntoAverage(java.lang.String, int)}
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factor(java.lang.String, int)}
 	 * .
 	 */
-	public void testFactorIntoAverageNegative () {
+	public void testFactorAverageNegative () {
 
 		// Ensure an average is not associated with the key
 		assertNull("Average is empty:", this.cache.getAverage("test"));
 
 		// Factor in a single value and ensure that is the average value
-		this.cache.factorIntoAverage("test", 25);
+		this.cache.factor("test", 25);
 		assertNotNull("Average is defined:", this.cache.getAverage("test"));
 		assertEquals("First factor set value:", 25, (int) this.cache.getAverage("test"));
 
 		// Factor in another value and ensure new average is correct
-		this.cache.factorIntoAverage("test", -10);
+		this.cache.factor("test", -10);
 		assertNotNull("Average is defined:", this.cache.getAverage("test"));
 		assertEquals("Average is correct:", 8, (int) this.cache.getAverage("test"));
 	}
 
 	/**
 	 * Test method for
-	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factorIntoAverage(java.lang.String, int)}
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factor(java.lang.String, int)}
 	 * .
 	 */
-	public void testFactorIntoAverageZero () {
+	public void testFactorAverageZero () {
 
 		// Ensure an average is not associated with the key
 		assertNull("Average is empty:", this.cache.getAverage("test"));
 
 		// Factor in a single value and ensure that is the average value
-		this.cache.factorIntoAverage("test", 50);
+		this.cache.factor("test", 50);
 		assertNotNull("Average is defined:", this.cache.getAverage("test"));
 		assertEquals("First factor set value:", 50, (int) this.cache.getAverage("test"));
 
 		// Factor in another value and ensure new average is correct
-		this.cache.factorIntoAverage("test", 0);
+		this.cache.factor("test", 0);
 		assertNotNull("Average is defined:", this.cache.getAverage("test"));
 		assertEquals("Average is correct:", 25, (int) this.cache.getAverage("test"));
 	}
 
 	/**
 	 * Test method for
-	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#isTotalInCache(java.lang.String)}
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factor(java.lang.String, int)}
 	 * .
 	 */
-	public void testIsTotalInCache () {
+	public void testFactorAverageExact () {
 
-		// Ensure that the cache does not contain the test data
-		assertEquals("Cache does not contain data:", false, this.cache.isTotalInCache("test"));
+		// Factor in a single value followed by many zero values
+		this.cache.factor("test", 1);
 
-		// Add the test data into the cache
-		this.cache.loadTotal("test", 10);
+		for (int i = 0; i < 9; i++) {
+			this.cache.factor("test", 0);
+		}
 
-		// Ensure that the cache now contains the test data
-		assertEquals("Cache contains data:", true, this.cache.isTotalInCache("test"));
+		// Ensure the average has not accumulated rounding error (a rounded
+		// running average would remain at 1)
+		assertEquals("Total is correct:", 1, (int) this.cache.getTotal("test"));
+		assertEquals("Average is correct:", 0, (int) this.cache.getAverage("test"));
+		assertEquals("Number of scores is correct:", 10, this.cache.getAggregate("test").getCount());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#factor(java.lang.String, int)}
+	 * .
+	 */
+	public void testFactorConcurrently () throws Exception {
+
+		// The number of threads and the number of scores factored by each
+		final int threads = 8;
+		final int scoresPerThread = 10000;
+
+		// Used to start all of the threads at once
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+
+		for (int i = 0; i < threads; i++) {
+			// Create each of the threads that factor in the scores
+			final int score = i + 1;
+			workers[i] = new Thread(new Runnable() {
+
+				@Override
+				public void run () {
+
+					try {
+						// Wait for all of the threads to be created
+						start.await();
+					}
+					catch (InterruptedException e) {
+						return;
+					}
+
+					for (int j = 0; j < scoresPerThread; j++) {
+						// Factor in the scores for the thread
+						cache.factor("test", score);
+					}
+				}
+			});
+			workers[i].start();
+		}
+
+		// Start all of the threads and wait for them to finish
+		start.countDown();
+
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		// Ensure no scores were lost: each thread factors in its own score
+		// (1 through the number of threads) for each of its iterations
+		ScoreAggregate aggregate = this.cache.getAggregate("test");
+		assertEquals("No scores lost:", (long) threads * scoresPerThread, aggregate.getCount());
+		assertEquals("Total is correct:", (long) scoresPerThread * threads * (threads + 1) / 2, aggregate.getSum());
+		assertEquals("Minimum is correct:", 1, aggregate.getMin());
+		assertEquals("Maximum is correct:", threads, aggregate.getMax());
 	}
 
 	/**
 	 * Test method for
-	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#isAverageInCache(java.lang.String)}
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#isInCache(java.lang.String)}
 	 * .
 	 */
-	public void testIsAverageInCache () {
+	public void testIsInCache () {
 
 		// Ensure that the cache does not contain the test data
-		assertEquals("Cache does not contain data:", false, this.cache.isAverageInCache("test"));
+		assertEquals("Cache does not contain data:", false, this.cache.isInCache("test"));
 
 		// Add the test data into the cache
-		this.cache.loadAverage("test", 10, 1);
+		this.cache.load("test", new ScoreAggregate(1, 10, 10, 10));
 
 		// Ensure that the cache now contains the test data
-		assertEquals("Cache contains data:", true, this.cache.isAverageInCache("test"));
+		assertEquals("Cache contains data:", true, this.cache.isInCache("test"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#invalidate()}
+	 * .
+	 */
+	public void testInvalidate () {
+
+		// Add the test data into the cache
+		this.cache.load("test", new ScoreAggregate(1, 10, 10, 10));
+
+		// Invalidate the cache
+		this.cache.invalidate();
+
+		// Ensure that the cache no longer contains the test data
+		assertEquals("Scores removed from cache:", false, this.cache.isInCache("test"));
+		assertEquals("Cache requires warming:", false, this.cache.isWarmed());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#load(java.lang.String, com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreAggregate, long)}
+	 * .
+	 */
+	public void testLoadDiscardsStaleAggregate () {
+
+		// Read the generation, then invalidate the cache (as if during a read)
+		long generation = this.cache.getGeneration();
+		this.cache.invalidate();
+
+		// Ensure that the aggregate read before the invalidation is discarded
+		assertEquals("Stale aggregate loaded:", false, this.cache.load("test", new ScoreAggregate(1, 10, 10, 10), generation));
+		assertEquals("Stale aggregate cached:", false, this.cache.isInCache("test"));
+
+		// Ensure that an aggregate read after the invalidation is loaded
+		assertEquals("Aggregate not loaded:", true, this.cache.load("test", new ScoreAggregate(1, 10, 10, 10), this.cache.getGeneration()));
+		assertEquals("Aggregate not cached:", true, this.cache.isInCache("test"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#beginSave()}
+	 * .
+	 */
+	public void testLoadDiscardsAggregateReadDuringSave () {
+
+		// Read the generation, then begin saving a score (as if during a read)
+		long generation = this.cache.getGeneration();
+		this.cache.beginSave();
+
+		// Ensure that no aggregate is loaded while the score is being saved
+		assertEquals("Stale aggregate loaded:", false, this.cache.load("test", new ScoreAggregate(1, 10, 10, 10), generation));
+		assertEquals("Aggregate loaded during save:", false, this.cache.load("test", new ScoreAggregate(1, 10, 10, 10), this.cache.getGeneration()));
+
+		// Ensure that an aggregate read before the save ended is discarded
+		generation = this.cache.getGeneration();
+		this.cache.endSave();
+		assertEquals("Stale aggregate loaded:", false, this.cache.load("test", new ScoreAggregate(1, 10, 10, 10), generation));
+		assertEquals("Stale aggregate cached:", false, this.cache.isInCache("test"));
+
+		// Ensure that an aggregate read after the save is loaded
+		assertEquals("Aggregate not loaded:", true, this.cache.load("test", new ScoreAggregate(2, 30, 10, 20), this.cache.getGeneration()));
+		assertEquals("Total is correct:", 30, (int) this.cache.getTotal("test"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#getHits()}
+	 * and
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#getMisses()}
+	 * .
+	 */
+	public void testHitsAndMisses () {
+
+		// Look up a total that is not in the cache
+		this.cache.getTotal("test");
+		assertEquals("Miss recorded:", 1, this.cache.getMisses());
+		assertEquals("No hit recorded:", 0, this.cache.getHits());
+
+		// Look up a total and an average that are in the cache
+		this.cache.load("test", new ScoreAggregate(1, 10, 10, 10));
+		this.cache.getTotal("test");
+		this.cache.getAverage("test");
+		assertEquals("No miss recorded:", 1, this.cache.getMisses());
+		assertEquals("Hits recorded:", 2, this.cache.getHits());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#getInstance(java.lang.String)}
+	 * .
+	 */
+	public void testGetInstance () {
+
+		// Ensure the same cache is shared for a database file
+		assertSame("Cache shared:", ScoreCache.getInstance("test.db"), ScoreCache.getInstance("test.db"));
+
+		// Ensure different database files do not share a cache
+		assertNotSame("Cache not shared:", ScoreCache.getInstance("test.db"), ScoreCache.getInstance("other.db"));
 	}
 
 }
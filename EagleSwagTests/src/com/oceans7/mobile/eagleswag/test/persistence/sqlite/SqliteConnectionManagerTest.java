@@ -0,0 +1,194 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+
+import com.oceans7.mobile.eagleswag.persistence.DataControllers;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager}.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteConnectionManagerTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The context used for the test cases.
+	 */
+	private Context context;
+
+	/**
+	 * The connection manager under test.
+	 */
+	private SqliteConnectionManager manager;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Establish the context to access the SQLite database
+		this.context = new RenamingDelegatingContext(this.getInstrumentation().getTargetContext(), "test_");
+
+		// Obtain the connection manager
+		this.manager = SqliteConnectionManager.getInstance();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager#acquire(android.content.Context)}
+	 * .
+	 * <p/>
+	 * Ensures that the same database is shared between all references.
+	 */
+	public void testAcquireSharesDatabase () {
+
+		// Acquire the database twice
+		SQLiteDatabase first = this.manager.acquire(this.context);
+		SQLiteDatabase second = this.manager.acquire(this.context);
+
+		// Ensure the database is shared and referenced twice
+		assertSame("Database is shared:", first, second);
+		assertEquals("Database is referenced twice:", 2, this.manager.getReferenceCount(this.context));
+
+		// Release the references
+		this.manager.release(second);
+		this.manager.release(first);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager#release(android.database.sqlite.SQLiteDatabase)}
+	 * .
+	 * <p/>
+	 * Ensures that the database is kept open (idle) once the last reference to
+	 * the database has been released.
+	 */
+	public void testReleaseKeepsIdleDatabaseOpen () {
+
+		// Acquire the database twice
+		SQLiteDatabase first = this.manager.acquire(this.context);
+		SQLiteDatabase second = this.manager.acquire(this.context);
+
+		// Release one reference and ensure the database is still open
+		this.manager.release(first);
+		assertTrue("Database open after first release:", second.isOpen());
+		assertEquals("Database is referenced once:", 1, this.manager.getReferenceCount(this.context));
+
+		// Release the last reference and ensure the database is still open
+		this.manager.release(second);
+		assertTrue("Database open after last release:", second.isOpen());
+		assertEquals("Database is not referenced:", 0, this.manager.getReferenceCount(this.context));
+
+		// Ensure the idle database is reused by the next reference
+		assertSame("Idle database reused:", second, this.manager.acquire(this.context));
+		this.manager.release(second);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager#trimMemory(int)}
+	 * .
+	 * <p/>
+	 * Ensures that only the databases without references are closed when the
+	 * memory usage is trimmed.
+	 */
+	public void testTrimMemoryClosesIdleDatabase () {
+
+		// Acquire the database and trim the memory usage
+		SQLiteDatabase db = this.manager.acquire(this.context);
+		this.manager.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+		// Ensure the referenced database is still open
+		assertTrue("Database open while referenced:", db.isOpen());
+
+		// Release the database, trim the memory usage and ensure the idle
+		// database was closed
+		this.manager.release(db);
+		this.manager.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+		assertFalse("Idle database closed:", db.isOpen());
+
+		// Ensure the database is opened again by the next reference
+		SQLiteDatabase reopened = this.manager.acquire(this.context);
+		assertTrue("Database reopened:", reopened.isOpen());
+		this.manager.release(reopened);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController#close()}
+	 * .
+	 * <p/>
+	 * Ensures that data controllers are handles to the shared database, and
+	 * that closing a data controller more than once releases only a single
+	 * reference.
+	 */
+	public void testDataControllersShareDatabase () {
+
+		// Create two data controllers
+		SqliteDataController first = DataControllers.getInstance().getSqliteDataController(this.context);
+		SqliteDataController second = DataControllers.getInstance().getSqliteDataController(this.context);
+
+		// Ensure the data controllers share the database
+		assertSame("Data controllers share database:", first.getDatabase(), second.getDatabase());
+
+		// Close the first data controller twice
+		first.close();
+		first.close();
+
+		// Ensure the second data controller is still usable
+		assertTrue("Database open for second controller:", second.getDatabase().isOpen());
+		assertEquals("Database is referenced once:", 1, this.manager.getReferenceCount(this.context));
+
+		// Close the second data controller
+		second.close();
+	}
+}
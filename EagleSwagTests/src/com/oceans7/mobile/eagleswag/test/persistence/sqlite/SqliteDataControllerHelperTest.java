@@ -0,0 +1,146 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategies;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerConstants;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerHelper;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerHelper}.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteDataControllerHelperTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The context used for the test cases (which uses a database file separate
+	 * from the other test cases, so that it can be deleted).
+	 */
+	private Context context;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Establish the context and remove any existing database
+		this.context = new RenamingDelegatingContext(this.getInstrumentation().getTargetContext(), "test_helper_");
+		this.context.deleteDatabase(SqliteDataControllerConstants.DATABASE_NAME);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+
+		// Remove the database created by the test
+		this.context.deleteDatabase(SqliteDataControllerConstants.DATABASE_NAME);
+
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Helper Methods
+	 **************************************************************************/
+
+	/**
+	 * Helper method that determines if the prebuilt database is shipped in the
+	 * assets of the application (it is only generated by the Ant build).
+	 * 
+	 * @return
+	 *         True if the prebuilt database is shipped; false otherwise.
+	 */
+	private boolean helperIsPrebuiltDatabaseShipped () {
+
+		try {
+			// Attempt to open the prebuilt database
+			InputStream in = this.context.getAssets().open(SqliteDataControllerConstants.PREBUILT_DATABASE_ASSET);
+			in.close();
+			return true;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerHelper#getWritableDatabase()}
+	 * .
+	 * <p/>
+	 * Ensures that a new database contains the tables created by the helper
+	 * and, if the prebuilt database is shipped, that it contains all of the
+	 * questions from the data files without loading them.
+	 */
+	public void testNewDatabase () {
+
+		// Open a new database
+		SqliteDataControllerHelper helper = new SqliteDataControllerHelper(this.context);
+		SQLiteDatabase db = helper.getWritableDatabase();
+
+		try {
+			// Ensure the database was created at the current version
+			assertEquals("Database version:", SqliteDataControllerConstants.DATABASE_VERSION, db.getVersion());
+			assertTrue("Scores table created:", SqliteDataControllerQueries.isTableExists(db, SqliteDataControllerConstants.SCORE_TABLE_NAME));
+			assertTrue("Score totals table created:", SqliteDataControllerQueries.isTableExists(db, SqliteDataControllerConstants.SCORE_TOTALS_TABLE_NAME));
+
+			if (this.helperIsPrebuiltDatabaseShipped()) {
+				// Ensure the questions were installed from the prebuilt database
+				String table = SqliteDataController.generateTableName(GeneralQuestion.class);
+				int questions = DataFileParserStrategies.getInstance().getDataFileParserStrategy(this.context).getQuestions(GeneralQuestion.class).size();
+				assertEquals("Questions installed:", questions, DatabaseUtils.queryNumEntries(db, table));
+			}
+		}
+		finally {
+			// Close the database
+			helper.close();
+		}
+	}
+}
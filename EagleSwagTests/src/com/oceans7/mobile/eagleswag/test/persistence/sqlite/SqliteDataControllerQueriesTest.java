@@ -18,7 +18,6 @@
 
 package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
 
-import java.lang.reflect.Constructor;
 import java.util.List;
 
 import android.content.Context;
@@ -29,10 +28,14 @@ import android.test.RenamingDelegatingContext;
 import android.util.Log;
 
 import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactories;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactory;
 import com.oceans7.mobile.eagleswag.domain.Score;
 import com.oceans7.mobile.eagleswag.domain.questions.EngineeringQuestion;
 import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
 import com.oceans7.mobile.eagleswag.domain.questions.PilotQuestion;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.RetrievalStrategies;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreAggregate;
 import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController;
 import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerConstants;
 import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerHelper;
@@ -115,10 +118,7 @@ public class SqliteDataControllerQueriesTest extends InstrumentationTestCase {
 		int usedCount = 2;
 
 		// Create a test question
-		Class<?>[] argTypes = new Class<?>[] { Integer.class, String.class, Integer.class, Integer.class, Integer.class };
-		Constructor<T> constructor = key.getDeclaredConstructor(argTypes);
-		Object[] originalArgs = new Object[] { 0, text, yesValue, noValue, usedCount };
-		T testQuestion = constructor.newInstance(originalArgs);
+		T testQuestion = QuestionFactories.getInstance().create(key, 0, text, yesValue, noValue, usedCount);
 
 		// Obtain the name of the questions table
 		String table = SqliteDataController.generateTableName(key);
@@ -188,11 +188,9 @@ public class SqliteDataControllerQueriesTest extends InstrumentationTestCase {
 		// Ensure the questions table has been created
 		SqliteDataControllerQueries.createQuestionsTable(this.db, table);
 
-		// Create a new question to insert into the database (using reflection)
-		Class<?>[] argTypes = new Class<?>[] { Integer.class, String.class, Integer.class, Integer.class, Integer.class };
-		Constructor<T> constructor = key.getDeclaredConstructor(argTypes);
-		Object[] originalArgs = new Object[] { 0, originalText, originalYesValue, originalNoValue, originalUsedCount };
-		T originalQuestion = constructor.newInstance(originalArgs);
+		// Create a new question to insert into the database
+		QuestionFactory<T> factory = QuestionFactories.getInstance().getFactory(key);
+		T originalQuestion = factory.create(0, originalText, originalYesValue, originalNoValue, originalUsedCount);
 
 		// Add the new question to the database
 		SqliteDataControllerQueries.insertIntoQuestionsTable(this.db, table, originalQuestion);
@@ -206,9 +204,8 @@ public class SqliteDataControllerQueriesTest extends InstrumentationTestCase {
 		cursorId.moveToFirst();
 		int idOfInsertedQuestion = cursorId.getInt(SqliteDataControllerConstants.QuestionsColumns.ID.ordinal());
 
-		// Create a new question (using reflection)
-		Object[] newArgs = new Object[] { idOfInsertedQuestion, newText, newYesValue, newNoValue, newUsedCount };
-		T newQuestion = constructor.newInstance(newArgs);
+		// Create a new question
+		T newQuestion = factory.create(idOfInsertedQuestion, newText, newYesValue, newNoValue, newUsedCount);
 
 		// Store the update in the database
 		SqliteDataControllerQueries.updateQuestion(this.db, table, newQuestion);
@@ -297,7 +294,50 @@ public class SqliteDataControllerQueriesTest extends InstrumentationTestCase {
 		assertEquals("Table was created:", 1, tablesFound);
 
 		// Clean up: delete the table
-		this.db.execSQL("DROP TABLE IF EXISTS '" + table + "'");
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, table);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries#createUsedCountIndex(android.database.sqlite.SQLiteDatabase, java.lang.String)}
+	 * .
+	 * <p/>
+	 * Ensures that the questions table is created with an index on the used
+	 * count column and that the query used to select questions reads the
+	 * questions in order of the index, rather than sorting the table using a
+	 * temporary B-tree.
+	 */
+	public void testQuestionsSelectedUsingUsedCountIndex () {
+
+		// The name of the test database table
+		String table = "testIndexedTableRememberToRemove";
+
+		// Create the database table
+		SqliteDataControllerQueries.createQuestionsTable(this.db, table);
+
+		// Check if the index was created
+		Cursor cursor = this.db.rawQuery("SELECT COUNT(*) FROM sqlite_master WHERE type=? AND name=?",
+			new String[] { "index", table + SqliteDataControllerConstants.USED_COUNT_INDEX_SUFFIX });
+		cursor.moveToFirst();
+		assertEquals("Index was created:", 1, cursor.getInt(0));
+		cursor.close();
+
+		// Obtain the plan for the query used to select questions
+		String query = RetrievalStrategies.getInstance().getRetrieveQuestionsStrategy().getQuery(table);
+		Cursor plan = this.db.rawQuery("EXPLAIN QUERY PLAN " + query, new String[] { "5" });
+		int detailColumn = plan.getColumnIndex("detail");
+
+		for (plan.moveToFirst(); !plan.isAfterLast(); plan.moveToNext()) {
+			// Ensure no step of the plan sorts using a temporary B-tree
+			String detail = plan.getString(detailColumn);
+			Log.d(this.getClass().getName(), "Query plan: " + detail);
+			assertFalse("No temporary B-tree used:", detail.toUpperCase().contains("TEMP B-TREE"));
+		}
+
+		plan.close();
+
+		// Clean up: delete the table
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, table);
 	}
 
 	/**
@@ -354,6 +394,48 @@ public class SqliteDataControllerQueriesTest extends InstrumentationTestCase {
 		this.helperUpdateQuestionTable(PilotQuestion.class);
 	}
 
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries#incrementUsedCounts(android.database.sqlite.SQLiteDatabase, java.lang.String, long[])}
+	 * .
+	 * <p/>
+	 * Ensures that only the used counts of the supplied questions are
+	 * incremented, and that the remainder of each question is unchanged.
+	 */
+	public void testIncrementUsedCounts () {
+
+		// Obtain the name of the questions table and ensure it is created
+		String table = SqliteDataController.generateTableName(GeneralQuestion.class);
+		SqliteDataControllerQueries.createQuestionsTable(this.db, table);
+
+		// Insert three test questions
+		String text = "[testing] An incremented question";
+		long[] ids = new long[3];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = SqliteDataControllerQueries.insertIntoQuestionsTable(this.db, table, new GeneralQuestion(0, text, 10, 5, 2));
+		}
+
+		// Increment the used counts of the first two questions
+		int updated = SqliteDataControllerQueries.incrementUsedCounts(this.db, table, new long[] { ids[0], ids[1] });
+		assertEquals("Two questions updated:", 2, updated);
+
+		// The expected used counts of the questions
+		int[] expected = new int[] { 3, 3, 2 };
+
+		for (int i = 0; i < ids.length; i++) {
+			// Ensure each question has the expected used count and is unchanged
+			Cursor cursor = this.db.rawQuery("SELECT * FROM " + table + " WHERE " + SqliteDataControllerConstants.QuestionsColumns.ID + " = ?", new String[] { "" + ids[i] });
+			cursor.moveToFirst();
+			assertEquals("Used count:", expected[i], cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT.ordinal()));
+			assertEquals("Question string unchanged:", text, cursor.getString(SqliteDataControllerConstants.QuestionsColumns.QUESTION.ordinal()));
+			assertEquals("Yes value unchanged:", 10, cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE.ordinal()));
+			cursor.close();
+		}
+
+		// Remove the test entries from the database
+		this.db.delete(table, SqliteDataControllerConstants.QuestionsColumns.QUESTION + " = ?", new String[] { text });
+	}
+
 	/**
 	 * Test method for
 	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries#insertIntoScoreTable(android.database.sqlite.SQLiteDatabase, String, String)}
@@ -415,4 +497,48 @@ public class SqliteDataControllerQueriesTest extends InstrumentationTestCase {
 		assertEquals("Number of scores is correct:", 3, entries);
 	}
 
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries#getScoreAggregate(android.database.sqlite.SQLiteDatabase, String)}
+	 * .
+	 * <p/>
+	 * Ensures that the score totals are maintained as scores are inserted, and
+	 * that rebuilding the score totals from the scores table produces the same
+	 * aggregate.
+	 */
+	public void testGetScoreAggregate () {
+
+		// Remove any existing scores for the test key
+		String key = "aggregateTest";
+		SqliteDataControllerQueries.deleteScores(this.db, key);
+
+		// Ensure an empty aggregate is returned when there are no scores
+		assertEquals("No scores:", 0, SqliteDataControllerQueries.getScoreAggregate(this.db, key).getCount());
+
+		// Insert a few test scores into the database
+		SqliteDataControllerQueries.insertIntoScoreTable(this.db, key, new Score(10));
+		SqliteDataControllerQueries.insertIntoScoreTable(this.db, key, new Score(40));
+		SqliteDataControllerQueries.insertIntoScoreTable(this.db, key, new Score(25));
+
+		// Ensure the aggregate is correct
+		ScoreAggregate aggregate = SqliteDataControllerQueries.getScoreAggregate(this.db, key);
+		assertEquals("Count is correct:", 3, aggregate.getCount());
+		assertEquals("Sum is correct:", 75, aggregate.getSum());
+		assertEquals("Minimum is correct:", 10, aggregate.getMin());
+		assertEquals("Maximum is correct:", 40, aggregate.getMax());
+		assertEquals("Average is correct:", 25, aggregate.getAverage());
+
+		// Rebuild the totals and ensure the aggregate is unchanged
+		SqliteDataControllerQueries.rebuildScoreTotals(this.db);
+		aggregate = SqliteDataControllerQueries.getScoreAggregate(this.db, key);
+		assertEquals("Rebuilt count is correct:", 3, aggregate.getCount());
+		assertEquals("Rebuilt sum is correct:", 75, aggregate.getSum());
+		assertEquals("Rebuilt minimum is correct:", 10, aggregate.getMin());
+		assertEquals("Rebuilt maximum is correct:", 40, aggregate.getMax());
+
+		// Remove the test scores
+		SqliteDataControllerQueries.deleteScores(this.db, key);
+		assertEquals("Scores deleted:", 0, SqliteDataControllerQueries.getNumberOfScores(this.db, key));
+	}
+
 }
\ No newline at end of file
@@ -18,11 +18,14 @@
 
 package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 
 import android.content.Context;
 import android.database.Cursor;
 import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
 import android.test.InstrumentationTestCase;
 import android.test.RenamingDelegatingContext;
 import android.util.Log;
@@ -32,10 +35,14 @@ import com.oceans7.mobile.eagleswag.domain.Score;
 import com.oceans7.mobile.eagleswag.domain.questions.EngineeringQuestion;
 import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
 import com.oceans7.mobile.eagleswag.domain.questions.PilotQuestion;
+import com.oceans7.mobile.eagleswag.domain.roundtype.EngineeringRoundType;
 import com.oceans7.mobile.eagleswag.persistence.DataControllers;
+import com.oceans7.mobile.eagleswag.persistence.QuestionCache;
 import com.oceans7.mobile.eagleswag.persistence.sqlite.LoadingListener;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache;
 import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController;
 import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerConstants;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries;
 
 /**
  * Test cases for
@@ -95,6 +102,11 @@ public class SqliteDataControllerTest extends InstrumentationTestCase {
 				Log.d(this.getClass().getName(), "Total: (" + total + "), current: (" + current + ")");
 			}
 		});
+
+		// Remove any test scores left by previous tests (the score cache is
+		// shared by all of the data controllers for the database)
+		SqliteDataControllerQueries.deleteScores(this.sqliteDataController.getDatabase(), "test");
+		ScoreCache.invalidate(this.sqliteDataController.getDatabase().getPath());
 	}
 
 	/**
@@ -272,6 +284,103 @@ public class SqliteDataControllerTest extends InstrumentationTestCase {
 		assertFalse("Queue not empty:", questions.size() == 0);
 	}
 
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController#loadAll()}
+	 * .
+	 */
+	public void testLoadAll () {
+
+		// Remove the questions tables of each of the question types
+		SQLiteDatabase db = this.sqliteDataController.getDatabase();
+		String[] tables = new String[] {
+			SqliteDataController.generateTableName(GeneralQuestion.class),
+			SqliteDataController.generateTableName(EngineeringQuestion.class),
+			SqliteDataController.generateTableName(PilotQuestion.class)
+		};
+
+		for (String table : tables) {
+			SqliteDataControllerQueries.dropQuestionsTable(db, table);
+		}
+
+		// The tables were dropped outside of a caching data controller
+		QuestionCache.invalidate(db.getPath());
+
+		// Record the final progress reported to the listeners
+		final int[] last = new int[2];
+		this.sqliteDataController.addLoadingListener(new LoadingListener() {
+
+			@Override
+			public void update (int total, int current) {
+				last[0] = total;
+				last[1] = current;
+			}
+		});
+
+		// Load the questions of all of the question types
+		int loaded = this.sqliteDataController.loadAll();
+
+		// Ensure that each of the tables was loaded
+		long stored = 0;
+
+		for (String table : tables) {
+			long rows = DatabaseUtils.queryNumEntries(db, table);
+			assertTrue("Questions loaded into '" + table + "'", rows > 0);
+			stored += rows;
+		}
+
+		// Ensure the combined progress
+		assertEquals("Questions loaded:", stored, loaded);
+		assertEquals("Final total:", loaded, last[0]);
+		assertEquals("Final current:", loaded, last[1]);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController#getRoundQuestions(com.oceans7.mobile.eagleswag.domain.RoundType)}
+	 * .
+	 * <p/>
+	 * Ensures that the round contains the least frequently used questions of
+	 * each type, in the configured distribution.
+	 */
+	public void testGetRoundQuestions () {
+
+		EngineeringRoundType type = new EngineeringRoundType();
+		int specificCount = type.getSpecificQuestionCount(this.context);
+		int generalCount = type.getGeneralQuestionCount(this.context);
+
+		// Obtain the questions for the round
+		List<Question> questions = this.sqliteDataController.getRoundQuestions(type);
+		assertEquals("Questions in round:", specificCount + generalCount, questions.size());
+
+		// Obtain the least frequently used questions of each type separately
+		List<Long> engineeringIds = new ArrayList<Long>();
+		for (EngineeringQuestion question : this.sqliteDataController.getQuestions(EngineeringQuestion.class, specificCount)) {
+			engineeringIds.add(question.getId());
+		}
+
+		List<Long> generalIds = new ArrayList<Long>();
+		for (GeneralQuestion question : this.sqliteDataController.getQuestions(GeneralQuestion.class, generalCount)) {
+			generalIds.add(question.getId());
+		}
+
+		for (Question question : questions) {
+			// Ensure each question is one of the least frequently used
+			// questions of its type
+
+			if (question instanceof EngineeringQuestion) {
+				assertTrue("Engineering question selected:", engineeringIds.remove(question.getId()));
+			}
+			else {
+				assertTrue("General question selected:", generalIds.remove(question.getId()));
+			}
+		}
+
+		// Ensure the distribution of the questions
+		assertTrue("All engineering questions found:", engineeringIds.isEmpty());
+		assertTrue("All general questions found:", generalIds.isEmpty());
+	}
+
 	/**
 	 * Test method for
 	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController#saveRoundScore(com.oceans7.mobile.eagleswag.domain.Score, java.lang.String)}
@@ -353,6 +462,97 @@ public class SqliteDataControllerTest extends InstrumentationTestCase {
 		assertEquals("Average score is correct:", 13, average);
 	}
 
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController#saveRound(java.util.List, com.oceans7.mobile.eagleswag.domain.Score, java.lang.String)}
+	 * .
+	 */
+	public void testSaveRound () {
+
+		// Obtain questions for the round and increment their used counts
+		List<GeneralQuestion> questions = new ArrayList<GeneralQuestion>(this.sqliteDataController.getQuestions(GeneralQuestion.class, 2));
+		for (GeneralQuestion question : questions) {
+			question.incrementUsedCount();
+		}
+
+		// Save the round
+		Score score = new Score(37);
+		this.sqliteDataController.saveRound(questions, score, "test");
+
+		for (GeneralQuestion question : questions) {
+			// Ensure the used count of each question was saved
+			Cursor cursor = this.sqliteDataController.getDatabase().rawQuery(
+				"SELECT " + SqliteDataControllerConstants.QuestionsColumns.USED_COUNT + " FROM " + SqliteDataController.generateTableName(GeneralQuestion.class) + " WHERE "
+					+ SqliteDataControllerConstants.QuestionsColumns.ID + " = ?", new String[] { "" + question.getId() });
+			cursor.moveToFirst();
+			assertEquals("Used count saved:", question.getUsedCount(), cursor.getInt(0));
+			cursor.close();
+		}
+
+		// Ensure the score was saved
+		Cursor cursor = this.sqliteDataController.getDatabase().rawQuery(
+			"SELECT COUNT(*) FROM " + SqliteDataControllerConstants.SCORE_TABLE_NAME + " WHERE " + SqliteDataControllerConstants.ScoresColumns.SCORE + " = ? AND "
+				+ SqliteDataControllerConstants.ScoresColumns.TIMESTAMP + " = ?", new String[] { "37", "" + score.getTimestamp() });
+		cursor.moveToFirst();
+		assertTrue("Score saved:", cursor.getInt(0) > 0);
+		cursor.close();
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController#getTotalScore(String)}
+	 * .
+	 */
+	public void testScoreCacheSharedBetweenControllers () {
+
+		// Save a score and obtain the total to warm the shared cache
+		this.sqliteDataController.saveRoundScore(new Score(40), "test");
+		assertEquals("Total score is correct:", 40, this.sqliteDataController.getTotalScore("test"));
+
+		// Create a second data controller for the same database
+		SqliteDataController other = DataControllers.getInstance().getSqliteDataController(this.context);
+
+		try {
+			// Record the hits of the shared cache
+			ScoreCache cache = ScoreCache.getInstance(other.getDatabase().getPath());
+			long hits = cache.getHits();
+
+			// Ensure the second controller obtains the total from the cache
+			assertEquals("Total score is correct:", 40, other.getTotalScore("test"));
+			assertEquals("Total obtained from cache:", hits + 1, cache.getHits());
+
+			// Save a score through the second controller and ensure the first
+			// controller observes it
+			other.saveRoundScore(new Score(20), "test");
+			assertEquals("Total score is correct:", 60, this.sqliteDataController.getTotalScore("test"));
+			assertEquals("Average score is correct:", 30, this.sqliteDataController.getAverageScore("test"));
+		}
+		finally {
+			// Close the second data controller
+			other.close();
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache#invalidate(String)}
+	 * .
+	 */
+	public void testScoreCacheInvalidate () {
+
+		// Save a score and warm the shared cache
+		this.sqliteDataController.saveRoundScore(new Score(10), "test");
+		assertEquals("Total score is correct:", 10, this.sqliteDataController.getTotalScore("test"));
+
+		// Add a score directly to the database and invalidate the cache
+		SqliteDataControllerQueries.insertIntoScoreTable(this.sqliteDataController.getDatabase(), "test", new Score(30));
+		ScoreCache.invalidate(this.sqliteDataController.getDatabase().getPath());
+
+		// Ensure the cache was warmed again from the database
+		assertEquals("Total score is correct:", 40, this.sqliteDataController.getTotalScore("test"));
+		assertEquals("Average score is correct:", 20, this.sqliteDataController.getAverageScore("test"));
+	}
+
 	/**
 	 * Test method for
 	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController#addLoadingListener(com.oceans7.mobile.eagleswag.persistence.sqlite.LoadingListener)}
@@ -430,4 +630,40 @@ public class SqliteDataControllerTest extends InstrumentationTestCase {
 		assertFalse("Loading listener 1 was not called:", listener1Called);
 		assertFalse("Loading listener 2 was not called:", listener2Called);
 	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController#updateLoadingListeners(int, int)}
+	 * .
+	 * <p/>
+	 * Ensures that the progress updates within the notification interval are
+	 * coalesced and that the final update is always delivered.
+	 */
+	public void testUpdateLoadingListenersCoalesced () {
+
+		// Record the updates delivered to the listener
+		final List<Integer> delivered = new ArrayList<Integer>();
+		this.sqliteDataController.addLoadingListener(new LoadingListener() {
+
+			@Override
+			public void update (int total, int current) {
+				delivered.add(current);
+			}
+		});
+
+		// Use an interval longer than the test case
+		this.sqliteDataController.setLoadingNotificationInterval(60 * 60 * 1000);
+
+		// Report the progress of a load
+		for (int i = 1; i <= 100; i++) {
+			this.sqliteDataController.updateLoadingListeners(LoadingListener.UNKNOWN_TOTAL, i);
+		}
+
+		this.sqliteDataController.updateLoadingListeners(100, 100);
+
+		// Ensure only the first and final updates were delivered
+		assertEquals("Updates delivered:", 2, delivered.size());
+		assertEquals("First update:", Integer.valueOf(1), delivered.get(0));
+		assertEquals("Final update:", Integer.valueOf(100), delivered.get(1));
+	}
 }
@@ -0,0 +1,274 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerConstants;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteMigration;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteMigrations;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteMigrations}.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteMigrationsTest extends TestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The in-memory database migrated by the test cases.
+	 */
+	private SQLiteDatabase db;
+
+	/**
+	 * The registry under test.
+	 */
+	private SqliteMigrations migrations;
+
+	/**
+	 * The versions migrated from, in the order the migrations were run.
+	 */
+	private List<Integer> migrated;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Create the in-memory database
+		this.db = SQLiteDatabase.create(null);
+
+		// Create a registry with migrations from version 1 to version 4
+		this.migrated = new ArrayList<Integer>();
+		this.migrations = new SqliteMigrations();
+
+		for (int version = 1; version < 4; version++) {
+			this.migrations.register(version, new RecordingMigration(version));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+
+		// Close the in-memory database
+		this.db.close();
+
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteMigrations#migrate(SQLiteDatabase, int, int)}
+	 * .
+	 * <p/>
+	 * Ensures that each of the migrations is run in order.
+	 */
+	public void testMigrate () {
+
+		// Migrate from the first version
+		this.migrations.migrate(this.db, 1, 4);
+
+		// Ensure each migration was run in order
+		assertEquals("Migrations run:", 3, this.migrated.size());
+		assertEquals(1, this.migrated.get(0).intValue());
+		assertEquals(2, this.migrated.get(1).intValue());
+		assertEquals(3, this.migrated.get(2).intValue());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteMigrations#migrate(SQLiteDatabase, int, int)}
+	 * .
+	 * <p/>
+	 * Ensures that only the migrations after the old version are run.
+	 */
+	public void testMigrateIncremental () {
+
+		// Migrate from an intermediate version
+		this.migrations.migrate(this.db, 3, 4);
+
+		// Ensure only the last migration was run
+		assertEquals("Migrations run:", 1, this.migrated.size());
+		assertEquals(3, this.migrated.get(0).intValue());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteMigrations#migrate(SQLiteDatabase, int, int)}
+	 * .
+	 * <p/>
+	 * Ensures that no migrations are run if a migration is missing.
+	 */
+	public void testMigrateMissingVersion () {
+
+		// Ensure there is no migration path past the last migration
+		assertFalse("Cannot migrate:", this.migrations.canMigrate(1, 5));
+
+		try {
+			this.migrations.migrate(this.db, 1, 5);
+			fail("Migrated without a migration path");
+		}
+		catch (IllegalStateException e) {
+			// Ensure no migrations were run
+			assertEquals("Migrations run:", 0, this.migrated.size());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteMigrations#migrate(SQLiteDatabase, int, int)}
+	 * .
+	 * <p/>
+	 * Ensures that the changes of a failed migration are rolled back, while
+	 * the changes of the previous migrations are kept (when migrating outside
+	 * of a transaction).
+	 */
+	public void testMigrateFailure () {
+
+		// Replace the last migration with a migration that fails
+		this.migrations.register(3, new SqliteMigration() {
+
+			@Override
+			public void migrate (SQLiteDatabase db) {
+				db.execSQL("CREATE TABLE failed (_id INTEGER)");
+				throw new IllegalStateException("Failed migration");
+			}
+		});
+
+		try {
+			this.migrations.migrate(this.db, 1, 4);
+			fail("Failed migration not reported");
+		}
+		catch (IllegalStateException e) {
+			// Ensure the changes of the failed migration were rolled back
+			assertTrue("Previous migration kept:", SqliteDataControllerQueries.isTableExists(this.db, "migrated2"));
+			assertFalse("Failed migration rolled back:", SqliteDataControllerQueries.isTableExists(this.db, "failed"));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteMigrations#migrate(SQLiteDatabase, int, int)}
+	 * .
+	 * <p/>
+	 * Ensures that a failed migration rolls back the entire upgrade when
+	 * migrating within a transaction (as the database helper does during an
+	 * upgrade).
+	 */
+	public void testMigrateFailureWithinUpgrade () {
+
+		// Replace the last migration with a migration that fails
+		this.migrations.register(3, new SqliteMigration() {
+
+			@Override
+			public void migrate (SQLiteDatabase db) {
+				throw new IllegalStateException("Failed migration");
+			}
+		});
+
+		try {
+			// Begin the upgrade transaction (as opened by the helper)
+			this.db.beginTransaction();
+
+			try {
+				this.migrations.migrate(this.db, 1, 4);
+				this.db.setTransactionSuccessful();
+				fail("Failed migration not reported");
+			}
+			finally {
+				this.db.endTransaction();
+			}
+		}
+		catch (IllegalStateException e) {
+			// Ensure the changes of the previous migrations were rolled back
+			assertFalse("Previous migration rolled back:", SqliteDataControllerQueries.isTableExists(this.db, "migrated1"));
+			assertFalse("Previous migration rolled back:", SqliteDataControllerQueries.isTableExists(this.db, "migrated2"));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteMigrations#getInstance()}
+	 * .
+	 * <p/>
+	 * Ensures that a migration is registered for each of the versions of the
+	 * database since the minimum version.
+	 */
+	public void testApplicationMigrations () {
+		assertTrue("Application migrations complete:",
+			SqliteMigrations.getInstance().canMigrate(SqliteMigrations.MINIMUM_VERSION, SqliteDataControllerConstants.DATABASE_VERSION));
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * A migration that records that it was run and creates a table named for
+	 * its version.
+	 * 
+	 * @author Justin Albano
+	 */
+	private class RecordingMigration implements SqliteMigration {
+
+		/**
+		 * The version the migration migrates from.
+		 */
+		private final int version;
+
+		/**
+		 * @param version
+		 *            The version the migration migrates from.
+		 */
+		public RecordingMigration (int version) {
+			this.version = version;
+		}
+
+		@Override
+		public void migrate (SQLiteDatabase db) {
+			db.execSQL("CREATE TABLE migrated" + this.version + " (_id INTEGER)");
+			migrated.add(this.version);
+		}
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy;
+import com.oceans7.mobile.eagleswag.persistence.QuestionConsumer;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerConstants;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionBankSynchronizer;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionBankSynchronizer}.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteQuestionBankSynchronizerTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The name of the questions table created by the test cases.
+	 */
+	private static final String TEST_TABLE = "testSyncTableRememberToRemove";
+
+	/**
+	 * The context used for the test cases.
+	 */
+	private Context context;
+
+	/**
+	 * The database under test.
+	 */
+	private SQLiteDatabase db;
+
+	/**
+	 * The questions of the question bank supplied by the parser.
+	 */
+	private List<GeneralQuestion> bank;
+
+	/**
+	 * The parser that supplies the questions of the question bank.
+	 */
+	private DataFileParserStrategy parser;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Establish the context to access the SQLite database
+		this.context = new RenamingDelegatingContext(this.getInstrumentation().getTargetContext(), "test_");
+
+		// Obtain a reference to the shared database
+		this.db = SqliteConnectionManager.getInstance().acquire(this.context);
+
+		// Create an empty test table
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, TEST_TABLE);
+		SqliteDataControllerQueries.createQuestionsTable(this.db, TEST_TABLE);
+
+		// Create the parser for the question bank
+		this.bank = new ArrayList<GeneralQuestion>();
+		this.parser = new BankParserStrategy(this.bank);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+
+		// Remove the test table and release the database
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, TEST_TABLE);
+		SqliteConnectionManager.getInstance().release(this.db);
+
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionBankSynchronizer#synchronize(SQLiteDatabase, String, DataFileParserStrategy, Class)}
+	 * .
+	 * <p/>
+	 * Ensures that new questions are inserted, changed questions are updated
+	 * and removed questions are retired, while the used counts of the existing
+	 * questions are kept.
+	 */
+	public void testSynchronize () {
+
+		// Store the original questions and use the first two
+		long unchanged = SqliteDataControllerQueries.insertIntoQuestionsTable(this.db, TEST_TABLE, new GeneralQuestion(0, "Unchanged", 10, 0, 0));
+		long changed = SqliteDataControllerQueries.insertIntoQuestionsTable(this.db, TEST_TABLE, new GeneralQuestion(0, "Changed", 5, 5, 0));
+		SqliteDataControllerQueries.insertIntoQuestionsTable(this.db, TEST_TABLE, new GeneralQuestion(0, "Removed", 1, 1, 0));
+		SqliteDataControllerQueries.incrementUsedCounts(this.db, TEST_TABLE, new long[] { unchanged, changed });
+
+		// Update the question bank
+		this.bank.add(new GeneralQuestion(0, "Unchanged", 10, 0, 0));
+		this.bank.add(new GeneralQuestion(0, "Changed", 7, 3, 0));
+		this.bank.add(new GeneralQuestion(0, "Added", 2, 0, 0));
+
+		// Synchronize the table
+		int count = SqliteQuestionBankSynchronizer.synchronize(this.db, TEST_TABLE, this.parser, GeneralQuestion.class);
+		assertEquals("Questions changed:", 3, count);
+
+		// Ensure the state of each question
+		assertRow("Unchanged", 10, 0, 1, false);
+		assertRow("Changed", 7, 3, 1, false);
+		assertRow("Removed", 1, 1, 0, true);
+		assertRow("Added", 2, 0, 0, false);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionBankSynchronizer#synchronize(SQLiteDatabase, String, DataFileParserStrategy, Class)}
+	 * .
+	 * <p/>
+	 * Ensures that an unchanged question bank does not change the table.
+	 */
+	public void testSynchronizeUnchanged () {
+
+		// Synchronize the question bank into the empty table
+		this.bank.add(new GeneralQuestion(0, "Question", 10, 0, 0));
+		assertEquals("Questions changed:", 1, SqliteQuestionBankSynchronizer.synchronize(this.db, TEST_TABLE, this.parser, GeneralQuestion.class));
+
+		// Synchronize the same question bank again
+		assertEquals("Questions changed:", 0, SqliteQuestionBankSynchronizer.synchronize(this.db, TEST_TABLE, this.parser, GeneralQuestion.class));
+		assertRow("Question", 10, 0, 0, false);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionBankSynchronizer#synchronize(SQLiteDatabase, String, DataFileParserStrategy, Class)}
+	 * .
+	 * <p/>
+	 * Ensures that a retired question is restored (with its used count) when
+	 * it is added back to the question bank.
+	 */
+	public void testSynchronizeRestoresRetired () {
+
+		// Store the question and retire it
+		long id = SqliteDataControllerQueries.insertIntoQuestionsTable(this.db, TEST_TABLE, new GeneralQuestion(0, "Restored", 10, 0, 0));
+		SqliteDataControllerQueries.incrementUsedCounts(this.db, TEST_TABLE, new long[] { id });
+		this.bank.add(new GeneralQuestion(0, "Other", 1, 0, 0));
+		SqliteQuestionBankSynchronizer.synchronize(this.db, TEST_TABLE, this.parser, GeneralQuestion.class);
+		assertRow("Restored", 10, 0, 1, true);
+
+		// Add the question back to the question bank
+		this.bank.add(new GeneralQuestion(0, "Restored", 10, 0, 0));
+		assertEquals("Questions changed:", 1, SqliteQuestionBankSynchronizer.synchronize(this.db, TEST_TABLE, this.parser, GeneralQuestion.class));
+		assertRow("Restored", 10, 0, 1, false);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionBankSynchronizer#synchronize(SQLiteDatabase, String, DataFileParserStrategy, Class)}
+	 * .
+	 * <p/>
+	 * Ensures that an empty question bank does not retire the questions.
+	 */
+	public void testSynchronizeEmptyBank () {
+
+		// Store a question and synchronize an empty question bank
+		SqliteDataControllerQueries.insertIntoQuestionsTable(this.db, TEST_TABLE, new GeneralQuestion(0, "Kept", 10, 0, 0));
+		assertEquals("Questions changed:", 0, SqliteQuestionBankSynchronizer.synchronize(this.db, TEST_TABLE, this.parser, GeneralQuestion.class));
+		assertRow("Kept", 10, 0, 0, false);
+	}
+
+	/***************************************************************************
+	 * Helper Methods
+	 **************************************************************************/
+
+	/**
+	 * Ensures the stored state of a question in the test table.
+	 * 
+	 * @param text
+	 *            The text of the question.
+	 * @param yesValue
+	 *            The expected yes point value.
+	 * @param noValue
+	 *            The expected no point value.
+	 * @param usedCount
+	 *            The expected used count.
+	 * @param retired
+	 *            True if the question is expected to be retired.
+	 */
+	private void assertRow (String text, int yesValue, int noValue, int usedCount, boolean retired) {
+
+		Cursor cursor = this.db.rawQuery("SELECT * FROM " + TEST_TABLE + " WHERE " + SqliteDataControllerConstants.QuestionsColumns.QUESTION + " = ?",
+			new String[] { text });
+
+		try {
+			assertEquals("Single row for '" + text + "':", 1, cursor.getCount());
+			cursor.moveToFirst();
+			assertEquals("Yes value of '" + text + "':", yesValue, cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.YES_VALUE.ordinal()));
+			assertEquals("No value of '" + text + "':", noValue, cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.NO_VALUE.ordinal()));
+			assertEquals("Used count of '" + text + "':", usedCount, cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.USED_COUNT.ordinal()));
+			assertEquals("Retired '" + text + "':", retired, cursor.getInt(SqliteDataControllerConstants.QuestionsColumns.RETIRED.ordinal()) != 0);
+		}
+		finally {
+			cursor.close();
+		}
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * A data file parser strategy that supplies the questions of an in-memory
+	 * question bank.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class BankParserStrategy implements DataFileParserStrategy {
+
+		/**
+		 * The questions of the question bank.
+		 */
+		private final List<GeneralQuestion> bank;
+
+		/**
+		 * @param bank
+		 *            The questions of the question bank.
+		 */
+		public BankParserStrategy (List<GeneralQuestion> bank) {
+			this.bank = bank;
+		}
+
+		@Override
+		public <T extends Question> Queue<T> getQuestions (Class<T> key) {
+
+			final Queue<T> questions = new LinkedList<T>();
+
+			this.parseQuestions(key, new QuestionConsumer<T>() {
+
+				@Override
+				public void accept (T question) {
+					questions.add(question);
+				}
+			});
+
+			return questions;
+		}
+
+		@Override
+		public <T extends Question> int parseQuestions (Class<T> key, QuestionConsumer<? super T> consumer) {
+
+			for (GeneralQuestion question : this.bank) {
+				consumer.accept(key.cast(question));
+			}
+
+			return this.bank.size();
+		}
+	}
+}
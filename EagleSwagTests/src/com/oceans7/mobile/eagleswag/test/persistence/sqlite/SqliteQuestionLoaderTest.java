@@ -0,0 +1,439 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+import android.util.Log;
+
+import com.oceans7.mobile.eagleswag.domain.Question;
+import com.oceans7.mobile.eagleswag.domain.QuestionFactories;
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.domain.questions.PilotQuestion;
+import com.oceans7.mobile.eagleswag.persistence.DataFileParserStrategy;
+import com.oceans7.mobile.eagleswag.persistence.QuestionConsumer;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.LoadingListener;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionLoader;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionLoader}.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteQuestionLoaderTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The name of the questions table created by the test cases.
+	 */
+	private static final String TEST_TABLE = "testLoaderTableRememberToRemove";
+
+	/**
+	 * The name of the second questions table created by the test cases.
+	 */
+	private static final String SECOND_TEST_TABLE = "testLoaderTable2RememberToRemove";
+
+	/**
+	 * The number of questions loaded by the throughput test case.
+	 */
+	private static final int THROUGHPUT_QUESTIONS = 5000;
+
+	/**
+	 * The context used for the test cases.
+	 */
+	private Context context;
+
+	/**
+	 * The database under test.
+	 */
+	private SQLiteDatabase db;
+
+	/**
+	 * The progress events received by the listener (each event is the total
+	 * and the current number of questions).
+	 */
+	private List<int[]> events;
+
+	/**
+	 * The listener that records the progress events.
+	 */
+	private LoadingListener listener;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Establish the context to access the SQLite database
+		this.context = new RenamingDelegatingContext(this.getInstrumentation().getTargetContext(), "test_");
+
+		// Obtain a reference to the shared database
+		this.db = SqliteConnectionManager.getInstance().acquire(this.context);
+
+		// Create an empty test table
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, TEST_TABLE);
+		SqliteDataControllerQueries.createQuestionsTable(this.db, TEST_TABLE);
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, SECOND_TEST_TABLE);
+		SqliteDataControllerQueries.createQuestionsTable(this.db, SECOND_TEST_TABLE);
+
+		// Record the progress events
+		this.events = new ArrayList<int[]>();
+		this.listener = new LoadingListener() {
+
+			@Override
+			public void update (int total, int current) {
+				events.add(new int[] { total, current });
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+
+		// Remove the test tables and release the database
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, TEST_TABLE);
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, SECOND_TEST_TABLE);
+		SqliteConnectionManager.getInstance().release(this.db);
+
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionLoader#loadPipelined(DataFileParserStrategy, Class, String, LoadingListener)}
+	 * .
+	 * <p/>
+	 * Ensures that all of the questions are inserted (using a batch size that
+	 * does not divide the number of questions) and that the final progress
+	 * event reports the total.
+	 */
+	public void testLoadPipelined () {
+
+		// Load the questions
+		SqliteQuestionLoader loader = new SqliteQuestionLoader(this.db, 10, 16);
+		int loaded = loader.loadPipelined(new GeneratingParserStrategy(123, -1), GeneralQuestion.class, TEST_TABLE, this.listener);
+
+		// Ensure the questions and the progress
+		assertEquals("Questions loaded:", 123, loaded);
+		assertEquals("Questions stored:", 123, this.countRows());
+		assertNotNull("Checksum recorded", SqliteDataControllerQueries.getQuestionBankChecksum(this.db, TEST_TABLE));
+		this.assertFinalEvent(123);
+
+		for (int i = 0; i < this.events.size() - 1; i++) {
+			// Ensure the total is unknown until the load is complete
+			assertEquals("Total of event " + i + ":", LoadingListener.UNKNOWN_TOTAL, this.events.get(i)[0]);
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionLoader#loadSequentially(DataFileParserStrategy, Class, String, LoadingListener)}
+	 * .
+	 */
+	public void testLoadSequentially () {
+
+		// Load the questions
+		SqliteQuestionLoader loader = new SqliteQuestionLoader(this.db);
+		int loaded = loader.loadSequentially(new GeneratingParserStrategy(42, -1), GeneralQuestion.class, TEST_TABLE, this.listener);
+
+		// Ensure the questions and the progress
+		assertEquals("Questions loaded:", 42, loaded);
+		assertEquals("Questions stored:", 42, this.countRows());
+		assertNotNull("Checksum recorded", SqliteDataControllerQueries.getQuestionBankChecksum(this.db, TEST_TABLE));
+		this.assertFinalEvent(42);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionLoader#loadPipelined(DataFileParserStrategy, Class, String, LoadingListener)}
+	 * .
+	 * <p/>
+	 * Ensures that the two modes record the same checksum for the same data
+	 * file.
+	 */
+	public void testLoadPipelinedChecksum () {
+
+		// Load the questions sequentially and record the checksum
+		SqliteQuestionLoader loader = new SqliteQuestionLoader(this.db, 7, 3);
+		loader.loadSequentially(new GeneratingParserStrategy(50, -1), GeneralQuestion.class, TEST_TABLE, this.listener);
+		Long sequential = SqliteDataControllerQueries.getQuestionBankChecksum(this.db, TEST_TABLE);
+
+		// Reload the questions in the pipelined mode
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, TEST_TABLE);
+		SqliteDataControllerQueries.createQuestionsTable(this.db, TEST_TABLE);
+		loader.loadPipelined(new GeneratingParserStrategy(50, -1), GeneralQuestion.class, TEST_TABLE, this.listener);
+
+		assertEquals("Checksum:", sequential, SqliteDataControllerQueries.getQuestionBankChecksum(this.db, TEST_TABLE));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionLoader#loadPipelined(DataFileParserStrategy, Class, String, LoadingListener)}
+	 * .
+	 * <p/>
+	 * Ensures that an exception thrown by the parser is thrown to the caller
+	 * and that the checksum of the incomplete data file is not recorded.
+	 */
+	public void testLoadPipelinedParserFailure () {
+
+		SqliteQuestionLoader loader = new SqliteQuestionLoader(this.db, 10, 16);
+
+		try {
+			// Load a data file that cannot be completely parsed
+			loader.loadPipelined(new GeneratingParserStrategy(100, 30), GeneralQuestion.class, TEST_TABLE, this.listener);
+			fail("Parser exception not thrown");
+		}
+		catch (IllegalStateException e) {
+			// The parser exception was thrown to the caller
+		}
+
+		assertNull("Checksum recorded", SqliteDataControllerQueries.getQuestionBankChecksum(this.db, TEST_TABLE));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionLoader#loadPipelined(DataFileParserStrategy, Map, ExecutorService, LoadingListener)}
+	 * .
+	 * <p/>
+	 * Ensures that the questions of a number of data files parsed in parallel
+	 * are inserted into their own tables and that the progress of all of the
+	 * data files is reported as a single load.
+	 */
+	public void testLoadPipelinedParallel () {
+
+		// The tables to load
+		Map<Class<? extends Question>, String> tables = new LinkedHashMap<Class<? extends Question>, String>();
+		tables.put(GeneralQuestion.class, TEST_TABLE);
+		tables.put(PilotQuestion.class, SECOND_TEST_TABLE);
+
+		// Load the questions of both data files
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		int loaded;
+
+		try {
+			SqliteQuestionLoader loader = new SqliteQuestionLoader(this.db, 10, 16);
+			loaded = loader.loadPipelined(new GeneratingParserStrategy(75, -1), tables, executor, this.listener);
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		// Ensure the questions of each data file and the combined progress
+		assertEquals("Questions loaded:", 150, loaded);
+		assertEquals("Questions stored:", 75, this.countRows(TEST_TABLE));
+		assertEquals("Questions stored:", 75, this.countRows(SECOND_TEST_TABLE));
+		assertNotNull("Checksum recorded", SqliteDataControllerQueries.getQuestionBankChecksum(this.db, TEST_TABLE));
+		assertNotNull("Checksum recorded", SqliteDataControllerQueries.getQuestionBankChecksum(this.db, SECOND_TEST_TABLE));
+		this.assertFinalEvent(150);
+
+		for (int i = 1; i < this.events.size(); i++) {
+			// Ensure the progress never decreases
+			assertTrue("Progress of event " + i, this.events.get(i)[1] >= this.events.get(i - 1)[1]);
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteQuestionLoader}
+	 * .
+	 * <p/>
+	 * Measures the throughput (questions per second) of the sequential and
+	 * pipelined modes. The throughput is logged rather than asserted, since it
+	 * depends on the device.
+	 */
+	public void testLoadThroughput () {
+
+		SqliteQuestionLoader loader = new SqliteQuestionLoader(this.db);
+
+		// Measure the sequential mode
+		long start = System.nanoTime();
+		loader.loadSequentially(new GeneratingParserStrategy(THROUGHPUT_QUESTIONS, -1), GeneralQuestion.class, TEST_TABLE, this.listener);
+		long sequential = System.nanoTime() - start;
+		assertEquals("Questions stored:", THROUGHPUT_QUESTIONS, this.countRows());
+
+		// Measure the pipelined mode
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, TEST_TABLE);
+		SqliteDataControllerQueries.createQuestionsTable(this.db, TEST_TABLE);
+		start = System.nanoTime();
+		loader.loadPipelined(new GeneratingParserStrategy(THROUGHPUT_QUESTIONS, -1), GeneralQuestion.class, TEST_TABLE, this.listener);
+		long pipelined = System.nanoTime() - start;
+		assertEquals("Questions stored:", THROUGHPUT_QUESTIONS, this.countRows());
+
+		Log.i(this.getClass().getName(), "Sequential: " + throughput(sequential) + " questions/sec, pipelined (batch size " + loader.getBatchSize()
+			+ "): " + throughput(pipelined) + " questions/sec");
+	}
+
+	/***************************************************************************
+	 * Helper Methods
+	 **************************************************************************/
+
+	/**
+	 * @return
+	 *         The number of rows in the test table.
+	 */
+	private int countRows () {
+		return this.countRows(TEST_TABLE);
+	}
+
+	/**
+	 * @param table
+	 *            The name of the table.
+	 * @return
+	 *         The number of rows in the table.
+	 */
+	private int countRows (String table) {
+
+		Cursor cursor = this.db.rawQuery("SELECT COUNT(*) FROM " + table, null);
+
+		try {
+			cursor.moveToFirst();
+			return cursor.getInt(0);
+		}
+		finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Ensures that the last progress event reports that all of the questions
+	 * have been loaded.
+	 * 
+	 * @param total
+	 *            The expected total number of questions.
+	 */
+	private void assertFinalEvent (int total) {
+
+		assertFalse("Progress reported", this.events.isEmpty());
+		int[] last = this.events.get(this.events.size() - 1);
+		assertEquals("Final total:", total, last[0]);
+		assertEquals("Final current:", total, last[1]);
+	}
+
+	/**
+	 * Calculates the throughput of a load.
+	 * 
+	 * @param nanos
+	 *            The duration of the load in nanoseconds.
+	 * @return
+	 *         The number of questions loaded per second.
+	 */
+	private static long throughput (long nanos) {
+		return THROUGHPUT_QUESTIONS * 1000000000L / Math.max(nanos, 1);
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * A data file parser strategy that generates a number of distinct
+	 * questions, optionally failing part way through.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class GeneratingParserStrategy implements DataFileParserStrategy {
+
+		/**
+		 * The number of questions to generate.
+		 */
+		private final int count;
+
+		/**
+		 * The index of the question at which the parse fails; -1 if the parse
+		 * does not fail.
+		 */
+		private final int failAt;
+
+		/**
+		 * @param count
+		 *            The number of questions to generate.
+		 * @param failAt
+		 *            The index of the question at which the parse fails; -1 if
+		 *            the parse does not fail.
+		 */
+		public GeneratingParserStrategy (int count, int failAt) {
+			this.count = count;
+			this.failAt = failAt;
+		}
+
+		@Override
+		public <T extends Question> Queue<T> getQuestions (Class<T> key) {
+
+			final Queue<T> questions = new LinkedList<T>();
+
+			this.parseQuestions(key, new QuestionConsumer<T>() {
+
+				@Override
+				public void accept (T question) {
+					questions.add(question);
+				}
+			});
+
+			return questions;
+		}
+
+		@Override
+		public <T extends Question> int parseQuestions (Class<T> key, QuestionConsumer<? super T> consumer) {
+
+			for (int i = 0; i < this.count; i++) {
+
+				if (i == this.failAt) {
+					throw new IllegalStateException("Malformed question " + i);
+				}
+
+				consumer.accept(QuestionFactories.getInstance().create(key, 0, "Question " + i, i % 10, i % 7, 0));
+			}
+
+			return this.count;
+		}
+	}
+}
@@ -0,0 +1,319 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+import android.util.Log;
+
+import com.oceans7.mobile.eagleswag.domain.Score;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteReaderPool;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteReaderPool}.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteReaderPoolTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The key used for the scores inserted by the test cases.
+	 */
+	private static final String TEST_KEY = "[testing]";
+
+	/**
+	 * The number of reads timed by the benchmark test case.
+	 */
+	private static final int BENCHMARK_READS = 200;
+
+	/**
+	 * The time (in milliseconds) each write of the benchmark test case holds
+	 * its transaction open.
+	 */
+	private static final long BENCHMARK_WRITE_TIME = 5;
+
+	/**
+	 * The time (in milliseconds) to wait for a read that should not be blocked.
+	 */
+	private static final long READ_TIMEOUT = 5000;
+
+	/**
+	 * The context used for the test cases.
+	 */
+	private Context context;
+
+	/**
+	 * The shared database.
+	 */
+	private SQLiteDatabase db;
+
+	/**
+	 * The pool under test.
+	 */
+	private SqliteReaderPool pool;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Establish the context to access the SQLite database
+		this.context = new RenamingDelegatingContext(this.getInstrumentation().getTargetContext(), "test_");
+
+		// Obtain a reference to the shared database and its pool
+		this.db = SqliteConnectionManager.getInstance().acquire(this.context);
+		this.pool = SqliteReaderPool.forDatabase(this.db);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+
+		// Remove the test scores and release the database
+		SqliteDataControllerQueries.deleteScores(this.db, TEST_KEY);
+		ScoreCache.invalidate(this.db.getPath());
+		SqliteConnectionManager.getInstance().release(this.db);
+
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteReaderPool#acquireReader()}
+	 * .
+	 * <p/>
+	 * Ensures that read-only connections are handed out (the shared database
+	 * uses write-ahead logging) and are reused once returned.
+	 */
+	public void testAcquireReader () {
+
+		assertTrue("Write-ahead logging not used:", this.pool.isWriteAheadLogging());
+
+		// Acquire as many connections as the pool holds
+		SQLiteDatabase first = this.pool.acquireReader();
+		SQLiteDatabase second = this.pool.acquireReader();
+
+		try {
+			// Ensure distinct, read-only connections were handed out
+			assertNotSame("Shared database handed out:", this.db, first);
+			assertNotSame("Shared database handed out:", this.db, second);
+			assertNotSame("Connection handed out twice:", first, second);
+			assertTrue("Connection not read-only:", first.isReadOnly());
+			assertTrue("Connection not read-only:", second.isReadOnly());
+		}
+		finally {
+			this.pool.releaseReader(second);
+			this.pool.releaseReader(first);
+		}
+
+		// Ensure a returned connection is reused
+		SQLiteDatabase reused = this.pool.acquireReader();
+		this.pool.releaseReader(reused);
+		assertTrue("Connection not reused:", reused == first || reused == second);
+		assertTrue("Too many connections opened:", this.pool.getSize() <= SqliteReaderPool.POOL_SIZE);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteReaderPool#acquireReader()}
+	 * .
+	 * <p/>
+	 * Ensures that a read through a pooled connection is not blocked by an
+	 * open write transaction, and reads the last committed state of the
+	 * database.
+	 */
+	public void testReadNotBlockedByWrite () throws Exception {
+
+		// Record the committed state of the scores
+		final long committed = SqliteDataControllerQueries.getScoreAggregate(this.db, TEST_KEY).getCount();
+
+		// Hold a write transaction open on the writer
+		final CountDownLatch inserted = new CountDownLatch(1);
+		final CountDownLatch read = new CountDownLatch(1);
+		Future<Void> write = SqliteWriter.forDatabase(this.db).submit(new SqliteWriter.Command<Void>() {
+
+			@Override
+			public Void execute (SQLiteDatabase db) {
+				SqliteDataControllerQueries.insertIntoScoreTable(db, TEST_KEY, new Score(10));
+				inserted.countDown();
+
+				try {
+					read.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				return null;
+			}
+		});
+
+		assertTrue("Write not started:", inserted.await(READ_TIMEOUT, TimeUnit.MILLISECONDS));
+
+		// Read the scores through a pooled connection on another thread
+		FutureTask<Long> count = new FutureTask<Long>(new Callable<Long>() {
+
+			@Override
+			public Long call () throws Exception {
+				SQLiteDatabase reader = pool.acquireReader();
+
+				try {
+					return SqliteDataControllerQueries.getScoreAggregate(reader, TEST_KEY).getCount();
+				}
+				finally {
+					pool.releaseReader(reader);
+				}
+			}
+		});
+		new Thread(count).start();
+
+		try {
+			// Ensure the read completes while the write is in progress
+			assertEquals("Uncommitted score read:", committed, (long) count.get(READ_TIMEOUT, TimeUnit.MILLISECONDS));
+		}
+		finally {
+			// Allow the write to commit
+			read.countDown();
+			write.get();
+		}
+	}
+
+	/**
+	 * Benchmark of the latency of score reads while score writes are in
+	 * flight. The average time taken by a read through the shared database
+	 * and through a pooled read-only connection is measured, without any
+	 * writes and while a background thread continuously submits writes that
+	 * each hold their transaction open for a short time. The times are logged
+	 * rather than asserted, since they depend on the device (and on whether
+	 * the platform itself pools connections to the shared database).
+	 */
+	public void testBenchmarkReadLatencyUnderWrites () throws Exception {
+
+		String tag = this.getClass().getName();
+
+		// Ensure the statements used by the reads are compiled
+		SqliteDataControllerQueries.insertIntoScoreTable(this.db, TEST_KEY, new Score(1));
+		long sharedIdle = this.timeReads(false);
+		long pooledIdle = this.timeReads(true);
+
+		// Continuously submit writes from a background thread
+		final SqliteWriter writer = SqliteWriter.forDatabase(this.db);
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		Thread writes = new Thread(new Runnable() {
+
+			@Override
+			public void run () {
+
+				while (writing.get()) {
+					writer.execute(new SqliteWriter.Command<Void>() {
+
+						@Override
+						public Void execute (SQLiteDatabase db) {
+							SqliteDataControllerQueries.insertIntoScoreTable(db, TEST_KEY, new Score(1));
+							SystemClock.sleep(BENCHMARK_WRITE_TIME);
+							return null;
+						}
+					});
+				}
+			}
+		});
+		writes.start();
+
+		try {
+			// Time the reads while the writes are in flight
+			long sharedBusy = this.timeReads(false);
+			long pooledBusy = this.timeReads(true);
+
+			Log.i(tag, "Average read latency (us) over " + BENCHMARK_READS + " reads: shared database " + sharedIdle + " idle, " + sharedBusy
+				+ " under writes; pooled reader " + pooledIdle + " idle, " + pooledBusy + " under writes");
+		}
+		finally {
+			writing.set(false);
+			writes.join();
+		}
+	}
+
+	/***************************************************************************
+	 * Helper Methods
+	 **************************************************************************/
+
+	/**
+	 * Times a number of score reads.
+	 * 
+	 * @param pooled
+	 *            True if the reads are made through a pooled read-only
+	 *            connection; false if the reads are made through the shared
+	 *            database.
+	 * @return
+	 *         The average time taken by a read (in microseconds).
+	 */
+	private long timeReads (boolean pooled) {
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < BENCHMARK_READS; i++) {
+			SQLiteDatabase reader = (pooled) ? this.pool.acquireReader() : this.db;
+
+			try {
+				SqliteDataControllerQueries.getScoreAggregate(reader, TEST_KEY);
+			}
+			finally {
+
+				if (pooled) {
+					this.pool.releaseReader(reader);
+				}
+			}
+		}
+
+		return (System.nanoTime() - start) / BENCHMARK_READS / 1000L;
+	}
+}
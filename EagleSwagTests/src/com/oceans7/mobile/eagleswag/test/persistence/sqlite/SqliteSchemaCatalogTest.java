@@ -0,0 +1,144 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataController;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerConstants;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteSchemaCatalog;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteSchemaCatalog}.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteSchemaCatalogTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The name of the questions table created by the test cases.
+	 */
+	private static final String TEST_TABLE = "testCatalogTableRememberToRemove";
+
+	/**
+	 * The context used for the test cases.
+	 */
+	private Context context;
+
+	/**
+	 * The database under test.
+	 */
+	private SQLiteDatabase db;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Establish the context to access the SQLite database
+		this.context = new RenamingDelegatingContext(this.getInstrumentation().getTargetContext(), "test_");
+
+		// Obtain a reference to the shared database
+		this.db = SqliteConnectionManager.getInstance().acquire(this.context);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+
+		// Remove the test table and release the database
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, TEST_TABLE);
+		SqliteConnectionManager.getInstance().release(this.db);
+
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteSchemaCatalog#forDatabase(android.database.sqlite.SQLiteDatabase)}
+	 * .
+	 * <p/>
+	 * Ensures that a new catalog is filled from the schema of the database.
+	 */
+	public void testFilledFromSchema () {
+
+		// Ensure a questions table exists
+		String table = SqliteDataController.generateTableName(GeneralQuestion.class);
+		SqliteDataControllerQueries.createQuestionsTable(this.db, table);
+
+		// Discard the catalog so that it is filled from the schema
+		SqliteSchemaCatalog.release(this.db);
+		SqliteSchemaCatalog catalog = SqliteSchemaCatalog.forDatabase(this.db);
+
+		// Ensure the questions table is in the catalog and the score tables
+		// are not
+		assertTrue("Questions table in catalog:", catalog.isQuestionsTable(table));
+		assertFalse("Scores table not in catalog:", catalog.isQuestionsTable(SqliteDataControllerConstants.SCORE_TABLE_NAME));
+		assertFalse("Unknown table not in catalog:", catalog.isQuestionsTable(TEST_TABLE));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteSchemaCatalog#isQuestionsTable(java.lang.String)}
+	 * .
+	 * <p/>
+	 * Ensures that the catalog is updated as questions tables are created and
+	 * dropped, and matches the schema of the database.
+	 */
+	public void testCreateAndDropQuestionsTable () {
+
+		// The catalog of the database
+		SqliteSchemaCatalog catalog = SqliteSchemaCatalog.forDatabase(this.db);
+
+		// Create the table and ensure the catalog was updated
+		SqliteDataControllerQueries.createQuestionsTable(this.db, TEST_TABLE);
+		assertTrue("Table in catalog:", catalog.isQuestionsTable(TEST_TABLE));
+		assertTrue("Table in schema:", SqliteDataControllerQueries.isTableExists(this.db, TEST_TABLE));
+
+		// Drop the table and ensure the catalog was updated
+		SqliteDataControllerQueries.dropQuestionsTable(this.db, TEST_TABLE);
+		assertFalse("Table not in catalog:", catalog.isQuestionsTable(TEST_TABLE));
+		assertFalse("Table not in schema:", SqliteDataControllerQueries.isTableExists(this.db, TEST_TABLE));
+	}
+}
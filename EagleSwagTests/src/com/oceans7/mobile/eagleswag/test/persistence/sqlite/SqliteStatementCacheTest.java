@@ -0,0 +1,157 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+
+import com.oceans7.mobile.eagleswag.domain.Score;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteStatementCache;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteStatementCache}.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteStatementCacheTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The key used for the scores inserted by the test cases.
+	 */
+	private static final String TEST_KEY = "[testing]";
+
+	/**
+	 * The context used for the test cases.
+	 */
+	private Context context;
+
+	/**
+	 * The database under test.
+	 */
+	private SQLiteDatabase db;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Establish the context to access the SQLite database
+		this.context = new RenamingDelegatingContext(this.getInstrumentation().getTargetContext(), "test_");
+
+		// Obtain a reference to the shared database
+		this.db = SqliteConnectionManager.getInstance().acquire(this.context);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+
+		// Remove the test scores and release the database
+		SqliteDataControllerQueries.deleteScores(this.db, TEST_KEY);
+		ScoreCache.invalidate(this.db.getPath());
+		SqliteConnectionManager.getInstance().release(this.db);
+
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteStatementCache#getStatement(java.lang.String, java.lang.String)}
+	 * .
+	 * <p/>
+	 * Ensures that a statement is compiled once and reused for each subsequent
+	 * execution.
+	 */
+	public void testStatementReused () {
+
+		// Insert a score to ensure the insert statement is compiled
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(this.db);
+		SqliteDataControllerQueries.insertIntoScoreTable(this.db, TEST_KEY, new Score(10));
+
+		// Record the state of the cache
+		int size = cache.getSize();
+		long hits = cache.getHits();
+		long misses = cache.getMisses();
+
+		// Insert a number of additional scores
+		for (int i = 0; i < 5; i++) {
+			SqliteDataControllerQueries.insertIntoScoreTable(this.db, TEST_KEY, new Score(i));
+		}
+
+		// Ensure the statement was reused
+		assertEquals("No statements compiled:", size, cache.getSize());
+		assertEquals("Each insert is a hit:", hits + 5, cache.getHits());
+		assertEquals("No misses:", misses, cache.getMisses());
+
+		// Ensure the reused statement inserted the scores
+		assertEquals("Scores inserted:", 6, SqliteDataControllerQueries.getNumberOfScores(this.db, TEST_KEY));
+		assertEquals("Total of scores:", 20, SqliteDataControllerQueries.getTotalScore(this.db, TEST_KEY));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteStatementCache#release(android.database.sqlite.SQLiteDatabase)}
+	 * .
+	 * <p/>
+	 * Ensures that releasing the cache of a database closes its statements and
+	 * that the statements are compiled again when next used.
+	 */
+	public void testReleaseClearsCache () {
+
+		// Compile the statements used for a score
+		SqliteDataControllerQueries.insertIntoScoreTable(this.db, TEST_KEY, new Score(10));
+		SqliteDataControllerQueries.getTotalScore(this.db, TEST_KEY);
+		assertTrue("Statements compiled:", SqliteStatementCache.forDatabase(this.db).getSize() >= 2);
+
+		// Release the cache and ensure a new cache is created
+		SqliteStatementCache.release(this.db);
+		SqliteStatementCache cache = SqliteStatementCache.forDatabase(this.db);
+		assertEquals("Cache is empty:", 0, cache.getSize());
+
+		// Ensure the statement is compiled again
+		SqliteDataControllerQueries.insertIntoScoreTable(this.db, TEST_KEY, new Score(5));
+		assertEquals("Statement recompiled:", 1, cache.getSize());
+		assertEquals("Recompilation is a miss:", 1, cache.getMisses());
+		assertEquals("Total of scores:", 15, SqliteDataControllerQueries.getTotalScore(this.db, TEST_KEY));
+	}
+}
@@ -0,0 +1,371 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.persistence.sqlite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+
+import com.oceans7.mobile.eagleswag.domain.Score;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.ScoreCache;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteConnectionManager;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteDataControllerQueries;
+import com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter;
+
+/**
+ * Test cases for
+ * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter}.
+ * 
+ * @author Justin Albano
+ */
+public class SqliteWriterTest extends InstrumentationTestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The key used for the scores inserted by the test cases.
+	 */
+	private static final String TEST_KEY = "[testing]";
+
+	/**
+	 * The number of threads submitting writes at the same time.
+	 */
+	private static final int THREADS = 4;
+
+	/**
+	 * The number of writes submitted by each thread.
+	 */
+	private static final int WRITES_PER_THREAD = 25;
+
+	/**
+	 * The context used for the test cases.
+	 */
+	private Context context;
+
+	/**
+	 * The database under test.
+	 */
+	private SQLiteDatabase db;
+
+	/**
+	 * The writer under test.
+	 */
+	private SqliteWriter writer;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Establish the context to access the SQLite database
+		this.context = new RenamingDelegatingContext(this.getInstrumentation().getTargetContext(), "test_");
+
+		// Obtain a reference to the shared database and its writer
+		this.db = SqliteConnectionManager.getInstance().acquire(this.context);
+		this.writer = SqliteWriter.forDatabase(this.db);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+
+		// Remove the test scores and release the database
+		SqliteDataControllerQueries.deleteScores(this.db, TEST_KEY);
+		ScoreCache.invalidate(this.db.getPath());
+		SqliteConnectionManager.getInstance().release(this.db);
+
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter#submit(com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter.Command)}
+	 * .
+	 * <p/>
+	 * Ensures that the writes submitted by a number of threads at the same
+	 * time are all committed, and are grouped into fewer transactions than
+	 * writes.
+	 */
+	public void testSubmitCoalesced () throws Exception {
+
+		// Block the writer until all of the writes have been submitted
+		final CountDownLatch submitted = new CountDownLatch(THREADS);
+		Future<Void> blocker = this.writer.submit(new SqliteWriter.Command<Void>() {
+
+			@Override
+			public Void execute (SQLiteDatabase db) {
+
+				try {
+					submitted.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				return null;
+			}
+		});
+
+		// Record the state of the writer
+		long batches = this.writer.getBatchCount();
+		long commands = this.writer.getCommandCount();
+
+		// Submit the writes from a number of threads
+		final List<Future<Long>> results = new ArrayList<Future<Long>>();
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int i = 0; i < THREADS; i++) {
+			Thread thread = new Thread(new Runnable() {
+
+				@Override
+				public void run () {
+
+					for (int j = 0; j < WRITES_PER_THREAD; j++) {
+						Future<Long> result = writer.submit(new InsertScoreCommand(j));
+
+						synchronized (results) {
+							results.add(result);
+						}
+					}
+
+					submitted.countDown();
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// Wait for all of the writes to be committed
+		blocker.get();
+
+		for (Future<Long> result : results) {
+			assertTrue("Score not inserted:", result.get() > 0);
+		}
+
+		// Ensure all of the writes were committed in fewer transactions
+		int writes = THREADS * WRITES_PER_THREAD;
+		assertEquals("Scores not saved:", writes, SqliteDataControllerQueries.getScoreAggregate(this.db, TEST_KEY).getCount());
+		assertTrue("Commands not executed:", this.writer.getCommandCount() - commands >= writes);
+		assertTrue("Writes not coalesced:", this.writer.getBatchCount() - batches < writes);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter#submit(com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter.Command)}
+	 * .
+	 * <p/>
+	 * Ensures that a failing write does not prevent the other writes of its
+	 * transaction from being committed.
+	 */
+	public void testSubmitFailureIsolated () throws Exception {
+
+		// Block the writer so that the writes share a transaction
+		final CountDownLatch submitted = new CountDownLatch(1);
+		this.writer.submit(new SqliteWriter.Command<Void>() {
+
+			@Override
+			public Void execute (SQLiteDatabase db) {
+
+				try {
+					submitted.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				return null;
+			}
+		});
+
+		// Submit a failing write between two successful writes
+		Future<Long> first = this.writer.submit(new InsertScoreCommand(1));
+		Future<Long> failing = this.writer.submit(new SqliteWriter.Command<Long>() {
+
+			@Override
+			public Long execute (SQLiteDatabase db) {
+				SqliteDataControllerQueries.insertIntoScoreTable(db, TEST_KEY, new Score(100));
+				throw new IllegalStateException("Failing write");
+			}
+		});
+		Future<Long> last = this.writer.submit(new InsertScoreCommand(2));
+		submitted.countDown();
+
+		// Ensure the successful writes were committed
+		assertTrue("First score not inserted:", first.get() > 0);
+		assertTrue("Last score not inserted:", last.get() > 0);
+
+		try {
+			// Ensure the failing write failed
+			failing.get();
+			fail("Failing write committed");
+		}
+		catch (ExecutionException e) {
+			assertTrue("Unexpected failure:", e.getCause() instanceof IllegalStateException);
+		}
+
+		// Ensure the changes of the failing write were rolled back
+		assertEquals("Scores not saved:", 2, SqliteDataControllerQueries.getScoreAggregate(this.db, TEST_KEY).getCount());
+		assertEquals("Failing score saved:", 3, SqliteDataControllerQueries.getScoreAggregate(this.db, TEST_KEY).getSum());
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter#execute(com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter.Command)}
+	 * .
+	 */
+	public void testExecute () {
+
+		// Execute a write and ensure its result is returned once committed
+		long id = this.writer.execute(new InsertScoreCommand(5));
+		assertTrue("Score not inserted:", id > 0);
+		assertEquals("Score not saved:", 5, SqliteDataControllerQueries.getScoreAggregate(this.db, TEST_KEY).getSum());
+
+		try {
+			// Ensure the failure of a write is rethrown
+			this.writer.execute(new SqliteWriter.Command<Void>() {
+
+				@Override
+				public Void execute (SQLiteDatabase db) {
+					throw new IllegalStateException("Failing write");
+				}
+			});
+			fail("Failure not rethrown");
+		}
+		catch (IllegalStateException e) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter#execute(com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter.Command)}
+	 * .
+	 * <p/>
+	 * Ensures that an error thrown by a write fails the write without stopping
+	 * the writer thread.
+	 */
+	public void testExecuteError () {
+
+		try {
+			// Ensure the error of a write is rethrown (wrapped)
+			this.writer.execute(new SqliteWriter.Command<Void>() {
+
+				@Override
+				public Void execute (SQLiteDatabase db) {
+					throw new AssertionError("Failing write");
+				}
+			});
+			fail("Error not rethrown");
+		}
+		catch (RuntimeException e) {
+			assertTrue("Unexpected failure:", e.getCause() instanceof AssertionError);
+		}
+
+		// Ensure the writer still executes writes
+		assertTrue("Score not inserted:", this.writer.execute(new InsertScoreCommand(5)) > 0);
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter#flush(long)}
+	 * .
+	 */
+	public void testFlush () throws Exception {
+
+		// Submit several writes without waiting
+		List<Future<Long>> writes = new ArrayList<Future<Long>>();
+
+		for (int i = 1; i <= 5; i++) {
+			writes.add(this.writer.submit(new InsertScoreCommand(i)));
+		}
+
+		// Ensure all of the writes are committed once the writer is flushed
+		assertTrue("Flushed", this.writer.flush(10000));
+
+		for (Future<Long> write : writes) {
+			assertTrue("Write committed", write.isDone());
+		}
+
+		assertEquals("Scores not saved:", 15, SqliteDataControllerQueries.getScoreAggregate(this.db, TEST_KEY).getSum());
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * A write that inserts a test score.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class InsertScoreCommand extends SqliteWriter.Command<Long> {
+
+		/**
+		 * The score to insert.
+		 */
+		private final int score;
+
+		/**
+		 * Creates a write that inserts a test score.
+		 * 
+		 * @param score
+		 *            The score to insert.
+		 */
+		public InsertScoreCommand (int score) {
+			this.score = score;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see com.oceans7.mobile.eagleswag.persistence.sqlite.SqliteWriter.Command#execute(android.database.sqlite.SQLiteDatabase)
+		 */
+		@Override
+		public Long execute (SQLiteDatabase db) {
+			return SqliteDataControllerQueries.insertIntoScoreTable(db, TEST_KEY, new Score(this.score));
+		}
+	}
+}
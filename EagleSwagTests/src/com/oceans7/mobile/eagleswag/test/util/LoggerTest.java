@@ -0,0 +1,180 @@
+/*
+ * EagleSwag Android Mobile Application
+ * Copyright (C) 2013 Oceans7
+ * Oceans7 Mobile Applications Development Team
+ * 
+ * This software is free and governed by the terms of the GNU General Public
+ * License as published by the Free Software Foundation. This software may be
+ * redistributed and/or modified in accordance with version 3, or any later
+ * version, of the GNU General Public License.
+ * 
+ * This software is distributed without any warranty; without even the implied
+ * warranty of merchantability or fitness for a particular purpose. For further
+ * detail, refer to the GNU General Public License, which can be found in the
+ * LICENSE.txt file at the root directory of this project, or online at:
+ * 
+ * <http://www.gnu.org/licenses/>
+ */
+
+package com.oceans7.mobile.eagleswag.test.util;
+
+import junit.framework.TestCase;
+import android.util.Log;
+
+import com.oceans7.mobile.eagleswag.domain.questions.GeneralQuestion;
+import com.oceans7.mobile.eagleswag.util.Logger;
+
+/**
+ * Test cases for {@link com.oceans7.mobile.eagleswag.util.Logger}.
+ * 
+ * @author Justin Albano
+ */
+public class LoggerTest extends TestCase {
+
+	/***************************************************************************
+	 * Attributes
+	 **************************************************************************/
+
+	/**
+	 * The number of messages logged by the benchmark test case.
+	 */
+	private static final int BENCHMARK_MESSAGES = 20000;
+
+	/**
+	 * The level of the logger before each test case.
+	 */
+	private int level;
+
+	/***************************************************************************
+	 * Setup & Tear Down
+	 **************************************************************************/
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp () throws Exception {
+		super.setUp();
+
+		// Store the level of the logger
+		this.level = Logger.getLevel();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown () throws Exception {
+
+		// Restore the level of the logger
+		Logger.setLevel(this.level);
+
+		super.tearDown();
+	}
+
+	/***************************************************************************
+	 * Test Cases
+	 **************************************************************************/
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.util.Logger#format(String, Object...)}
+	 * .
+	 */
+	public void testFormat () {
+		assertEquals("Single argument:", "Created table 'T'", Logger.format("Created table '{}'", "T"));
+		assertEquals("Multiple arguments:", "1 of 2 [3]", Logger.format("{} of {} [{}]", 1, 2, 3));
+		assertEquals("Null argument:", "Value: null", Logger.format("Value: {}", (Object) null));
+		assertEquals("Missing argument:", "1 and {}", Logger.format("{} and {}", 1));
+		assertEquals("Extra argument:", "Only 1", Logger.format("Only {}", 1, 2));
+		assertEquals("No placeholder:", "Plain", Logger.format("Plain", 1));
+	}
+
+	/**
+	 * Test method for
+	 * {@link com.oceans7.mobile.eagleswag.util.Logger#i(String, String, Object)}
+	 * .
+	 * <p/>
+	 * Ensures that the arguments of a disabled message are not converted to
+	 * strings, while the arguments of an enabled message are.
+	 */
+	public void testDisabledMessageNotFormatted () {
+
+		CountingArgument argument = new CountingArgument();
+
+		// Log the message with info messages disabled
+		Logger.setLevel(Logger.WARN);
+		assertFalse("Info enabled", Logger.isLoggable(Logger.INFO));
+		Logger.i(this.getClass().getName(), "Argument: {}", argument);
+		Logger.d(this.getClass().getName(), "Arguments: {} {} {} {}", argument, argument, argument, argument);
+		assertEquals("Conversions while disabled:", 0, argument.conversions);
+
+		// Log the message with info messages enabled
+		Logger.setLevel(Log.VERBOSE);
+		Logger.i(this.getClass().getName(), "Argument: {}", argument);
+		assertEquals("Conversions while enabled:", 1, argument.conversions);
+	}
+
+	/**
+	 * Benchmark of the logging of a question insertion (as logged while the
+	 * questions are loaded). The time taken to build and log the message
+	 * eagerly (using {@link android.util.Log} and string concatenation) is
+	 * compared with the time taken by the logger with info messages disabled,
+	 * as in a release build. The times are logged rather than asserted, since
+	 * they depend on the device.
+	 */
+	public void testBenchmarkDisabledLogging () {
+
+		GeneralQuestion question = new GeneralQuestion(1, "Benchmark question", 10, 0, 0);
+		String tag = this.getClass().getName();
+		String table = "GeneralQuestions";
+
+		// Eagerly build and log each message
+		long start = System.nanoTime();
+
+		for (int i = 0; i < BENCHMARK_MESSAGES; i++) {
+			Log.i(tag, "Inserted " + question + " into '" + table + "'");
+		}
+
+		long eager = System.nanoTime() - start;
+
+		// Log each message with info messages disabled
+		Logger.setLevel(Logger.WARN);
+		start = System.nanoTime();
+
+		for (int i = 0; i < BENCHMARK_MESSAGES; i++) {
+			Logger.i(tag, "Inserted {} into '{}'", question, table);
+		}
+
+		long disabled = System.nanoTime() - start;
+
+		Logger.setLevel(this.level);
+		Log.i(tag, "Logged " + BENCHMARK_MESSAGES + " messages: eager " + (eager / 1000000L) + " ms, disabled logger " + (disabled / 1000000L) + " ms");
+	}
+
+	/***************************************************************************
+	 * Nested Classes
+	 **************************************************************************/
+
+	/**
+	 * Message argument that counts the number of times it is converted to a
+	 * string.
+	 * 
+	 * @author Justin Albano
+	 */
+	private static class CountingArgument {
+
+		/**
+		 * The number of times the argument has been converted to a string.
+		 */
+		private int conversions;
+
+		@Override
+		public String toString () {
+			this.conversions++;
+			return "argument";
+		}
+	}
+}